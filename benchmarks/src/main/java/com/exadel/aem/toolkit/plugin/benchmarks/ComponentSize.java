@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.benchmarks;
+
+import com.exadel.aem.toolkit.plugin.benchmarks.cases.LargeComponent;
+import com.exadel.aem.toolkit.plugin.benchmarks.cases.MediumComponent;
+import com.exadel.aem.toolkit.plugin.benchmarks.cases.SmallComponent;
+
+/**
+ * Enumerates the synthetic AEM components used as the input of benchmarks. Benchmarks accept the name of a constant as
+ * a JMH parameter
+ */
+public enum ComponentSize {
+    SMALL(SmallComponent.class),
+    MEDIUM(MediumComponent.class),
+    LARGE(LargeComponent.class);
+
+    private final Class<?> componentClass;
+
+    /**
+     * Creates a new {@code ComponentSize} constant
+     * @param componentClass {@code Class} reference representing the component
+     */
+    ComponentSize(Class<?> componentClass) {
+        this.componentClass = componentClass;
+    }
+
+    /**
+     * Retrieves the class of the component
+     * @return {@code Class} reference
+     */
+    public Class<?> getComponentClass() {
+        return componentClass;
+    }
+}
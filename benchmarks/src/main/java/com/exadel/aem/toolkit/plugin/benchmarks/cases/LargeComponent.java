@@ -0,0 +1,294 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exadel.aem.toolkit.plugin.benchmarks.cases;
+
+import com.exadel.aem.toolkit.api.annotations.layouts.Place;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tab;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tabs;
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.api.annotations.main.ClassMember;
+import com.exadel.aem.toolkit.api.annotations.main.CommonProperty;
+import com.exadel.aem.toolkit.api.annotations.main.Dialog;
+import com.exadel.aem.toolkit.api.annotations.main.Setting;
+import com.exadel.aem.toolkit.api.annotations.main.WriteMode;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.annotations.widgets.Checkbox;
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.api.annotations.widgets.FieldSet;
+import com.exadel.aem.toolkit.api.annotations.widgets.MultiField;
+import com.exadel.aem.toolkit.api.annotations.widgets.NumberField;
+import com.exadel.aem.toolkit.api.annotations.widgets.PathField;
+import com.exadel.aem.toolkit.api.annotations.widgets.TextField;
+import com.exadel.aem.toolkit.api.annotations.widgets.rte.RichTextEditor;
+import com.exadel.aem.toolkit.api.annotations.widgets.rte.RteFeatures;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Option;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Select;
+
+/**
+ * A component with four tabs, scripted labels, a rich text editor, a fieldset, and a multifield. It also declares a
+ * common property, so that its dialog is rendered via a DOM document
+ */
+@AemComponent(
+    path = "large",
+    title = "Large Component",
+    writeMode = WriteMode.CREATE
+)
+@Dialog
+@Tabs({
+    @Tab(title = "Main"),
+    @Tab(title = "Appearance"),
+    @Tab(title = "Behavior"),
+    @Tab(title = "Advanced")
+})
+@Setting(name = "prefix", value = "Large")
+@CommonProperty(name = "sling:resourceType", value = "cq/gui/components/authoring/dialog", scope = Scopes.CQ_DIALOG)
+@SuppressWarnings("unused")
+public class LargeComponent {
+
+    private static final int NUMBER_MAX = 100;
+    private static final int NUMBER_STEP = 5;
+
+    @DialogField(label = "${@prefix || 'Field'} field0", description = "Description of field0")
+    @TextField(emptyText = "Enter field0")
+    @Place("Main")
+    private String field0;
+
+    @DialogField(label = "Field field1", description = "Description of field1")
+    @Checkbox(text = "Enable field1")
+    @Place("Main")
+    private boolean field1;
+
+    @DialogField(label = "Field field2", description = "Description of field2")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Main")
+    private String field2;
+
+    @DialogField(label = "${@prefix || 'Field'} field3", description = "Description of field3")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Main")
+    private int field3;
+
+    @DialogField(label = "Field field4", description = "Description of field4")
+    @PathField(rootPath = "/content/dam")
+    @Place(value = "Main", before = @ClassMember("field1"))
+    private String field4;
+
+    @DialogField(label = "Field field5", description = "Description of field5")
+    @TextField(emptyText = "Enter field5")
+    @Place("Main")
+    private String field5;
+
+    @DialogField(label = "${@prefix || 'Field'} field6", description = "Description of field6")
+    @Checkbox(text = "Enable field6")
+    @Place("Main")
+    private boolean field6;
+
+    @DialogField(label = "Field field7", description = "Description of field7")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Main")
+    private String field7;
+
+    @DialogField(label = "Field field8", description = "Description of field8")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Main")
+    private int field8;
+
+    @DialogField(label = "${@prefix || 'Field'} field9", description = "Description of field9")
+    @PathField(rootPath = "/content/dam")
+    @Place("Appearance")
+    private String field9;
+
+    @DialogField(label = "Field field10", description = "Description of field10")
+    @TextField(emptyText = "Enter field10")
+    @Place("Appearance")
+    private String field10;
+
+    @DialogField(label = "Field field11", description = "Description of field11")
+    @Checkbox(text = "Enable field11")
+    @Place("Appearance")
+    private boolean field11;
+
+    @DialogField(label = "${@prefix || 'Field'} field12", description = "Description of field12")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Appearance")
+    private String field12;
+
+    @DialogField(label = "Field field13", description = "Description of field13")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place(value = "Appearance", before = @ClassMember("field10"))
+    private int field13;
+
+    @DialogField(label = "Field field14", description = "Description of field14")
+    @PathField(rootPath = "/content/dam")
+    @Place("Appearance")
+    private String field14;
+
+    @DialogField(label = "${@prefix || 'Field'} field15", description = "Description of field15")
+    @TextField(emptyText = "Enter field15")
+    @Place("Appearance")
+    private String field15;
+
+    @DialogField(label = "Field field16", description = "Description of field16")
+    @Checkbox(text = "Enable field16")
+    @Place("Appearance")
+    private boolean field16;
+
+    @DialogField(label = "Field field17", description = "Description of field17")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Appearance")
+    private String field17;
+
+    @DialogField(label = "${@prefix || 'Field'} field18", description = "Description of field18")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Behavior")
+    private int field18;
+
+    @DialogField(label = "Field field19", description = "Description of field19")
+    @PathField(rootPath = "/content/dam")
+    @Place("Behavior")
+    private String field19;
+
+    @DialogField(label = "Field field20", description = "Description of field20")
+    @TextField(emptyText = "Enter field20")
+    @Place("Behavior")
+    private String field20;
+
+    @DialogField(label = "${@prefix || 'Field'} field21", description = "Description of field21")
+    @Checkbox(text = "Enable field21")
+    @Place("Behavior")
+    private boolean field21;
+
+    @DialogField(label = "Field field22", description = "Description of field22")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place(value = "Behavior", before = @ClassMember("field19"))
+    private String field22;
+
+    @DialogField(label = "Field field23", description = "Description of field23")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Behavior")
+    private int field23;
+
+    @DialogField(label = "${@prefix || 'Field'} field24", description = "Description of field24")
+    @PathField(rootPath = "/content/dam")
+    @Place("Behavior")
+    private String field24;
+
+    @DialogField(label = "Field field25", description = "Description of field25")
+    @TextField(emptyText = "Enter field25")
+    @Place("Behavior")
+    private String field25;
+
+    @DialogField(label = "Field field26", description = "Description of field26")
+    @Checkbox(text = "Enable field26")
+    @Place("Behavior")
+    private boolean field26;
+
+    @DialogField(label = "${@prefix || 'Field'} field27", description = "Description of field27")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Advanced")
+    private String field27;
+
+    @DialogField(label = "Field field28", description = "Description of field28")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Advanced")
+    private int field28;
+
+    @DialogField(label = "Field field29", description = "Description of field29")
+    @PathField(rootPath = "/content/dam")
+    @Place("Advanced")
+    private String field29;
+
+    @DialogField(label = "${@prefix || 'Field'} field30", description = "Description of field30")
+    @TextField(emptyText = "Enter field30")
+    @Place("Advanced")
+    private String field30;
+
+    @DialogField(label = "Field field31", description = "Description of field31")
+    @Checkbox(text = "Enable field31")
+    @Place(value = "Advanced", before = @ClassMember("field28"))
+    private boolean field31;
+
+    @DialogField(label = "Field field32", description = "Description of field32")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Advanced")
+    private String field32;
+
+    @DialogField(label = "${@prefix || 'Field'} field33", description = "Description of field33")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Advanced")
+    private int field33;
+
+    @DialogField(label = "Field field34", description = "Description of field34")
+    @PathField(rootPath = "/content/dam")
+    @Place("Advanced")
+    private String field34;
+
+    @DialogField(label = "Field field35", description = "Description of field35")
+    @TextField(emptyText = "Enter field35")
+    @Place("Advanced")
+    private String field35;
+
+    @DialogField(label = "${@prefix} Text")
+    @RichTextEditor(
+        features = {
+            RteFeatures.Popovers.CONTROL_ALL,
+            RteFeatures.UNDO_UNDO,
+            RteFeatures.UNDO_REDO,
+            RteFeatures.SEPARATOR,
+            RteFeatures.Popovers.EDIT_ALL,
+            RteFeatures.Popovers.FINDREPLACE_ALL
+        }
+    )
+    @Place("Main")
+    private String text;
+
+    @DialogField(label = "Details")
+    @FieldSet
+    @Place("Advanced")
+    private SampleFieldset details;
+
+    @DialogField(label = "Entries")
+    @MultiField(SampleFieldset.class)
+    @Place("Advanced")
+    private String entries;
+}
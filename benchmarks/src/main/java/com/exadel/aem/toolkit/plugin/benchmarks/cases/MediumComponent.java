@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exadel.aem.toolkit.plugin.benchmarks.cases;
+
+import com.exadel.aem.toolkit.api.annotations.layouts.Place;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tab;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tabs;
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.api.annotations.main.ClassMember;
+import com.exadel.aem.toolkit.api.annotations.main.Dialog;
+import com.exadel.aem.toolkit.api.annotations.main.WriteMode;
+import com.exadel.aem.toolkit.api.annotations.widgets.Checkbox;
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.api.annotations.widgets.FieldSet;
+import com.exadel.aem.toolkit.api.annotations.widgets.NumberField;
+import com.exadel.aem.toolkit.api.annotations.widgets.PathField;
+import com.exadel.aem.toolkit.api.annotations.widgets.TextField;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Option;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Select;
+
+/**
+ * A component with two tabs, explicitly ordered fields, and a fieldset
+ */
+@AemComponent(
+    path = "medium",
+    title = "Medium Component",
+    writeMode = WriteMode.CREATE
+)
+@Dialog
+@Tabs({
+    @Tab(title = "First tab"),
+    @Tab(title = "Second tab")
+})
+@SuppressWarnings("unused")
+public class MediumComponent {
+
+    private static final int NUMBER_MAX = 100;
+    private static final int NUMBER_STEP = 5;
+
+    @DialogField(label = "Field field0", description = "Description of field0")
+    @TextField(emptyText = "Enter field0")
+    @Place("First tab")
+    private String field0;
+
+    @DialogField(label = "Field field1", description = "Description of field1")
+    @Checkbox(text = "Enable field1")
+    @Place("First tab")
+    private boolean field1;
+
+    @DialogField(label = "Field field2", description = "Description of field2")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("First tab")
+    private String field2;
+
+    @DialogField(label = "Field field3", description = "Description of field3")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place(value = "First tab", before = @ClassMember("field1"))
+    private int field3;
+
+    @DialogField(label = "Field field4", description = "Description of field4")
+    @PathField(rootPath = "/content/dam")
+    @Place("First tab")
+    private String field4;
+
+    @DialogField(label = "Field field5", description = "Description of field5")
+    @TextField(emptyText = "Enter field5")
+    @Place("First tab")
+    private String field5;
+
+    @DialogField(label = "Field field6", description = "Description of field6")
+    @Checkbox(text = "Enable field6")
+    @Place("Second tab")
+    private boolean field6;
+
+    @DialogField(label = "Field field7", description = "Description of field7")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    @Place("Second tab")
+    private String field7;
+
+    @DialogField(label = "Field field8", description = "Description of field8")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    @Place("Second tab")
+    private int field8;
+
+    @DialogField(label = "Field field9", description = "Description of field9")
+    @PathField(rootPath = "/content/dam")
+    @Place(value = "Second tab", after = @ClassMember("field11"))
+    private String field9;
+
+    @DialogField(label = "Field field10", description = "Description of field10")
+    @TextField(emptyText = "Enter field10")
+    @Place("Second tab")
+    private String field10;
+
+    @DialogField(label = "Field field11", description = "Description of field11")
+    @Checkbox(text = "Enable field11")
+    @Place("Second tab")
+    private boolean field11;
+
+    @DialogField(label = "Details")
+    @FieldSet
+    @Place("Second tab")
+    private SampleFieldset details;
+}
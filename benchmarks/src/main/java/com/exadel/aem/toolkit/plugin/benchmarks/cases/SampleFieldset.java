@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exadel.aem.toolkit.plugin.benchmarks.cases;
+
+import com.exadel.aem.toolkit.api.annotations.widgets.Checkbox;
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.api.annotations.widgets.NumberField;
+import com.exadel.aem.toolkit.api.annotations.widgets.TextField;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Option;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Select;
+
+/**
+ * A reusable set of fields rendered within the fieldsets and multifields of the sample components
+ */
+
+@SuppressWarnings("unused")
+public class SampleFieldset {
+
+    private static final int NUMBER_MAX = 100;
+    private static final int NUMBER_STEP = 5;
+
+    @DialogField(label = "Field item0", description = "Description of item0")
+    @TextField(emptyText = "Enter item0")
+    private String item0;
+
+    @DialogField(label = "Field item1", description = "Description of item1")
+    @Checkbox(text = "Enable item1")
+    private boolean item1;
+
+    @DialogField(label = "Field item2", description = "Description of item2")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    private String item2;
+
+    @DialogField(label = "Field item3", description = "Description of item3")
+    @NumberField(min = 0, max = NUMBER_MAX, step = NUMBER_STEP)
+    private int item3;
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exadel.aem.toolkit.plugin.benchmarks.cases;
+
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.api.annotations.main.Dialog;
+import com.exadel.aem.toolkit.api.annotations.main.WriteMode;
+import com.exadel.aem.toolkit.api.annotations.widgets.Checkbox;
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.api.annotations.widgets.TextField;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Option;
+import com.exadel.aem.toolkit.api.annotations.widgets.select.Select;
+
+/**
+ * A component with a few plain fields and no layout
+ */
+@AemComponent(
+    path = "small",
+    title = "Small Component",
+    writeMode = WriteMode.CREATE
+)
+@Dialog
+@SuppressWarnings("unused")
+public class SmallComponent {
+
+    @DialogField(label = "Field field0", description = "Description of field0")
+    @TextField(emptyText = "Enter field0")
+    private String field0;
+
+    @DialogField(label = "Field field1", description = "Description of field1")
+    @Checkbox(text = "Enable field1")
+    private boolean field1;
+
+    @DialogField(label = "Field field2", description = "Description of field2")
+    @Select(options = {
+        @Option(text = "First", value = "1"),
+        @Option(text = "Second", value = "2"),
+        @Option(text = "Third", value = "3")
+    })
+    private String field2;
+}
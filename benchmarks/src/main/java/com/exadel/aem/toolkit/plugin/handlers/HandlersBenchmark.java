@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.handlers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.api.handlers.Target;
+import com.exadel.aem.toolkit.plugin.benchmarks.ComponentSize;
+import com.exadel.aem.toolkit.plugin.handlers.placement.registries.MembersRegistry;
+import com.exadel.aem.toolkit.plugin.maven.BenchmarkContext;
+import com.exadel.aem.toolkit.plugin.targets.RootTarget;
+import com.exadel.aem.toolkit.plugin.targets.Targets;
+import com.exadel.aem.toolkit.plugin.utils.ClassUtil;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+
+/**
+ * Measures the chain of handlers that renders the members of a component into dialog fields
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HandlersBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private ComponentSize size;
+
+    private List<Source> members;
+
+    /**
+     * Initializes the plugin runtime context and collects the members of the component class
+     */
+    @Setup
+    public void setUp() {
+        BenchmarkContext.initialize();
+        members = ClassUtil.getSources(size.getComponentClass());
+    }
+
+    /**
+     * Disposes of the plugin runtime context created for the benchmark
+     */
+    @TearDown
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    /**
+     * Runs the handlers of every member of the component class against a new dialog root
+     * @return {@code Target} instance representing the dialog root
+     */
+    @Benchmark
+    public Target forMember() {
+        Target root = Targets.newRoot(Scopes.CQ_DIALOG);
+        root.adaptTo(RootTarget.class).setMembers(new MembersRegistry(members));
+        Target items = root.getOrCreateTarget(DialogConstants.NN_ITEMS);
+        for (Source member : members) {
+            Handlers.forMember().accept(member, items.getOrCreateTarget(member.getName()));
+        }
+        return root;
+    }
+}
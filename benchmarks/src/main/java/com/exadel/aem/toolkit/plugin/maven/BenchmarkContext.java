@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.plugin.benchmarks.ComponentSize;
+
+/**
+ * Initializes the {@link PluginRuntime} for the current benchmark thread. The runtime scans the classes of the plugin,
+ * the ToolKit API, and the benchmark module, so that the synthetic components are rendered the same way as the
+ * components of a real project
+ */
+public class BenchmarkContext {
+
+    public static final String PATH_BASE = "jcr_root/apps/benchmarks/components";
+
+    /**
+     * Default (instantiation-restricting) constructor
+     */
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Initializes a new {@link PluginRuntime} context for the current thread
+     */
+    public static void initialize() {
+        PluginSettings settings = PluginSettings
+            .builder()
+            .defaultPathBase(PATH_BASE)
+            .build();
+        PluginRuntime.contextBuilder()
+            .classPathElements(getClasspathElements())
+            .settings(settings)
+            .build();
+    }
+
+    /**
+     * Disposes of the {@link PluginRuntime} context of the current thread
+     */
+    public static void close() {
+        PluginRuntime.close();
+    }
+
+    /**
+     * Retrieves the classpath elements that contain the plugin, the Toolkit API, and the benchmark cases
+     * @return List of strings representing paths to the classpath elements
+     */
+    private static List<String> getClasspathElements() {
+        return Arrays.asList(PluginRuntime.class, AemComponent.class, ComponentSize.class)
+            .stream()
+            .map(BenchmarkContext::getLocation)
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the path to the classpath element the given class is loaded from
+     * @param type {@code Class} reference
+     * @return String value
+     */
+    private static String getLocation(Class<?> type) {
+        try {
+            return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
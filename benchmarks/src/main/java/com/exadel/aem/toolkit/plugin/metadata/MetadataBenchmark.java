@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.metadata;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.plugin.benchmarks.ComponentSize;
+import com.exadel.aem.toolkit.plugin.maven.BenchmarkContext;
+
+/**
+ * Measures the creation of {@link Metadata} proxies over the annotations of a component's fields and the access to
+ * the properties of the proxies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetadataBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private ComponentSize size;
+
+    private final List<Annotation> annotations = new ArrayList<>();
+    private final List<Metadata> proxies = new ArrayList<>();
+
+    /**
+     * Initializes the plugin runtime context, collects the annotations of the component's fields, and creates the
+     * metadata proxies that are read by the benchmark methods
+     */
+    @Setup
+    public void setUp() {
+        BenchmarkContext.initialize();
+        for (Field field : size.getComponentClass().getDeclaredFields()) {
+            for (Annotation annotation : field.getDeclaredAnnotations()) {
+                annotations.add(annotation);
+                proxies.add(Metadata.from(annotation));
+            }
+        }
+    }
+
+    /**
+     * Disposes of the plugin runtime context created for the benchmark
+     */
+    @TearDown
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    /**
+     * Creates metadata proxies for the annotations of the component's fields
+     * @param blackhole {@code Blackhole} instance that consumes the proxies
+     */
+    @Benchmark
+    public void createProxies(Blackhole blackhole) {
+        for (Annotation annotation : annotations) {
+            blackhole.consume(Metadata.from(annotation));
+        }
+    }
+
+    /**
+     * Iterates over the properties of the metadata proxies and reads their values
+     * @param blackhole {@code Blackhole} instance that consumes the values
+     */
+    @Benchmark
+    public void readProperties(Blackhole blackhole) {
+        for (Metadata proxy : proxies) {
+            for (Property property : proxy) {
+                blackhole.consume(property.getValue());
+            }
+        }
+    }
+
+    /**
+     * Invokes the methods of the annotation interface via the metadata proxies
+     * @param blackhole {@code Blackhole} instance that consumes the values returned
+     */
+    @Benchmark
+    public void invokeMethods(Blackhole blackhole) {
+        for (Metadata proxy : proxies) {
+            if (proxy instanceof DialogField) {
+                DialogField dialogField = (DialogField) proxy;
+                blackhole.consume(dialogField.label());
+                blackhole.consume(dialogField.description());
+                blackhole.consume(dialogField.ranking());
+            }
+        }
+    }
+}
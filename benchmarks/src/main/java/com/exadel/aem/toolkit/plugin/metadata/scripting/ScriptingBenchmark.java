@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.metadata.scripting;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.plugin.benchmarks.ComponentSize;
+import com.exadel.aem.toolkit.plugin.maven.BenchmarkContext;
+import com.exadel.aem.toolkit.plugin.metadata.Metadata;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+
+/**
+ * Measures the interpolation of inline scripting templates in the annotations of a component's fields. Since the
+ * interpolation modifies the provided {@link Metadata}, a fresh proxy is created for every annotation; compare with
+ * {@code MetadataBenchmark.createProxies} to tell the cost of the interpolation itself
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScriptingBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private ComponentSize size;
+
+    private final List<Annotation> annotations = new ArrayList<>();
+    private final List<Source> sources = new ArrayList<>();
+
+    /**
+     * Initializes the plugin runtime context and collects the annotations of the component's fields together with the
+     * sources they belong to
+     */
+    @Setup
+    public void setUp() {
+        BenchmarkContext.initialize();
+        for (Field field : size.getComponentClass().getDeclaredFields()) {
+            Source source = Sources.fromMember(field);
+            for (Annotation annotation : field.getDeclaredAnnotations()) {
+                annotations.add(annotation);
+                sources.add(source);
+            }
+        }
+    }
+
+    /**
+     * Disposes of the plugin runtime context created for the benchmark
+     */
+    @TearDown
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    /**
+     * Interpolates the scripting templates in the annotations of the component's fields
+     * @param blackhole {@code Blackhole} instance that consumes the interpolated metadata
+     */
+    @Benchmark
+    public void interpolate(Blackhole blackhole) {
+        for (int i = 0; i < annotations.size(); i++) {
+            Metadata metadata = Metadata.from(annotations.get(i));
+            ScriptingHelper.interpolate(metadata, sources.get(i));
+            blackhole.consume(metadata);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.utils.ordering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.plugin.benchmarks.ComponentSize;
+import com.exadel.aem.toolkit.plugin.maven.BenchmarkContext;
+import com.exadel.aem.toolkit.plugin.utils.ClassUtil;
+
+/**
+ * Measures the ordering of a component's members that respects rankings and the {@code before}/{@code after} hints
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderingBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private ComponentSize size;
+
+    private List<Source> members;
+
+    /**
+     * Initializes the plugin runtime context and collects the members of the component class in their declaration
+     * order
+     */
+    @Setup
+    public void setUp() {
+        BenchmarkContext.initialize();
+        members = ClassUtil.getSources(size.getComponentClass(), null, null, false);
+    }
+
+    /**
+     * Disposes of the plugin runtime context created for the benchmark
+     */
+    @TearDown
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    /**
+     * Sorts the members of the component class according to their ranking and placement anchors
+     * @return List of {@link Source} objects, ordered
+     */
+    @Benchmark
+    public List<Source> sortMembers() {
+        return OrderingUtil.sortMembers(new ArrayList<>(members));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.plugin.benchmarks.ComponentSize;
+import com.exadel.aem.toolkit.plugin.maven.BenchmarkContext;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.utils.XmlFactory;
+
+/**
+ * Measures the rendering of package entries. The {@code renderDialog} benchmark covers building the {@code Target}
+ * tree of a dialog and its serialization. The large component declares a common property, so its dialog is rendered
+ * via a DOM document, as in {@code PackageEntryWriter#createDocument}. The {@code write} benchmark stores the
+ * whole component into an in-memory package
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WritersBenchmark {
+
+    private static final String PROJECT_NAME = "benchmarks";
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private ComponentSize size;
+
+    private ComponentSource component;
+    private PackageEntryWriter dialogWriter;
+    private Transformer transformer;
+    private FileSystem fileSystem;
+    private PackageWriter packageWriter;
+
+    /**
+     * Initializes the plugin runtime context, the writers, and the in-memory file system the package is written to
+     * @throws TransformerConfigurationException if the XML transformer cannot be created
+     * @throws IOException                       if the package folder cannot be created
+     */
+    @Setup
+    public void setUp() throws TransformerConfigurationException, IOException {
+        BenchmarkContext.initialize();
+        component = Sources.fromComponentClass(size.getComponentClass());
+        transformer = XmlFactory.newDocumentTransformer();
+        dialogWriter = new CqDialogWriter(transformer, Scopes.CQ_DIALOG);
+        fileSystem = Jimfs.newFileSystem(Configuration.unix());
+        Files.createDirectories(fileSystem.getPath(BenchmarkContext.PATH_BASE));
+        packageWriter = PackageWriter.forFileSystem(fileSystem, PROJECT_NAME);
+    }
+
+    /**
+     * Closes the package writer and disposes of the plugin runtime context
+     */
+    @TearDown
+    public void tearDown() {
+        packageWriter.close();
+        BenchmarkContext.close();
+    }
+
+    /**
+     * Renders the markup of the component's dialog without storing it
+     * @return String value representing the markup
+     */
+    @Benchmark
+    public String renderDialog() {
+        return dialogWriter.render(component, transformer);
+    }
+
+    /**
+     * Renders the component and stores its files in the package
+     * @return The number of components stored
+     */
+    @Benchmark
+    public int write() {
+        return packageWriter.write(Collections.singletonList(component));
+    }
+}
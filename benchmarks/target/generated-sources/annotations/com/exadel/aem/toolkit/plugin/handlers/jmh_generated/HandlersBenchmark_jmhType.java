@@ -0,0 +1,4 @@
+package com.exadel.aem.toolkit.plugin.handlers.jmh_generated;
+public class HandlersBenchmark_jmhType extends HandlersBenchmark_jmhType_B3 {
+}
+
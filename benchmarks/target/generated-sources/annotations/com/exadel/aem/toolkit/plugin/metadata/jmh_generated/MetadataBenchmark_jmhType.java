@@ -0,0 +1,4 @@
+package com.exadel.aem.toolkit.plugin.metadata.jmh_generated;
+public class MetadataBenchmark_jmhType extends MetadataBenchmark_jmhType_B3 {
+}
+
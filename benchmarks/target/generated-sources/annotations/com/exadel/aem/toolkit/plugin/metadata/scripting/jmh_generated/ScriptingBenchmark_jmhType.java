@@ -0,0 +1,4 @@
+package com.exadel.aem.toolkit.plugin.metadata.scripting.jmh_generated;
+public class ScriptingBenchmark_jmhType extends ScriptingBenchmark_jmhType_B3 {
+}
+
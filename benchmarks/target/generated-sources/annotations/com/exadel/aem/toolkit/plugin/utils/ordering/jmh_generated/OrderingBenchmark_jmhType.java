@@ -0,0 +1,4 @@
+package com.exadel.aem.toolkit.plugin.utils.ordering.jmh_generated;
+public class OrderingBenchmark_jmhType extends OrderingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.exadel.aem.toolkit.plugin.writers.jmh_generated;
+public class WritersBenchmark_jmhType extends WritersBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,263 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.core.processing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+
+/**
+ * Implements an annotation processor that stores the names of Toolkit-related classes of a compilation unit, such as
+ * components, handlers and validators, in an index file under {@code META-INF}. The index is read by the Toolkit's
+ * Maven plugin so that the classpath elements that contain it do not need to be scanned
+ * <p>The processor is discovered by the Java compiler automatically when the current artifact is on the compilation
+ * classpath. It only runs when enabled with the {@code -Aetoolbox.index=true} compiler option and when the compiled
+ * sources contain component or handler annotations. It does not claim any annotations and does not affect the compiled
+ * code. Together with the Toolkit-related classes, the index lists all the top-level classes that have been compiled,
+ * so that the plugin can tell an index that is out of date and scan the classpath element instead</p>
+ * <p><u>Note</u>: This class is not a part of the public API and is subject to change. Do not use it in your own
+ * code</p>
+ */
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_PATH = "META-INF/etoolbox-authoring-kit/index.properties";
+
+    public static final String OPTION_ENABLED = "etoolbox.index";
+
+    public static final String KEY_CLASSES = "classes";
+    public static final String KEY_COMPONENTS = "components";
+    public static final String KEY_HANDLERS = "handlers";
+    public static final String KEY_VALIDATORS = "validators";
+
+    private static final String AEM_COMPONENT = CoreConstants.ROOT_PACKAGE + ".api.annotations.main.AemComponent";
+    private static final String DIALOG = CoreConstants.ROOT_PACKAGE + ".api.annotations.main.Dialog";
+    private static final String HANDLES = CoreConstants.ROOT_PACKAGE + ".api.handlers.Handles";
+    private static final String HANDLES_WIDGETS = CoreConstants.ROOT_PACKAGE + ".api.handlers.HandlesWidgets";
+    private static final String HANDLER = CoreConstants.ROOT_PACKAGE + ".api.handlers.Handler";
+    private static final String VALIDATOR = CoreConstants.ROOT_PACKAGE + ".api.annotations.meta.Validator";
+
+    private static final String NESTED_CLASS_SEPARATOR = "$";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String COULD_NOT_WRITE_EXCEPTION_MESSAGE = "Could not write the Toolkit component index: ";
+
+    private final Map<String, Set<String>> entries = new LinkedHashMap<>();
+
+    /**
+     * Default constructor
+     */
+    public ComponentIndexProcessor() {
+        for (String key : Arrays.asList(KEY_CLASSES, KEY_COMPONENTS, KEY_HANDLERS, KEY_VALIDATORS)) {
+            entries.put(key, new TreeSet<>());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(AEM_COMPONENT, DIALOG, HANDLES, HANDLES_WIDGETS));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_ENABLED);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Collects the names of Toolkit-related classes in the current round and stores the index file when the processing
+     * is over
+     * @param annotations Set of annotation types requested to be processed
+     * @param roundEnv    {@code RoundEnvironment} instance
+     * @return False, so that the annotations are not claimed by this processor
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_ENABLED))) {
+            return false;
+        }
+        if (roundEnv.processingOver()) {
+            store();
+        } else {
+            ElementFilter.typesIn(roundEnv.getRootElements()).forEach(type -> {
+                entries.get(KEY_CLASSES).add(processingEnv.getElementUtils().getBinaryName(type).toString());
+                collect(type);
+            });
+        }
+        return false;
+    }
+
+    /**
+     * Gets whether the type of the given binary name is available to the current compilation
+     * @param name Binary name of the type
+     * @return True or false
+     */
+    private boolean isExistingType(String name) {
+        return processingEnv.getElementUtils().getTypeElement(name.replace(NESTED_CLASS_SEPARATOR, CoreConstants.SEPARATOR_DOT)) != null;
+    }
+
+    /**
+     * Parses the content of an index file
+     * @param reader {@code BufferedReader} that provides the content
+     * @return Map of class names grouped by category
+     * @throws IOException if the content cannot be read
+     */
+    public static Map<String, Set<String>> parse(BufferedReader reader) throws IOException {
+        Map<String, Set<String>> result = new LinkedHashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int separatorPosition = line.indexOf(CoreConstants.EQUALITY_SIGN);
+            if (separatorPosition <= 0) {
+                continue;
+            }
+            Set<String> names = result.computeIfAbsent(line.substring(0, separatorPosition).trim(), key -> new TreeSet<>());
+            for (String name : line.substring(separatorPosition + 1).split(CoreConstants.SEPARATOR_COMMA)) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the names of the given type and its nested types in the index if they represent components, handlers or
+     * validators
+     * @param type {@code TypeElement} instance
+     */
+    private void collect(TypeElement type) {
+        String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (isAnnotated(type, AEM_COMPONENT) || isAnnotated(type, DIALOG)) {
+            entries.get(KEY_COMPONENTS).add(name);
+        }
+        if (type.getKind() == ElementKind.CLASS && isSubtype(type, HANDLER)) {
+            entries.get(KEY_HANDLERS).add(name);
+        }
+        if (type.getKind() == ElementKind.CLASS && isSubtype(type, VALIDATOR)) {
+            entries.get(KEY_VALIDATORS).add(name);
+        }
+        ElementFilter.typesIn(type.getEnclosedElements()).forEach(this::collect);
+    }
+
+    /**
+     * Gets whether the given type is directly annotated with the annotation of the specified name
+     * @param type           {@code TypeElement} instance
+     * @param annotationName Fully qualified name of the annotation
+     * @return True or false
+     */
+    private static boolean isAnnotated(TypeElement type, String annotationName) {
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets whether the given type is a subtype of the type of the specified name
+     * @param type           {@code TypeElement} instance
+     * @param supertypeName  Fully qualified name of the supertype
+     * @return True or false
+     */
+    private boolean isSubtype(TypeElement type, String supertypeName) {
+        TypeElement supertype = processingEnv.getElementUtils().getTypeElement(supertypeName);
+        if (supertype == null) {
+            return false;
+        }
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(supertype.asType());
+        return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()), erasure);
+    }
+
+    /**
+     * Writes the collected class names to the index file. The entries of a previously stored index that still refer to
+     * existing classes are retained, so that the index stays complete when only a part of the sources is recompiled.
+     * An index is stored even if it is empty to signify that the classpath element does not need scanning
+     */
+    private void store() {
+        mergeStoredEntries();
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+            try (Writer writer = file.openWriter()) {
+                for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+                    writer
+                        .append(entry.getKey())
+                        .append(CoreConstants.EQUALITY_SIGN)
+                        .append(String.join(CoreConstants.SEPARATOR_COMMA, entry.getValue()))
+                        .append(LINE_SEPARATOR);
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, COULD_NOT_WRITE_EXCEPTION_MESSAGE + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the index file stored by a previous compilation, if any, and merges its entries into the current
+     * collection
+     */
+    private void mergeStoredEntries() {
+        Map<String, Set<String>> storedEntries = new LinkedHashMap<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+            try (Reader reader = file.openReader(true); BufferedReader bufferedReader = new BufferedReader(reader)) {
+                storedEntries = parse(bufferedReader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No index has been stored before
+        }
+        storedEntries.forEach((key, names) -> {
+            if (!entries.containsKey(key)) {
+                return;
+            }
+            names
+                .stream()
+                .filter(this::isExistingType)
+                .forEach(entries.get(key)::add);
+        });
+    }
+}
@@ -40,6 +40,7 @@ import com.exadel.aem.toolkit.core.optionprovider.services.impl.resolvers.Option
 import com.exadel.aem.toolkit.core.optionprovider.services.impl.resolvers.OptionProviderInlineOptionsTest;
 import com.exadel.aem.toolkit.core.optionprovider.services.impl.resolvers.OptionProviderTest;
 import com.exadel.aem.toolkit.core.policymanagement.filters.TopLevelPolicyFilterTest;
+import com.exadel.aem.toolkit.core.processing.ComponentIndexProcessorTest;
 
 /**
  * Shortcut class for running all available test cases in a batch
@@ -73,7 +74,9 @@ import com.exadel.aem.toolkit.core.policymanagement.filters.TopLevelPolicyFilter
     OptionProviderConstantsTest.class,
     OptionProviderInlineOptionsTest.class,
 
-    TopLevelPolicyFilterTest.class
+    TopLevelPolicyFilterTest.class,
+
+    ComponentIndexProcessorTest.class
 })
 public class AllTests {
 }
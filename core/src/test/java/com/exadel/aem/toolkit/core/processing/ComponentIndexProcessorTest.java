@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.core.processing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+
+public class ComponentIndexProcessorTest {
+
+    private static final String OPTION_ENABLED = "-A" + ComponentIndexProcessor.OPTION_ENABLED + "=true";
+
+    private static final String COMPONENT = "package sample;\n"
+        + "@com.exadel.aem.toolkit.api.annotations.main.AemComponent(path = \"sample\", title = \"Sample\")\n"
+        + "public class Component {\n"
+        + "    @com.exadel.aem.toolkit.api.annotations.main.Dialog\n"
+        + "    public static class NestedDialog {}\n"
+        + "}";
+    private static final String OTHER_COMPONENT = "package sample;\n"
+        + "@com.exadel.aem.toolkit.api.annotations.main.Dialog\n"
+        + "public class OtherComponent {}";
+    private static final String HANDLER = "package sample;\n"
+        + "@com.exadel.aem.toolkit.api.handlers.Handles(com.exadel.aem.toolkit.api.annotations.main.Dialog.class)\n"
+        + "public abstract class CustomHandler implements com.exadel.aem.toolkit.api.handlers.Handler {}";
+    private static final String VALIDATOR = "package sample;\n"
+        + "public abstract class CustomValidator implements com.exadel.aem.toolkit.api.annotations.meta.Validator {}";
+    private static final String PLAIN_CLASS = "package sample;\n"
+        + "public class Helper {}";
+
+    @Rule
+    public TemporaryFolder outputFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldIndexToolkitClasses() throws IOException, URISyntaxException {
+        Assert.assertTrue(compile(Arrays.asList(COMPONENT, HANDLER, VALIDATOR, PLAIN_CLASS), OPTION_ENABLED));
+
+        Map<String, Set<String>> index = readIndex();
+        Assert.assertEquals(
+            set("sample.Component", "sample.CustomHandler", "sample.CustomValidator", "sample.Helper"),
+            index.get(ComponentIndexProcessor.KEY_CLASSES));
+        Assert.assertEquals(
+            set("sample.Component", "sample.Component$NestedDialog"),
+            index.get(ComponentIndexProcessor.KEY_COMPONENTS));
+        Assert.assertEquals(set("sample.CustomHandler"), index.get(ComponentIndexProcessor.KEY_HANDLERS));
+        Assert.assertEquals(set("sample.CustomValidator"), index.get(ComponentIndexProcessor.KEY_VALIDATORS));
+    }
+
+    @Test
+    public void shouldNotIndexUnlessEnabled() throws IOException, URISyntaxException {
+        Assert.assertTrue(compile(Arrays.asList(COMPONENT, VALIDATOR), null));
+        Assert.assertFalse(Files.exists(getIndexPath()));
+    }
+
+    @Test
+    public void shouldNotIndexSourcesWithoutComponents() throws IOException, URISyntaxException {
+        // The processor only runs when the sources contain the annotations it supports
+        Assert.assertTrue(compile(Arrays.asList(VALIDATOR, PLAIN_CLASS), OPTION_ENABLED));
+        Assert.assertFalse(Files.exists(getIndexPath()));
+    }
+
+    @Test
+    public void shouldRetainEntriesOfExistingClasses() throws IOException, URISyntaxException {
+        Assert.assertTrue(compile(Arrays.asList(COMPONENT, VALIDATOR, PLAIN_CLASS), OPTION_ENABLED));
+        Files.delete(outputFolder.getRoot().toPath().resolve("sample/Helper.class"));
+
+        // Only a part of the sources is compiled again. The entries of the classes that still exist are retained
+        Assert.assertTrue(compile(Collections.singletonList(OTHER_COMPONENT), OPTION_ENABLED));
+        Map<String, Set<String>> index = readIndex();
+        Assert.assertEquals(
+            set("sample.Component", "sample.CustomValidator", "sample.OtherComponent"),
+            index.get(ComponentIndexProcessor.KEY_CLASSES));
+        Assert.assertEquals(
+            set("sample.Component", "sample.Component$NestedDialog", "sample.OtherComponent"),
+            index.get(ComponentIndexProcessor.KEY_COMPONENTS));
+        Assert.assertEquals(set("sample.CustomValidator"), index.get(ComponentIndexProcessor.KEY_VALIDATORS));
+    }
+
+    @Test
+    public void shouldParseIndex() throws IOException {
+        String content = "components=sample.B, sample.A,\nmalformed\n=sample.C\nhandlers=\n";
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            Map<String, Set<String>> index = ComponentIndexProcessor.parse(reader);
+            Assert.assertEquals(Arrays.asList("components", "handlers"), new ArrayList<>(index.keySet()));
+            Assert.assertEquals(set("sample.A", "sample.B"), index.get(ComponentIndexProcessor.KEY_COMPONENTS));
+            Assert.assertTrue(index.get(ComponentIndexProcessor.KEY_HANDLERS).isEmpty());
+        }
+    }
+
+    private boolean compile(List<String> sources, String option) throws URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String classPath = Paths.get(AemComponent.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+            + File.pathSeparator
+            + outputFolder.getRoot().getAbsolutePath();
+        List<String> options = new ArrayList<>(Arrays.asList("-d", outputFolder.getRoot().getAbsolutePath(), "-classpath", classPath));
+        if (option != null) {
+            options.add(option);
+        }
+        List<JavaFileObject> units = new ArrayList<>();
+        for (String source : sources) {
+            units.add(new SourceObject(source));
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, units);
+        task.setProcessors(Collections.singletonList(new ComponentIndexProcessor()));
+        return task.call();
+    }
+
+    private Path getIndexPath() {
+        return outputFolder.getRoot().toPath().resolve(ComponentIndexProcessor.INDEX_PATH);
+    }
+
+    private Map<String, Set<String>> readIndex() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(getIndexPath(), StandardCharsets.UTF_8)) {
+            return ComponentIndexProcessor.parse(reader);
+        }
+    }
+
+    private static Set<String> set(String... values) {
+        return new TreeSet<>(Arrays.asList(values));
+    }
+
+    private static class SourceObject extends SimpleJavaFileObject {
+        private final String content;
+
+        SourceObject(String content) {
+            super(URI.create("string:///sample/" + getClassName(content) + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+
+        private static String getClassName(String content) {
+            String declaration = content.substring(content.indexOf(" class ") + " class ".length());
+            return declaration.substring(0, declaration.indexOf(' '));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.adapters;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.Maps;
+
+import com.exadel.aem.toolkit.api.handlers.Adapts;
+import com.exadel.aem.toolkit.api.handlers.Target;
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.utils.NamingUtil;
+import com.exadel.aem.toolkit.plugin.utils.XmlFactory;
+
+/**
+ * Adapts a {@link Target} instance to serialize it directly into a character stream as an XML document. The output is
+ * the same as that of rendering the {@code Target} into a DOM {@code Document} with {@link DomAdapter} and serializing
+ * the document with the default {@code Transformer}, but no intermediate DOM structure is created
+ */
+@Adapts(Target.class)
+public class XmlStreamAdapter {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+
+    private static final char LAST_CONTROL_CHARACTER = 0x1F;
+
+    private final Target target;
+
+    /**
+     * Constructor per {@link Adapts} contract
+     * @param target {@code Target} object that will be used as a source of data for rendering
+     */
+    public XmlStreamAdapter(Target target) {
+        this.target = target;
+    }
+
+    /**
+     * Writes the XML document representing the {@code Target} passed upon class initialization to the given writer
+     * @param writer {@code Writer} instance
+     * @throws IOException if writing fails
+     */
+    public void writeDocument(Writer writer) throws IOException {
+        writer.write(XML_DECLARATION);
+        if (target != null) {
+            writeElement(writer, target, Collections.emptyMap());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the XML element representing the {@code Target} passed upon class initialization as it appears within a
+     * document, i.e., without the XML declaration and without the namespace declarations made by the document element
+     * @param writer {@code Writer} instance
+     * @throws IOException if writing fails
+     */
+    public void writeElement(Writer writer) throws IOException {
+        if (target == null) {
+            return;
+        }
+        Map<String, String> namespaces = new HashMap<>();
+        XmlFactory.XML_NAMESPACES.forEach((key, value) -> namespaces.put(XmlFactory.XML_NAMESPACE_PREFIX + key, value));
+        writeElement(writer, target, namespaces);
+        writer.flush();
+    }
+
+    /**
+     * Writes an XML element representing the given {@code Target} and its children. The declaration of the element's
+     * own namespace goes first, then other namespace declarations, and then the rest of attributes. Attributes of each
+     * kind are sorted by name. Namespace declarations that repeat those of an ancestor element are skipped. This
+     * matches the way a DOM document is serialized
+     * @param writer     {@code Writer} instance
+     * @param target     {@code Target} instance holding the data for rendering
+     * @param namespaces Map of namespace declarations made by ancestor elements. An empty map signifies that the
+     *                   document element is written
+     * @throws IOException if writing fails
+     */
+    private static void writeElement(Writer writer, Target target, Map<String, String> namespaces) throws IOException {
+        String name = NamingUtil.getValidNodeName(target.getName());
+        Map<String, String> ownNamespaces = new TreeMap<>();
+        Map<String, String> attributes = new TreeMap<>();
+        for (Map.Entry<String, String> entry : target.getAttributes().entrySet()) {
+            (entry.getKey().startsWith(XmlFactory.XML_NAMESPACE_PREFIX) ? ownNamespaces : attributes)
+                .put(entry.getKey(), entry.getValue());
+        }
+        if (namespaces.isEmpty()) {
+            XmlFactory.XML_NAMESPACES.forEach((key, value) -> ownNamespaces.put(XmlFactory.XML_NAMESPACE_PREFIX + key, value));
+        }
+        ownNamespaces.entrySet().removeIf(entry -> StringUtils.equals(namespaces.get(entry.getKey()), entry.getValue()));
+
+        writer.write('<');
+        writer.write(name);
+        String elementNamespace = XmlFactory.XML_NAMESPACE_PREFIX + StringUtils.substringBefore(name, CoreConstants.SEPARATOR_COLON);
+        if (name.contains(CoreConstants.SEPARATOR_COLON) && ownNamespaces.containsKey(elementNamespace)) {
+            writeAttributes(writer, Collections.singletonMap(elementNamespace, ownNamespaces.get(elementNamespace)));
+            writeAttributes(writer, Maps.filterKeys(ownNamespaces, key -> !elementNamespace.equals(key)));
+        } else {
+            writeAttributes(writer, ownNamespaces);
+        }
+        writeAttributes(writer, attributes);
+        if (target.getChildren().isEmpty()) {
+            writer.write("/>");
+            return;
+        }
+        writer.write('>');
+        Map<String, String> childNamespaces = namespaces;
+        if (!ownNamespaces.isEmpty()) {
+            childNamespaces = new HashMap<>(namespaces);
+            childNamespaces.putAll(ownNamespaces);
+        }
+        for (Target child : target.getChildren()) {
+            writeElement(writer, child, childNamespaces);
+        }
+        writer.write("</");
+        writer.write(name);
+        writer.write('>');
+    }
+
+    /**
+     * Writes the given attributes of an XML element
+     * @param writer     {@code Writer} instance
+     * @param attributes Map of attribute names and values
+     * @throws IOException if writing fails
+     */
+    private static void writeAttributes(Writer writer, Map<String, String> attributes) throws IOException {
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            writer.write(' ');
+            writer.write(attribute.getKey());
+            writer.write("=\"");
+            writeEscaped(writer, attribute.getValue());
+            writer.write('"');
+        }
+    }
+
+    /**
+     * Writes the value of an XML attribute escaping the markup characters, the control characters, and the characters
+     * outside the Basic Multilingual Plane
+     * @param writer {@code Writer} instance
+     * @param value  String value
+     * @throws IOException if writing fails
+     */
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    if (c <= LAST_CONTROL_CHARACTER) {
+                        writer.write("&#" + (int) c + ";");
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        writer.write("&#" + value.codePointAt(i) + ";");
+                        i++;
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+}
@@ -41,6 +41,8 @@ import com.exadel.aem.toolkit.plugin.handlers.widgets.common.InheritanceHandler;
 import com.exadel.aem.toolkit.plugin.handlers.widgets.common.MultipleAnnotationHandler;
 import com.exadel.aem.toolkit.plugin.handlers.widgets.common.PropertyAnnotationHandler;
 import com.exadel.aem.toolkit.plugin.handlers.widgets.common.ResourceTypeHandler;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 
 /**
  * Serves as the source for handler chains used to process user-specified data and prepare structures that are further
@@ -93,9 +95,9 @@ public class Handlers {
         .andThen(DEPENDS_ON_HANDLER)
         .andThen(PROPERTY_ANNOTATION_HANDLER)
         .andThen(MULTIPLE_HANDLER);
-    private static final BiConsumer<Source, Target> MEMBER_INHERITANCE_HANDLER_CHAIN =
-        new InheritanceHandler(MEMBER_HANDLER_CHAIN)
-            .andThen(MEMBER_HANDLER_CHAIN);
+    private static final BiConsumer<Source, Target> MEMBER_INHERITANCE_HANDLER_CHAIN = profiled(
+        "member",
+        new InheritanceHandler(MEMBER_HANDLER_CHAIN).andThen(MEMBER_HANDLER_CHAIN));
 
     // EditConfig handlers
     private static final BiConsumer<Source, Target> EDIT_CONFIG_DROP_TARGETS_HANDLER = new DropTargetsHandler();
@@ -104,11 +106,12 @@ public class Handlers {
     private static final BiConsumer<Source, Target> EDIT_CONFIG_LISTENERS_HANDLER = new ListenersHandler();
 
     // Complete editConfig chain
-    private static final BiConsumer<Source, Target> EDIT_CONFIG_HANDLER_CHAIN =
+    private static final BiConsumer<Source, Target> EDIT_CONFIG_HANDLER_CHAIN = profiled(
+        "editConfig",
         EDIT_CONFIG_DROP_TARGETS_HANDLER
-        .andThen(EDIT_CONFIG_FORM_PARAMS_HANDLER)
-        .andThen(EDIT_CONFIG_INPLACE_HANDLER)
-        .andThen(EDIT_CONFIG_LISTENERS_HANDLER);
+            .andThen(EDIT_CONFIG_FORM_PARAMS_HANDLER)
+            .andThen(EDIT_CONFIG_INPLACE_HANDLER)
+            .andThen(EDIT_CONFIG_LISTENERS_HANDLER));
 
     private static final BiConsumer<Source, Target> NOOP_HANDLER = (source, target) -> {};
 
@@ -126,10 +129,12 @@ public class Handlers {
      */
     public static BiConsumer<Source, Target> forScope(String scope) {
         BiConsumer<Source, Target> uiHandler = UI_HANDLERS.getOrDefault(scope, NOOP_HANDLER);
-        return PROPERTY_MAPPING_HANDLER
-            .andThen(DATA_ANNOTATIONS_HANDLER)
-            .andThen(uiHandler)
-            .andThen(CASUAL_ANNOTATIONS_HANDLER);
+        return profiled(
+            scope,
+            PROPERTY_MAPPING_HANDLER
+                .andThen(DATA_ANNOTATIONS_HANDLER)
+                .andThen(uiHandler)
+                .andThen(CASUAL_ANNOTATIONS_HANDLER));
     }
 
     /**
@@ -147,4 +152,20 @@ public class Handlers {
     public static BiConsumer<Source, Target> forEditConfig() {
         return EDIT_CONFIG_HANDLER_CHAIN;
     }
+
+    /**
+     * Wraps a handler conveyor so that its invocations are measured when build profiling is enabled
+     * @param name  Name of the conveyor as it appears in the profiling report
+     * @param chain {@code BiConsumer<Source, Target>} instance representing the conveyor
+     * @return {@code BiConsumer<Source, Target>} instance
+     */
+    private static BiConsumer<Source, Target> profiled(String name, BiConsumer<Source, Target> chain) {
+        return (source, target) -> {
+            try (ProfilingContextHelper.Measurement ignored = PluginRuntime.context()
+                .getProfiling()
+                .start(ProfilingContextHelper.Category.HANDLER_CHAINS, name)) {
+                chain.accept(source, target);
+            }
+        };
+    }
 }
@@ -35,6 +35,7 @@ import com.exadel.aem.toolkit.api.handlers.Source;
 import com.exadel.aem.toolkit.api.handlers.Target;
 import com.exadel.aem.toolkit.plugin.adapters.DomAdapter;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.targets.LegacyHandlerAcceptor;
 import com.exadel.aem.toolkit.plugin.utils.ordering.OrderingUtil;
 
@@ -77,7 +78,11 @@ public class CasualAnnotationsHandler implements BiConsumer<Source, Target> {
         Collection<Handler> modernHandlers = CollectionUtils.subtract(handlers, legacyHandlers);
 
         // Process modern handlers
-        OrderingUtil.sortHandlers(new ArrayList<>(modernHandlers)).forEach(handler -> handler.accept(source, target));
+        OrderingUtil.sortHandlers(new ArrayList<>(modernHandlers)).forEach(handler -> {
+            try (ProfilingContextHelper.Measurement ignored = startMeasurement(handler)) {
+                handler.accept(source, target);
+            }
+        });
 
         // Process legacy handlers after modern ones (because they must trigger after built-in modern handlers worked)
         if (!legacyHandlers.isEmpty()) {
@@ -86,7 +91,11 @@ public class CasualAnnotationsHandler implements BiConsumer<Source, Target> {
                 .adaptTo(DomAdapter.class)
                 .composeElement(PluginRuntime.context().getXmlUtility().getDocument());
             if (element != null) {
-                legacyHandlers.forEach(handler -> ((DialogWidgetHandler) handler).accept(element, field));
+                legacyHandlers.forEach(handler -> {
+                    try (ProfilingContextHelper.Measurement ignored = startMeasurement(handler)) {
+                        ((DialogWidgetHandler) handler).accept(element, field);
+                    }
+                });
                 target.adaptTo(LegacyHandlerAcceptor.class).attributes(element);
             }
         }
@@ -142,6 +151,17 @@ public class CasualAnnotationsHandler implements BiConsumer<Source, Target> {
             .map(DialogWidgetHandler.class::cast);
     }
 
+    /**
+     * Starts measuring the invocation of the given handler when build profiling is enabled
+     * @param handler The {@code Handler} to be invoked
+     * @return {@link ProfilingContextHelper.Measurement} object
+     */
+    private static ProfilingContextHelper.Measurement startMeasurement(Handler handler) {
+        return PluginRuntime.context()
+            .getProfiling()
+            .start(ProfilingContextHelper.Category.HANDLERS, handler.getClass().getName());
+    }
+
     /**
      * Gets whether the given handler is a legacy handler, that is, implements the {@code accept} method that takes the
      * {@link Element}-typed and {@link Field}-typed argument
@@ -60,6 +60,21 @@ public class DomHandler {
 
     }
 
+    /**
+     * Gets whether the processing of the given {@code Source} within the specified scope requires a DOM {@code Document}
+     * to be created. If not, the markup can be rendered without this handler being invoked
+     * @param source {@code Source} object used for data retrieval
+     * @param scope  Non-blank string representing an ordinary component part scope
+     * @return True or false
+     */
+    public boolean isApplicable(Source source, String scope) {
+        Class<?> componentClass = source.adaptTo(Class.class);
+        boolean hasCommonProperties = Arrays.stream(componentClass.getAnnotationsByType(CommonProperty.class))
+            .anyMatch(p -> StringUtils.equals(scope, p.scope()));
+        return hasCommonProperties
+            || (Scopes.CQ_DIALOG.equals(scope) && !getLegacyDialogAnnotations(componentClass).isEmpty());
+    }
+
     /* -----------------
        Common properties
        ----------------- */
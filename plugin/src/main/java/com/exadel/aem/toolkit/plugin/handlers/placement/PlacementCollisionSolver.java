@@ -78,29 +78,26 @@ class PlacementCollisionSolver {
      * @param sources {@code List} of sources available for rendering
      */
     public static void checkForCollisions(List<Source> sources) {
-        List<String> distinctNames = sources
-            .stream()
-            .map(NamingUtil::stripGetterPrefix)
-            .distinct()
-            .collect(Collectors.toList());
-        if (distinctNames.size() ==  sources.size()) {
+        Map<String, LinkedList<Source>> membersByName = groupByName(sources);
+        if (membersByName.size() == sources.size()) {
             // All names are different: there are no collisions
             return;
         }
-        for (String name : distinctNames) {
-            checkForNameCollisions(sources, name);
-            checkForResourceTypeCollisions(sources, name);
+        for (LinkedList<Source> sameNameMembers : membersByName.values()) {
+            if (sameNameMembers.size() < 2) {
+                continue;
+            }
+            checkForNameCollisions(sameNameMembers);
+            checkForResourceTypeCollisions(sameNameMembers);
         }
     }
 
     /**
      * Tests the provided collection of member sources sharing the particular name for naming collisions. If a collision
      * is found, the {@link InvalidLayoutException} is thrown
-     * @param sources {@code List} of sources available for rendering
-     * @param name    String representing a common name of sources being tested
+     * @param sameNameMembers {@code List} of sources sharing the same name
      */
-    private static void checkForNameCollisions(List<Source> sources, String name) {
-        LinkedList<Source> sameNameMembers = getMembersWithSameName(sources, name);
+    private static void checkForNameCollisions(LinkedList<Source> sameNameMembers) {
         LinkedList<Source> sameNameMembersByOrigin = sameNameMembers
             .stream()
             .sorted(OrderingUtil::compareByOrigin)
@@ -118,12 +115,9 @@ class PlacementCollisionSolver {
     /**
      * Tests the provided collection of member sources sharing the particular name for collisions in exposed resource
      * types. If a collision is found, the {@link InvalidLayoutException} is thrown
-     * @param sources {@code List} of sources available for rendering
-     * @param name    String representing the common name of the sources being tested
+     * @param sameNameMembers {@code List} of sources sharing the same name
      */
-    private static void checkForResourceTypeCollisions(List<Source> sources, String name) {
-        List<Source> sameNameMembers = getMembersWithSameName(sources, name);
-
+    private static void checkForResourceTypeCollisions(List<Source> sameNameMembers) {
         // We consider fields separately from methods
         // because we allow that a field, and a method of the same name have different resource types
         Predicate<Source> fieldPredicate = PlacementCollisionSolver::isField;
@@ -186,18 +180,28 @@ class PlacementCollisionSolver {
             .stream()
             .filter(PlacementCollisionSolver::isField)
             .collect(Collectors.toList());
+        if (fields.isEmpty() || fields.size() == sources.size()) {
+            return;
+        }
+        Map<String, LinkedList<Source>> membersByName = groupByName(sources);
 
         for (Source currentField : fields) {
-            List<Source> methodsToRename = getMembersWithSameName(
-                sources,
-                currentField.getName(),
-                member -> isMethod(member)
+            List<Source> sameNameMembers = membersByName.get(currentField.getName());
+            if (sameNameMembers == null || sameNameMembers.size() < 2) {
+                continue;
+            }
+            List<Source> methodsToRename = sameNameMembers
+                .stream()
+                .filter(member -> isMethod(member)
                     && isSameOrSuperClass(currentField, member)
-                    && hasDifferentResourceType(currentField, member)
-            );
+                    && hasDifferentResourceType(currentField, member))
+                .collect(Collectors.toList());
             if (methodsToRename.isEmpty()) {
                 continue;
             }
+            // Renamed methods are moved to the groups matching their new names so that they are not matched again
+            // by another same-named field
+            sameNameMembers.removeAll(methodsToRename);
             Map<String, List<Source>> methodGroupsByResourceType = new HashMap<>();
             methodsToRename.forEach(method -> methodGroupsByResourceType.computeIfAbsent(
                 method.adaptTo(ResourceTypeSetting.class).getValue(),
@@ -209,6 +213,7 @@ class PlacementCollisionSolver {
                 String simpleResourceType = StringUtils.substringAfterLast(methodGroupByResourceType.getKey(), CoreConstants.SEPARATOR_SLASH);
                 String newName = currentField.getName() + CoreConstants.SEPARATOR_UNDERSCORE + simpleResourceType.toLowerCase();
                 methodGroup.forEach(method -> method.adaptTo(ModifiableMemberSource.class).setName(newName));
+                membersByName.computeIfAbsent(newName, key -> new LinkedList<>()).addAll(methodGroup);
             }
         }
     }
@@ -291,44 +296,51 @@ class PlacementCollisionSolver {
         if (!SectionsRegistry.isAvailableFor(first) || !SectionsRegistry.isAvailableFor(second)) {
             return false;
         }
-        if (SectionsRegistry.from(second, secondContainer).getAvailable().stream().anyMatch(section -> section.canContain(first))) {
+        if (isAncestor(secondContainer, firstContainer)) {
             return true;
         }
-        return secondContainer.findChild(child -> child.equals(firstContainer)) != null;
+        return SectionsRegistry.from(second, secondContainer).getAvailable().stream().anyMatch(section -> section.canContain(first));
     }
 
-    /* ----------------------
-       Common utility methods
-       ----------------------*/
-
     /**
-     * Retrieves the list of {@code Source} objects matching the provided name. Names of fields and methods are coerced,
-     * e.g., both {@code private String text;} and {@code public String getText() {...}} are considered sharing the same
-     * name
-     * @param sources {@code List} of sources available for rendering
-     * @param name    String representing the common name of sources to select
-     * @return An ordered list of {@code Source} objects
+     * Called by {@link PlacementCollisionSolver#isProneToCircularPlacement(Source, Target, Source, Target)} to detect
+     * whether the second {@code Target} is reachable from the first one via the parent-to-child relations. The check
+     * goes up the line of parents of the second target, so it does not depend on the size of the first target's subtree
+     * @param ancestor   {@code Target} object that is presumably the ancestor
+     * @param descendant {@code Target} object that is presumably the descendant
+     * @return True or false
      */
-    private static LinkedList<Source> getMembersWithSameName(List<Source> sources, String name) {
-        return getMembersWithSameName(sources, name, null);
+    private static boolean isAncestor(Target ancestor, Target descendant) {
+        if (ancestor == null || descendant == null) {
+            return false;
+        }
+        for (Target current = descendant.getParent(); current != null; current = current.getParent()) {
+            if (current.equals(ancestor)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    /* ----------------------
+       Common utility methods
+       ----------------------*/
+
     /**
-     * Retrieves the list of {@code Source} objects matching the provided name. Names of fields and methods are coerced,
-     * e.g., both {@code private String text;} and {@code public String getText() {...}} are considered sharing the same
-     * name
+     * Groups the provided {@code Source} objects by their names in a single pass. Names of fields and methods are
+     * coerced, e.g., both {@code private String text;} and {@code public String getText() {...}} are considered sharing
+     * the same name
      * @param sources {@code List} of sources available for rendering
-     * @param name    String representing the common name of sources to select
-     * @param filter  Nullable {@code Predicate} used as the additional filter of matching sources
-     * @return An ordered list of {@code Source} objects
+     * @return {@code Map} of ordered lists of {@code Source} objects. The order of keys follows the order of sources
      */
-    private static LinkedList<Source> getMembersWithSameName(List<Source> sources, String name, Predicate<Source> filter) {
-        return sources
-            .stream()
-            .filter(source -> StringUtils.equals(NamingUtil.stripGetterPrefix(source), name))
-            .filter(source -> filter == null || filter.test(source))
-            .map(source -> source.adaptTo(MemberSource.class))
-            .collect(Collectors.toCollection(LinkedList::new));
+    private static Map<String, LinkedList<Source>> groupByName(List<Source> sources) {
+        Map<String, LinkedList<Source>> result = new LinkedHashMap<>();
+        for (Source source : sources) {
+            result
+                .computeIfAbsent(NamingUtil.stripGetterPrefix(source), key -> new LinkedList<>())
+                .add(source.adaptTo(MemberSource.class));
+        }
+        return result;
     }
 
     /**
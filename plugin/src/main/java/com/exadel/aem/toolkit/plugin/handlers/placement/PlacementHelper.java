@@ -133,8 +133,8 @@ public class PlacementHelper {
         PlacementCollisionSolver.resolveFieldMethodNameCoincidences(members.getAvailable());
         Target itemsElement = container.getOrCreateTarget(DialogConstants.NN_ITEMS);
 
-        while (!members.getAvailable().isEmpty()) {
-            Source candidate = members.getAvailable().get(0);
+        Source candidate;
+        while ((candidate = members.getFirstAvailable()) != null) {
             Target newElement = itemsElement.getOrCreateTarget(NamingUtil.stripGetterPrefix(candidate));
 
             // For historic reasons, we allow members annotated with @Place("...") in a single-column buildup without
@@ -17,7 +17,10 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -192,9 +195,13 @@ class DialogSectionsRegistry extends SectionsRegistry {
         // from the current class first, then the rest of the contained items.
         // Otherwise, we consider the contained items of the current class to be an "addendum" of contained items
         // from superclasses and put them in the end
+        Set<String> titlesFromSuperClasses = sectionsFromSuperClasses
+            .stream()
+            .map(Section::getTitle)
+            .collect(Collectors.toSet());
         boolean sectionTitlesIntersect = sectionsFromCurrentClass
             .stream()
-            .anyMatch(section -> sectionsFromSuperClasses.stream().anyMatch(otherSection -> otherSection.getTitle().equals(section.getTitle())));
+            .anyMatch(section -> titlesFromSuperClasses.contains(section.getTitle()));
         if (sectionTitlesIntersect) {
             return mergeSections(sectionsFromCurrentClass, sectionsFromSuperClasses);
         }
@@ -209,16 +216,15 @@ class DialogSectionsRegistry extends SectionsRegistry {
      */
     private static List<Section> mergeSections(List<Section> primary, List<Section> secondary) {
         List<Section> result = new ArrayList<>(primary);
+        Map<String, Section> resultByTitle = new HashMap<>();
+        result.forEach(section -> resultByTitle.putIfAbsent(section.getTitle(), section));
         for (Section other : secondary) {
-            Section matchingFromCurrentClass = result
-                .stream()
-                .filter(section -> section.getTitle().equals(other.getTitle()))
-                .findFirst()
-                .orElse(null);
+            Section matchingFromCurrentClass = resultByTitle.get(other.getTitle());
             if (matchingFromCurrentClass != null) {
                 matchingFromCurrentClass.merge(other);
             } else {
                 result.add(other);
+                resultByTitle.put(other.getTitle(), other);
             }
         }
         return result;
@@ -13,19 +13,30 @@
  */
 package com.exadel.aem.toolkit.plugin.handlers.placement.registries;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import com.exadel.aem.toolkit.api.handlers.MemberSource;
 import com.exadel.aem.toolkit.api.handlers.Source;
 
 /**
  * Collects and manages information on Java class members that can be rendered in a particular container, such as a
  * dialog with its tabs or panels, or else an in-dialog container widget. This registry is designed to be shared among
- * various handlers to avoid rendering the same member several times
+ * various handlers to avoid rendering the same member several times.
+ * <p>Entries are kept in the order of registration and are additionally indexed by the {@code Source} object, so that
+ * the lookups do not depend on the number of members stored</p>
  */
 public class MembersRegistry {
 
     private final List<Entry> entries;
+    private final Map<Source, Entry> entriesBySource;
+    private int firstAvailable;
 
     /**
      * Creates a new independent registry instance
@@ -46,10 +57,9 @@ public class MembersRegistry {
      * @param members  List of additional ("local") {@code Source} objects representing class members
      */
     public MembersRegistry(MembersRegistry upstream, List<Source> members) {
-        entries = members
-            .stream()
-            .map(member -> findMatchOrCreate(upstream, member))
-            .collect(Collectors.toList());
+        entries = new ArrayList<>(members.size());
+        entriesBySource = new HashMap<>();
+        members.forEach(member -> register(findMatchOrCreate(upstream, member)));
     }
 
     /**
@@ -65,6 +75,19 @@ public class MembersRegistry {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves the first of the members currently available for placement (those that have not been already placed in
+     * a container). Since a member never returns to the available state, the entries that precede the found one are
+     * not scanned again in the subsequent calls
+     * @return {@code Source} object representing a class member, or null if there are no available members
+     */
+    public Source getFirstAvailable() {
+        while (firstAvailable < entries.size() && entries.get(firstAvailable).getState() != EntryState.AVAILABLE) {
+            firstAvailable++;
+        }
+        return firstAvailable < entries.size() ? entries.get(firstAvailable).getMember() : null;
+    }
+
     /**
      * Retrieves a list of members currently available for placement (those that have not been already placed and also
      * those that have been conditionally placed in a top-level container with a possibility to transfer to a nested
@@ -81,16 +104,21 @@ public class MembersRegistry {
 
     /**
      * Registers additional members for the current instance. Before adding the method checks for members already
-     * present in the registry
+     * present in the registry. The identities of the present members are computed anew in every call because a member
+     * can be renamed after registration (see {@code PlacementCollisionSolver})
      * @param members List of additional {@code Source} objects representing class members
      */
     public void add(List<Source> members) {
+        Set<Object> identities = entries
+            .stream()
+            .map(entry -> getIdentity(entry.getMember()))
+            .collect(Collectors.toSet());
         List<Entry> additionalEntries = members
             .stream()
-            .filter(member -> entries.stream().noneMatch(entry -> entry.isSameMember(member)))
+            .filter(member -> !identities.contains(getIdentity(member)))
             .map(Entry::new)
             .collect(Collectors.toList());
-        entries.addAll(additionalEntries);
+        additionalEntries.forEach(this::register);
     }
 
     /**
@@ -98,11 +126,10 @@ public class MembersRegistry {
      * @param member {@code Source} object that represents a class member
      */
     public void checkOut(Source member) {
-        entries
-            .stream()
-            .filter(entry -> entry.getMember().equals(member))
-            .findFirst()
-            .ifPresent(entry -> entry.setState(EntryState.CHECKED_OUT));
+        Entry entry = entriesBySource.get(member);
+        if (entry != null) {
+            entry.setState(EntryState.CHECKED_OUT);
+        }
     }
 
     /**
@@ -111,17 +138,26 @@ public class MembersRegistry {
      * @param member {@code Source} object that represents a class member
      */
     public void softCheckOut(Source member) {
-        entries
-            .stream()
-            .filter(entry -> entry.getMember().equals(member))
-            .findFirst()
-            .ifPresent(entry -> entry.setState(EntryState.SOFT_CHECKED_OUT));
+        Entry entry = entriesBySource.get(member);
+        if (entry != null) {
+            entry.setState(EntryState.SOFT_CHECKED_OUT);
+        }
     }
 
     /* ---------------
        Utility methods
        --------------- */
 
+    /**
+     * Stores the given entry in the current registry and updates the index. If several entries refer to the same
+     * member, the first of them is retained in the index
+     * @param entry {@link Entry} object
+     */
+    private void register(Entry entry) {
+        entries.add(entry);
+        entriesBySource.putIfAbsent(entry.getMember(), entry);
+    }
+
     /**
      * Called from the instance constructor to find correspondences for the given class members in an upstream registry
      * (see {@link MembersRegistry#MembersRegistry(MembersRegistry, List)}). If a particular member is already
@@ -135,13 +171,27 @@ public class MembersRegistry {
         if (upstream == null) {
             return new Entry(member);
         }
-        Entry match = upstream.entries.stream().filter(entry -> entry.member.equals(member)).findFirst().orElse(null);
+        Entry match = upstream.entriesBySource.get(member);
         if (match != null) {
             return match;
         }
         return new Entry(member);
     }
 
+    /**
+     * Computes the key that identifies the given {@code Source} so that the sources considered the same by
+     * {@link Source#isSame(Source)} share the key. A class member is identified by its declaring class and name; any
+     * other source is identified by itself
+     * @param member {@code Source} object representing a class member
+     * @return A non-null key object
+     */
+    private static Object getIdentity(Source member) {
+        if (member instanceof MemberSource) {
+            return ImmutablePair.of(((MemberSource) member).getDeclaringClass(), member.getName());
+        }
+        return member;
+    }
+
     /* ---------------
        Utility classes
        --------------- */
@@ -186,19 +236,6 @@ public class MembersRegistry {
         public void setState(EntryState state) {
             this.state = state;
         }
-
-        /**
-         * Shortcuts {@link Source#isSame(Source)} for the wrapped class field or method to say whether the two {@code
-         * Source} objects represent the same class member
-         * @param other Nullable {@code Source} object
-         * @return True or false
-         */
-        public boolean isSameMember(Source other) {
-            if (getMember() == null) {
-                return false;
-            }
-            return getMember().isSame(other);
-        }
     }
 
     /**
@@ -16,9 +16,17 @@ package com.exadel.aem.toolkit.plugin.handlers.placement.registries;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
+
 import com.exadel.aem.toolkit.api.annotations.container.IgnoreTabs;
 import com.exadel.aem.toolkit.api.annotations.layouts.Accordion;
 import com.exadel.aem.toolkit.api.annotations.layouts.FixedColumns;
@@ -44,10 +52,24 @@ public abstract class SectionsRegistry {
      */
     SectionsRegistry(List<Section> availableSections, List<String> ignoredSections) {
         this.sections = new ArrayList<>(availableSections);
+        if (ignoredSections.isEmpty()) {
+            return;
+        }
+        Map<String, List<Section>> sectionsByTitle = new HashMap<>();
+        sections.forEach(section -> index(sectionsByTitle, section));
+        Set<Section> removed = Collections.newSetFromMap(new IdentityHashMap<>());
         for (String ignoredTitle : ignoredSections) {
-            sections.stream().filter(section -> section.isMatch(ignoredTitle)).findFirst().ifPresent(sections::remove);
-            sections.add(Section.ignored(ignoredTitle));
+            List<Section> matches = sectionsByTitle.get(ignoredTitle);
+            if (matches != null && !matches.isEmpty()) {
+                Section match = matches.get(0);
+                removed.add(match);
+                unindex(sectionsByTitle, match);
+            }
+            Section ignored = Section.ignored(ignoredTitle);
+            sections.add(ignored);
+            index(sectionsByTitle, ignored);
         }
+        sections.removeIf(removed::contains);
     }
 
     /**
@@ -62,6 +84,33 @@ public abstract class SectionsRegistry {
        Utility methods
        --------------- */
 
+    /**
+     * Stores the given section in the title index. Sections that share a title are kept in the order they are added,
+     * so that the first of them is the same section as would be found by {@link Section#isMatch(String)} in a
+     * sequential lookup
+     * @param index   {@code Map} object that stores sections by their titles
+     * @param section {@link Section} instance
+     */
+    private static void index(Map<String, List<Section>> index, Section section) {
+        index.computeIfAbsent(section.getTitle(), key -> new ArrayList<>()).add(section);
+        if (!StringUtils.equals(section.getTitle(), section.getFullTitle())) {
+            index.computeIfAbsent(section.getFullTitle(), key -> new ArrayList<>()).add(section);
+        }
+    }
+
+    /**
+     * Removes the given section from the title index. Only the entries stored under the titles of this section are
+     * affected
+     * @param index   {@code Map} object that stores sections by their titles
+     * @param section {@link Section} instance
+     */
+    private static void unindex(Map<String, List<Section>> index, Section section) {
+        Stream.of(section.getTitle(), section.getFullTitle())
+            .map(index::get)
+            .filter(Objects::nonNull)
+            .forEach(sections -> sections.removeIf(entry -> entry == section));
+    }
+
     /**
      * Gets whether the given {@code Source} object can be used as a section registry base, i.e. carries a
      * section-initializing directive, such as a {@code Tabs} or {@code Accordion} annotation
@@ -74,7 +74,7 @@ public abstract class Section {
      * for attributing dialog members with respective sections
      * @return String value
      */
-    private String getFullTitle() {
+    public String getFullTitle() {
         return StringUtils.stripEnd(StringUtils.defaultString(titlePrefix), CoreConstants.SEPARATOR_SLASH)
             + CoreConstants.SEPARATOR_SLASH
             + getTitle();
@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.utils.ClassFileUtil;
+
+/**
+ * Tracks the dependencies between the classes stored in the folders watched by the {@link WatchMojo} so that the AEM
+ * components affected by a change of the compiled classes can be found without rendering all the components. The
+ * references of a class are read from its class file once and then kept until the class changes. Classes that reside
+ * outside the watched folders (e.g., in JAR files) are not expected to change and are not followed
+ */
+class ClassChangeTracker {
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final List<Path> directories;
+    private final Map<String, Set<String>> referencesByClass;
+
+    /**
+     * Creates a new {@link ClassChangeTracker} instance
+     * @param directories List of watched folders that contain compiled classes
+     */
+    ClassChangeTracker(List<Path> directories) {
+        this.directories = directories;
+        this.referencesByClass = new ConcurrentHashMap<>();
+    }
+
+    /* ----------------
+       Instance members
+       ---------------- */
+
+    /**
+     * Retrieves the watched folders
+     * @return List of {@code Path} objects
+     */
+    List<Path> getDirectories() {
+        return directories;
+    }
+
+    /**
+     * Retrieves the internal name of the class stored in the given file
+     * @param file {@code Path} of a file within one of the watched folders
+     * @return String value, or null if the file is not a class file stored in a watched folder
+     */
+    String getClassName(Path file) {
+        if (!file.toString().endsWith(ClassFileUtil.CLASS_FILE_EXTENSION)) {
+            return null;
+        }
+        for (Path directory : directories) {
+            if (file.startsWith(directory)) {
+                String relativePath = directory.relativize(file).toString().replace(File.separatorChar, '/');
+                return StringUtils.removeEnd(relativePath, ClassFileUtil.CLASS_FILE_EXTENSION);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discards the stored references of the given classes so that they are read anew from the changed class files
+     * @param classNames Collection of internal class names
+     */
+    void invalidate(Collection<String> classNames) {
+        classNames.forEach(referencesByClass::remove);
+    }
+
+    /**
+     * Selects the AEM components that are affected by the change of the given classes. A component is affected if its
+     * class or any class it refers to transitively has changed. If a changed class is referred to by a handler or a
+     * validator, all the components are affected
+     * @param components       List of {@link ComponentSource} objects
+     * @param extensionClasses Collection of handler and validator classes available in the current runtime
+     * @param changedClasses   Set of internal names of the changed classes
+     * @return List of {@code ComponentSource} objects; can be empty
+     */
+    List<ComponentSource> getAffectedComponents(
+        List<ComponentSource> components,
+        Collection<Class<?>> extensionClasses,
+        Set<String> changedClasses) {
+
+        if (changedClasses.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (extensionClasses.stream().anyMatch(extensionClass -> isAffected(extensionClass, changedClasses))) {
+            return components;
+        }
+        return components
+            .stream()
+            .filter(component -> isAffected(component.adaptTo(Class.class), changedClasses))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets whether the given class or any class it refers to transitively is among the changed classes
+     * @param type           {@code Class} reference
+     * @param changedClasses Set of internal names of the changed classes
+     * @return True or false
+     */
+    private boolean isAffected(Class<?> type, Set<String> changedClasses) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(type.getName().replace(CoreConstants.SEPARATOR_DOT, CoreConstants.SEPARATOR_SLASH));
+        while (!queue.isEmpty()) {
+            String className = queue.poll();
+            if (!visited.add(className)) {
+                continue;
+            }
+            if (changedClasses.contains(className)) {
+                return true;
+            }
+            queue.addAll(getReferences(className));
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the names of the classes the given class refers to. Only the classes stored in the watched folders are
+     * inspected
+     * @param className Internal name of the class
+     * @return Set of internal class names; can be empty
+     */
+    private Set<String> getReferences(String className) {
+        return referencesByClass.computeIfAbsent(className, name -> {
+            for (Path directory : directories) {
+                Path classFile = directory.resolve(name + ClassFileUtil.CLASS_FILE_EXTENSION);
+                if (!Files.isRegularFile(classFile)) {
+                    continue;
+                }
+                try {
+                    return ClassFileUtil.getReferencedClasses(Files.readAllBytes(classFile));
+                } catch (IOException e) {
+                    // An unreadable class file is treated as having no references; the class will be reported when
+                    // rendering the components that use it
+                    return Collections.emptySet();
+                }
+            }
+            return Collections.emptySet();
+        });
+    }
+}
@@ -15,6 +15,7 @@ package com.exadel.aem.toolkit.plugin.maven;
 
 import com.exadel.aem.toolkit.api.runtime.ExceptionHandler;
 import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
 import com.exadel.aem.toolkit.plugin.runtime.XmlContextHelper;
 
@@ -41,6 +42,14 @@ class EmptyRuntimeContext implements PluginRuntimeContext {
         throw new PluginException(NOT_INITIALIZED_EXCEPTION_MESSAGE);
     }
 
+    /**
+     * Retrieves the {@code ProfilingContextHelper} that skips measurements since the runtime has not been initialized
+     */
+    @Override
+    public ProfilingContextHelper getProfiling() {
+        return ProfilingContextHelper.disabled();
+    }
+
     /**
      * Throws a {@code PluginException} upon call since the runtime has not been initialized
      */
@@ -20,6 +20,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import com.exadel.aem.toolkit.api.runtime.ExceptionHandler;
 import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
 import com.exadel.aem.toolkit.plugin.exceptions.handlers.ExceptionHandlers;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
 import com.exadel.aem.toolkit.plugin.runtime.XmlContextHelper;
 import com.exadel.aem.toolkit.plugin.utils.XmlFactory;
@@ -33,8 +34,9 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
 
     private PluginSettings settings;
     private ReflectionContextHelper pluginReflections;
+    private ProfilingContextHelper profiling;
     private ExceptionHandler exceptionHandler;
-    private XmlContextHelper xmlRuntime;
+    private final ThreadLocal<XmlContextHelper> xmlRuntime = ThreadLocal.withInitial(LoadedRuntimeContext::createXmlUtility);
 
     /**
      * {@inheritDoc}
@@ -52,6 +54,23 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
         return pluginReflections;
     }
 
+    /**
+     * Replaces the {@link ReflectionContextHelper} of the current context. Used to keep the context loaded while the
+     * classes it refers to are reloaded, e.g., by the "watch" goal
+     * @param value {@code ReflectionContextHelper} object. A non-null value is expected
+     */
+    void setReflection(ReflectionContextHelper value) {
+        this.pluginReflections = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProfilingContextHelper getProfiling() {
+        return profiling;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -65,7 +84,7 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
      */
     @Override
     public XmlContextHelper getXmlUtility() {
-        return xmlRuntime;
+        return xmlRuntime.get();
     }
 
     /**
@@ -73,13 +92,23 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
      */
     @Override
     public XmlContextHelper newXmlUtility() {
+        XmlContextHelper result = createXmlUtility();
+        xmlRuntime.set(result);
+        return result;
+    }
+
+    /**
+     * Creates an {@link XmlContextHelper} instance wrapped around a new XML document. Every thread that uses the
+     * current context is assigned a separate instance so that the rendering of components can run in parallel
+     * @return {@code XmlContextHelper} object
+     */
+    private static XmlContextHelper createXmlUtility() {
         try {
-            xmlRuntime = new XmlContextHelper(XmlFactory.newDocument());
+            return new XmlContextHelper(XmlFactory.newDocument());
         } catch (ParserConfigurationException e) {
             // Cannot proceed with the plugin flow if the XML subsystem fails this early
             throw new PluginException(XML_EXCEPTION_MESSAGE, e);
         }
-        return xmlRuntime;
     }
 
     /**
@@ -89,6 +118,7 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
     public static class Builder {
 
         private List<String> classPathElements;
+        private ReflectionContextHelper reflection;
         private PluginSettings settings = new PluginSettings();
         private ExceptionHandler exceptionHandler;
         private final Consumer<LoadedRuntimeContext> onComplete;
@@ -113,6 +143,18 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
             return this;
         }
 
+        /**
+         * Assigns a pre-initialized {@link ReflectionContextHelper} to this instance. If set, the classpath is not
+         * scanned again, e.g., when the scanning results are shared between modules of the same Maven reactor
+         * @param value {@code ReflectionContextHelper} object. A null value means that the classpath elements are
+         *              scanned
+         * @return This instance
+         */
+        Builder reflection(ReflectionContextHelper value) {
+            this.reflection = value;
+            return this;
+        }
+
         /**
          * Assigns the {@link PluginSettings} object to this instance. Settings are defined within the Maven subsystem
          * to control the plugin execution
@@ -145,7 +187,10 @@ class LoadedRuntimeContext implements PluginRuntimeContext {
             }
             LoadedRuntimeContext result = new LoadedRuntimeContext();
             result.settings = settings;
-            result.pluginReflections = ReflectionContextHelper.fromCodeScope(classPathElements);
+            result.pluginReflections = reflection != null
+                ? reflection
+                : ReflectionContextHelper.fromCodeScope(classPathElements);
+            result.profiling = settings.isProfiling() ? ProfilingContextHelper.enabled() : ProfilingContextHelper.disabled();
             result.exceptionHandler = exceptionHandler != null
                 ? exceptionHandler
                 : ExceptionHandlers.forSetting(settings.getTerminateOnRule());
@@ -13,8 +13,11 @@
  */
 package com.exadel.aem.toolkit.plugin.maven;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -37,6 +40,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.toolchain.ToolchainManager;
+import org.eclipse.aether.RepositorySystemSession;
 import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
 import org.codehaus.plexus.util.cli.Commandline;
@@ -46,7 +50,8 @@ import org.slf4j.LoggerFactory;
 
 import com.exadel.aem.toolkit.core.CoreConstants;
 import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
-import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
+import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
 import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
 import com.exadel.aem.toolkit.plugin.writers.PackageWriter;
 
@@ -68,15 +73,29 @@ public class PluginMojo extends AbstractMojo {
 
     private static final String PROJECT_TYPE_PACKAGE = "content-package";
 
+    private static final String SESSION_KEY_REFLECTION = PLUGIN_ARTIFACT_ID + ".reflection";
+
     private static final String CONFIG_KEY_CLASSPATH_ELEMENTS = "classpathElements";
     private static final String CONFIG_KEY_PATH_BASE = "componentsPathBase";
     private static final String CONFIG_KEY_REFERENCE_BASE = "componentsReferenceBase";
     private static final String CONFIG_KEY_TERMINATE_ON = "terminateOn";
+    private static final String CONFIG_KEY_THREADS = "threads";
+    private static final String CONFIG_KEY_INCREMENTAL = "incremental";
+    private static final String CONFIG_KEY_STREAMING = "streaming";
+    private static final String CONFIG_KEY_PROFILE = "profile";
+    private static final String CONFIG_KEY_COMPONENT_TIME_BUDGET = "componentTimeBudget";
+    private static final String CONFIG_KEY_BASELINE = "baseline";
+    private static final String CONFIG_KEY_OUTPUT_TIMESTAMP = "outputTimestamp";
+    private static final String CONFIG_KEY_SHARED_FRAGMENTS_PATH = "sharedFragmentsPath";
 
     private static final String DEPENDENCY_RESOLUTION_EXCEPTION_MESSAGE = "Could not resolve dependencies of project %s: %s";
     private static final String PLUGIN_EXECUTION_EXCEPTION_MESSAGE = "%s in module %s: %s";
     private static final String PLUGIN_COMPLETION_MESSAGE = "Execution completed.";
     private static final String PLUGIN_COMPLETION_STATISTICS_MESSAGE = PLUGIN_COMPLETION_MESSAGE + " {} component(-s) processed.";
+    private static final String PROFILING_REPORT_MESSAGE = "Profiling report stored to {}";
+    private static final String PROFILING_REPORT_EXCEPTION_MESSAGE = "Could not store profiling report: {}";
+    private static final String TIME_BUDGET_EXCEEDED_EXCEPTION_MESSAGE = "Rendering of %d component(-s) in module %s "
+        + "exceeded the time budget of %d ms: %s";
 
     private static final String PATTERN_COLOR_CODE = "[^A-Za-z0-0]\\[[0-9;]*m";
     private static final String PATTERN_LOG_LEVEL = "^\\s*\\[[A-Z]+]\\s+";
@@ -110,6 +129,30 @@ public class PluginMojo extends AbstractMojo {
     @Parameter(defaultValue = "java.io.IOException", property = "terminateOn", readonly = true)
     private String terminateOn;
 
+    @Parameter(defaultValue = "1", property = "threads", readonly = true)
+    private int threads;
+
+    @Parameter(defaultValue = "false", property = "incremental", readonly = true)
+    private boolean incremental;
+
+    @Parameter(defaultValue = "false", property = "streaming", readonly = true)
+    private boolean streaming;
+
+    @Parameter(defaultValue = "false", property = "profile", readonly = true)
+    private boolean profile;
+
+    @Parameter(defaultValue = "0", property = "componentTimeBudget", readonly = true)
+    private long componentTimeBudget;
+
+    @Parameter(property = "baseline", readonly = true)
+    private String baseline;
+
+    @Parameter(property = "outputTimestamp", readonly = true)
+    private String outputTimestamp;
+
+    @Parameter(property = "sharedFragmentsPath", readonly = true)
+    private String sharedFragmentsPath;
+
     /**
      * Executes the ToolKit Maven plugin. This is done by initializing {@link PluginRuntime} and then enumerating
      * classpath entries present in the Maven reactor. Relevant AEM component classes (POJOs or Sling models) are
@@ -131,31 +174,34 @@ public class PluginMojo extends AbstractMojo {
             return;
         }
 
-        PluginSettings.Builder settingsBuilder = PluginSettings.builder()
-            .terminateOn(terminateOn)
-            .defaultPathBase(componentsPathBase);
-        populateReferenceEntries(settingsBuilder);
-        PluginSettings pluginSettings = settingsBuilder.build();
+        PluginSettings pluginSettings = getSettingsBuilder().build();
+        List<String> effectiveClasspath = getClasspathElements();
 
+        ReflectionContextHelper sharedReflection = getSharedReflection(effectiveClasspath);
         PluginRuntime.contextBuilder()
-            .classPathElements(getClasspathElements())
+            .classPathElements(effectiveClasspath)
+            .reflection(sharedReflection)
             .settings(pluginSettings)
             .build();
 
         int processedCount = 0;
         try (PackageWriter packageWriter = PackageWriter.forMavenProject(project)) {
             packageWriter.writeInfo(PluginInfo.getInstance());
-            for (ComponentSource component : PluginRuntime.context().getReflection().getComponents(componentsReferenceBase)) {
-                processedCount += packageWriter.write(component) ? 1 : 0;
-            }
+            processedCount = packageWriter.write(PluginRuntime.context().getReflection().getComponents(componentsReferenceBase));
         } catch (PluginException e) {
             throw new MojoExecutionException(String.format(PLUGIN_EXECUTION_EXCEPTION_MESSAGE,
                 e.getCause() != null ? e.getCause().getClass().getSimpleName() : e.getClass().getSimpleName(),
                 project.getBuild().getFinalName(),
                 e.getMessage()), e);
+        } finally {
+            releaseSharedReflection(sharedReflection);
         }
 
+        ProfilingContextHelper profiling = PluginRuntime.context().getProfiling();
         PluginRuntime.close();
+        if (pluginSettings.isProfiling()) {
+            reportProfiling(profiling, pluginSettings.getComponentTimeBudget());
+        }
 
         if (processedCount > 0) {
             LOG.info(PLUGIN_COMPLETION_STATISTICS_MESSAGE, processedCount);
@@ -164,6 +210,34 @@ public class PluginMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * Stores the profiling report into the build directory of the current project and checks whether any component
+     * exceeded the time budget
+     * @param profiling {@link ProfilingContextHelper} containing the collected measurements
+     * @param budget    Time in milliseconds that rendering of a single component may take; {@code 0} means no limit
+     * @throws MojoExecutionException if the time budget is exceeded
+     */
+    private void reportProfiling(ProfilingContextHelper profiling, long budget) throws MojoExecutionException {
+        Path buildDirectory = Paths.get(project.getBuild().getDirectory());
+        try {
+            LOG.info(PROFILING_REPORT_MESSAGE, profiling.writeReport(buildDirectory));
+        } catch (IOException e) {
+            LOG.error(PROFILING_REPORT_EXCEPTION_MESSAGE, e.getMessage());
+        }
+        if (budget <= 0) {
+            return;
+        }
+        List<String> exceeding = profiling.getExceeding(ProfilingContextHelper.Category.COMPONENTS, budget);
+        if (!exceeding.isEmpty()) {
+            throw new MojoExecutionException(String.format(
+                TIME_BUDGET_EXCEEDED_EXCEPTION_MESSAGE,
+                exceeding.size(),
+                project.getBuild().getFinalName(),
+                budget,
+                String.join(CoreConstants.SEPARATOR_COMMA + StringUtils.SPACE, exceeding)));
+        }
+    }
+
     /**
      * Restarts the ToolKit's plugin execution with the JDK specified in the current Maven toolchain
      * @param executable Path to Java executable; a non-blank string is expected
@@ -180,6 +254,14 @@ public class PluginMojo extends AbstractMojo {
             .argument(CONFIG_KEY_PATH_BASE, componentsPathBase)
             .argument(CONFIG_KEY_REFERENCE_BASE, componentsReferenceBase)
             .argument(CONFIG_KEY_TERMINATE_ON, terminateOn)
+            .argument(CONFIG_KEY_THREADS, String.valueOf(threads))
+            .argument(CONFIG_KEY_INCREMENTAL, String.valueOf(incremental))
+            .argument(CONFIG_KEY_STREAMING, String.valueOf(streaming))
+            .argument(CONFIG_KEY_PROFILE, String.valueOf(profile))
+            .argument(CONFIG_KEY_COMPONENT_TIME_BUDGET, String.valueOf(componentTimeBudget))
+            .argument(CONFIG_KEY_BASELINE, StringUtils.defaultString(baseline))
+            .argument(CONFIG_KEY_OUTPUT_TIMESTAMP, StringUtils.defaultString(outputTimestamp))
+            .argument(CONFIG_KEY_SHARED_FRAGMENTS_PATH, StringUtils.defaultString(sharedFragmentsPath))
             .build();
         LOG.info("Relaunching plugin with {}", commandline);
         try {
@@ -193,14 +275,59 @@ public class PluginMojo extends AbstractMojo {
     }
 
     /**
-     * Retrieves the list of classpath elements for the current Maven project
+     * Retrieves the current Maven project
+     * @return {@code MavenProject} instance
+     */
+    MavenProject getProject() {
+        return project;
+    }
+
+    /**
+     * Retrieves the current Maven session
+     * @return {@code MavenSession} instance
+     */
+    MavenSession getSession() {
+        return session;
+    }
+
+    /**
+     * Retrieves the value of the {@code componentsReferenceBase} setting
+     * @return Nullable string value
+     */
+    String getComponentsReferenceBase() {
+        return componentsReferenceBase;
+    }
+
+    /**
+     * Creates a {@link PluginSettings} builder populated with the values of the current plugin configuration
+     * @return {@code PluginSettings.Builder} instance
+     */
+    PluginSettings.Builder getSettingsBuilder() {
+        PluginSettings.Builder result = PluginSettings.builder()
+            .terminateOn(terminateOn)
+            .defaultPathBase(componentsPathBase)
+            .threads(threads)
+            .incremental(incremental)
+            .streaming(streaming)
+            .profiling(profile)
+            .componentTimeBudget(componentTimeBudget)
+            .baseline(baseline)
+            .outputTimestamp(outputTimestamp)
+            .sharedFragmentsPath(sharedFragmentsPath);
+        populateReferenceEntries(result);
+        return result;
+    }
+
+    /**
+     * Retrieves the list of classpath elements for the current Maven project. The elements follow the order in which
+     * Maven provides them
      * @return {@code List} of {@code String} values
      * @throws MojoExecutionException if required dependencies cannot be resolved
      */
-    private List<String> getClasspathElements() throws MojoExecutionException {
+    List<String> getClasspathElements() throws MojoExecutionException {
         Set<String> result;
         try {
-            result = new HashSet<>(project.getCompileClasspathElements());
+            result = new LinkedHashSet<>(project.getCompileClasspathElements());
         } catch (DependencyResolutionRequiredException e) {
             throw new MojoExecutionException(String.format(DEPENDENCY_RESOLUTION_EXCEPTION_MESSAGE,
                 project.getBuild().getFinalName(),
@@ -217,6 +344,47 @@ public class PluginMojo extends AbstractMojo {
         return new ArrayList<>(result);
     }
 
+    /**
+     * Retrieves a {@link ReflectionContextHelper} for the given classpath elements. The result of the classpath scan is
+     * stored in the current Maven session so that the modules of the same reactor that share the classpath do not scan
+     * it again. A limited number of scans is retained, and the class loaders of the evicted ones are closed
+     * @param elements List of classpath elements
+     * @return {@code ReflectionContextHelper} instance; null if the Maven session cannot store data
+     * @see SharedReflections
+     */
+    private ReflectionContextHelper getSharedReflection(List<String> elements) {
+        SharedReflections sharedReflections = getSharedReflections();
+        return sharedReflections != null ? sharedReflections.acquire(elements) : null;
+    }
+
+    /**
+     * Notifies the storage of the classpath scans in the current Maven session that the given
+     * {@link ReflectionContextHelper} is no longer used
+     * @param reflection {@code ReflectionContextHelper} instance retrieved via {@link PluginMojo#getSharedReflection(List)}.
+     *                   A null value is ignored
+     */
+    private void releaseSharedReflection(ReflectionContextHelper reflection) {
+        SharedReflections sharedReflections = getSharedReflections();
+        if (reflection != null && sharedReflections != null) {
+            sharedReflections.release(reflection);
+        }
+    }
+
+    /**
+     * Retrieves the storage of the classpath scans kept in the current Maven session, creating it if needed
+     * @return {@link SharedReflections} instance; null if the Maven session cannot store data
+     */
+    private SharedReflections getSharedReflections() {
+        RepositorySystemSession repositorySession = session != null ? session.getRepositorySession() : null;
+        if (repositorySession == null || repositorySession.getData() == null) {
+            return null;
+        }
+        repositorySession.getData().set(SESSION_KEY_REFLECTION, null, new SharedReflections());
+        Object stored = repositorySession.getData().get(SESSION_KEY_REFLECTION);
+        // The stored value is not reused if it was created by a different class loader, e.g., another plugin version
+        return stored instanceof SharedReflections ? (SharedReflections) stored : null;
+    }
+
     /**
      * Scans the module structure of the current Maven installation to retrieve the ToolKit's plugin configurations and
      * stores the matches between AEM component Java packages and repository paths. The references are passed to the
@@ -13,6 +13,8 @@
  */
 package com.exadel.aem.toolkit.plugin.maven;
 
+import java.util.concurrent.Callable;
+
 /**
  * The thread-local {@link PluginRuntimeContext} handler to be used within {@code PluginMojo} execution. Starts with
  * {@link EmptyRuntimeContext} and switches to the {@link LoadedRuntimeContext} upon proper runtime initialization
@@ -35,6 +37,26 @@ public class PluginRuntime {
         return INSTANCE.get();
     }
 
+    /**
+     * Wraps the given task so that it is executed with the {@link PluginRuntimeContext} of the calling thread. Used to
+     * share the loaded context with worker threads, e.g., when components are rendered in parallel
+     * @param task {@code Callable} object, not null
+     * @param <T>  Type of the task result
+     * @return {@code Callable} instance that installs the current context before running the task and removes it
+     * afterwards
+     */
+    public static <T> Callable<T> withContext(Callable<T> task) {
+        PluginRuntimeContext context = INSTANCE.get();
+        return () -> {
+            INSTANCE.set(context);
+            try {
+                return task.call();
+            } finally {
+                INSTANCE.remove();
+            }
+        };
+    }
+
     /**
      * Creates a Builder intended to accumulate plugin settings and produce a functional ("loaded") {@code PluginRuntimeContext}
      * @return {@link LoadedRuntimeContext.Builder} instance
@@ -14,6 +14,7 @@
 package com.exadel.aem.toolkit.plugin.maven;
 
 import com.exadel.aem.toolkit.api.runtime.RuntimeContext;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
 import com.exadel.aem.toolkit.plugin.runtime.XmlContextHelper;
 
@@ -37,6 +38,12 @@ public interface PluginRuntimeContext extends RuntimeContext {
      */
     ReflectionContextHelper getReflection();
 
+    /**
+     * Provides the reference to the {@link ProfilingContextHelper} that collects the timings of the plugin's activities
+     * @return A non-null {@code ProfilingContextHelper} instance
+     */
+    ProfilingContextHelper getProfiling();
+
     /**
      * {@inheritDoc}
      */
@@ -13,11 +13,16 @@
  */
 package com.exadel.aem.toolkit.plugin.maven;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.exceptions.InvalidSettingException;
 import com.exadel.aem.toolkit.plugin.exceptions.handlers.ExceptionHandlers;
 import com.exadel.aem.toolkit.plugin.utils.ClassUtil;
 import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
@@ -29,12 +34,30 @@ public class PluginSettings {
 
     public static final PluginSettings EMPTY = new PluginSettings();
 
+    private static final String INVALID_TIMESTAMP_EXCEPTION_MESSAGE = "Invalid output timestamp: ";
+
     private String defaultPathBase;
 
     private List<ReferenceEntry> referenceEntries;
 
     private String terminateOn;
 
+    private int threads;
+
+    private boolean incremental;
+
+    private boolean streaming;
+
+    private boolean profiling;
+
+    private long componentTimeBudget;
+
+    private String baseline;
+
+    private String outputTimestamp;
+
+    private String sharedFragmentsPath;
+
     /**
      * Default (instantiation-restricting) constructor
      */
@@ -74,6 +97,113 @@ public class PluginSettings {
         return StringUtils.defaultIfEmpty(terminateOn, DialogConstants.VALUE_NONE);
     }
 
+    /**
+     * Retrieves the number of worker threads used to render AEM components. A value of {@code 1} means that components
+     * are rendered sequentially
+     * @return Positive integer value
+     */
+    public int getThreads() {
+        return Math.max(threads, 1);
+    }
+
+    /**
+     * Gets whether the plugin may skip rendering the components that have not changed since the previous run
+     * @return True or false
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Gets whether the package is composed anew out of the entries of the existing package that are copied without
+     * recompression and the entries stored by the plugin, instead of being modified in place
+     * @return True or false
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Gets whether the plugin measures the time and memory consumed by rendering components, running handlers, etc.,
+     * and stores a profiling report into the build directory
+     * @return True or false
+     */
+    public boolean isProfiling() {
+        return profiling || componentTimeBudget > 0;
+    }
+
+    /**
+     * Retrieves the time in milliseconds that rendering of a single component may take. If any component takes longer,
+     * the build fails. A value of {@code 0} means that the time is not limited
+     * @return Non-negative long value
+     */
+    public long getComponentTimeBudget() {
+        return Math.max(componentTimeBudget, 0L);
+    }
+
+    /**
+     * Retrieves the path to the package the current package is compared to, such as the package that has been
+     * previously deployed. If specified, the plugin creates a delta package that contains only the components whose
+     * markup differs from the one in the baseline package
+     * @return Nullable string value
+     */
+    public String getBaseline() {
+        return StringUtils.trimToNull(baseline);
+    }
+
+    /**
+     * Retrieves the moment used as the modification time of the package entries when the package must be reproducible,
+     * i.e., byte-identical for the identical input. The value follows the format of the
+     * {@code project.build.outputTimestamp} Maven property: either an ISO 8601 date and time with an offset, or a number
+     * of seconds since the epoch. A value of a single character (such as {@code 0}) turns the reproducible mode off
+     * @return Nullable {@code Instant} value. A null value means that the package is not required to be reproducible
+     * @throws InvalidSettingException if the value cannot be parsed
+     */
+    public Instant getOutputTimestamp() {
+        String value = StringUtils.trim(outputTimestamp);
+        if (StringUtils.length(value) < 2) {
+            return null;
+        }
+        try {
+            return StringUtils.isNumeric(value)
+                ? Instant.ofEpochSecond(Long.parseLong(value))
+                : OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidSettingException(INVALID_TIMESTAMP_EXCEPTION_MESSAGE + value);
+        }
+    }
+
+    /**
+     * Retrieves the path to the folder in which the large subtrees of dialog markup are stored once to be shared between
+     * components via the Granite {@code include} component
+     * @return Nullable string value. A null value means that the markup is not shared
+     */
+    public String getSharedFragmentsPath() {
+        return StringUtils.trimToNull(sharedFragmentsPath);
+    }
+
+    /**
+     * Retrieves a string that summarizes the settings affecting the rendered markup. Used to tell whether the markup
+     * stored during a previous plugin run is still valid
+     * @return String value; non-null
+     */
+    public String getFingerprint() {
+        StringBuilder result = new StringBuilder(StringUtils.defaultString(defaultPathBase))
+            .append(DialogConstants.SEPARATOR_SEMICOLON)
+            .append(getTerminateOnRule());
+        if (getSharedFragmentsPath() != null) {
+            result.append(DialogConstants.SEPARATOR_SEMICOLON).append(getSharedFragmentsPath());
+        }
+        if (referenceEntries != null) {
+            referenceEntries.forEach(entry -> result
+                .append(DialogConstants.SEPARATOR_SEMICOLON)
+                .append(entry.getPathBase())
+                .append(CoreConstants.SEPARATOR_COLON)
+                .append(entry.getReferenceBase()));
+        }
+        return result.toString();
+    }
+
     /**
      * Initializes a {@code Builder} instance used to populate a {@link PluginSettings} object with values
      * @return {@code Builder} object
@@ -89,6 +219,14 @@ public class PluginSettings {
         private String pathBase;
         private List<ReferenceEntry> referenceEntries;
         private String terminateOn;
+        private int threads = 1;
+        private boolean incremental;
+        private boolean streaming;
+        private boolean profiling;
+        private long componentTimeBudget;
+        private String baseline;
+        private String outputTimestamp;
+        private String sharedFragmentsPath;
 
         /**
          * Assigns the value that corresponds to the current path base ({@code componentsPathBase} in the plugin's
@@ -132,6 +270,98 @@ public class PluginSettings {
             return this;
         }
 
+        /**
+         * Assigns the number of worker threads used to render AEM components. If a zero or a negative value is
+         * provided, the number of available processors is used
+         * @param value Integer value
+         * @return This instance
+         * @see PluginSettings#getThreads()
+         */
+        public Builder threads(int value) {
+            threads = value > 0 ? value : Runtime.getRuntime().availableProcessors();
+            return this;
+        }
+
+        /**
+         * Assigns the flag saying whether the plugin may skip rendering the components that have not changed since
+         * the previous run
+         * @param value Boolean value
+         * @return This instance
+         * @see PluginSettings#isIncremental()
+         */
+        public Builder incremental(boolean value) {
+            incremental = value;
+            return this;
+        }
+
+        /**
+         * Assigns the flag saying whether the package is composed anew with the untouched entries copied without
+         * recompression
+         * @param value Boolean value
+         * @return This instance
+         * @see PluginSettings#isStreaming()
+         */
+        public Builder streaming(boolean value) {
+            streaming = value;
+            return this;
+        }
+
+        /**
+         * Assigns the flag saying whether the plugin collects profiling data and stores a profiling report
+         * @param value Boolean value
+         * @return This instance
+         * @see PluginSettings#isProfiling()
+         */
+        public Builder profiling(boolean value) {
+            profiling = value;
+            return this;
+        }
+
+        /**
+         * Assigns the time in milliseconds that rendering of a single component may take
+         * @param value Long value; a zero or a negative value means that the time is not limited
+         * @return This instance
+         * @see PluginSettings#getComponentTimeBudget()
+         */
+        public Builder componentTimeBudget(long value) {
+            componentTimeBudget = value;
+            return this;
+        }
+
+        /**
+         * Assigns the path to the package the current package is compared to
+         * @param value String value; a null or a blank value means that no delta package is created
+         * @return This instance
+         * @see PluginSettings#getBaseline()
+         */
+        public Builder baseline(String value) {
+            baseline = value;
+            return this;
+        }
+
+        /**
+         * Assigns the moment used as the modification time of the package entries when the package must be reproducible
+         * @param value String value; a null or a blank value means that the package is not required to be reproducible
+         * @return This instance
+         * @see PluginSettings#getOutputTimestamp()
+         */
+        public Builder outputTimestamp(String value) {
+            outputTimestamp = value;
+            return this;
+        }
+
+        /**
+         * Assigns the path to the folder in which the large subtrees of dialog markup are stored to be shared between
+         * components
+         * @param value String value; a null or a blank value means that the markup is not shared
+         * @return This instance
+         * @see PluginSettings#getSharedFragmentsPath()
+         */
+        public Builder sharedFragmentsPath(String value) {
+            sharedFragmentsPath = value;
+            return this;
+        }
+
         /**
          * Creates and populates a {@link PluginSettings} object
          * @return {@code PluginSettings} instance
@@ -141,6 +371,14 @@ public class PluginSettings {
             result.defaultPathBase = this.pathBase;
             result.referenceEntries = this.referenceEntries;
             result.terminateOn = this.terminateOn;
+            result.threads = this.threads;
+            result.incremental = this.incremental;
+            result.streaming = this.streaming;
+            result.profiling = this.profiling;
+            result.componentTimeBudget = this.componentTimeBudget;
+            result.baseline = this.baseline;
+            result.outputTimestamp = this.outputTimestamp;
+            result.sharedFragmentsPath = this.sharedFragmentsPath;
             return result;
         }
     }
@@ -171,6 +409,14 @@ public class PluginSettings {
             return StringUtils.defaultString(pathBase);
         }
 
+        /**
+         * Retrieves the reference base
+         * @return String value; non-null
+         */
+        public String getReferenceBase() {
+            return StringUtils.defaultString(referenceBase);
+        }
+
         /**
          * Gets whether the current entry can represent the given component judging by its Java package
          * @param component AEM component-backing Java class
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+import com.exadel.aem.toolkit.plugin.writers.PackageWriter;
+
+/**
+ * Represents the "prerender" goal of the ToolKit Maven plugin. The goal runs in a module that contains AEM component
+ * classes right after the classes are compiled. The markup of the components is stored among the compiled classes,
+ * and is therefore packed together with them. When the main goal runs in a content package module, it takes the
+ * stored markup instead of rendering a component, provided that neither the component nor the classes it refers to,
+ * nor the plugin and its handlers have changed since
+ * <p>Only the components declared in the current module and having a path resolvable from the plugin settings of the
+ * Maven reactor are processed</p>
+ */
+@Mojo(
+    name = PrerenderMojo.PRERENDER_GOAL,
+    defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+    requiresDependencyCollection = ResolutionScope.COMPILE,
+    requiresDependencyResolution = ResolutionScope.COMPILE
+)
+@SuppressWarnings("unused")
+public class PrerenderMojo extends PluginMojo {
+    private static final Logger LOG = LoggerFactory.getLogger(DialogConstants.ARTIFACT_NAME);
+
+    static final String PRERENDER_GOAL = "prerender";
+
+    private static final String PRERENDER_COMPLETION_MESSAGE = "{} component(-s) pre-rendered";
+    private static final String PRERENDER_EXCEPTION_MESSAGE = "%s in module %s: %s";
+
+    /**
+     * Executes the "prerender" goal. Components declared in the current module are rendered into the folder of
+     * compiled classes
+     * @throws MojoExecutionException if the required dependencies cannot be resolved or in case an internal exception
+     *                                is thrown that corresponds to the {@code terminateOn} setting
+     */
+    @Override
+    public void execute() throws MojoExecutionException {
+        Path classesDirectory = Paths.get(getProject().getBuild().getOutputDirectory()).toAbsolutePath();
+        PluginRuntime.contextBuilder()
+            .classPathElements(getClasspathElements())
+            .settings(getSettingsBuilder().build())
+            .build();
+        try (PackageWriter packageWriter = PackageWriter.forPrerendering(getProject())) {
+            List<ComponentSource> components = PluginRuntime.context()
+                .getReflection()
+                .getComponents(getComponentsReferenceBase())
+                .stream()
+                .filter(component -> StringUtils.isNotBlank(component.getPath()))
+                .filter(component -> isDeclaredIn(component, classesDirectory))
+                .collect(Collectors.toList());
+            LOG.info(PRERENDER_COMPLETION_MESSAGE, packageWriter.write(components));
+        } catch (PluginException e) {
+            throw new MojoExecutionException(String.format(PRERENDER_EXCEPTION_MESSAGE,
+                e.getCause() != null ? e.getCause().getClass().getSimpleName() : e.getClass().getSimpleName(),
+                getProject().getBuild().getFinalName(),
+                e.getMessage()), e);
+        } finally {
+            PluginRuntime.close();
+        }
+    }
+
+    /**
+     * Gets whether the class of the given AEM component has been loaded from the provided folder
+     * @param component {@link ComponentSource} instance representing the component class
+     * @param directory {@code Path} of the folder of compiled classes
+     * @return True or false
+     */
+    private static boolean isDeclaredIn(ComponentSource component, Path directory) {
+        CodeSource codeSource = component.adaptTo(Class.class).getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return false;
+        }
+        try {
+            return directory.equals(Paths.get(codeSource.getLocation().toURI()).toAbsolutePath());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
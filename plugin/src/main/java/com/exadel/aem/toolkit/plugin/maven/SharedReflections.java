@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+
+/**
+ * Stores the results of classpath scans shared between the executions of the plugin within a Maven session. A limited
+ * number of scans is retained. When the limit is exceeded, the least recently used scan is evicted, and its class
+ * loader is closed as soon as no execution uses it. This way, the class loaders do not pile up (and do not keep JAR
+ * files locked) during a long reactor build
+ */
+class SharedReflections {
+    private static final Logger LOG = LoggerFactory.getLogger(DialogConstants.ARTIFACT_NAME);
+
+    private static final int MAX_ENTRIES = 4;
+
+    private static final String SCAN_REUSE_MESSAGE = "Reusing the classpath scan of a previous module";
+    private static final String CLASS_LOADER_EXCEPTION_MESSAGE = "Could not release the classes loaded previously: {}";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(MAX_ENTRIES, 1f, true);
+    private final List<Entry> evicted = new ArrayList<>();
+
+    /**
+     * Retrieves a {@link ReflectionContextHelper} for the given classpath elements. A stored scan is reused if there is
+     * one for the same classpath; otherwise the classpath is scanned, and the result is stored. Every call must be
+     * paired with a call to {@link SharedReflections#release(ReflectionContextHelper)}
+     * @param elements List of classpath elements
+     * @return {@code ReflectionContextHelper} instance that can be used by a single execution
+     */
+    ReflectionContextHelper acquire(List<String> elements) {
+        String key = ReflectionContextHelper.getHash(elements);
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                LOG.info(SCAN_REUSE_MESSAGE);
+                existing.users++;
+                return existing.reflection.copy();
+            }
+        }
+        // The scan runs outside the lock so that the modules built in parallel do not wait for each other
+        ReflectionContextHelper created = ReflectionContextHelper.fromCodeScope(elements);
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                close(created);
+                existing.users++;
+                return existing.reflection.copy();
+            }
+            Entry entry = new Entry(created);
+            entry.users++;
+            entries.put(key, entry);
+            evictEldest();
+            return created.copy();
+        }
+    }
+
+    /**
+     * Notifies that the given {@link ReflectionContextHelper} is no longer used by an execution. If the scan it
+     * belongs to has been evicted and is not used by other executions, its class loader is closed
+     * @param reflection {@code ReflectionContextHelper} object retrieved via
+     *                   {@link SharedReflections#acquire(List)}
+     */
+    synchronized void release(ReflectionContextHelper reflection) {
+        for (Entry entry : entries.values()) {
+            if (entry.reflection.getClassLoader() == reflection.getClassLoader()) {
+                entry.users--;
+                return;
+            }
+        }
+        Iterator<Entry> iterator = evicted.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.reflection.getClassLoader() != reflection.getClassLoader()) {
+                continue;
+            }
+            if (--entry.users == 0) {
+                iterator.remove();
+                close(entry.reflection);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Retrieves the number of scans currently stored
+     * @return Int value
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Called by {@link SharedReflections#acquire(List)} to remove the least recently used scans that exceed the limit.
+     * Class loaders of the scans that are not in use are closed right away. The rest are closed upon release
+     */
+    private void evictEldest() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > MAX_ENTRIES && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            if (eldest.users > 0) {
+                evicted.add(eldest);
+            } else {
+                close(eldest.reflection);
+            }
+        }
+    }
+
+    /**
+     * Closes the class loader of the given {@link ReflectionContextHelper}
+     * @param reflection {@code ReflectionContextHelper} object
+     */
+    private static void close(ReflectionContextHelper reflection) {
+        if (!(reflection.getClassLoader() instanceof URLClassLoader)) {
+            return;
+        }
+        try {
+            ((URLClassLoader) reflection.getClassLoader()).close();
+        } catch (IOException e) {
+            LOG.warn(CLASS_LOADER_EXCEPTION_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Represents a stored classpath scan together with the number of executions that use it
+     */
+    private static class Entry {
+        private final ReflectionContextHelper reflection;
+        private int users;
+
+        /**
+         * Creates a new {@link Entry} instance
+         * @param reflection {@code ReflectionContextHelper} object
+         */
+        Entry(ReflectionContextHelper reflection) {
+            this.reflection = reflection;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
+import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.utils.ClassFileUtil;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+import com.exadel.aem.toolkit.plugin.writers.PackageWriter;
+
+/**
+ * Represents the long-running "watch" goal of the ToolKit Maven plugin. The goal stays in the current JVM and watches
+ * the folders with the compiled classes of the current module and of the modules it depends on within the Maven
+ * reactor, as well as any other folders on the classpath. Whenever the classes change (e.g., are recompiled by an IDE),
+ * the AEM components affected by the change are rendered again into the package or into an "exploded" package folder
+ * <p>A single {@link LoadedRuntimeContext} is kept for the whole run. The classpath elements that are not watched
+ * (e.g., JAR files) are loaded and scanned once; upon a change, only the classes of the watched folders are loaded anew
+ * with a fresh nested class loader</p>
+ * <p>Unlike the main goal, this one is never relaunched in a JVM specified by a Maven toolchain</p>
+ */
+@Mojo(
+    name = WatchMojo.WATCH_GOAL,
+    requiresDependencyCollection = ResolutionScope.COMPILE,
+    requiresDependencyResolution = ResolutionScope.COMPILE
+)
+@SuppressWarnings("unused")
+public class WatchMojo extends PluginMojo {
+    private static final Logger LOG = LoggerFactory.getLogger(DialogConstants.ARTIFACT_NAME);
+
+    static final String WATCH_GOAL = "watch";
+
+    private static final String WATCH_START_MESSAGE = "Watching {} for changes. Press Ctrl+C to stop";
+    private static final String WATCH_RENDERING_MESSAGE = "{} component(-s) processed in {} ms";
+    private static final String WATCH_EXCEPTION_MESSAGE = "Could not watch the folders %s: %s";
+    private static final String CONTEXT_EXCEPTION_MESSAGE = "Could not initialize the plugin runtime";
+    private static final String CLASS_LOADER_EXCEPTION_MESSAGE = "Could not release the classes loaded previously: {}";
+
+    @Parameter(property = "watchDirectory", readonly = true)
+    private String watchDirectory;
+
+    @Parameter(defaultValue = "200", property = "watchDelay", readonly = true)
+    private int watchDelay;
+
+    /**
+     * Executes the "watch" goal. Components are rendered once upon start and then every time the compiled classes in
+     * the watched folders change. The goal runs until the Maven process is stopped
+     * @throws MojoExecutionException if the required dependencies cannot be resolved or the folders with the compiled
+     *                                classes cannot be watched
+     */
+    @Override
+    public void execute() throws MojoExecutionException {
+        // Incremental rendering is always on so that the affected components that have not actually changed are skipped
+        PluginSettings pluginSettings = getSettingsBuilder().incremental(true).build();
+        List<String> classpathElements = getClasspathElements();
+        List<String> watchedElements = getWatchedElements(classpathElements);
+        List<Path> watchedDirectories = watchedElements.stream().map(Paths::get).collect(Collectors.toList());
+
+        ReflectionContextHelper stableReflection = ReflectionContextHelper.fromCodeScope(
+            getStableElements(classpathElements, watchedElements));
+        PluginRuntime.contextBuilder()
+            .classPathElements(classpathElements)
+            .reflection(stableReflection.extend(watchedElements))
+            .settings(pluginSettings)
+            .build();
+        if (!(PluginRuntime.context() instanceof LoadedRuntimeContext)) {
+            throw new MojoExecutionException(CONTEXT_EXCEPTION_MESSAGE);
+        }
+        LoadedRuntimeContext context = (LoadedRuntimeContext) PluginRuntime.context();
+        ClassChangeTracker tracker = new ClassChangeTracker(watchedDirectories);
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> registeredDirectories = new HashSet<>();
+            for (Path directory : watchedDirectories) {
+                Files.createDirectories(directory);
+                register(watchService, directory, registeredDirectories);
+            }
+            LOG.info(WATCH_START_MESSAGE, watchedDirectories);
+            render(context.getReflection().getComponents(getComponentsReferenceBase()));
+            Set<String> changedClasses = awaitChanges(watchService, tracker, registeredDirectories);
+            while (changedClasses != null) {
+                if (!changedClasses.isEmpty()) {
+                    tracker.invalidate(changedClasses);
+                    reload(context, stableReflection, watchedElements);
+                    render(getAffectedComponents(context, tracker, changedClasses));
+                }
+                changedClasses = awaitChanges(watchService, tracker, registeredDirectories);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(String.format(WATCH_EXCEPTION_MESSAGE, watchedDirectories, e.getMessage()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            release(context.getReflection());
+            PluginRuntime.close();
+        }
+    }
+
+    /**
+     * Renders the given AEM components. Exceptions are logged without stopping the goal
+     * @param components List of {@link ComponentSource} objects
+     */
+    private void render(List<ComponentSource> components) {
+        long start = System.currentTimeMillis();
+        try (PackageWriter packageWriter = StringUtils.isNotBlank(watchDirectory)
+            ? PackageWriter.forDirectory(getProject(), Paths.get(getProject().getBasedir().getPath()).resolve(watchDirectory))
+            : PackageWriter.forMavenProject(getProject())) {
+            int processedCount = packageWriter.write(components);
+            LOG.info(WATCH_RENDERING_MESSAGE, processedCount, System.currentTimeMillis() - start);
+        } catch (PluginException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves the AEM components affected by the change of the given classes
+     * @param context        {@link LoadedRuntimeContext} with the classes loaded anew
+     * @param tracker        {@link ClassChangeTracker} that stores the dependencies between classes
+     * @param changedClasses Set of internal names of the changed classes
+     * @return List of {@link ComponentSource} objects; can be empty
+     */
+    private List<ComponentSource> getAffectedComponents(
+        LoadedRuntimeContext context,
+        ClassChangeTracker tracker,
+        Set<String> changedClasses) {
+
+        ReflectionContextHelper reflection = context.getReflection();
+        List<Class<?>> extensionClasses = Stream
+            .concat(reflection.getHandlers().stream(), reflection.getValidators().stream())
+            .map(Object::getClass)
+            .collect(Collectors.toList());
+        return tracker.getAffectedComponents(
+            reflection.getComponents(getComponentsReferenceBase()),
+            extensionClasses,
+            changedClasses);
+    }
+
+    /**
+     * Retrieves the classpath elements that are watched for changes. These are the output folders of the current
+     * module and of the modules it depends on within the Maven reactor, and other folders present in the classpath
+     * @param classpathElements List of classpath elements
+     * @return List of strings representing paths to folders
+     */
+    private List<String> getWatchedElements(List<String> classpathElements) {
+        Set<String> result = new LinkedHashSet<>();
+        getUpstreamProjects().forEach(project -> result.add(project.getBuild().getOutputDirectory()));
+        classpathElements.stream().filter(element -> new File(element).isDirectory()).forEach(result::add);
+        result.add(getProject().getBuild().getOutputDirectory());
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Retrieves the classpath elements that are not watched. The archives of the modules of the Maven reactor that are
+     * watched via their output folders are excluded, so that the stale classes stored in them do not take precedence
+     * over the classes being changed
+     * @param classpathElements List of classpath elements
+     * @param watchedElements   List of watched classpath elements
+     * @return List of strings representing paths to archives
+     */
+    private List<String> getStableElements(List<String> classpathElements, List<String> watchedElements) {
+        Set<String> upstreamKeys = getUpstreamProjects()
+            .stream()
+            .map(project -> project.getGroupId() + CoreConstants.SEPARATOR_COLON + project.getArtifactId())
+            .collect(Collectors.toSet());
+        Set<String> replacedElements = getProject().getArtifacts()
+            .stream()
+            .filter(artifact -> upstreamKeys.contains(artifact.getGroupId() + CoreConstants.SEPARATOR_COLON + artifact.getArtifactId()))
+            .map(Artifact::getFile)
+            .filter(Objects::nonNull)
+            .map(File::getPath)
+            .collect(Collectors.toSet());
+        return classpathElements
+            .stream()
+            .filter(element -> !watchedElements.contains(element) && !replacedElements.contains(element))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the modules of the Maven reactor that the current module depends on, directly or transitively
+     * @return List of {@code MavenProject} objects; can be empty
+     */
+    private List<MavenProject> getUpstreamProjects() {
+        MavenSession session = getSession();
+        if (session == null || session.getProjectDependencyGraph() == null) {
+            return Collections.emptyList();
+        }
+        return session.getProjectDependencyGraph().getUpstreamProjects(getProject(), true);
+    }
+
+    /**
+     * Waits until the content of the watched folders changes. Changes that follow each other within the configured
+     * delay are treated as one, so that recompiling several classes triggers rendering only once
+     * @param watchService          {@code WatchService} object
+     * @param tracker               {@link ClassChangeTracker} used to recognize class files
+     * @param registeredDirectories Collection of folders that are already registered with the {@code watchService}
+     * @return Set of internal names of the changed classes; can be empty if only other files changed. Null if the watch
+     * service is no longer valid
+     * @throws IOException          if registering new folders fails
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    private Set<String> awaitChanges(WatchService watchService, ClassChangeTracker tracker, Set<Path> registeredDirectories)
+        throws IOException, InterruptedException {
+
+        Set<String> result = new HashSet<>();
+        Set<Path> changedDirectories = new HashSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events have been lost, so all the classes in the folder are considered changed
+                    changedDirectories.add(directory);
+                    continue;
+                }
+                String className = tracker.getClassName(directory.resolve((Path) event.context()));
+                if (className != null) {
+                    result.add(className);
+                }
+            }
+            if (!key.reset()) {
+                registeredDirectories.remove(directory);
+            }
+            key = watchService.poll(Math.max(watchDelay, 0), TimeUnit.MILLISECONDS);
+        }
+        // Folders created since the previous check (e.g., for new packages) are watched as well. The classes stored in
+        // them before they were registered are considered changed
+        for (Path directory : tracker.getDirectories()) {
+            changedDirectories.addAll(register(watchService, directory, registeredDirectories));
+        }
+        for (Path directory : changedDirectories) {
+            collectClasses(directory, tracker, result);
+        }
+        return registeredDirectories.isEmpty() ? null : result;
+    }
+
+    /**
+     * Reloads the classes of the watched folders and assigns the resulting {@link ReflectionContextHelper} to the
+     * given context. The classes loaded previously are released
+     * @param context          {@link LoadedRuntimeContext} object
+     * @param stableReflection {@code ReflectionContextHelper} that covers the classpath elements that are not watched
+     * @param watchedElements  List of watched classpath elements
+     */
+    private static void reload(
+        LoadedRuntimeContext context,
+        ReflectionContextHelper stableReflection,
+        List<String> watchedElements) {
+
+        ReflectionContextHelper previous = context.getReflection();
+        context.setReflection(stableReflection.extend(watchedElements));
+        release(previous);
+    }
+
+    /**
+     * Closes the class loader of the given {@link ReflectionContextHelper} created for the watched folders
+     * @param reflection {@code ReflectionContextHelper} object
+     */
+    private static void release(ReflectionContextHelper reflection) {
+        if (!(reflection.getClassLoader() instanceof URLClassLoader)) {
+            return;
+        }
+        try {
+            ((URLClassLoader) reflection.getClassLoader()).close();
+        } catch (IOException e) {
+            LOG.warn(CLASS_LOADER_EXCEPTION_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Collects the names of the classes stored directly in the given folder
+     * @param directory {@code Path} of the folder
+     * @param tracker   {@link ClassChangeTracker} used to recognize class files
+     * @param result    Set of internal class names to add to
+     * @throws IOException if the folder cannot be read
+     */
+    private static void collectClasses(Path directory, ClassChangeTracker tracker, Set<String> result) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files
+                .filter(file -> file.toString().endsWith(ClassFileUtil.CLASS_FILE_EXTENSION))
+                .map(tracker::getClassName)
+                .filter(Objects::nonNull)
+                .forEach(result::add);
+        }
+    }
+
+    /**
+     * Registers the given folder and its nested folders with the watch service unless already registered
+     * @param watchService          {@code WatchService} object
+     * @param directory             {@code Path} of the root folder
+     * @param registeredDirectories Collection of folders that are already registered with the {@code watchService}
+     * @return List of the folders that have been registered by this call
+     * @throws IOException if the folders cannot be read or registered
+     */
+    private static List<Path> register(WatchService watchService, Path directory, Set<Path> registeredDirectories)
+        throws IOException {
+
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<Path> directories;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            directories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+        List<Path> result = new ArrayList<>();
+        for (Path path : directories) {
+            if (registeredDirectories.add(path)) {
+                path.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+                result.add(path);
+            }
+        }
+        return result;
+    }
+}
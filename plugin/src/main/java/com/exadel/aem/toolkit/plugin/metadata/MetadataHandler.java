@@ -18,6 +18,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
@@ -79,7 +80,9 @@ class MetadataHandler<T> implements InvocationHandler {
 
     private final T source;
     private final Class<?> type;
-    private final Map<String, Object> properties;
+    private final MetadataType metadataType;
+    private Map<String, Object> properties;
+    private Object[] sourceValues;
 
     /**
      * Constructs an instance of {@code InterfaceHandler} class with its type and the dictionary of property values set
@@ -113,7 +116,7 @@ class MetadataHandler<T> implements InvocationHandler {
     private MetadataHandler(T source, Class<?> type, Map<String, Object> properties) {
         this.source = source;
         this.type = type;
-        this.properties = new HashMap<>();
+        this.metadataType = MetadataType.of(type);
         if (properties != null) {
             properties.forEach((key, value) -> putValue(PropertyPath.parse(key), value));
         }
@@ -128,6 +131,10 @@ class MetadataHandler<T> implements InvocationHandler {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) {
+        int slot = metadataType.getSlot(method);
+        if (slot >= 0) {
+            return getValue(slot);
+        }
         InvocationResult invocation = tryInvokeStandardMember(method, args);
         if (invocation.isDone()) {
             return invocation.getResult();
@@ -469,6 +476,40 @@ class MetadataHandler<T> implements InvocationHandler {
         return Spliterators.spliteratorUnknownSize(iterator, 0);
     }
 
+    /* ----------------
+       Overriding values
+       ---------------- */
+
+    /**
+     * Gets whether the property with the given name has an overriding value. Overriding values are stored when a
+     * property is assigned and take precedence over the values of the source object
+     * @param name Name of the property
+     * @return True or false
+     */
+    private boolean isOverridden(String name) {
+        return properties != null && properties.containsKey(name);
+    }
+
+    /**
+     * Retrieves the overriding values of the properties
+     * @return {@code Map} instance. Can be an immutable empty map if no values have been assigned yet
+     */
+    private Map<String, Object> getOverrides() {
+        return properties != null ? properties : Collections.emptyMap();
+    }
+
+    /**
+     * Retrieves the overriding values of the properties for modification. The map is created upon the first
+     * assignment so that the {@code Metadata} objects that are only read do not allocate it
+     * @return {@code Map} instance
+     */
+    private Map<String, Object> getOrCreateOverrides() {
+        if (properties == null) {
+            properties = new HashMap<>();
+        }
+        return properties;
+    }
+
     /* -----------------------
        <Metadata> #get logic
        ----------------------- */
@@ -492,12 +533,13 @@ class MetadataHandler<T> implements InvocationHandler {
      * @see PropertyPath
      */
     private Property getProperty(PropertyPath path, boolean throwOnMissing) {
-        PropertyPathElement element = path.getElements().remove();
+        PropertyPathElement element = path.getFirstElement();
+        PropertyPath remainingPath = path.getRemainingPath();
         String name = element.getName();
         if (FIELD_SOURCE.equals(name)) {
             return new Property(name, source);
         } else if (FIELD_PROPERTIES.equals(name)) {
-            return new Property(name, properties);
+            return new Property(name, getOverrides());
         }
         Property result = getProperty(path.getPath(), name, throwOnMissing, true);
         if (result.getValue() == null) {
@@ -511,8 +553,8 @@ class MetadataHandler<T> implements InvocationHandler {
                 return result;
             }
         }
-        if (result.getComponentType().isAnnotation() && !path.getElements().isEmpty()) {
-            return Metadata.from((Annotation) result.getValue()).getProperty(path);
+        if (result.getComponentType().isAnnotation() && remainingPath.getLength() > 0) {
+            return Metadata.from((Annotation) result.getValue()).getProperty(remainingPath);
         }
         return result;
     }
@@ -527,15 +569,20 @@ class MetadataHandler<T> implements InvocationHandler {
      * @see PropertyPath
      */
     private Property getProperty(String path, String name, boolean throwOnMissingMethod, boolean substituteMissingValue) {
+        int slot = metadataType.getSlot(name);
         try {
-            Method method = type.getDeclaredMethod(name);
-            Object value = getDefaultReturnValue(method, substituteMissingValue);
-            if (source != null) {
-                value = method.invoke(source);
+            if (slot < 0) {
+                throw new NoSuchMethodException(type.getName() + CoreConstants.SEPARATOR_DOT + name);
             }
-            if (properties != null && properties.containsKey(name)) {
-                value = properties.get(method.getName());
+            Method method = metadataType.getMethod(slot);
+            Object value;
+            if (isOverridden(name)) {
+                value = properties.get(name);
                 value = value != null ? value : getDefaultReturnValue(method, substituteMissingValue);
+            } else if (source != null) {
+                value = getSourceValue(slot);
+            } else {
+                value = getDefaultReturnValue(method, substituteMissingValue);
             }
             return new MethodBackedProperty(path, method, value);
         } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
@@ -549,6 +596,61 @@ class MetadataHandler<T> implements InvocationHandler {
         return Property.EMPTY;
     }
 
+    /**
+     * Retrieves the value of the property stored in the given slot. This is the route for reading annotation properties
+     * via the proxied methods which bypasses the rest of invocation handling
+     * @param slot Index of the slot
+     * @return A nullable value
+     * @see MetadataType
+     */
+    private Object getValue(int slot) {
+        Method method = metadataType.getMethod(slot);
+        if (isOverridden(method.getName())) {
+            Object value = properties.get(method.getName());
+            return value != null ? value : getDefaultReturnValue(method, true);
+        }
+        if (source == null) {
+            return getDefaultReturnValue(method, true);
+        }
+        try {
+            return getSourceValue(slot);
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            PluginRuntime
+                .context()
+                .getExceptionHandler()
+                .handle(new ReflectionException(String.format(VALUE_EXCEPTION_TEMPLATE, method.getName()), e));
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the value of the source object's property stored in the given slot. Values are read from the source
+     * once and then reused. Array values are copied so that the caller can modify them
+     * @param slot Index of the slot
+     * @return A nullable value
+     * @throws InvocationTargetException If the source method throws an exception
+     * @throws IllegalAccessException    If the source method is not accessible
+     */
+    private Object getSourceValue(int slot) throws InvocationTargetException, IllegalAccessException {
+        Object[] values = sourceValues;
+        if (values == null) {
+            values = new Object[metadataType.getSize()];
+            sourceValues = values;
+        }
+        Object value = values[slot];
+        if (value == null) {
+            value = metadataType.getMethod(slot).invoke(source);
+            values[slot] = value;
+        }
+        if (value == null || !value.getClass().isArray() || Array.getLength(value) == 0) {
+            return value;
+        }
+        int length = Array.getLength(value);
+        Object result = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, result, 0, length);
+        return result;
+    }
+
     /**
      * Retrieves a default value for a method based on the method return type. This method mainly address the case when
      * a {@link Metadata} is created from just type and aims to make sure that as many annotation properties as possible
@@ -617,10 +719,10 @@ class MetadataHandler<T> implements InvocationHandler {
      * @return The value assigned
      */
     private Object putValue(PropertyPath path, Object value) {
-        if (path.getElements().size() > 1) {
+        if (path.getLength() > 1) {
             return putInTree(path, value);
         }
-        PropertyPathElement element = path.getElements().remove();
+        PropertyPathElement element = path.getFirstElement();
         Property currentProperty = getProperty(path.getPath(), element.getName(), true, false);
         if (Property.EMPTY.equals(currentProperty)) {
             // Probably a nonexistent property name. An exception is already handled
@@ -637,13 +739,13 @@ class MetadataHandler<T> implements InvocationHandler {
                 currentProperty.getValue(),
                 currentProperty.getComponentType(),
                 element.getIndex());
-            properties.put(element.getName(), modifiedValue);
+            getOrCreateOverrides().put(element.getName(), modifiedValue);
             Array.set(modifiedValue, element.getIndex(), value);
             return value;
         }
 
         if (validateValueType(element, path, value)) {
-            return properties.put(element.getName(), value);
+            return getOrCreateOverrides().put(element.getName(), value);
         }
         return null;
     }
@@ -657,7 +759,7 @@ class MetadataHandler<T> implements InvocationHandler {
      */
     @SuppressWarnings("unchecked")
     private Object putInTree(PropertyPath path, Object value) {
-        PropertyPathElement element = path.getElements().remove();
+        PropertyPathElement element = path.getFirstElement();
         Property currentProperty = getProperty(path.getPath(), element.getName(), true, false);
         if (Property.EMPTY.equals(currentProperty)) {
             // Probably a nonexistent property name. An exception is already handled
@@ -675,7 +777,7 @@ class MetadataHandler<T> implements InvocationHandler {
                 currentProperty.getValue(),
                 currentProperty.getComponentType(),
                 element.getIndex());
-            properties.put(element.getName(), existingValue);
+            getOrCreateOverrides().put(element.getName(), existingValue);
             existingValue = Array.get(existingValue, element.getIndex());
         }
         if (!currentProperty.getComponentType().isAnnotation()) {
@@ -694,12 +796,12 @@ class MetadataHandler<T> implements InvocationHandler {
             if (mustWriteToArray) {
                 Array.set(properties.get(element.getName()), element.getIndex(), metadata);
             } else {
-                properties.put(element.getName(), metadata);
+                getOrCreateOverrides().put(element.getName(), metadata);
             }
         } else {
             metadata = (Metadata) existingValue;
         }
-        return metadata.putValue(path, value);
+        return metadata.putValue(path.getRemainingPath(), value);
     }
 
     /**
@@ -759,18 +861,16 @@ class MetadataHandler<T> implements InvocationHandler {
         if (value == null) {
             return true;
         }
-        boolean result;
-        try {
-            Method method = type.getDeclaredMethod(element.getName());
-            Class<?> methodType = method.getReturnType();
-            if (methodType.isArray() && !value.getClass().isArray() && lookUpArray) {
-                methodType = methodType.getComponentType();
-            }
-            result = ClassUtils.isAssignable(value.getClass(), methodType);
-        } catch (NoSuchMethodException e) {
-            // An exception is not expected here because the method name has already been trialed
+        Method method = metadataType.getMethod(element.getName());
+        if (method == null) {
+            // Not expected here because the method name has already been trialed
             return false;
         }
+        Class<?> methodType = method.getReturnType();
+        if (methodType.isArray() && !value.getClass().isArray() && lookUpArray) {
+            methodType = methodType.getComponentType();
+        }
+        boolean result = ClassUtils.isAssignable(value.getClass(), methodType);
         if (!result) {
             PluginRuntime
                 .context()
@@ -834,15 +934,15 @@ class MetadataHandler<T> implements InvocationHandler {
      */
     @Override
     public String toString() {
-        if (source == null && properties.isEmpty()) {
+        if (source == null && getOverrides().isEmpty()) {
             return String.valueOf(type);
         }
         StringBuilder result = new StringBuilder(CoreConstants.SEPARATOR_AT)
             .append(type.getName())
             .append(DialogConstants.OPENING_CURLY);
-        for (Method method : type.getDeclaredMethods()) {
+        for (Method method : metadataType.getMethods()) {
             Object methodValue = source != null ? invokeSilently(method, source) : null;
-            methodValue = properties.getOrDefault(method.getName(), methodValue);
+            methodValue = getOverrides().getOrDefault(method.getName(), methodValue);
             boolean isDefaultMethodValue = false;
             if (methodValue == null) {
                 methodValue = getDefaultReturnValue(method, true);
@@ -901,7 +1001,7 @@ class MetadataHandler<T> implements InvocationHandler {
         return new EqualsBuilder()
             .append(source, that.getValue(FIELD_SOURCE))
             .append(type, that.annotationType())
-            .append(properties, that.getValue(FIELD_PROPERTIES))
+            .append(getOverrides(), that.getValue(FIELD_PROPERTIES))
             .isEquals();
     }
 
@@ -913,7 +1013,7 @@ class MetadataHandler<T> implements InvocationHandler {
         return new HashCodeBuilder(HASH_INITIAL_NUMBER, HASH_MULTIPLIER)
             .append(source)
             .append(type)
-            .append(properties)
+            .append(getOverrides())
             .toHashCode();
     }
 
@@ -970,10 +1070,8 @@ class MetadataHandler<T> implements InvocationHandler {
          *                   {@link Iterator#next()}
          */
         private void collect(Annotation target, String pathPrefix, Queue<Property> collection) {
-            Method[] methods = target != null
-                ? target.annotationType().getDeclaredMethods()
-                : type.getDeclaredMethods();
-            for (Method method : methods) {
+            MetadataType targetType = target != null ? MetadataType.of(target.annotationType()) : metadataType;
+            for (Method method : targetType.getMethods()) {
                 collect(target, method, pathPrefix, collection);
             }
         }
@@ -1019,7 +1117,7 @@ class MetadataHandler<T> implements InvocationHandler {
          * @return A nullable value
          */
         private Object invokeInCurrentObjectSilently(Method method) {
-            if (MetadataHandler.this.properties != null && MetadataHandler.this.properties.containsKey(method.getName())) {
+            if (isOverridden(method.getName())) {
                 return MetadataHandler.this.properties.get(method.getName());
             }
             return source != null ? invokeSilently(method, source) : null;
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.metadata;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the properties of a type (usually, an annotation) exposed via a {@link Metadata} object. Every property
+ * is assigned a slot, that is, an index under which the property method and its value can be addressed without
+ * reflective lookups. Descriptors are created once per type and reused by all the {@link MetadataHandler}s of that type
+ */
+class MetadataType {
+
+    private static final ClassValue<MetadataType> TYPES = new ClassValue<MetadataType>() {
+        @Override
+        protected MetadataType computeValue(Class<?> type) {
+            return new MetadataType(type);
+        }
+    };
+
+    private final List<Method> methods;
+    private final Map<String, Integer> slotsByName;
+    private final Map<Method, Integer> slotsByMethod;
+
+    /**
+     * Initializes a class instance for the given type
+     * @param type {@code Class} reference, not null
+     */
+    private MetadataType(Class<?> type) {
+        Method[] declaredMethods = type.getDeclaredMethods();
+        methods = Collections.unmodifiableList(Arrays.asList(declaredMethods));
+        slotsByName = new HashMap<>();
+        slotsByMethod = new HashMap<>();
+        for (int i = 0; i < declaredMethods.length; i++) {
+            Method method = declaredMethods[i];
+            if (method.getParameterCount() > 0 || method.isBridge() || slotsByName.containsKey(method.getName())) {
+                continue;
+            }
+            slotsByName.put(method.getName(), i);
+            slotsByMethod.put(method, i);
+        }
+    }
+
+    /**
+     * Retrieves the methods declared in the type
+     * @return An unmodifiable list of {@code Method} objects
+     */
+    List<Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Retrieves the property method stored in the given slot
+     * @param slot Index of the slot
+     * @return {@code Method} instance
+     */
+    Method getMethod(int slot) {
+        return methods.get(slot);
+    }
+
+    /**
+     * Retrieves the property method with the given name
+     * @param name Name of the property
+     * @return {@code Method} instance, or {@code null} if there is no such property
+     */
+    Method getMethod(String name) {
+        Integer slot = slotsByName.get(name);
+        return slot != null ? methods.get(slot) : null;
+    }
+
+    /**
+     * Retrieves the slot of the given property method
+     * @param method {@code Method} instance
+     * @return Index of the slot, or {@code -1} if the method does not represent a property of the type
+     */
+    int getSlot(Method method) {
+        Integer slot = slotsByMethod.get(method);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Retrieves the slot of the property with the given name
+     * @param name Name of the property
+     * @return Index of the slot, or {@code -1} if there is no such property
+     */
+    int getSlot(String name) {
+        Integer slot = slotsByName.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Retrieves the number of slots in the type. Use this value to allocate arrays of property values
+     * @return Integer value
+     */
+    int getSize() {
+        return methods.size();
+    }
+
+    /**
+     * Retrieves the descriptor of the given type
+     * @param type {@code Class} reference, not null
+     * @return {@code MetadataType} instance
+     */
+    static MetadataType of(Class<?> type) {
+        return TYPES.get(type);
+    }
+}
@@ -13,8 +13,8 @@
  */
 package com.exadel.aem.toolkit.plugin.metadata;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,27 +24,35 @@ import com.exadel.aem.toolkit.core.CoreConstants;
 
 /**
  * Represents a parsed property path as a string and a sequence of {@link PropertyPathElement} objects. The path
- * string can contain elements separated by either a slash or a dot
+ * string can contain elements separated by either a slash or a dot. Instances are immutable. Paths parsed from strings
+ * are cached, so that the same string is parsed only once
  */
 public class PropertyPath {
     private static final Pattern ORDINAL_PATTERN = Pattern.compile("\\[(\\d+)]$");
     private static final String METHOD_PATTERN = "()";
 
+    private static final int MAX_CACHED_PATHS = 4096;
+    private static final Map<String, PropertyPath> CACHE = new ConcurrentHashMap<>();
+
     private final String path;
-    private final Queue<PropertyPathElement> elements;
+    private final PropertyPathElement[] elements;
+    private final int offset;
 
     /**
      * Constructs a new {@link PropertyPath} instance with the specified path and elements.
      * @param path     The string representation of the property path. A non-null value is expected
-     * @param elements The sequence of {@link PropertyPathElement} objects. A non-null value is expected
+     * @param elements The array of {@link PropertyPathElement} objects. A non-null value is expected
+     * @param offset   The position of the first element of the current path within the array
      */
-    private PropertyPath(String path, Queue<PropertyPathElement> elements) {
+    private PropertyPath(String path, PropertyPathElement[] elements, int offset) {
         this.path = path;
         this.elements = elements;
+        this.offset = offset;
     }
 
     /**
-     * Retrieves the string representation of the property path
+     * Retrieves the string representation of the property path. For a path obtained with
+     * {@link PropertyPath#getRemainingPath()}, this is the string representation of the original path
      * @return A non-null string value
      */
     public String getPath() {
@@ -52,26 +60,60 @@ public class PropertyPath {
     }
 
     /**
-     * Retrieves the sequence of {@link PropertyPathElement} objects
-     * @return {@code Queue} instance
+     * Retrieves the number of {@link PropertyPathElement}s in the current path
+     * @return Integer value
+     */
+    public int getLength() {
+        return elements.length - offset;
+    }
+
+    /**
+     * Retrieves the first {@link PropertyPathElement} of the current path
+     * @return {@code PropertyPathElement} instance, or {@code null} if the path is empty
      */
-    public Queue<PropertyPathElement> getElements() {
-        return elements;
+    public PropertyPathElement getFirstElement() {
+        return offset < elements.length ? elements[offset] : null;
+    }
+
+    /**
+     * Retrieves the path that consists of the elements of the current path except for the first one
+     * @return {@code PropertyPath} instance; can be empty
+     */
+    public PropertyPath getRemainingPath() {
+        return new PropertyPath(path, elements, Math.min(offset + 1, elements.length));
     }
 
     /**
      * Parses the provided path into a {@link PropertyPath} object. The path string is split into chunks based on the
-     * presence of a slash or a dot. Each element is then parsed into a {@link PropertyPathElement}
+     * presence of a slash or a dot. Each element is then parsed into a {@link PropertyPathElement}. The result is
+     * shared between the callers that pass the same string
      * @param path The string representation of the property path. A non-null value is expected
      * @return {@link PropertyPath} object representing the parsed path
      */
     public static PropertyPath parse(String path) {
+        PropertyPath result = CACHE.get(path);
+        if (result != null) {
+            return result;
+        }
+        result = parseUncached(path);
+        if (CACHE.size() < MAX_CACHED_PATHS) {
+            CACHE.putIfAbsent(path, result);
+        }
+        return result;
+    }
+
+    /**
+     * Called by {@link PropertyPath#parse(String)} to parse a path that is not found in the cache
+     * @param path The string representation of the property path. A non-null value is expected
+     * @return {@link PropertyPath} object representing the parsed path
+     */
+    private static PropertyPath parseUncached(String path) {
         String delimiter = getDelimiter(path);
         String effectivePath = StringUtils.strip(path, CoreConstants.SEPARATOR_SLASH + CoreConstants.SEPARATOR_DOT);
         String[] pathChunks = delimiter != null ? StringUtils.split(effectivePath, delimiter) : new String[]{effectivePath};
-        Queue<PropertyPathElement> elements = new LinkedList<>();
-        for (String pathChunk : pathChunks) {
-            String name = pathChunk;
+        PropertyPathElement[] elements = new PropertyPathElement[pathChunks.length];
+        for (int i = 0; i < pathChunks.length; i++) {
+            String name = pathChunks[i];
             int ordinal = -1;
             Matcher ordinalMatcher = ORDINAL_PATTERN.matcher(name);
             if (ordinalMatcher.find()) {
@@ -81,9 +123,9 @@ public class PropertyPath {
             if (StringUtils.endsWith(name, METHOD_PATTERN)) {
                 name = StringUtils.substring(name, 0, METHOD_PATTERN.length() * -1);
             }
-            elements.add(new PropertyPathElement(name, ordinal));
+            elements[i] = new PropertyPathElement(name, ordinal);
         }
-        return new PropertyPath(path, elements);
+        return new PropertyPath(path, elements, 0);
     }
 
     /**
@@ -102,4 +144,11 @@ public class PropertyPath {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return path;
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.metadata.scripting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stores a limited number of compiled scripting entities keyed by their source strings. When the capacity is
+ * exceeded, the least recently used entry is dropped, so that the cache does not grow with the scripts of class
+ * versions that are no longer in use (e.g., across the rebuilds of a watch session)
+ * @param <V> Type of the compiled entity
+ */
+class CompilationCache<V> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, V> entries;
+
+    /**
+     * Creates a new {@link CompilationCache} instance
+     * @param capacity Maximal number of entries retained
+     */
+    CompilationCache(int capacity) {
+        this.entries = new LinkedHashMap<String, V>(capacity, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the entity stored for the provided key, or else compiles it with the provided function and stores the
+     * result. The compilation runs outside the lock, so that concurrent callers are not blocked by each other
+     * @param key      The source string
+     * @param compiler {@code Function} that produces the entity from the source string
+     * @return The compiled entity
+     */
+    V get(String key, Function<String, V> compiler) {
+        synchronized (entries) {
+            V result = entries.get(key);
+            if (result != null) {
+                return result;
+            }
+        }
+        V result = compiler.apply(key);
+        synchronized (entries) {
+            V existing = entries.putIfAbsent(key, result);
+            return existing != null ? existing : result;
+        }
+    }
+
+    /**
+     * Retrieves the number of entries currently stored
+     * @return Int value
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -16,9 +16,13 @@ package com.exadel.aem.toolkit.plugin.metadata.scripting;
 import java.lang.reflect.Member;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -26,6 +30,7 @@ import org.mozilla.javascript.ClassShutter;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.Undefined;
@@ -36,6 +41,7 @@ import com.exadel.aem.toolkit.plugin.exceptions.ScriptingException;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
 import com.exadel.aem.toolkit.plugin.metadata.Metadata;
 import com.exadel.aem.toolkit.plugin.metadata.Property;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.sources.ModifiableMemberSource;
 import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
 
@@ -48,6 +54,12 @@ public class ScriptingHelper {
     private static final ClassShutter DEFAULT_CLASS_SHUTTER = className ->
         StringUtils.startsWith(className, CoreConstants.ROOT_PACKAGE);
 
+    private static final ScriptableObject SHARED_SCOPE = createSharedScope();
+    private static final int MAX_COMPILED_SCRIPTS = 1024;
+    private static final CompilationCache<Script> COMPILED_SCRIPTS = new CompilationCache<>(MAX_COMPILED_SCRIPTS);
+    private static final CompilationCache<Optional<TemplateExpression>> COMPILED_EXPRESSIONS =
+        new CompilationCache<>(MAX_COMPILED_SCRIPTS);
+
     private static final String PN_SETTINGS = "settings";
     private static final String PN_SOURCE = "source";
 
@@ -66,11 +78,12 @@ public class ScriptingHelper {
 
     /**
      * Replaces inline scripting templates in the provided {@link Metadata} instance with corresponding computed values
-     * using the provided {@link Source} as the context
+     * using the provided {@link Source} as the context. This method is thread-safe: every call is evaluated in its
+     * own scope that inherits the sealed standard objects shared between calls
      * @param value  {@code Metadata} instance to process
      * @param source {@code Source} instance to be used as the data context
      */
-    public static synchronized void interpolate(Metadata value, Source source) {
+    public static void interpolate(Metadata value, Source source) {
         if (value == null) {
             return;
         }
@@ -90,14 +103,13 @@ public class ScriptingHelper {
 
         DataStack dataStack = source.adaptTo(DataStack.class);
 
-        try (Context context = CONTEXT_FACTORY.enterContext()) {
-            context.setLanguageVersion(Context.VERSION_ES6);
-            context.setClassShutter(DEFAULT_CLASS_SHUTTER);
-            Scriptable scope = context.initStandardObjects();
-            ScriptableObject.putProperty(scope, PN_SOURCE, Context.javaToJS(adapter, scope));
-            ScriptableObject.putProperty(scope, PN_SETTINGS, Context.javaToJS(new MapAdapter(dataStack.getData()), scope));
+        try (
+            ProfilingContextHelper.Measurement ignored = PluginRuntime.context()
+                .getProfiling()
+                .start(ProfilingContextHelper.Category.SCRIPTING, value.annotationType().getName());
+            ScriptScope scope = new ScriptScope(adapter, dataStack)) {
             for (TemplatedProperty property : templatedProperties) {
-                String result = interpolate(property, context, scope, dataStack);
+                String result = interpolate(property, scope);
                 value.putValue(property.getPath(), result);
             }
         } catch (IllegalStateException e) {
@@ -106,21 +118,13 @@ public class ScriptingHelper {
     }
 
     /**
-     * Replaces inline scripting templates in the provided {@link TemplatedProperty} with computed values. The action is
-     * done with {@code Rhino engine}'s context and scope. The result is assembled back into the string property value
+     * Replaces inline scripting templates in the provided {@link TemplatedProperty} with computed values. The result is
+     * assembled back into the string property value
      * @param templatedProperty The {@code TemplatedProperty} to process
-     * @param context           {@link Context} instance used for the script evaluation
-     * @param scope             {@link Scriptable} instance used for the script evaluation
-     * @param dataStack         {@link DataStack} instance that represents user-set values that are considered while
-     *                          interpolating the property value
+     * @param scope             {@link ScriptScope} instance used for the script evaluation
      * @return A non-null string value
      */
-    private static String interpolate(
-        TemplatedProperty templatedProperty,
-        Context context,
-        Scriptable scope,
-        DataStack dataStack) {
-
+    private static String interpolate(TemplatedProperty templatedProperty, ScriptScope scope) {
         String result = templatedProperty.getValue();
         while (!templatedProperty.getEmbeddings().isEmpty()) {
             StringBuilder resultBuilder = new StringBuilder(templatedProperty.getValue());
@@ -128,18 +132,8 @@ public class ScriptingHelper {
             Iterator<Embedding> embeddingIterator = embeddings.descendingIterator();
             while (embeddingIterator.hasNext()) {
                 Embedding embedding = embeddingIterator.next();
-                List<String> variables = embedding.getVariables();
-                for (String variable : variables) {
-                    if (TOKEN_THIS.equals(variable)) {
-                        continue;
-                    }
-                    Object value = dataStack.getData().get(variable);
-                    ScriptableObject.putProperty(
-                        scope,
-                        variable,
-                        value != null ? Context.javaToJS(value, scope) : Undefined.instance);
-                }
-                String scriptResult = runScript(context, scope, embedding.getScript());
+                scope.declare(embedding.getVariables());
+                String scriptResult = evaluate(embedding, scope);
                 resultBuilder.replace(embedding.getStart(), embedding.getEnd(), scriptResult);
             }
             result = resultBuilder.toString();
@@ -148,6 +142,24 @@ public class ScriptingHelper {
         return result;
     }
 
+    /**
+     * Computes the value of the provided {@link Embedding}. Simple expressions, such as variable lookups,
+     * concatenations, and ternaries, are evaluated by a {@link TemplateExpression} compiled once per expression. Other
+     * expressions are passed to the {@code Rhino} engine
+     * @param embedding The {@code Embedding} to evaluate
+     * @param scope     {@link ScriptScope} instance used for the script evaluation
+     * @return A non-null string value
+     */
+    private static String evaluate(Embedding embedding, ScriptScope scope) {
+        TemplateExpression expression = COMPILED_EXPRESSIONS
+            .get(
+                embedding.getContent(),
+                key -> Optional.ofNullable(TemplateExpression.compile(embedding.getScript(), embedding.getVariables())))
+            .orElse(null);
+        String result = expression != null ? expression.evaluate(scope.getData()) : null;
+        return result != null ? result : scope.run(embedding.getScript());
+    }
+
     /**
      * Retrieves the {@link AbstractAdapter} instance for the provided {@link Source}. The {@code adapter} instance is
      * used to conveniently access properties of the script-processable object from within the script logic
@@ -171,7 +183,8 @@ public class ScriptingHelper {
     }
 
     /**
-     * Evaluates the provided {@code JavaScript}-coded string using the provided {@code Context} and scope
+     * Evaluates the provided {@code JavaScript}-coded string using the provided {@code Context} and scope. The script is
+     * compiled once and then reused for every evaluation of the same expression
      * @param context {@link Context} instance used for the script evaluation
      * @param scope   {@link Scriptable} instance used for the script evaluation
      * @param script  The script to evaluate
@@ -179,7 +192,10 @@ public class ScriptingHelper {
      */
     private static String runScript(Context context, Scriptable scope, String script) {
         try {
-            Object result = context.evaluateString(scope, script, PATH_SCRIPT, 0, null);
+            Script compiledScript = COMPILED_SCRIPTS.get(
+                script,
+                key -> context.compileString(key, PATH_SCRIPT, 0, null));
+            Object result = compiledScript.exec(context, scope);
             result = Context.jsToJava(result, String.class);
             return result != null && !Undefined.SCRIPTABLE_UNDEFINED.toString().equals(result.toString())
                 ? result.toString()
@@ -190,10 +206,117 @@ public class ScriptingHelper {
         return StringUtils.EMPTY;
     }
 
+    /**
+     * Enters a new {@link Context} set up for the ECMAScript version supported by the scripting engine
+     * @return {@code Context} instance
+     */
+    private static Context enterContext() {
+        Context context = CONTEXT_FACTORY.enterContext();
+        context.setLanguageVersion(Context.VERSION_ES6);
+        return context;
+    }
+
+    /**
+     * Creates the sealed scope containing the standard {@code JavaScript} objects. The scope is shared by all the
+     * evaluations as the prototype of their own scopes
+     * @return {@code ScriptableObject} instance
+     */
+    private static ScriptableObject createSharedScope() {
+        try (Context context = enterContext()) {
+            return context.initStandardObjects(null, true);
+        }
+    }
+
     /* ---------------
        Utility classes
        --------------- */
 
+    /**
+     * Holds the data for evaluating the templates of a {@link Metadata} instance. Enters the {@code Rhino} context and
+     * creates the script scope lazily, so that no context is created if all the templates are evaluated by
+     * {@link TemplateExpression}s
+     */
+    private static class ScriptScope implements AutoCloseable {
+        private final AbstractAdapter adapter;
+        private final DataStack dataStack;
+        private final Set<String> variables;
+        private Context context;
+        private Scriptable scope;
+
+        /**
+         * Initializes a class instance with the data used for the script evaluation
+         * @param adapter   {@link AbstractAdapter} exposing the source to scripts
+         * @param dataStack {@link DataStack} instance that represents user-set values that are considered while
+         *                  interpolating property values
+         */
+        ScriptScope(AbstractAdapter adapter, DataStack dataStack) {
+            this.adapter = adapter;
+            this.dataStack = dataStack;
+            this.variables = new LinkedHashSet<>();
+        }
+
+        /**
+         * Retrieves the user-set values available to scripts
+         * @return {@code Map} instance
+         */
+        Map<String, Object> getData() {
+            return dataStack.getData();
+        }
+
+        /**
+         * Makes the provided variables available to scripts run in this scope
+         * @param names Names of variables, as found in an inline template
+         */
+        void declare(List<String> names) {
+            for (String name : names) {
+                if (!TOKEN_THIS.equals(name) && variables.add(name) && scope != null) {
+                    putVariable(name);
+                }
+            }
+        }
+
+        /**
+         * Evaluates the provided {@code JavaScript}-coded string with the {@code Rhino} engine
+         * @param script The script to evaluate
+         * @return A non-null string value representing the result of the evaluation
+         */
+        String run(String script) {
+            if (context == null) {
+                context = enterContext();
+                context.setClassShutter(DEFAULT_CLASS_SHUTTER);
+                scope = context.newObject(SHARED_SCOPE);
+                scope.setPrototype(SHARED_SCOPE);
+                scope.setParentScope(null);
+                ScriptableObject.putProperty(scope, PN_SOURCE, Context.javaToJS(adapter, scope));
+                ScriptableObject.putProperty(scope, PN_SETTINGS, Context.javaToJS(new MapAdapter(dataStack.getData()), scope));
+                variables.forEach(this::putVariable);
+            }
+            return runScript(context, scope, script);
+        }
+
+        /**
+         * Exits the {@code Rhino} context if it has been entered
+         */
+        @Override
+        public void close() {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        /**
+         * Stores the value of the variable with the given name into the script scope
+         * @param name Name of the variable
+         */
+        private void putVariable(String name) {
+            Object value = dataStack.getData().get(name);
+            ScriptableObject.putProperty(
+                scope,
+                name,
+                value != null ? Context.javaToJS(value, scope) : Undefined.instance);
+        }
+    }
+
     /**
      * Represents a property object that can be derived from a common {@link Property} instance and encapsulates a
      * particular property path, value, and the sequence of scripting templates found in the value
@@ -295,6 +418,14 @@ public class ScriptingHelper {
             this.varTokens = findVariableTokens(substring.getContent());
         }
 
+        /**
+         * Retrieves the inline template as found in the property value
+         * @return A non-blank string value
+         */
+        public String getContent() {
+            return substring.getContent();
+        }
+
         /**
          * Retrieves the start index of the inline script within the property value
          * @return Integer value
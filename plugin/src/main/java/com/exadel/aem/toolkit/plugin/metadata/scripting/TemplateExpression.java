@@ -0,0 +1,499 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.metadata.scripting;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+import org.mozilla.javascript.Undefined;
+
+/**
+ * Represents a compiled inline expression that is evaluated without the {@code Rhino} engine. Supports the subset of
+ * {@code JavaScript} that is typical for the ToolKit's templates: string literals, variables and {@code settings.*}
+ * lookups, string concatenation, logical and equality operators, and ternaries. Values are expected to be strings or
+ * booleans. If an expression contains any other construct, it is not compiled, and if it meets a value of another type
+ * while evaluated, no result is produced. In both cases the expression is left to the {@code Rhino} engine
+ * @see ScriptingHelper
+ */
+class TemplateExpression {
+
+    private static final Object UNDEFINED = Undefined.instance;
+    private static final Object UNSUPPORTED = new Object();
+
+    private static final String PN_SETTINGS = "settings";
+
+    private static final String KEYWORD_TRUE = "true";
+    private static final String KEYWORD_FALSE = "false";
+    private static final String KEYWORD_NULL = "null";
+    private static final String KEYWORD_UNDEFINED = "undefined";
+
+    private final Node root;
+
+    /**
+     * Initializes a class instance with the root node of the expression tree
+     * @param root {@link Node} instance, non-null
+     */
+    private TemplateExpression(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Computes the value of the expression
+     * @param data {@code Map} that contains the values of variables and settings
+     * @return A non-null string value, or {@code null} if the expression cannot be evaluated without the {@code Rhino}
+     * engine
+     */
+    String evaluate(Map<String, Object> data) {
+        Object result = root.evaluate(data);
+        if (result == UNSUPPORTED) {
+            return null;
+        }
+        String stringResult = toString(result);
+        return result == null || stringResult == null || KEYWORD_UNDEFINED.equals(stringResult) ? "" : stringResult;
+    }
+
+    /**
+     * Compiles the provided script into a {@code TemplateExpression}
+     * @param script    The script to compile
+     * @param variables Names of the variables that are allowed in the script
+     * @return {@code TemplateExpression} instance, or {@code null} if the script contains unsupported syntax
+     */
+    static TemplateExpression compile(String script, Collection<String> variables) {
+        if (script == null) {
+            return null;
+        }
+        try {
+            Parser parser = new Parser(script, variables);
+            Node node = parser.parseTernary();
+            return parser.isComplete() ? new TemplateExpression(node) : null;
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /* --------------
+       Value routines
+       -------------- */
+
+    /**
+     * Retrieves the value stored under the given name in the data map
+     * @param data {@code Map} that contains the values of variables and settings
+     * @param name The name of the value
+     * @return A string or a boolean value, {@code undefined} if the value is missing, or the "unsupported" marker
+     */
+    private static Object lookup(Map<String, Object> data, String name) {
+        Object value = data.get(name);
+        if (value == null) {
+            return UNDEFINED;
+        }
+        return value instanceof String || value instanceof Boolean ? value : UNSUPPORTED;
+    }
+
+    /**
+     * Converts the provided value to a string in the way {@code JavaScript} does
+     * @param value The value to convert
+     * @return A string value, or {@code null} if the value cannot be converted without the {@code Rhino} engine
+     */
+    private static String toString(Object value) {
+        if (value == null) {
+            return KEYWORD_NULL;
+        } else if (value == UNDEFINED) {
+            return KEYWORD_UNDEFINED;
+        } else if (value instanceof String || value instanceof Boolean) {
+            return value.toString();
+        }
+        return null;
+    }
+
+    /**
+     * Converts the provided value to a boolean in the way {@code JavaScript} does
+     * @param value The value to convert
+     * @return True or false
+     */
+    private static boolean isTruthy(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value instanceof String && !((String) value).isEmpty();
+    }
+
+    /**
+     * Gets whether the provided value is either {@code null} or {@code undefined}
+     * @param value The value to check
+     * @return True or false
+     */
+    private static boolean isNullish(Object value) {
+        return value == null || value == UNDEFINED;
+    }
+
+    /**
+     * Computes the result of the {@code +} operator. Only string concatenation is supported
+     * @param left  Left operand
+     * @param right Right operand
+     * @return A string value, or the "unsupported" marker
+     */
+    private static Object add(Object left, Object right) {
+        if (!(left instanceof String) && !(right instanceof String)) {
+            return UNSUPPORTED;
+        }
+        String leftString = toString(left);
+        String rightString = toString(right);
+        return leftString != null && rightString != null ? leftString + rightString : UNSUPPORTED;
+    }
+
+    /**
+     * Computes the result of the {@code ==} operator. Values of different types are only compared if they are
+     * {@code null} or {@code undefined}
+     * @param left  Left operand
+     * @param right Right operand
+     * @return A boolean value, or the "unsupported" marker
+     */
+    private static Object looseEquals(Object left, Object right) {
+        if (isNullish(left) || isNullish(right)) {
+            return isNullish(left) && isNullish(right);
+        }
+        return left.getClass().equals(right.getClass()) ? left.equals(right) : UNSUPPORTED;
+    }
+
+    /**
+     * Computes the result of the {@code ===} operator
+     * @param left  Left operand
+     * @param right Right operand
+     * @return A boolean value
+     */
+    private static Object strictEquals(Object left, Object right) {
+        return Objects.equals(left, right);
+    }
+
+    /**
+     * Negates the provided boolean value unless it is the "unsupported" marker
+     * @param value The value to process
+     * @return A boolean value, or the "unsupported" marker
+     */
+    private static Object negate(Object value) {
+        return value instanceof Boolean ? !(Boolean) value : value;
+    }
+
+    /* ---------------
+       Utility classes
+       --------------- */
+
+    /**
+     * Represents a node of the expression tree
+     */
+    @FunctionalInterface
+    private interface Node {
+
+        /**
+         * Computes the value of the node
+         * @param data {@code Map} that contains the values of variables and settings
+         * @return A string or a boolean value, {@code null}, {@code undefined}, or the "unsupported" marker
+         */
+        Object evaluate(Map<String, Object> data);
+    }
+
+    /**
+     * Implements a recursive descent parser that produces the expression tree. Operator precedence follows the
+     * {@code JavaScript} specification. An {@link IllegalStateException} is thrown if unsupported syntax is met
+     */
+    private static class Parser {
+        private final String script;
+        private final Collection<String> variables;
+        private int cursor;
+
+        /**
+         * Initializes a class instance with the script to parse
+         * @param script    The script to parse
+         * @param variables Names of the variables that are allowed in the script
+         */
+        Parser(String script, Collection<String> variables) {
+            this.script = script;
+            this.variables = variables;
+        }
+
+        /**
+         * Gets whether the whole script has been parsed
+         * @return True or false
+         */
+        boolean isComplete() {
+            skipWhitespace();
+            return cursor == script.length();
+        }
+
+        /**
+         * Parses a conditional ({@code a ? b : c}) expression
+         * @return {@link Node} instance
+         */
+        Node parseTernary() {
+            Node condition = parseOr();
+            if (!consume("?")) {
+                return condition;
+            }
+            Node positive = parseTernary();
+            if (!consume(":")) {
+                throw new IllegalStateException();
+            }
+            Node negative = parseTernary();
+            return data -> {
+                Object value = condition.evaluate(data);
+                if (value == UNSUPPORTED) {
+                    return UNSUPPORTED;
+                }
+                return isTruthy(value) ? positive.evaluate(data) : negative.evaluate(data);
+            };
+        }
+
+        /**
+         * Parses a sequence of operands joined with the {@code ||} operator
+         * @return {@link Node} instance
+         */
+        private Node parseOr() {
+            Node result = parseAnd();
+            while (consume("||")) {
+                Node left = result;
+                Node right = parseAnd();
+                result = data -> {
+                    Object value = left.evaluate(data);
+                    return value == UNSUPPORTED || isTruthy(value) ? value : right.evaluate(data);
+                };
+            }
+            return result;
+        }
+
+        /**
+         * Parses a sequence of operands joined with the {@code &&} operator
+         * @return {@link Node} instance
+         */
+        private Node parseAnd() {
+            Node result = parseEquality();
+            while (consume("&&")) {
+                Node left = result;
+                Node right = parseEquality();
+                result = data -> {
+                    Object value = left.evaluate(data);
+                    return value == UNSUPPORTED || !isTruthy(value) ? value : right.evaluate(data);
+                };
+            }
+            return result;
+        }
+
+        /**
+         * Parses a sequence of operands joined with the equality operators
+         * @return {@link Node} instance
+         */
+        private Node parseEquality() {
+            Node result = parseAdditive();
+            while (true) {
+                boolean strict;
+                boolean negative;
+                if (consume("===")) {
+                    strict = true;
+                    negative = false;
+                } else if (consume("!==")) {
+                    strict = true;
+                    negative = true;
+                } else if (consume("==")) {
+                    strict = false;
+                    negative = false;
+                } else if (consume("!=")) {
+                    strict = false;
+                    negative = true;
+                } else {
+                    return result;
+                }
+                Node left = result;
+                Node right = parseAdditive();
+                result = data -> {
+                    Object leftValue = left.evaluate(data);
+                    Object rightValue = right.evaluate(data);
+                    if (leftValue == UNSUPPORTED || rightValue == UNSUPPORTED) {
+                        return UNSUPPORTED;
+                    }
+                    Object value = strict ? strictEquals(leftValue, rightValue) : looseEquals(leftValue, rightValue);
+                    return negative ? negate(value) : value;
+                };
+            }
+        }
+
+        /**
+         * Parses a sequence of operands joined with the {@code +} operator
+         * @return {@link Node} instance
+         */
+        private Node parseAdditive() {
+            Node result = parseUnary();
+            while (!lookingAt("++") && !lookingAt("+=") && consume("+")) {
+                Node left = result;
+                Node right = parseUnary();
+                result = data -> {
+                    Object leftValue = left.evaluate(data);
+                    Object rightValue = right.evaluate(data);
+                    if (leftValue == UNSUPPORTED || rightValue == UNSUPPORTED) {
+                        return UNSUPPORTED;
+                    }
+                    return add(leftValue, rightValue);
+                };
+            }
+            return result;
+        }
+
+        /**
+         * Parses an operand that is optionally preceded with the {@code !} operator
+         * @return {@link Node} instance
+         */
+        private Node parseUnary() {
+            if (!lookingAt("!=") && consume("!")) {
+                Node operand = parseUnary();
+                return data -> {
+                    Object value = operand.evaluate(data);
+                    return value == UNSUPPORTED ? UNSUPPORTED : !isTruthy(value);
+                };
+            }
+            Node result = parsePrimary();
+            skipWhitespace();
+            if (lookingAt(".") || lookingAt("(") || lookingAt("[")) {
+                throw new IllegalStateException();
+            }
+            return result;
+        }
+
+        /**
+         * Parses a literal, a variable, a {@code settings.*} lookup, or a parenthesized expression
+         * @return {@link Node} instance
+         */
+        private Node parsePrimary() {
+            skipWhitespace();
+            if (consume("(")) {
+                Node result = parseTernary();
+                if (!consume(")")) {
+                    throw new IllegalStateException();
+                }
+                return result;
+            }
+            if (lookingAt("'") || lookingAt("\"")) {
+                String literal = parseString();
+                return data -> literal;
+            }
+            String identifier = parseIdentifier();
+            switch (identifier) {
+                case KEYWORD_TRUE:
+                    return data -> Boolean.TRUE;
+                case KEYWORD_FALSE:
+                    return data -> Boolean.FALSE;
+                case KEYWORD_NULL:
+                    return data -> null;
+                case KEYWORD_UNDEFINED:
+                    return data -> UNDEFINED;
+                default:
+                    break;
+            }
+            if (variables.contains(identifier)) {
+                return data -> lookup(data, identifier);
+            }
+            if (PN_SETTINGS.equals(identifier) && consume(".")) {
+                String setting = parseIdentifier();
+                return data -> lookup(data, setting);
+            }
+            throw new IllegalStateException();
+        }
+
+        /**
+         * Parses a single- or double-quoted string literal
+         * @return String value
+         */
+        private String parseString() {
+            char quote = script.charAt(cursor++);
+            StringBuilder result = new StringBuilder();
+            while (cursor < script.length()) {
+                char current = script.charAt(cursor++);
+                if (current == quote) {
+                    return result.toString();
+                }
+                if (current == '\\') {
+                    if (cursor == script.length()) {
+                        break;
+                    }
+                    char escaped = script.charAt(cursor++);
+                    if (escaped != '\\' && escaped != '\'' && escaped != '"') {
+                        throw new IllegalStateException();
+                    }
+                    current = escaped;
+                }
+                result.append(current);
+            }
+            throw new IllegalStateException();
+        }
+
+        /**
+         * Parses an identifier
+         * @return A non-blank string value
+         */
+        private String parseIdentifier() {
+            skipWhitespace();
+            int start = cursor;
+            while (cursor < script.length() && isIdentifierChar(script.charAt(cursor), cursor == start)) {
+                cursor++;
+            }
+            if (cursor == start) {
+                throw new IllegalStateException();
+            }
+            return script.substring(start, cursor);
+        }
+
+        /**
+         * Gets whether the script at the current position starts with the given token, skipping whitespace
+         * @param token The token to check
+         * @return True or false
+         */
+        private boolean lookingAt(String token) {
+            skipWhitespace();
+            return script.startsWith(token, cursor);
+        }
+
+        /**
+         * Moves the current position past the given token if the script starts with it at the current position
+         * @param token The token to consume
+         * @return True if the token was consumed; otherwise, false
+         */
+        private boolean consume(String token) {
+            if (!lookingAt(token)) {
+                return false;
+            }
+            cursor += token.length();
+            return true;
+        }
+
+        /**
+         * Moves the current position past whitespace characters
+         */
+        private void skipWhitespace() {
+            while (cursor < script.length() && Character.isWhitespace(script.charAt(cursor))) {
+                cursor++;
+            }
+        }
+
+        /**
+         * Gets whether the given character can be a part of a {@code JavaScript} identifier
+         * @param value   The character to check
+         * @param isFirst True if the character is the first in the identifier
+         * @return True or false
+         */
+        private static boolean isIdentifierChar(char value, boolean isFirst) {
+            if (Character.isLetter(value) || value == '_' || value == '$') {
+                return true;
+            }
+            return !isFirst && Character.isDigit(value);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.core.processing.ComponentIndexProcessor;
+import com.exadel.aem.toolkit.plugin.exceptions.ReflectionException;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.utils.ClassFileUtil;
+
+/**
+ * Collects the names of Toolkit-related classes from the index files stored in classpath elements by the
+ * {@link ComponentIndexProcessor} at compile time. Separates between the classpath elements that provide an up-to-date
+ * index and those that need to be scanned. An index is considered up to date if it lists exactly the top-level classes
+ * that the classpath element contains. The elements that provide no valid index are inspected beforehand, and only
+ * those which contain classes referring to the Toolkit API are scanned
+ */
+class ClasspathIndex {
+
+    private static final String FILE_PROTOCOL = "file";
+    private static final String NESTED_CLASS_SEPARATOR = "$";
+    private static final String DESCRIPTOR_SUFFIX = "-info";
+    private static final String API_PACKAGE = CoreConstants.ROOT_PACKAGE.replace(CoreConstants.SEPARATOR_DOT, CoreConstants.SEPARATOR_SLASH)
+        + "/api/";
+    private static final byte[] API_PACKAGE_BYTES = API_PACKAGE.getBytes(StandardCharsets.UTF_8);
+    private static final Map<Path, Map.Entry<String, Boolean>> INSPECTED_ARCHIVES = new ConcurrentHashMap<>();
+
+    private static final String LOADING_EXCEPTION_MESSAGE = "Could not load the indexed class %s: %s";
+
+    private final Map<String, Set<String>> entries = new HashMap<>();
+    private final List<URL> scannedElements = new ArrayList<>();
+
+    /**
+     * Default (instantiation-restricting) constructor
+     */
+    private ClasspathIndex() {
+    }
+
+    /**
+     * Retrieves the classpath elements that do not contain an index but refer to the Toolkit API and therefore must be
+     * scanned
+     * @return List of {@code URL}s; can be empty
+     */
+    List<URL> getScannedElements() {
+        return scannedElements;
+    }
+
+    /**
+     * Retrieves the indexed classes of the specified category
+     * @param key         Category of classes, such as {@link ComponentIndexProcessor#KEY_COMPONENTS}
+     * @param type        {@code Class} reference representing the type that the retrieved classes must be assignable
+     *                    to
+     * @param classLoader {@code ClassLoader} used to load the classes
+     * @param <T>         Type of the classes
+     * @return Set of {@code Class} references; can be empty
+     */
+    @SuppressWarnings("unchecked")
+    <T> Set<Class<? extends T>> getClasses(String key, Class<T> type, ClassLoader classLoader) {
+        Set<Class<? extends T>> result = new LinkedHashSet<>();
+        for (String name : entries.getOrDefault(key, Collections.emptySet())) {
+            try {
+                Class<?> loaded = Class.forName(name, false, classLoader);
+                if (type.isAssignableFrom(loaded)) {
+                    result.add((Class<? extends T>) loaded);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                PluginRuntime
+                    .context()
+                    .getExceptionHandler()
+                    .handle(new ReflectionException(String.format(LOADING_EXCEPTION_MESSAGE, name, e.getMessage())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the index stored in the given classpath element, if any
+     * @param element {@code URL} of the classpath element
+     * @return True if the index has been found and read; otherwise, false
+     */
+    private boolean read(URL element) {
+        if (!FILE_PROTOCOL.equals(element.getProtocol())) {
+            return false;
+        }
+        try {
+            Path path = Paths.get(element.toURI());
+            if (Files.isDirectory(path)) {
+                return readDirectory(path);
+            }
+            return Files.isRegularFile(path) && readArchive(path);
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            // The element is not readable as an indexed directory or archive. It will be scanned instead
+            return false;
+        }
+    }
+
+    /**
+     * Reads the index stored in the given directory, if any
+     * @param directory {@code Path} of the directory
+     * @return True if an up-to-date index has been found and read; otherwise, false
+     * @throws IOException if reading fails
+     */
+    private boolean readDirectory(Path directory) throws IOException {
+        Path indexFile = directory.resolve(ComponentIndexProcessor.INDEX_PATH);
+        if (!Files.isRegularFile(indexFile)) {
+            return false;
+        }
+        Map<String, Set<String>> storedEntries;
+        try (InputStream input = Files.newInputStream(indexFile)) {
+            storedEntries = readEntries(input);
+        }
+        Set<String> classes = new HashSet<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files
+                .filter(file -> file.toString().endsWith(ClassFileUtil.CLASS_FILE_EXTENSION) && Files.isRegularFile(file))
+                .map(file -> directory.relativize(file).toString().replace(File.separator, CoreConstants.SEPARATOR_SLASH))
+                .map(ClasspathIndex::getTopLevelClassName)
+                .filter(StringUtils::isNotEmpty)
+                .forEach(classes::add);
+        }
+        return merge(storedEntries, classes);
+    }
+
+    /**
+     * Reads the index stored in the given archive, if any
+     * @param archive {@code Path} of the archive, such as a JAR file
+     * @return True if an up-to-date index has been found and read; otherwise, false
+     * @throws IOException if reading fails
+     */
+    private boolean readArchive(Path archive) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            ZipEntry indexEntry = zipFile.getEntry(ComponentIndexProcessor.INDEX_PATH);
+            if (indexEntry == null) {
+                return false;
+            }
+            Map<String, Set<String>> storedEntries;
+            try (InputStream input = zipFile.getInputStream(indexEntry)) {
+                storedEntries = readEntries(input);
+            }
+            Set<String> classes = new HashSet<>();
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(ClassFileUtil.CLASS_FILE_EXTENSION)) {
+                    String name = getTopLevelClassName(entry.getName());
+                    if (StringUtils.isNotEmpty(name)) {
+                        classes.add(name);
+                    }
+                }
+            }
+            return merge(storedEntries, classes);
+        }
+    }
+
+    /**
+     * Reads the index from the given stream
+     * @param input {@code InputStream} instance
+     * @return Map of class names grouped by category
+     * @throws IOException if reading fails
+     */
+    private static Map<String, Set<String>> readEntries(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return ComponentIndexProcessor.parse(reader);
+    }
+
+    /**
+     * Merges the entries of an index into the current collection if the index lists exactly the given top-level
+     * classes. Otherwise, the index is considered out of date, e.g., because a part of the classes has been compiled
+     * without annotation processing, and is disregarded
+     * @param storedEntries Map of class names grouped by category as read from the index
+     * @param classes       Set of names of the top-level classes contained in the classpath element
+     * @return True if the entries have been merged; otherwise, false
+     */
+    private boolean merge(Map<String, Set<String>> storedEntries, Set<String> classes) {
+        if (!classes.equals(storedEntries.get(ComponentIndexProcessor.KEY_CLASSES))) {
+            return false;
+        }
+        storedEntries.forEach((key, names) -> entries.computeIfAbsent(key, k -> new LinkedHashSet<>()).addAll(names));
+        return true;
+    }
+
+    /**
+     * Converts the path of a class file relative to its classpath element into the binary name of the top-level class
+     * the file belongs to
+     * @param path Relative path of a class file in which the segments are separated with slashes
+     * @return String value; an empty string if the file is a module or package descriptor
+     */
+    private static String getTopLevelClassName(String path) {
+        String name = StringUtils.substringBefore(StringUtils.removeEnd(path, ClassFileUtil.CLASS_FILE_EXTENSION), NESTED_CLASS_SEPARATOR);
+        if (name.endsWith(DESCRIPTOR_SUFFIX)) {
+            return StringUtils.EMPTY;
+        }
+        return name.replace(CoreConstants.SEPARATOR_SLASH, CoreConstants.SEPARATOR_DOT);
+    }
+
+    /* -----------------
+       Classpath pruning
+       ----------------- */
+
+    /**
+     * Gets whether the given classpath element may contain Toolkit-related classes and therefore needs to be scanned.
+     * The element is inspected without loading classes: class files are tested for constant pool entries that refer to
+     * the Toolkit API. Elements that cannot be inspected are considered to require scanning
+     * @param element {@code URL} of the classpath element
+     * @return True or false
+     */
+    static boolean isScanRequired(URL element) {
+        if (!FILE_PROTOCOL.equals(element.getProtocol())) {
+            return true;
+        }
+        try {
+            Path path = Paths.get(element.toURI());
+            if (Files.isDirectory(path)) {
+                return isDirectoryReferringToApi(path);
+            }
+            return Files.isRegularFile(path) && isArchiveScanRequired(path);
+        } catch (IOException | URISyntaxException | IllegalArgumentException | UncheckedIOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Gets whether any of the class files in the given directory refers to the Toolkit API
+     * @param directory {@code Path} of the directory
+     * @return True or false
+     * @throws IOException if reading fails
+     */
+    private static boolean isDirectoryReferringToApi(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                .filter(file -> file.toString().endsWith(ClassFileUtil.CLASS_FILE_EXTENSION) && Files.isRegularFile(file))
+                .anyMatch(file -> {
+                    try {
+                        return isReferringToApi(Files.readAllBytes(file));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Gets whether the given archive refers to the Toolkit API and therefore needs to be scanned. The outcome is kept
+     * for as long as the plugin's classes are loaded, so that an archive that has not been modified is not inspected
+     * again, e.g., when the plugin is run repeatedly in the watch mode or in a long-living Maven process. Only the
+     * outcome for the current size and modification time of an archive is kept; it replaces the outcome stored for an
+     * earlier version of the same file
+     * @param archive {@code Path} of the archive, such as a JAR file
+     * @return True or false
+     * @throws IOException if reading fails
+     */
+    private static boolean isArchiveScanRequired(Path archive) throws IOException {
+        Path key = archive.toAbsolutePath();
+        String stamp = Files.size(archive) + CoreConstants.SEPARATOR_COLON + Files.getLastModifiedTime(archive).toMillis();
+        Map.Entry<String, Boolean> inspection = INSPECTED_ARCHIVES.get(key);
+        if (inspection == null || !stamp.equals(inspection.getKey())) {
+            inspection = new AbstractMap.SimpleImmutableEntry<>(stamp, isArchiveReferringToApi(archive));
+            INSPECTED_ARCHIVES.put(key, inspection);
+        }
+        return inspection.getValue();
+    }
+
+    /**
+     * Discards the outcomes of inspecting archives that no longer exist. Called when a new index is created so that
+     * the cache does not retain entries for archives that have been removed or renamed, e.g., between the runs of the
+     * plugin in the watch mode
+     */
+    private static void evictMissingArchives() {
+        INSPECTED_ARCHIVES.keySet().removeIf(path -> !Files.isRegularFile(path));
+    }
+
+    /**
+     * Gets whether any of the class files in the given archive refers to the Toolkit API
+     * @param archive {@code Path} of the archive, such as a JAR file
+     * @return True or false
+     * @throws IOException if reading fails
+     */
+    private static boolean isArchiveReferringToApi(Path archive) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().endsWith(ClassFileUtil.CLASS_FILE_EXTENSION)) {
+                    continue;
+                }
+                try (InputStream input = zipFile.getInputStream(entry)) {
+                    if (isReferringToApi(ByteStreams.toByteArray(input))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets whether the given class file refers to the Toolkit API. A quick byte-level lookup is done first, and then
+     * the constant pool is parsed to confirm the match
+     * @param classFile Byte array representing the content of a class file
+     * @return True or false
+     */
+    static boolean isReferringToApi(byte[] classFile) {
+        if (Bytes.indexOf(classFile, API_PACKAGE_BYTES) < 0) {
+            return false;
+        }
+        try {
+            return ClassFileUtil.getConstantStrings(classFile).stream().anyMatch(value -> value.contains(API_PACKAGE));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Creates a new {@link ClasspathIndex} instance from the index files stored in the given classpath elements
+     * @param elements Array of {@code URL}s representing classpath elements
+     * @return {@code ClasspathIndex} object
+     */
+    static ClasspathIndex forElements(URL[] elements) {
+        evictMissingArchives();
+        ClasspathIndex result = new ClasspathIndex();
+        for (URL element : elements) {
+            if (!result.read(element) && isScanRequired(element)) {
+                result.scannedElements.add(element);
+            }
+        }
+        return result;
+    }
+}
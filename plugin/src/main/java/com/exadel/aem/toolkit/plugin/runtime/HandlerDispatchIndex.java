@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.handlers.Handler;
+import com.exadel.aem.toolkit.api.handlers.Handles;
+import com.exadel.aem.toolkit.api.handlers.HandlesWidgets;
+import com.exadel.aem.toolkit.plugin.utils.ScopeUtil;
+import com.exadel.aem.toolkit.plugin.utils.ordering.OrderingUtil;
+
+/**
+ * Provides a lookup of {@link Handler}s by the annotation types they handle and the scope they match. The index is
+ * built once per plugin runtime. The manageable annotations and the scopes of every handler are resolved in advance,
+ * so that a lookup is reduced to merging the short lists of handlers stored for the given annotation types. Sorted
+ * sequences of matched handlers are reused between lookups
+ */
+class HandlerDispatchIndex {
+
+    private final Map<Class<?>, List<Entry>> entriesByType;
+    private final List<Handler> handlers;
+    private final Map<BitSet, List<Handler>> sortedSequences = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@code HandlerDispatchIndex} instance
+     * @param handlers List of handlers available in the plugin runtime. The order of handlers is preserved in lookup
+     *                 results before the before/after sorting is applied
+     */
+    @SuppressWarnings("deprecation") // HandlesWidgets processing is retained for compatibility and will be removed
+    // in a version after 2.0.2
+    HandlerDispatchIndex(List<Handler> handlers) {
+        this.handlers = handlers;
+        Map<Class<?>, List<Entry>> entries = new HashMap<>();
+        for (int i = 0; i < handlers.size(); i++) {
+            Handler handler = handlers.get(i);
+            Handles handles = handler.getClass().getDeclaredAnnotation(Handles.class);
+            HandlesWidgets handlesWidgets = handler.getClass().getDeclaredAnnotation(HandlesWidgets.class);
+            if (handles == null && handlesWidgets == null) {
+                continue;
+            }
+            Class<? extends Annotation>[] handledAnnotationTypes = handles != null
+                ? handles.value()
+                : handlesWidgets.value();
+            Entry entry = new Entry(i, getScopes(handles));
+            for (Class<? extends Annotation> annotationType : handledAnnotationTypes) {
+                List<Entry> typeEntries = entries.computeIfAbsent(annotationType, key -> new ArrayList<>());
+                if (!typeEntries.contains(entry)) {
+                    typeEntries.add(entry);
+                }
+            }
+        }
+        entries.replaceAll((key, value) -> Collections.unmodifiableList(value));
+        this.entriesByType = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Gets whether there is at least one handler that manages the given annotation type
+     * @param annotationType {@code Class} reference
+     * @return True or false
+     */
+    boolean isHandled(Class<?> annotationType) {
+        return entriesByType.containsKey(annotationType);
+    }
+
+    /**
+     * Retrieves a list of handlers that match the provided annotation types and scope. The list is ordered in such a
+     * way as to honor the relations set by {@code before} and {@code after} anchors
+     * @param scope           String representing the scope that the handlers must match. If null, the handlers of
+     *                        any scope are matched
+     * @param annotationTypes Non-null array of {@code Class} objects
+     * @return {@code List} of handler instances, ordered. The list can be modified by the caller
+     */
+    List<Handler> getHandlers(String scope, Class<?>[] annotationTypes) {
+        BitSet matched = new BitSet(handlers.size());
+        String[] contextScopes = null;
+        for (Class<?> annotationType : annotationTypes) {
+            for (Entry entry : entriesByType.getOrDefault(annotationType, Collections.emptyList())) {
+                if (matched.get(entry.getPosition())) {
+                    continue;
+                }
+                String[] handlerScopes = entry.getScopes();
+                if (handlerScopes == null) {
+                    // The handler has no particular scope, so it is guessed by the mere annotations of the current
+                    // source (if there is, e.g., {@code @Dialog}, it is assumed that the handler is also for the dialog)
+                    contextScopes = contextScopes != null ? contextScopes : ScopeUtil.designate(annotationTypes);
+                    handlerScopes = contextScopes;
+                }
+                if (scope == null || ScopeUtil.fits(scope, handlerScopes)) {
+                    matched.set(entry.getPosition());
+                }
+            }
+        }
+        if (matched.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(sortedSequences.computeIfAbsent(matched, this::sort));
+    }
+
+    /**
+     * Creates a sorted sequence of the handlers at the given positions
+     * @param positions {@code BitSet} containing positions of handlers in the initial list
+     * @return An unmodifiable list of handler instances, ordered
+     */
+    private List<Handler> sort(BitSet positions) {
+        List<Handler> result = new ArrayList<>(positions.cardinality());
+        positions.stream().forEach(position -> result.add(handlers.get(position)));
+        return Collections.unmodifiableList(OrderingUtil.sortHandlers(result));
+    }
+
+    /**
+     * Retrieves the scopes the handler is assigned to judging by its {@code Handles} annotation. If no particular scope
+     * is specified, the scopes are guessed by the annotations the handler manages (so that if it handles, e.g.,
+     * {@code @ChildEditConfig}, the scope for the handler is exactly ChildEditConfig)
+     * @param handles {@link Handles} object; a nullable value is expected
+     * @return Array of scopes, or null if the scopes can only be guessed by the annotations of a particular source
+     */
+    private static String[] getScopes(Handles handles) {
+        if (handles == null) {
+            return null;
+        }
+        String[] result = handles.scope();
+        if (isDefault(result)) {
+            result = ScopeUtil.designate(handles.value());
+        }
+        return isDefault(result) ? null : result;
+    }
+
+    /**
+     * Gets whether the given array of scopes represents the default scope
+     * @param scopes Array of strings
+     * @return True or false
+     */
+    private static boolean isDefault(String[] scopes) {
+        return scopes.length == 1 && scopes[0].equals(Scopes.DEFAULT);
+    }
+
+    /**
+     * Represents a handler stored in the index
+     */
+    private static class Entry {
+        private final int position;
+        private final String[] scopes;
+
+        /**
+         * Creates a new {@code Entry} instance
+         * @param position Position of the handler in the list of available handlers
+         * @param scopes   Array of scopes the handler is assigned to, or null if the scopes depend on a source
+         */
+        Entry(int position, String[] scopes) {
+            this.position = position;
+            this.scopes = scopes;
+        }
+
+        /**
+         * Retrieves the position of the handler in the list of available handlers
+         * @return Integer value
+         */
+        int getPosition() {
+            return position;
+        }
+
+        /**
+         * Retrieves the scopes the handler is assigned to
+         * @return Array of strings, or null if the scopes depend on a source
+         */
+        String[] getScopes() {
+            return scopes;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Collects the timings and the memory allocation figures of the plugin's activities, such as rendering components,
+ * running handlers and validators, or evaluating scripts, and produces a profiling report. Every measured activity
+ * is attributed with a {@link Category} and a name, e.g. a component class or a handler class.
+ * <p>Measurements can be nested. For every activity, both the total time and the "self" time, i.e. the time not
+ * consumed by the nested activities, are recorded. When profiling is disabled, measurements cost next to nothing</p>
+ */
+public class ProfilingContextHelper {
+
+    private static final ProfilingContextHelper DISABLED = new ProfilingContextHelper(false);
+
+    private static final String REPORT_FILE_NAME = "etoolbox-authoring-kit-profile";
+    private static final String EXTENSION_JSON = ".json";
+    private static final String EXTENSION_HTML = ".html";
+
+    private static final int HTML_ENTRIES_PER_CATEGORY = 20;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private static final String PN_NAME = "name";
+    private static final String PN_COUNT = "count";
+    private static final String PN_TOTAL_MS = "totalMs";
+    private static final String PN_SELF_MS = "selfMs";
+    private static final String PN_MAX_MS = "maxMs";
+    private static final String PN_ALLOCATED_BYTES = "allocatedBytes";
+    private static final String PN_SELF_ALLOCATED_BYTES = "selfAllocatedBytes";
+
+    private static final Measurement NO_MEASUREMENT = () -> { };
+
+    private final boolean enabled;
+    private final Map<Category, Map<String, Statistics>> statistics;
+    private final ThreadLocal<Deque<ActiveMeasurement>> activeMeasurements;
+    private final com.sun.management.ThreadMXBean allocationCounter;
+
+    /**
+     * Initializes a class instance
+     * @param enabled True to collect measurements; false to skip them
+     */
+    private ProfilingContextHelper(boolean enabled) {
+        this.enabled = enabled;
+        this.statistics = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            statistics.put(category, new ConcurrentHashMap<>());
+        }
+        this.activeMeasurements = ThreadLocal.withInitial(ArrayDeque::new);
+        this.allocationCounter = enabled ? getAllocationCounter() : null;
+    }
+
+    /* ------------
+       Measurements
+       ------------ */
+
+    /**
+     * Gets whether the current instance collects measurements
+     * @return True or false
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts measuring an activity. The measurement is completed when the returned object is closed, therefore it is
+     * recommended to use it in a "try-with-resources" block
+     * @param category {@link Category} of the activity
+     * @param name     Name of the activity, such as the name of a component class or a handler class
+     * @return {@link Measurement} object
+     */
+    public Measurement start(Category category, String name) {
+        if (!enabled) {
+            return NO_MEASUREMENT;
+        }
+        ActiveMeasurement result = new ActiveMeasurement(category, name);
+        activeMeasurements.get().push(result);
+        return result;
+    }
+
+    /**
+     * Retrieves the names of activities of the given category that took longer than the given time to complete at
+     * least once
+     * @param category {@link Category} of activities
+     * @param budget   Time limit in milliseconds
+     * @return List of strings; can be empty
+     */
+    public List<String> getExceeding(Category category, long budget) {
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(budget);
+        return statistics.get(category)
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().getMaxNanos() > budgetNanos)
+            .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(Statistics::getMaxNanos).reversed()))
+            .map(entry -> entry.getKey() + " (" + toMillis(entry.getValue().getMaxNanos()) + " ms)")
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Called by {@link ActiveMeasurement#close()} to store the outcome of a measurement and to make it known to the
+     * enclosing measurement, if any
+     * @param measurement {@link ActiveMeasurement} that has been completed
+     */
+    private void complete(ActiveMeasurement measurement) {
+        long elapsed = System.nanoTime() - measurement.startNanos;
+        long allocated = getAllocatedBytes() - measurement.startBytes;
+
+        Deque<ActiveMeasurement> stack = activeMeasurements.get();
+        stack.remove(measurement);
+        ActiveMeasurement parent = stack.peek();
+        if (parent != null) {
+            parent.nestedNanos += elapsed;
+            parent.nestedBytes += allocated;
+        }
+        statistics.get(measurement.category)
+            .computeIfAbsent(measurement.name, key -> new Statistics())
+            .add(elapsed, elapsed - measurement.nestedNanos, allocated, allocated - measurement.nestedBytes);
+    }
+
+    /**
+     * Retrieves the number of bytes allocated by the current thread so far
+     * @return Long value; {@code 0} if the JVM does not expose allocation data
+     */
+    private long getAllocatedBytes() {
+        return allocationCounter != null ? allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+    }
+
+    /* ---------
+       Reporting
+       --------- */
+
+    /**
+     * Stores the collected measurements as a JSON file and an HTML file into the given directory. Within every category,
+     * activities are listed starting from the slowest
+     * @param directory {@code Path} representing the directory, such as the {@code target} folder of a Maven project
+     * @return {@code Path} of the HTML report
+     * @throws IOException if the report cannot be stored
+     */
+    public Path writeReport(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, List<Map<String, Object>>> data = new LinkedHashMap<>();
+        for (Category category : Category.values()) {
+            data.put(category.getKey(), getSortedEntries(category));
+        }
+        new ObjectMapper()
+            .writerWithDefaultPrettyPrinter()
+            .writeValue(directory.resolve(REPORT_FILE_NAME + EXTENSION_JSON).toFile(), data);
+
+        Path htmlPath = directory.resolve(REPORT_FILE_NAME + EXTENSION_HTML);
+        try (Writer writer = Files.newBufferedWriter(htmlPath, StandardCharsets.UTF_8)) {
+            writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>EToolbox Authoring Kit profile</title>"
+                + "<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}"
+                + "td,th{border:1px solid #ccc;padding:2px 8px}td.n{text-align:right}</style></head><body>\n");
+            for (Category category : Category.values()) {
+                writeHtmlTable(writer, category.getTitle(), data.get(category.getKey()));
+            }
+            writer.write("</body></html>\n");
+        }
+        return htmlPath;
+    }
+
+    /**
+     * Called by {@link ProfilingContextHelper#writeReport(Path)} to compose the list of entries of a category sorted by
+     * the self time in descending order
+     * @param category {@link Category} of activities
+     * @return List of key-value maps
+     */
+    private List<Map<String, Object>> getSortedEntries(Category category) {
+        return statistics.get(category)
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(Statistics::getSelfNanos).reversed()))
+            .map(entry -> entry.getValue().toMap(entry.getKey()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Called by {@link ProfilingContextHelper#writeReport(Path)} to render the slowest entries of a category as an HTML
+     * table
+     * @param writer  {@code Writer} instance
+     * @param title   Title of the table
+     * @param entries List of key-value maps representing the entries
+     * @throws IOException if writing fails
+     */
+    private static void writeHtmlTable(Writer writer, String title, List<Map<String, Object>> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        writer.write("<h2>" + title + "</h2>\n<table><tr>");
+        List<String> columns = new ArrayList<>(entries.get(0).keySet());
+        for (String column : columns) {
+            writer.write("<th>" + column + "</th>");
+        }
+        writer.write("</tr>\n");
+        for (Map<String, Object> entry : entries.subList(0, Math.min(entries.size(), HTML_ENTRIES_PER_CATEGORY))) {
+            writer.write("<tr>");
+            for (String column : columns) {
+                Object value = entry.get(column);
+                writer.write(value instanceof Number ? "<td class=\"n\">" : "<td>");
+                writer.write(escapeHtml(String.valueOf(value)));
+                writer.write("</td>");
+            }
+            writer.write("</tr>\n");
+        }
+        writer.write("</table>\n");
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    /**
+     * Converts the given number of nanoseconds to milliseconds with fractional part
+     * @param nanos Long value
+     * @return Double value
+     */
+    private static double toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Escapes the characters that have special meaning in HTML
+     * @param value String value
+     * @return Escaped string
+     */
+    private static String escapeHtml(String value) {
+        return StringUtils.replaceEach(
+            value,
+            new String[] {"&", "<", ">", "\""},
+            new String[] {"&amp;", "&lt;", "&gt;", "&quot;"});
+    }
+
+    /**
+     * Retrieves the JVM facility that reports the amount of memory allocated by a thread
+     * @return {@code ThreadMXBean} instance, or null if the JVM does not support allocation measurement
+     */
+    private static com.sun.management.ThreadMXBean getAllocationCounter() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean result = (com.sun.management.ThreadMXBean) threadBean;
+        if (!result.isThreadAllocatedMemorySupported() || !result.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return result;
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Creates a {@link ProfilingContextHelper} instance that collects measurements
+     * @return {@code ProfilingContextHelper} object
+     */
+    public static ProfilingContextHelper enabled() {
+        return new ProfilingContextHelper(true);
+    }
+
+    /**
+     * Retrieves the shared {@link ProfilingContextHelper} instance that skips measurements
+     * @return {@code ProfilingContextHelper} object
+     */
+    public static ProfilingContextHelper disabled() {
+        return DISABLED;
+    }
+
+    /* ---------------
+       Utility classes
+       --------------- */
+
+    /**
+     * Enumerates the kinds of activities being measured
+     */
+    public enum Category {
+        COMPONENTS("components", "Components"),
+        WRITERS("writers", "Package entry writers"),
+        HANDLER_CHAINS("handlerChains", "Handler chains"),
+        HANDLERS("handlers", "Handlers"),
+        VALIDATORS("validators", "Validators"),
+        SCRIPTING("scripting", "Scripting");
+
+        private final String key;
+        private final String title;
+
+        /**
+         * Initializes an enum constant
+         * @param key   String used to identify the category in the JSON report
+         * @param title String used as the category heading in the HTML report
+         */
+        Category(String key, String title) {
+            this.key = key;
+            this.title = title;
+        }
+
+        /**
+         * Retrieves the key of the category
+         * @return String value
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Retrieves the title of the category
+         * @return String value
+         */
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Represents a measurement of an activity that completes when closed
+     */
+    @FunctionalInterface
+    public interface Measurement extends AutoCloseable {
+
+        /**
+         * Completes the measurement
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Implements {@link Measurement} for an activity that is being measured by the current thread
+     */
+    private class ActiveMeasurement implements Measurement {
+        private final Category category;
+        private final String name;
+        private final long startNanos;
+        private final long startBytes;
+        private long nestedNanos;
+        private long nestedBytes;
+
+        /**
+         * Initializes a class instance and starts counting
+         * @param category {@link Category} of the activity
+         * @param name     Name of the activity
+         */
+        ActiveMeasurement(Category category, String name) {
+            this.category = category;
+            this.name = StringUtils.defaultString(name);
+            this.startBytes = getAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            complete(this);
+        }
+    }
+
+    /**
+     * Accumulates the measurements of an activity
+     */
+    private static class Statistics {
+        private long count;
+        private long totalNanos;
+        private long selfNanos;
+        private long maxNanos;
+        private long allocatedBytes;
+        private long selfAllocatedBytes;
+
+        /**
+         * Stores the outcome of a measurement
+         * @param total         Time consumed by the activity, in nanoseconds
+         * @param self          Time consumed by the activity apart from the nested activities, in nanoseconds
+         * @param allocated     Number of bytes allocated by the activity
+         * @param selfAllocated Number of bytes allocated by the activity apart from the nested activities
+         */
+        synchronized void add(long total, long self, long allocated, long selfAllocated) {
+            count++;
+            totalNanos += total;
+            selfNanos += self;
+            maxNanos = Math.max(maxNanos, total);
+            allocatedBytes += allocated;
+            selfAllocatedBytes += selfAllocated;
+        }
+
+        /**
+         * Retrieves the accumulated self time
+         * @return Long value
+         */
+        synchronized long getSelfNanos() {
+            return selfNanos;
+        }
+
+        /**
+         * Retrieves the longest time a single run of the activity took
+         * @return Long value
+         */
+        synchronized long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Represents the current instance as a key-value map for the report
+         * @param name Name of the activity
+         * @return {@code Map} object
+         */
+        synchronized Map<String, Object> toMap(String name) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put(PN_NAME, name);
+            result.put(PN_COUNT, count);
+            result.put(PN_TOTAL_MS, toMillis(totalNanos));
+            result.put(PN_SELF_MS, toMillis(selfNanos));
+            result.put(PN_MAX_MS, toMillis(maxNanos));
+            result.put(PN_ALLOCATED_BYTES, allocatedBytes);
+            result.put(PN_SELF_ALLOCATED_BYTES, selfAllocatedBytes);
+            return result;
+        }
+    }
+}
@@ -14,19 +14,33 @@
 package com.exadel.aem.toolkit.plugin.runtime;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -34,24 +48,24 @@ import org.reflections.Reflections;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
 import org.reflections.util.ConfigurationBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
 import com.exadel.aem.toolkit.api.annotations.main.Dialog;
 import com.exadel.aem.toolkit.api.annotations.meta.AnnotationRendering;
-import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
 import com.exadel.aem.toolkit.api.annotations.meta.Validator;
 import com.exadel.aem.toolkit.api.handlers.Handler;
-import com.exadel.aem.toolkit.api.handlers.Handles;
-import com.exadel.aem.toolkit.api.handlers.HandlesWidgets;
+import com.exadel.aem.toolkit.api.handlers.Source;
 import com.exadel.aem.toolkit.api.runtime.Injected;
 import com.exadel.aem.toolkit.api.runtime.RuntimeContext;
+import com.exadel.aem.toolkit.core.processing.ComponentIndexProcessor;
 import com.exadel.aem.toolkit.plugin.exceptions.ExtensionApiException;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntimeContext;
 import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
 import com.exadel.aem.toolkit.plugin.sources.Sources;
 import com.exadel.aem.toolkit.plugin.utils.ClassUtil;
-import com.exadel.aem.toolkit.plugin.utils.ScopeUtil;
 import com.exadel.aem.toolkit.plugin.utils.ordering.OrderingUtil;
 
 /**
@@ -62,14 +76,23 @@ public class ReflectionContextHelper {
     private static final char SEPARATOR_COMMA = ',';
     private Reflections reflections;
 
+    private ClasspathIndex index;
+
+    private ReflectionContextHelper parent;
+
     private ClassLoader classLoader;
 
     private List<ComponentSource> components;
 
     private List<Handler> handlers;
 
+    private HandlerDispatchIndex handlerDispatchIndex;
+
     private List<Validator> validators;
 
+    private final Map<Class<?>, List<Source>> memberSources = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Member>> declaredMembers = new ConcurrentHashMap<>();
+
     /**
      * Default (instantiation-restricting) constructor
      */
@@ -119,10 +142,8 @@ public class ReflectionContextHelper {
             return components;
         }
 
-        Set<Class<?>> classesAnnotatedWithComponent = new HashSet<>(
-            reflections.getTypesAnnotatedWith(AemComponent.class, true));
-        Set<Class<?>> classesAnnotatedWithDialog = new HashSet<>(
-            reflections.getTypesAnnotatedWith(Dialog.class, true));
+        Set<Class<?>> classesAnnotatedWithComponent = getTypesAnnotatedWith(AemComponent.class);
+        Set<Class<?>> classesAnnotatedWithDialog = getTypesAnnotatedWith(Dialog.class);
 
         Set<Class<?>> componentViews = new HashSet<>();
         classesAnnotatedWithComponent.forEach(cls -> componentViews.addAll(Arrays.asList(cls.getAnnotation(AemComponent.class).views())));
@@ -161,6 +182,48 @@ public class ReflectionContextHelper {
             .orElse(null);
     }
 
+    /* -------------------------
+       Retrieving member sources
+       ------------------------- */
+
+    /**
+     * Retrieves the list of {@code Source} objects representing the members of the given class. The list is created
+     * once per class with the provided factory and then stored for the lifetime of the current instance. Since
+     * {@code Source} objects are modified in the course of rendering, callers must not alter the returned objects and
+     * are expected to use copies of them
+     * @param type    {@code Class} reference, non-null
+     * @param factory {@code Function} that produces the list of sources for the class
+     * @return {@code List} of {@code Source} objects shared between callers
+     */
+    public List<Source> getMemberSources(Class<?> type, Function<Class<?>, List<Source>> factory) {
+        // The factory is not invoked within computeIfAbsent() because it may request sources of other classes
+        List<Source> result = memberSources.get(type);
+        if (result != null) {
+            return result;
+        }
+        result = factory.apply(type);
+        List<Source> existing = memberSources.putIfAbsent(type, result);
+        return existing != null ? existing : result;
+    }
+
+    /**
+     * Retrieves the list of fields and methods declared in the given class that can be rendered. The list is created
+     * once per class with the provided factory, so that a base class shared by many components is inspected only once
+     * per lifetime of the current instance
+     * @param type    {@code Class} reference, non-null
+     * @param factory {@code Function} that produces the list of members for the class
+     * @return Unmodifiable {@code List} of {@code Member} objects
+     */
+    public List<Member> getDeclaredMembers(Class<?> type, Function<Class<?>, List<Member>> factory) {
+        List<Member> result = declaredMembers.get(type);
+        if (result != null) {
+            return result;
+        }
+        result = Collections.unmodifiableList(factory.apply(type));
+        List<Member> existing = declaredMembers.putIfAbsent(type, result);
+        return existing != null ? existing : result;
+    }
+
     /* -------------------
        Retrieving handlers
        ------------------- */
@@ -174,9 +237,7 @@ public class ReflectionContextHelper {
      */
     public boolean isHandled(Annotation annotation) {
         return annotation.annotationType().isAnnotationPresent(AnnotationRendering.class)
-            || getHandlers()
-            .stream()
-            .anyMatch(handler -> isHandlerMatches(handler, null, new Class<?>[]{annotation.annotationType()}));
+            || getHandlerDispatchIndex().isHandled(annotation.annotationType());
     }
 
     /**
@@ -188,10 +249,7 @@ public class ReflectionContextHelper {
      * @return {@code List} of handler instances, ordered
      */
     public List<Handler> getHandlers(String scope, Annotation[] annotations) {
-        List<Handler> result = getHandlers().stream()
-            .filter(handler -> isHandlerMatches(handler, scope, annotations))
-            .collect(Collectors.toList());
-        return OrderingUtil.sortHandlers(result);
+        return getHandlers(scope, Arrays.stream(annotations).map(Annotation::annotationType).toArray(Class<?>[]::new));
     }
 
     /**
@@ -202,10 +260,7 @@ public class ReflectionContextHelper {
      * @return {@code List} of handler instances, ordered
      */
     public List<Handler> getHandlers(String scope, Class<?>... annotationTypes) {
-        List<Handler> result = getHandlers().stream()
-            .filter(handler -> isHandlerMatches(handler, scope, annotationTypes))
-            .collect(Collectors.toList());
-        return OrderingUtil.sortHandlers(result);
+        return getHandlerDispatchIndex().getHandlers(scope, annotationTypes);
     }
 
     /**
@@ -216,65 +271,26 @@ public class ReflectionContextHelper {
         if (handlers != null) {
             return handlers;
         }
-        handlers = reflections.getSubTypesOf(Handler.class).stream()
+        List<Handler> newHandlers = getSubTypesOf(Handler.class, ComponentIndexProcessor.KEY_HANDLERS).stream()
             .filter(cls -> !cls.isInterface())
             .map(ReflectionContextHelper::getHandlerInstance)
             .filter(Objects::nonNull)
             .sorted(OrderingUtil::compareByOrigin) // to provide stable handlers sequence between runs
             .collect(Collectors.toList());
+        handlerDispatchIndex = new HandlerDispatchIndex(newHandlers);
+        handlers = newHandlers;
         return handlers;
     }
 
     /**
-     * Tests whether the given handler is suitable for the conditions defined by the set of manageable annotations and
-     * the {@code Scope} value
-     * @param scope       String value representing the scope that the handlers must match
-     * @param handler     {@code Handler} instance to test
-     * @param annotations An array of {@code Annotation} objects, usually representing annotations of a method or class
-     * @return True or false
+     * Retrieves the {@link HandlerDispatchIndex} built over the list of available handlers
+     * @return {@code HandlerDispatchIndex} instance
      */
-    private static boolean isHandlerMatches(Handler handler, String scope, Annotation[] annotations) {
-        return isHandlerMatches(handler, scope, Arrays.stream(annotations).map(Annotation::annotationType).toArray(Class<?>[]::new));
-    }
-
-    /**
-     * Tests whether the given handler is suitable for the conditions defined by the set of manageable annotations and
-     * the {@code Scope} value
-     * @param handler         {@code Handler} instance to test
-     * @param scope           String value representing the scope that the handlers must match
-     * @param annotationTypes An array of {@code Class} references, usually representing types of annotations of a
-     *                        method or a class
-     * @return True or false
-     */
-    @SuppressWarnings("deprecation") // HandlesWidgets processing is retained for compatibility and will be removed
-    // in a version after 2.0.2
-    private static boolean isHandlerMatches(Handler handler, String scope, Class<?>[] annotationTypes) {
-        Handles handles = handler.getClass().getDeclaredAnnotation(Handles.class);
-        HandlesWidgets handlesWidgets = handler.getClass().getDeclaredAnnotation(HandlesWidgets.class);
-        if (handles == null && handlesWidgets == null) {
-            return false;
-        }
-        Class<? extends Annotation>[] handledAnnotationTypes = handles != null
-            ? handles.value()
-            : handlesWidgets.value();
-        boolean isMatchByType = Arrays.stream(handledAnnotationTypes)
-            .anyMatch(annotationType -> Arrays.asList(annotationTypes).contains(annotationType));
-
-        String[] handlerScopes = handles != null ? handles.scope() : new String[]{Scopes.DEFAULT};
-        // Try to guess appropriate scopes for the handler judging by the annotations it handles
-        // (so that if it handles, e.g., {@code @ChildEditConfig}, the scope for the handler is exactly ChildEditConfig)
-        if (handles != null && handlerScopes.length == 1 && handlerScopes[0].equals(Scopes.DEFAULT)) {
-            handlerScopes = ScopeUtil.designate(handles.value());
-        }
-        // If still no particular scopes, try to guess by the mere annotations added to the current class
-        // (so that if there is, e.g., {@code @Dialog}, and the handler has no particular scope, it is assumed that
-        // the handler is also for the dialog)
-        if (handlerScopes.length == 1 && handlerScopes[0].equals(Scopes.DEFAULT)) {
-            handlerScopes = ScopeUtil.designate(annotationTypes);
+    private HandlerDispatchIndex getHandlerDispatchIndex() {
+        if (handlerDispatchIndex == null) {
+            getHandlers();
         }
-        boolean isMatchByScope = scope == null || ScopeUtil.fits(scope, handlerScopes);
-
-        return isMatchByType && isMatchByScope;
+        return handlerDispatchIndex;
     }
 
     /**
@@ -325,7 +341,7 @@ public class ReflectionContextHelper {
         if (validators != null) {
             return validators;
         }
-        validators = reflections.getSubTypesOf(Validator.class).stream()
+        validators = getSubTypesOf(Validator.class, ComponentIndexProcessor.KEY_VALIDATORS).stream()
             .map(ReflectionContextHelper::getInstance)
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
@@ -336,6 +352,46 @@ public class ReflectionContextHelper {
        Common utilities
        ---------------- */
 
+    /**
+     * Retrieves the classes that are directly annotated with the given annotation. The classes are looked up in the
+     * compile-time indexes of the current instance and the instances it extends, and the classpath elements that have
+     * no index are scanned
+     * @param annotationType {@code Class} reference representing the annotation
+     * @return Set of {@code Class} references; can be empty
+     */
+    private Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotationType) {
+        Set<Class<?>> result = new HashSet<>();
+        for (ReflectionContextHelper current = this; current != null; current = current.parent) {
+            current.index.getClasses(ComponentIndexProcessor.KEY_COMPONENTS, Object.class, classLoader)
+                .stream()
+                .filter(cls -> cls.getDeclaredAnnotation(annotationType) != null)
+                .forEach(result::add);
+        }
+        if (reflections != null) {
+            result.addAll(reflections.getTypesAnnotatedWith(annotationType, true));
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the subtypes of the given type. The subtypes are looked up in the compile-time indexes of the current
+     * instance and the instances it extends, and the classpath elements that have no index are scanned
+     * @param type {@code Class} reference representing the supertype
+     * @param key  Category of the compile-time index that stores the subtypes
+     * @param <T>  Type of the supertype
+     * @return Set of {@code Class} references; can be empty
+     */
+    private <T> Set<Class<? extends T>> getSubTypesOf(Class<T> type, String key) {
+        Set<Class<? extends T>> result = new HashSet<>();
+        for (ReflectionContextHelper current = this; current != null; current = current.parent) {
+            result.addAll(current.index.getClasses(key, type, classLoader));
+        }
+        if (reflections != null) {
+            result.addAll(reflections.getSubTypesOf(type));
+        }
+        return result;
+    }
+
     /**
      * Creates a new instance object of the specified {@code Class}
      * @param instanceClass The class to instantiate
@@ -360,31 +416,154 @@ public class ReflectionContextHelper {
 
     /**
      * Used to initialize a {@code PluginReflectionUtility} instance based on the list of available classpath entries in
-     * the scope of this Maven plugin
+     * the scope of this Maven plugin. The classpath entries that contain a compile-time index created by the
+     * {@link ComponentIndexProcessor} are not scanned
      * @param elements List of classpath elements to be used in reflection routines
      * @return {@link ReflectionContextHelper} instance
      */
     public static ReflectionContextHelper fromCodeScope(List<String> elements) {
-        URL[] urls = new URL[0];
-        if (elements != null) {
-            urls = elements.stream()
-                .map(File::new)
-                .map(File::toURI)
-                .map(ReflectionContextHelper::toUrl)
-                .filter(Objects::nonNull)
-                .toArray(URL[]::new);
-        }
+        URL[] urls = toUrls(elements);
         URLClassLoader classLoader = new URLClassLoader(urls, ReflectionContextHelper.class.getClassLoader());
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-            .addClassLoader(classLoader)
-            .setUrls(urls)
-            .setScanners(new TypeAnnotationsScanner(), new SubTypesScanner()));
+        ClasspathIndex index = ClasspathIndex.forElements(urls);
         ReflectionContextHelper newInstance = new ReflectionContextHelper();
         newInstance.classLoader = classLoader;
+        newInstance.index = index;
+        if (!index.getScannedElements().isEmpty()) {
+            newInstance.reflections = new Reflections(new ConfigurationBuilder()
+                .addClassLoader(classLoader)
+                .setUrls(index.getScannedElements())
+                .setScanners(new TypeAnnotationsScanner(), new SubTypesScanner()));
+        }
+        return newInstance;
+    }
+
+    /**
+     * Creates a new instance that shares the class loader and the classpath scanning results with the current one. AEM
+     * components, handlers, and validators are retrieved anew by the new instance. This way, a single classpath scan
+     * can serve several plugin runs, e.g., for different content package modules of the same Maven reactor
+     * @return {@link ReflectionContextHelper} instance
+     */
+    public ReflectionContextHelper copy() {
+        ReflectionContextHelper newInstance = new ReflectionContextHelper();
+        newInstance.classLoader = classLoader;
+        newInstance.index = index;
+        newInstance.parent = parent;
+        newInstance.reflections = reflections;
+        return newInstance;
+    }
+
+    /**
+     * Creates a new instance that loads the classes of the given classpath elements with a class loader nested in the
+     * class loader of the current instance. Only the given elements are scanned; the scanning results and the
+     * compile-time index of the current instance are reused. This way, the classes of the given elements (e.g., folders
+     * with compiled classes that are being changed) can be loaded anew while the rest of the classpath stays loaded.
+     * AEM components, handlers, and validators are retrieved anew by the new instance
+     * @param elements List of classpath elements that are not covered by the current instance
+     * @return {@link ReflectionContextHelper} instance. Its class loader is a {@link URLClassLoader} that the caller
+     * is expected to close when the instance is no longer needed
+     */
+    public ReflectionContextHelper extend(List<String> elements) {
+        URL[] urls = toUrls(elements);
+        ReflectionContextHelper newInstance = new ReflectionContextHelper();
+        newInstance.classLoader = new URLClassLoader(urls, classLoader);
+        newInstance.index = ClasspathIndex.forElements(urls);
+        newInstance.parent = this;
         newInstance.reflections = reflections;
+        if (!newInstance.index.getScannedElements().isEmpty()) {
+            newInstance.reflections = new Reflections(new ConfigurationBuilder()
+                .addClassLoader(newInstance.classLoader)
+                .setUrls(newInstance.index.getScannedElements())
+                .setScanners(new TypeAnnotationsScanner(), new SubTypesScanner()));
+            if (reflections != null) {
+                // Supertypes that reside in the elements of the current instance are needed to resolve the subtypes
+                // declared in the new elements
+                newInstance.reflections.merge(reflections);
+            }
+        }
         return newInstance;
     }
 
+    /**
+     * Computes a hash string that identifies the given list of classpath elements. Apart from the paths, the hash
+     * reflects the sizes and modification times of the elements, so that an archive rebuilt since the previous
+     * computation yields a different value. For a folder, such as the output of another module in the reactor, the
+     * files it contains are taken into account. The order of elements is significant because it defines which of the
+     * same-named classes is loaded
+     * @param elements List of classpath elements
+     * @return String value
+     */
+    public static String getHash(List<String> elements) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        if (elements == null) {
+            return hasher.hash().toString();
+        }
+        for (String element : elements) {
+            hasher.putInt(element.length()).putString(element, StandardCharsets.UTF_8);
+            Path path = Paths.get(element);
+            if (Files.isDirectory(path)) {
+                putFolderAttributes(hasher, path);
+            } else {
+                putFileAttributes(hasher, path);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Called by {@link ReflectionContextHelper#getHash(List)} to store in the hash the relative paths and the
+     * attributes of the files that reside in the given folder. The files are visited in the order of their paths
+     * @param hasher {@code Hasher} instance
+     * @param folder {@code Path} of a classpath folder
+     */
+    private static void putFolderAttributes(Hasher hasher, Path folder) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(folder)) {
+            files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            // An unreadable folder contributes only its path
+            hasher.putLong(-1L);
+            return;
+        }
+        for (Path file : files) {
+            String relativePath = folder.relativize(file).toString();
+            hasher.putInt(relativePath.length()).putString(relativePath, StandardCharsets.UTF_8);
+            putFileAttributes(hasher, file);
+        }
+    }
+
+    /**
+     * Called by {@link ReflectionContextHelper#getHash(List)} to store in the hash the size and the modification time
+     * of the given file. The time is taken with the best precision the file system provides
+     * @param hasher {@code Hasher} instance
+     * @param file   {@code Path} of a file
+     */
+    private static void putFileAttributes(Hasher hasher, Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            hasher.putLong(attributes.size()).putLong(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+        } catch (IOException e) {
+            // A missing or unreadable element contributes only its path
+            hasher.putLong(-1L);
+        }
+    }
+
+    /**
+     * Converts the given classpath elements to {@link URL}s
+     * @param elements List of classpath elements; can be null
+     * @return Array of {@code URL} values; can be empty
+     */
+    private static URL[] toUrls(List<String> elements) {
+        if (elements == null) {
+            return new URL[0];
+        }
+        return elements.stream()
+            .map(File::new)
+            .map(File::toURI)
+            .map(ReflectionContextHelper::toUrl)
+            .filter(Objects::nonNull)
+            .toArray(URL[]::new);
+    }
+
     /**
      * Converts {@link URI} parameter, such as of a classpath element, to an {@link URL} instance used by {@link
      * Reflections}
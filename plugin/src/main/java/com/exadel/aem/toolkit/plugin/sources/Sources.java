@@ -18,6 +18,7 @@ import java.lang.reflect.Member;
 
 import com.exadel.aem.toolkit.api.handlers.MemberSource;
 import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.plugin.adapters.MemberRankingSetting;
 
 /**
  * Contains factory methods for creating {@link Source} instances
@@ -67,6 +68,29 @@ public class Sources {
         return result;
     }
 
+    /**
+     * Creates a copy of the given {@link Source} facade for a Java class member. The copy refers to the same member and
+     * retains the name, the declaring class, the reporting class, the upstream source, and the ranking of the original.
+     * Metadata and other adaptations are initialized anew, so the copy can be modified independently
+     * @param value {@code Source} object to copy
+     * @return {@code Source} instance; if the given object does not represent a class member, it is returned as is
+     */
+    public static Source copyOf(Source value) {
+        if (!(value instanceof MemberSourceImpl)) {
+            return value;
+        }
+        MemberSourceImpl original = (MemberSourceImpl) value;
+        ModifiableMemberSource result = new MemberSourceImpl(original.adaptTo(Member.class));
+        result.setName(original.getName());
+        result.setDeclaringClass(original.getDeclaringClass());
+        result.setReportingClass(original.getReportingClass());
+        result.setUpstreamSource(original.getUpstreamSource());
+        if (original.hasAdaptation(MemberRankingSetting.class)) {
+            result.adaptTo(MemberRankingSetting.class).setRanking(original.adaptTo(MemberRankingSetting.class).getRanking());
+        }
+        return result;
+    }
+
     /**
      * Creates a {@link Source} facade for a Java class that represents an AEM component
      * @param value {@code Class} object for which a source facade is created
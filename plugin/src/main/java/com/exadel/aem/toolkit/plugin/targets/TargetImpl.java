@@ -298,8 +298,8 @@ class TargetImpl extends AdaptationBase<Target> implements Target, LegacyHandler
      */
     @Override
     public void addTarget(Target other, int position) {
-        // We cannot attach Target B to Target A if Target A is a descendant of Target A
-        if (other == null || other.findChild(child -> child.equals(this)) != null) {
+        // We cannot attach Target B to Target A if Target A is a descendant of Target B
+        if (other == null || isDescendantOf(other)) {
             return;
         }
         if (other.getParent() != null) {
@@ -349,6 +349,22 @@ class TargetImpl extends AdaptationBase<Target> implements Target, LegacyHandler
         return null;
     }
 
+    /**
+     * Called by {@link TargetImpl#addTarget(Target, int)} to detect whether the current instance is a descendant of the
+     * given {@code Target}. The check goes up the line of parents of the current instance instead of traversing the
+     * subtree of the other target
+     * @param other {@code Target} object, non-null
+     * @return True or false
+     */
+    private boolean isDescendantOf(Target other) {
+        for (Target current = getParent(); current != null; current = current.getParent()) {
+            if (current.equals(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
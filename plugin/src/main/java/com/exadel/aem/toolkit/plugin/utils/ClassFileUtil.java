@@ -0,0 +1,246 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Contains utility methods for reading Java class files without loading the classes. Used to quickly tell which classes
+ * a class file refers to
+ */
+public class ClassFileUtil {
+
+    public static final String CLASS_FILE_EXTENSION = ".class";
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int LENGTH_SHORT = 2;
+    private static final int LENGTH_METHOD_HANDLE = 3;
+    private static final int LENGTH_INT = 4;
+    private static final int LENGTH_LONG = 8;
+
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_FLOAT = 4;
+    private static final int TAG_LONG = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_CLASS = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_FIELD_REF = 9;
+    private static final int TAG_METHOD_REF = 10;
+    private static final int TAG_INTERFACE_METHOD_REF = 11;
+    private static final int TAG_NAME_AND_TYPE = 12;
+    private static final int TAG_METHOD_HANDLE = 15;
+    private static final int TAG_METHOD_TYPE = 16;
+    private static final int TAG_DYNAMIC = 17;
+    private static final int TAG_INVOKE_DYNAMIC = 18;
+    private static final int TAG_MODULE = 19;
+    private static final int TAG_PACKAGE = 20;
+
+    private static final Pattern TYPE_DESCRIPTOR = Pattern.compile("L([\\w$]+(?:/[\\w$]+)*)[;<]");
+
+    private static final String INVALID_CLASS_FILE_EXCEPTION_MESSAGE = "Not a valid class file";
+    private static final String UNKNOWN_CONSTANT_EXCEPTION_MESSAGE = "Unknown constant pool tag ";
+
+    /**
+     * Default (instantiation-restricting) constructor
+     */
+    private ClassFileUtil() {
+    }
+
+    /**
+     * Retrieves the internal names (such as {@code com/acme/Component}) of classes referenced from the constant pool of
+     * the given class file. These include the superclass, interfaces, nested classes, types of fields and method
+     * arguments, annotations and class values of annotation properties. The result is a conservative estimate: it may
+     * contain strings that do not refer to an existing class
+     * @param classFile Byte array representing the content of a class file
+     * @return Sorted set of strings; can be empty
+     * @throws IOException if the class file is malformed
+     */
+    public static Set<String> getReferencedClasses(byte[] classFile) throws IOException {
+        ConstantPool constantPool = readConstantPool(classFile);
+        Set<String> result = new TreeSet<>();
+        for (int classNameIndex : constantPool.getClassNameIndexes()) {
+            String className = constantPool.getString(classNameIndex);
+            if (className != null && !className.startsWith("[")) {
+                result.add(className);
+            }
+        }
+        for (String value : constantPool.getStrings()) {
+            collectDescriptorClasses(value, result);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the textual constants of the given class file. These are the UTF-8 entries of the constant pool that
+     * store names of classes, members, descriptors, signatures, and string literals
+     * @param classFile Byte array representing the content of a class file
+     * @return List of strings; can be empty
+     * @throws IOException if the class file is malformed
+     */
+    public static List<String> getConstantStrings(byte[] classFile) throws IOException {
+        return readConstantPool(classFile).getStrings();
+    }
+
+    /**
+     * Reads the constant pool of the given class file
+     * @param classFile Byte array representing the content of a class file
+     * @return {@link ConstantPool} object
+     * @throws IOException if the class file is malformed
+     */
+    private static ConstantPool readConstantPool(byte[] classFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(classFile))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(INVALID_CLASS_FILE_EXCEPTION_MESSAGE);
+            }
+            input.skipBytes(LENGTH_INT); // Minor and major version
+            ConstantPool result = new ConstantPool(input.readUnsignedShort());
+            for (int i = 1; i < result.size(); i++) {
+                int tag = input.readUnsignedByte();
+                switch (tag) {
+                    case TAG_UTF8:
+                        result.putString(i, input.readUTF());
+                        break;
+                    case TAG_CLASS:
+                        result.putClassNameIndex(input.readUnsignedShort());
+                        break;
+                    case TAG_STRING:
+                    case TAG_METHOD_TYPE:
+                    case TAG_MODULE:
+                    case TAG_PACKAGE:
+                        input.skipBytes(LENGTH_SHORT);
+                        break;
+                    case TAG_METHOD_HANDLE:
+                        input.skipBytes(LENGTH_METHOD_HANDLE);
+                        break;
+                    case TAG_INTEGER:
+                    case TAG_FLOAT:
+                    case TAG_FIELD_REF:
+                    case TAG_METHOD_REF:
+                    case TAG_INTERFACE_METHOD_REF:
+                    case TAG_NAME_AND_TYPE:
+                    case TAG_DYNAMIC:
+                    case TAG_INVOKE_DYNAMIC:
+                        input.skipBytes(LENGTH_INT);
+                        break;
+                    case TAG_LONG:
+                    case TAG_DOUBLE:
+                        input.skipBytes(LENGTH_LONG);
+                        i++; // 8-byte constants take two slots in the pool
+                        break;
+                    default:
+                        throw new IOException(UNKNOWN_CONSTANT_EXCEPTION_MESSAGE + tag);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Called by {@link ClassFileUtil#getReferencedClasses(byte[])} to extract class names from a type descriptor or a
+     * generic signature
+     * @param value  String value
+     * @param result Collection of class names to populate
+     */
+    private static void collectDescriptorClasses(String value, Set<String> result) {
+        if (value.indexOf('L') < 0) {
+            return;
+        }
+        Matcher matcher = TYPE_DESCRIPTOR.matcher(value);
+        while (matcher.find()) {
+            result.add(matcher.group(1));
+        }
+    }
+
+    /**
+     * Represents the subset of a class file's constant pool that is needed to detect references to other classes
+     */
+    private static class ConstantPool {
+        private final String[] strings;
+        private final List<Integer> classNameIndexes = new ArrayList<>();
+
+        /**
+         * Creates a new {@code ConstantPool} instance
+         * @param size The number of slots in the constant pool as specified in the class file
+         */
+        ConstantPool(int size) {
+            this.strings = new String[size];
+        }
+
+        /**
+         * Retrieves the number of slots in the constant pool
+         * @return Integer value
+         */
+        int size() {
+            return strings.length;
+        }
+
+        /**
+         * Retrieves the textual constant stored at the given slot
+         * @param index Slot index
+         * @return String value, or null if the slot does not contain a textual constant
+         */
+        String getString(int index) {
+            return index > 0 && index < strings.length ? strings[index] : null;
+        }
+
+        /**
+         * Retrieves all the textual constants of the pool
+         * @return List of strings
+         */
+        List<String> getStrings() {
+            List<String> result = new ArrayList<>();
+            for (String value : strings) {
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Retrieves the slot indexes of textual constants that store class names
+         * @return List of integer values
+         */
+        List<Integer> getClassNameIndexes() {
+            return classNameIndexes;
+        }
+
+        /**
+         * Stores a textual constant
+         * @param index Slot index
+         * @param value String value
+         */
+        void putString(int index, String value) {
+            strings[index] = value;
+        }
+
+        /**
+         * Stores the slot index of a textual constant that represents a class name
+         * @param index Slot index
+         */
+        void putClassNameIndex(int index) {
+            classNameIndexes.add(index);
+        }
+    }
+}
@@ -35,6 +35,7 @@ import com.exadel.aem.toolkit.api.annotations.widgets.accessory.IgnoreFields;
 import com.exadel.aem.toolkit.api.handlers.MemberSource;
 import com.exadel.aem.toolkit.api.handlers.Source;
 import com.exadel.aem.toolkit.plugin.adapters.ClassMemberSetting;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
 import com.exadel.aem.toolkit.plugin.sources.Sources;
 import com.exadel.aem.toolkit.plugin.utils.ordering.OrderingUtil;
 
@@ -88,11 +89,40 @@ public class ClassUtil {
      * @param ordered        True to perform proper sources ordering (considers the {@code @DialogField(ranking=..,)}
      *                       values, and then the {@code @Place(before/after=...)} instructions). False to skip
      *                       ordering
+     * @return List of {@code Source} objects. Sources of a class retrieved without an upstream source and a condition
+     * are collected once per plugin runtime; every call returns fresh copies of them
+     */
+    public static List<Source> getSources(
+        Class<?> sourceClass,
+        MemberSource upstreamSource,
+        Predicate<Source> condition,
+        boolean ordered) {
+        if (ordered && upstreamSource == null && condition == null) {
+            return PluginRuntime.context()
+                .getReflection()
+                .getMemberSources(sourceClass, type -> collectSources(type, null, null, true))
+                .stream()
+                .map(Sources::copyOf)
+                .collect(Collectors.toList());
+        }
+        return collectSources(sourceClass, upstreamSource, condition, ordered);
+    }
+
+    /**
+     * Called by {@link ClassUtil#getSources(Class, MemberSource, Predicate, boolean)} to retrieve a list of
+     * {@link Source} objects representing manageable members that belong to a certain {@code Class} (and its
+     * superclasses) and match the criteria represented by a {@code Predicate}
+     * @param sourceClass    The class to extract sources from
+     * @param upstreamSource Nullable {@code MemberSource} reference that signifies the context in which the current class
+     *                       members are retrieved
+     * @param condition      Nullable {@code Predicate<Member>} instance that helps to pick up appropriate fields and
+     *                       methods
+     * @param ordered        True to perform proper sources ordering; false to skip ordering
      * @return List of {@code Source} objects
      */
     @SuppressWarnings("deprecation") // Processing of IgnoreFields is retained for compatibility and will be removed
     // in a version after 2.0.2
-    public static List<Source> getSources(
+    private static List<Source> collectSources(
         Class<?> sourceClass,
         MemberSource upstreamSource,
         Predicate<Source> condition,
@@ -102,12 +132,13 @@ public class ClassUtil {
 
         for (Class<?> classEntry : getInheritanceTree(sourceClass)) {
 
-            Stream<Member> classMembersStream = sourceClass.isInterface()
-                ? Arrays.stream(classEntry.getMethods())
-                : Stream.concat(Arrays.stream(classEntry.getDeclaredFields()), Arrays.stream(classEntry.getDeclaredMethods()));
-            List<Source> classMemberSources = classMembersStream
+            List<Member> classMembers = sourceClass.isInterface()
+                ? getValidMembers(Arrays.stream(classEntry.getMethods()))
+                : PluginRuntime.context().getReflection().getDeclaredMembers(classEntry, ClassUtil::collectDeclaredMembers);
+            List<Source> classMemberSources = classMembers
+                .stream()
                 .map(member -> Sources.fromMember(member, sourceClass, upstreamSource))
-                .filter(source -> source.isValid() && (condition == null || condition.test(source)))
+                .filter(source -> condition == null || condition.test(source))
                 .collect(Collectors.toList());
             raw.addAll(classMemberSources);
 
@@ -132,6 +163,28 @@ public class ClassUtil {
             : reducedWithReplacements;
     }
 
+    /**
+     * Called by {@link ClassUtil#collectSources(Class, MemberSource, Predicate, boolean)} to retrieve the fields and
+     * methods declared in the given class that can be rendered
+     * @param type The class to extract members from
+     * @return List of {@code Member} objects
+     */
+    private static List<Member> collectDeclaredMembers(Class<?> type) {
+        return getValidMembers(Stream.concat(Arrays.stream(type.getDeclaredFields()), Arrays.stream(type.getDeclaredMethods())));
+    }
+
+    /**
+     * Filters the given members so that only the ones that can be rendered are retained. Validity of a member source
+     * does not depend on the class it is reported for or on the upstream source
+     * @param members {@code Stream} of {@code Member} objects
+     * @return List of {@code Member} objects
+     */
+    private static List<Member> getValidMembers(Stream<Member> members) {
+        return members
+            .filter(member -> Sources.fromMember(member).isValid())
+            .collect(Collectors.toList());
+    }
+
     /**
      * Retrieves a list of ancestors of a specific {@code Class}, target class itself included, starting from the "top"
      * of the inheritance tree. {@code Object} class is not added to the hierarchy
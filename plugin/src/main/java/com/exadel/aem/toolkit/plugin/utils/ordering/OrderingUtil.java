@@ -33,6 +33,8 @@ import com.exadel.aem.toolkit.api.markers._Default;
 import com.exadel.aem.toolkit.api.markers._Super;
 import com.exadel.aem.toolkit.core.CoreConstants;
 import com.exadel.aem.toolkit.plugin.adapters.MemberRankingSetting;
+import com.exadel.aem.toolkit.plugin.exceptions.InvalidLayoutException;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
 import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
 
 /**
@@ -42,6 +44,10 @@ public class OrderingUtil {
 
     private static final String BUILTIN_HANDLERS_ROOT = CoreConstants.ROOT_PACKAGE + ".plugin.handlers";
 
+    private static final String CIRCULAR_PLACEMENT_EXCEPTION_MESSAGE = "Circular placement detected: %s. "
+        + "The relation leading back to %s is ignored";
+    private static final String CIRCULAR_PLACEMENT_DELIMITER = " -> ";
+
     /**
      * Default (instantiation-restricting) constructor
      */
@@ -147,11 +153,20 @@ public class OrderingUtil {
             }
         }
 
-        return new TopologicalSorter<>(list)
+        TopologicalSorter<Source> sorter = new TopologicalSorter<>(list);
+        List<Source> result = sorter
             .topologicalSort()
             .stream()
             .map(Orderable::getValue)
             .collect(Collectors.toList());
+        for (List<Orderable<Source>> cycle : sorter.getCycles()) {
+            String members = cycle.stream().map(Orderable::getId).collect(Collectors.joining(CIRCULAR_PLACEMENT_DELIMITER));
+            PluginRuntime.context().getExceptionHandler().handle(new InvalidLayoutException(String.format(
+                CIRCULAR_PLACEMENT_EXCEPTION_MESSAGE,
+                members,
+                cycle.get(0).getId())));
+        }
+        return result;
     }
 
     /**
@@ -14,21 +14,44 @@
 package com.exadel.aem.toolkit.plugin.utils.ordering;
 
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Implements topological sorting for the {@link OrderingUtil} methods. The two collections are internally managed:
- * {@code List<Orderable<T>>} - a collection of entities that must be sorted; and {@code List<List<Orderable<T>>>} -
- * a collection of ordered lists used to represent a finite graph (each list describing neighbors of a node in the graph)
+ * Implements topological sorting for the {@link OrderingUtil} methods. The entities are indexed by their position in
+ * the initial list, and the relations set via {@link Orderable#getBefore()} and {@link Orderable#getAfter()} are
+ * converted into the lists of predecessors and successors of every entity. The sorting is done in linear time. Every
+ * entity is placed after all its predecessors; an entity whose predecessors have all been placed is placed right
+ * after the last of them. Otherwise, the entities retain the order of the initial list (which is, e.g., the order of
+ * their ranks). If the relations contain a cycle, the relation that leads back to the entity of the cycle met first is
+ * ignored, and the entities that form the cycle are reported via {@link TopologicalSorter#getCycles()}
  * @param <T> Type of the sorted entities
  * @see OrderingUtil
  */
 class TopologicalSorter<T> {
 
+    private static final int STATE_NEW = 0;
+    private static final int STATE_VISITING = 1;
+    private static final int STATE_DONE = 2;
+
     private final List<Orderable<T>> nodes;
 
+    private int[][] predecessors;
+    private int[][] successors;
+    private int[] pendingPredecessors;
+    private int[] states;
+    private int[] predecessorCursors;
+    private int[] successorCursors;
+    private int[] placing;
+    private List<Integer> path;
+    private List<Orderable<T>> sorted;
+    private List<List<Orderable<T>>> cycles;
+
     /**
      * Initializes a class instance
      * @param nodes Collection of entities to be sorted
@@ -42,102 +65,171 @@ class TopologicalSorter<T> {
      * @return List of entities with the sorting applied
      */
     public List<Orderable<T>> topologicalSort() {
-        List<Orderable<T>> sorted = new ArrayList<>();
+        index();
+        states = new int[nodes.size()];
+        predecessorCursors = new int[nodes.size()];
+        successorCursors = new int[nodes.size()];
+        placing = new int[nodes.size()];
+        path = new ArrayList<>();
+        sorted = new ArrayList<>(nodes.size());
+        cycles = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            visit(i);
+        }
+        return sorted;
+    }
 
-        for (int i = 0; i < this.nodes.size(); i++) {
-            Orderable<T> orderable = nodes.get(i);
-            Deque<Orderable<T>> temp = new LinkedList<>();
+    /**
+     * Retrieves the cycles found in the relations between entities during the latest sorting. Every cycle is
+     * represented by the list of entities that form it, in the order of the relations
+     * @return {@code List} of cycles; an empty list if the relations contain no cycles
+     */
+    public List<List<Orderable<T>>> getCycles() {
+        return cycles != null ? cycles : Collections.emptyList();
+    }
 
-            Deque<Orderable<T>> after = after(orderable, new ArrayList<>());
-            while (!after.isEmpty()) {
-                Orderable<T> tOrderable = after.removeLast();
-                if (!sorted.contains(tOrderable) && !temp.contains(tOrderable)) {
-                    temp.addFirst(tOrderable);
+    /**
+     * Called by {@link TopologicalSorter#topologicalSort()} to place the entity with the given index after all its
+     * predecessors have been placed. The predecessors are traversed depth-first with an explicit stack, which is the
+     * path of the entities being visited, so that a long chain of relations does not overflow the call stack
+     * @param start Index of the entity
+     */
+    private void visit(int start) {
+        if (states[start] != STATE_NEW) {
+            return;
+        }
+        states[start] = STATE_VISITING;
+        path.add(start);
+        while (!path.isEmpty()) {
+            int node = path.get(path.size() - 1);
+            if (predecessorCursors[node] < predecessors[node].length) {
+                int predecessor = predecessors[node][predecessorCursors[node]++];
+                if (states[predecessor] == STATE_VISITING) {
+                    registerCycle(predecessor);
+                } else if (states[predecessor] == STATE_NEW) {
+                    states[predecessor] = STATE_VISITING;
+                    path.add(predecessor);
                 }
+                continue;
+            }
+            path.remove(path.size() - 1);
+            if (states[node] != STATE_DONE) {
+                place(node);
             }
+        }
+    }
 
-            Deque<Orderable<T>> before = before(orderable, new ArrayList<>());
-            while (!before.isEmpty()) {
-                Orderable<T> tOrderable = before.removeFirst();
-                if (!sorted.contains(tOrderable) && !temp.contains(tOrderable)) {
-                    temp.addLast(tOrderable);
+    /**
+     * Called by {@link TopologicalSorter#visit(int)} to append the entity with the given index to the sorted list. The
+     * successors of the entity that have no more predecessors left to place are placed right after it, depth-first. An
+     * explicit stack is used for that, so that a long chain of relations does not overflow the call stack
+     * @param start Index of the entity
+     */
+    private void place(int start) {
+        int depth = 0;
+        append(start);
+        placing[depth++] = start;
+        while (depth > 0) {
+            int node = placing[depth - 1];
+            if (successorCursors[node] < successors[node].length) {
+                int successor = successors[node][successorCursors[node]++];
+                if (states[successor] == STATE_NEW && pendingPredecessors[successor] == 0) {
+                    append(successor);
+                    placing[depth++] = successor;
                 }
+            } else {
+                depth--;
             }
+        }
+    }
 
-            if (!sorted.contains(orderable) && !temp.contains(orderable)) {
-                temp.addLast(orderable);
-            }
+    /**
+     * Called by {@link TopologicalSorter#place(int)} to mark the entity with the given index as placed, add it to the
+     * sorted list, and update the numbers of pending predecessors of its successors
+     * @param node Index of the entity
+     */
+    private void append(int node) {
+        states[node] = STATE_DONE;
+        sorted.add(nodes.get(node));
+        for (int successor : successors[node]) {
+            pendingPredecessors[successor]--;
+        }
+    }
 
-            sorted.addAll(temp);
+    /**
+     * Called by {@link TopologicalSorter#visit(int)} to store the entities that form a cycle. These are the entities
+     * visited since the given one. As the visiting goes from an entity to its predecessors, the visited entities are
+     * stored in the reverse order
+     * @param node Index of the entity that has been met twice
+     */
+    private void registerCycle(int node) {
+        List<Orderable<T>> cycle = new ArrayList<>();
+        cycle.add(nodes.get(node));
+        int start = path.lastIndexOf(node);
+        for (int i = path.size() - 1; i > start; i--) {
+            cycle.add(nodes.get(path.get(i)));
         }
-        return sorted;
+        cycles.add(cycle);
     }
 
     /**
-     * Called by {@link TopologicalSorter#topologicalSort()} to get all entities connected to
-     * the entity as 'after' relationship
-     * @param orderable Orderable entity
-     * @param values List of all already used entities in sort
-     * @return Deque of connected entities
+     * Called by {@link TopologicalSorter#topologicalSort()} to convert the relations between entities into the arrays
+     * of predecessors and successors indexed by the positions of entities. Relations to the entities that are not in
+     * the sorted list are ignored
      */
-    private Deque<Orderable<T>> after(Orderable<T> orderable, List<Orderable<T>> values) {
-        Deque<Orderable<T>> deque = new LinkedList<>();
-        if (orderable == null) {
-            return deque;
+    private void index() {
+        Map<Orderable<T>, Integer> positions = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            positions.putIfAbsent(nodes.get(i), i);
         }
-        for (Orderable<T> orderable1 : orderable.getAfter()) {
-            if (!values.contains(orderable1)) {
-                values.add(orderable1);
-                Deque<Orderable<T>> after = after(orderable1, values);
-                while (!after.isEmpty()) {
-                    deque.addFirst(after.removeLast());
-                }
-                Deque<Orderable<T>> before = before(orderable1, values);
-                while (!before.isEmpty()) {
-                    Orderable<T> tOrderable = before.removeFirst();
-                    if (!deque.contains(tOrderable)) {
-                        deque.addLast(tOrderable);
-                    }
-                }
+        List<List<Integer>> predecessorLists = new ArrayList<>(nodes.size());
+        List<Set<Integer>> successorSets = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            predecessorLists.add(new ArrayList<>());
+            successorSets.add(new HashSet<>());
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            for (Orderable<T> after : nodes.get(i).getAfter()) {
+                link(positions.get(after), i, predecessorLists, successorSets);
+            }
+            for (Orderable<T> before : nodes.get(i).getBefore()) {
+                link(i, positions.get(before), predecessorLists, successorSets);
             }
         }
-        if (!deque.contains(orderable)) {
-            deque.addLast(orderable);
+        predecessors = toArrays(predecessorLists);
+        successors = toArrays(successorSets);
+        pendingPredecessors = new int[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            pendingPredecessors[i] = predecessors[i].length;
         }
-        return deque;
     }
 
     /**
-     * Called by {@link TopologicalSorter#topologicalSort()} to get all entities connected to
-     * the entity as 'before' relationship
-     * @param orderable Orderable entity
-     * @param values List of all already used entities in sort
-     * @return Deque of connected entities
+     * Stores the relation between the two entities with the given indexes unless it is already stored. The successors
+     * are kept in sets, so that a duplicate relation is detected in constant time
+     * @param from             Index of the entity that goes first
+     * @param to               Index of the entity that goes next
+     * @param predecessorLists Lists of predecessors of every entity
+     * @param successorSets    Sets of successors of every entity
      */
-    private Deque<Orderable<T>> before(Orderable<T> orderable, List<Orderable<T>> values) {
-        Deque<Orderable<T>> deque = new LinkedList<>();
-        if (orderable == null) {
-            return deque;
-        }
-        for (Orderable<T> orderable1 : orderable.getBefore()) {
-            if (!values.contains(orderable1)) {
-                values.add(orderable1);
-                Deque<Orderable<T>> after = after(orderable1, values);
-                while (!after.isEmpty()) {
-                    deque.addFirst(after.removeLast());
-                }
-                Deque<Orderable<T>> before = before(orderable1, values);
-                while (!before.isEmpty()) {
-                    Orderable<T> tOrderable = before.removeFirst();
-                    if (!deque.contains(tOrderable)) {
-                        deque.addLast(tOrderable);
-                    }
-                }
-            }
+    private static void link(Integer from, Integer to, List<List<Integer>> predecessorLists, List<Set<Integer>> successorSets) {
+        if (from == null || to == null || from.equals(to) || !successorSets.get(from).add(to)) {
+            return;
         }
-        if (!deque.contains(orderable)) {
-            deque.addFirst(orderable);
+        predecessorLists.get(to).add(from);
+    }
+
+    /**
+     * Converts the given lists of indexes into arrays. Indexes are sorted so that the entities are visited in the
+     * order of the initial list
+     * @param lists {@code List} of index collections
+     * @return Array of index arrays
+     */
+    private static int[][] toArrays(List<? extends Collection<Integer>> lists) {
+        int[][] result = new int[lists.size()][];
+        for (int i = 0; i < lists.size(); i++) {
+            result[i] = lists.get(i).stream().mapToInt(Integer::intValue).sorted().toArray();
         }
-        return deque;
+        return result;
     }
 }
@@ -23,6 +23,7 @@ import com.exadel.aem.toolkit.api.annotations.meta.ValueRestriction;
 import com.exadel.aem.toolkit.plugin.exceptions.ValidationException;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
 import com.exadel.aem.toolkit.plugin.metadata.Property;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 
 /**
  * Performs validation of annotations properties' values using a specific {@link Validator}s
@@ -55,7 +56,12 @@ public class Validation {
         if (!testRoutine.isApplicableTo(value)) {
             return true;
         }
-        boolean result = testRoutine.test(value);
+        boolean result;
+        try (ProfilingContextHelper.Measurement ignored = PluginRuntime.context()
+            .getProfiling()
+            .start(ProfilingContextHelper.Category.VALIDATORS, testRoutine.getClass().getName())) {
+            result = testRoutine.test(value);
+        }
         if (!result) {
             PluginRuntime.context().getExceptionHandler().handle(new ValidationException(getLogMessage(value)));
         }
@@ -0,0 +1,351 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+
+/**
+ * Creates a "delta" content package that contains only the AEM components whose markup differs from the markup stored
+ * in a baseline package, such as the package that has been previously deployed. The markup is compared by content
+ * hashes of the package entries created by the plugin. The delta package contains the complete folders of the changed
+ * components taken from the current package, and its {@code filter.xml} lists only the paths of these components. A
+ * component that has markup files (other than {@code .content.xml}) in the baseline package, but none in the current
+ * package, is considered removed. Its path is listed in {@code filter.xml} without content, so that the markup is
+ * deleted when the delta package is installed
+ */
+class DeltaPackage {
+
+    private static final String VAULT_DIRECTORY = "META-INF/vault/";
+    private static final String DEFINITION_DIRECTORY = VAULT_DIRECTORY + "definition/";
+    private static final String FILTER_FILE = VAULT_DIRECTORY + "filter.xml";
+    private static final String PROPERTIES_FILE = VAULT_DIRECTORY + "properties.xml";
+
+    private static final String PROPERTY_NAME = "name";
+    private static final String DELTA_SUFFIX = "-delta";
+    private static final String PACKAGE_EXTENSION = ".zip";
+
+    private static final String FILTER_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<workspaceFilter version=\"1.0\">\n";
+    private static final String FILTER_ENTRY = "    <filter root=\"%s\"/>\n";
+    private static final String FILTER_FOOTER = "</workspaceFilter>\n";
+
+    private static final String[] XML_SPECIAL_CHARACTERS = {"&", "<", ">", "\""};
+    private static final String[] XML_ESCAPED_CHARACTERS = {"&amp;", "&lt;", "&gt;", "&quot;"};
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final Path packagePath;
+    private final Path baselinePath;
+    private final Collection<String> scopes;
+    private final Instant timestamp;
+    private final Map<String, String> jcrPathsByPath;
+
+    /**
+     * Initializes a new {@link DeltaPackage} instance
+     * @param packagePath  {@code Path} to the package file created in the current build
+     * @param baselinePath {@code Path} to the baseline package file
+     * @param scopes       Collection of the names of package entries that can be stored for a component
+     * @param timestamp    Nullable {@code Instant} used as the modification time of the entries of the delta package. If
+     *                     specified, the delta package is made reproducible
+     */
+    DeltaPackage(Path packagePath, Path baselinePath, Collection<String> scopes, Instant timestamp) {
+        this.packagePath = packagePath;
+        this.baselinePath = baselinePath;
+        this.scopes = scopes;
+        this.timestamp = timestamp;
+        this.jcrPathsByPath = Collections.synchronizedMap(new TreeMap<>());
+    }
+
+    /* ----------------
+       Instance members
+       ---------------- */
+
+    /**
+     * Registers the AEM component whose markup has been stored into the current package
+     * @param component {@link ComponentSource} instance representing the component class
+     */
+    void add(ComponentSource component) {
+        add(component.getPath(), component.getJcrPath());
+    }
+
+    /**
+     * Registers the node whose markup has been stored into the current package
+     * @param path    Path to the folder of the node relative to the package root
+     * @param jcrPath Path to the node as visible in the JCR
+     */
+    void add(String path, String jcrPath) {
+        jcrPathsByPath.put(path, jcrPath);
+    }
+
+    /**
+     * Retrieves the path to the delta package file. The file is stored next to the current package
+     * @return {@code Path} object
+     */
+    Path getPath() {
+        String fileName = StringUtils.removeEnd(packagePath.getFileName().toString(), PACKAGE_EXTENSION);
+        return packagePath.resolveSibling(fileName + DELTA_SUFFIX + PACKAGE_EXTENSION);
+    }
+
+    /**
+     * Compares the registered components with the baseline package and stores the delta package. The components
+     * removed since the baseline are added to the delta package as well. If no component has changed, the delta
+     * package is not created, and the one left from a previous build is deleted
+     * @return List of the paths to the folders of the changed and removed components relative to the package root
+     * @throws IOException if a package cannot be read or the delta package cannot be stored
+     */
+    List<String> write() throws IOException {
+        Path deltaPath = getPath();
+        Files.deleteIfExists(deltaPath);
+        List<String> changedPaths = new ArrayList<>();
+        try (
+            ZipFile currentPackage = new ZipFile(packagePath.toFile());
+            ZipFile baselinePackage = new ZipFile(baselinePath.toFile())
+        ) {
+            synchronized (jcrPathsByPath) {
+                for (String path : jcrPathsByPath.keySet()) {
+                    if (isChanged(path, currentPackage, baselinePackage)) {
+                        changedPaths.add(path);
+                    }
+                }
+                for (String path : getRemovedPaths(currentPackage, baselinePackage)) {
+                    jcrPathsByPath.put(path, getJcrPath(path));
+                    changedPaths.add(path);
+                }
+            }
+            if (changedPaths.isEmpty()) {
+                return changedPaths;
+            }
+            write(currentPackage, changedPaths, deltaPath);
+        }
+        if (timestamp != null) {
+            RawZipArchive.normalize(deltaPath, timestamp);
+        }
+        return changedPaths;
+    }
+
+    /**
+     * Called by {@link DeltaPackage#write()} to store the delta package
+     * @param currentPackage {@code ZipFile} representing the package created in the current build
+     * @param changedPaths   List of paths to the folders of the changed components
+     * @param deltaPath      {@code Path} to the delta package file
+     * @throws IOException if the delta package cannot be stored
+     */
+    private void write(ZipFile currentPackage, List<String> changedPaths, Path deltaPath) throws IOException {
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(deltaPath))) {
+            writeEntry(output, FILTER_FILE, getFilter(changedPaths).getBytes(StandardCharsets.UTF_8));
+            Enumeration<? extends ZipEntry> entries = currentPackage.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (FILTER_FILE.equals(name) || name.startsWith(DEFINITION_DIRECTORY)) {
+                    continue;
+                }
+                if (PROPERTIES_FILE.equals(name)) {
+                    writeEntry(output, name, getProperties(currentPackage, entry));
+                } else if ((name.startsWith(VAULT_DIRECTORY) || isWithin(name, changedPaths)) && !entry.isDirectory()) {
+                    writeEntry(output, name, readEntry(currentPackage, entry));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether the entries created by the plugin for the component with the given path differ between the current
+     * package and the baseline package
+     * @param path            Path to the folder of the component relative to the package root
+     * @param currentPackage  {@code ZipFile} representing the package created in the current build
+     * @param baselinePackage {@code ZipFile} representing the baseline package
+     * @return True or false
+     * @throws IOException if a package entry cannot be read
+     */
+    private boolean isChanged(String path, ZipFile currentPackage, ZipFile baselinePackage) throws IOException {
+        for (String scope : scopes) {
+            String name = path + CoreConstants.SEPARATOR_SLASH + scope;
+            if (!StringUtils.equals(getDigest(currentPackage, name), getDigest(baselinePackage, name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the paths of the components that have been removed since the baseline package was created. These are
+     * the folders that contain markup files other than {@code .content.xml} in the baseline package, have not been
+     * registered during the current build, and contain none of these files in the current package
+     * @param currentPackage  {@code ZipFile} representing the package created in the current build
+     * @param baselinePackage {@code ZipFile} representing the baseline package
+     * @return Sorted set of paths to the folders of the removed components relative to the package root
+     */
+    private Set<String> getRemovedPaths(ZipFile currentPackage, ZipFile baselinePackage) {
+        List<String> markupScopes = scopes
+            .stream()
+            .filter(scope -> !Scopes.COMPONENT.equals(scope))
+            .collect(Collectors.toList());
+        Set<String> result = new TreeSet<>();
+        Enumeration<? extends ZipEntry> entries = baselinePackage.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            markupScopes
+                .stream()
+                .filter(scope -> name.endsWith(CoreConstants.SEPARATOR_SLASH + scope))
+                .map(scope -> StringUtils.removeEnd(name, CoreConstants.SEPARATOR_SLASH + scope))
+                .filter(path -> !jcrPathsByPath.containsKey(path))
+                .filter(path -> !hasMarkup(currentPackage, path, markupScopes))
+                .forEach(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Gets whether the given package contains any of the markup files with the given names for the component with the
+     * given path
+     * @param zipFile      {@code ZipFile} representing a package
+     * @param path         Path to the folder of the component relative to the package root
+     * @param markupScopes Names of the markup files
+     * @return True or false
+     */
+    private static boolean hasMarkup(ZipFile zipFile, String path, List<String> markupScopes) {
+        return markupScopes
+            .stream()
+            .anyMatch(scope -> zipFile.getEntry(path + CoreConstants.SEPARATOR_SLASH + scope) != null);
+    }
+
+    /**
+     * Composes the content of the {@code filter.xml} file that lists the paths of the changed components
+     * @param changedPaths List of paths to the folders of the changed components
+     * @return String value
+     */
+    private String getFilter(List<String> changedPaths) {
+        StringBuilder result = new StringBuilder(FILTER_HEADER);
+        for (String path : changedPaths) {
+            String jcrPath = StringUtils.replaceEach(jcrPathsByPath.get(path), XML_SPECIAL_CHARACTERS, XML_ESCAPED_CHARACTERS);
+            result.append(String.format(FILTER_ENTRY, jcrPath));
+        }
+        return result.append(FILTER_FOOTER).toString();
+    }
+
+    /**
+     * Retrieves the content of the {@code properties.xml} file of the current package with the name of the package
+     * changed so that the delta package does not replace the complete package in the AEM package manager
+     * @param currentPackage {@code ZipFile} representing the package created in the current build
+     * @param entry          {@code ZipEntry} representing the {@code properties.xml} file
+     * @return Byte array
+     * @throws IOException if the file cannot be read
+     */
+    private static byte[] getProperties(ZipFile currentPackage, ZipEntry entry) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = currentPackage.getInputStream(entry)) {
+            properties.loadFromXML(input);
+        }
+        if (properties.containsKey(PROPERTY_NAME)) {
+            properties.setProperty(PROPERTY_NAME, properties.getProperty(PROPERTY_NAME) + DELTA_SUFFIX);
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        properties.storeToXML(output, null, StandardCharsets.UTF_8.name());
+        return output.toByteArray();
+    }
+
+    /**
+     * Computes the digest of the content of the package entry with the given name
+     * @param zipFile {@code ZipFile} representing a package
+     * @param name    Name of the entry
+     * @return String value, or null if there is no such entry
+     * @throws IOException if the entry cannot be read
+     */
+    private static String getDigest(ZipFile zipFile, String name) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        if (entry == null || entry.isDirectory()) {
+            return null;
+        }
+        return Hashing.sha256().hashBytes(readEntry(zipFile, entry)).toString();
+    }
+
+    /**
+     * Gets whether the package entry with the given name belongs to the folder of one of the changed components
+     * @param name         Name of the entry
+     * @param changedPaths List of paths to the folders of the changed components
+     * @return True or false
+     */
+    private static boolean isWithin(String name, List<String> changedPaths) {
+        return changedPaths.stream().anyMatch(path -> name.startsWith(path + CoreConstants.SEPARATOR_SLASH));
+    }
+
+    /**
+     * Retrieves the path to the node as visible in the JCR by the path to its folder relative to the package root. The
+     * path is computed in the same way as {@link ComponentSource#getJcrPath()} does
+     * @param path Path to the folder relative to the package root
+     * @return String value
+     */
+    private static String getJcrPath(String path) {
+        if (!StringUtils.contains(path, CoreConstants.SEPARATOR_SLASH)) {
+            return path;
+        }
+        return CoreConstants.SEPARATOR_SLASH + StringUtils.substringAfter(path, CoreConstants.SEPARATOR_SLASH);
+    }
+
+    /**
+     * Reads the content of the given package entry
+     * @param zipFile {@code ZipFile} representing a package
+     * @param entry   {@code ZipEntry} object
+     * @return Byte array
+     * @throws IOException if the entry cannot be read
+     */
+    private static byte[] readEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+        try (InputStream input = zipFile.getInputStream(entry)) {
+            return ByteStreams.toByteArray(input);
+        }
+    }
+
+    /**
+     * Adds an entry with the given content to the delta package
+     * @param output  {@code ZipOutputStream} of the delta package
+     * @param name    Name of the entry
+     * @param content Byte array
+     * @throws IOException if the entry cannot be stored
+     */
+    private static void writeEntry(ZipOutputStream output, String name, byte[] content) throws IOException {
+        output.putNextEntry(new ZipEntry(name));
+        output.write(content);
+        output.closeEntry();
+    }
+}
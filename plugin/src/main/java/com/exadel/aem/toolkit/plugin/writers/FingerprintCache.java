@@ -0,0 +1,517 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.utils.ClassFileUtil;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+
+/**
+ * Stores fingerprints of AEM components rendered during a plugin run so that the components that have not changed
+ * since can be skipped during the next run. A fingerprint covers the bytecode of the component class and the classes
+ * it refers to transitively (superclasses, views, nested tabs and panels, classes referenced via {@code @Extends},
+ * {@code @MultiField}, etc.), the plugin binary, the plugin settings, and the bytecode of the handlers and validators
+ * available in the current runtime. Classes that reside in JAR files are accounted for by the identity of the file
+ */
+class FingerprintCache {
+
+    static final FingerprintCache DISABLED = new FingerprintCache(null);
+
+    private static final String CACHE_DIRECTORY = "etoolbox-authoring-kit";
+    private static final String CACHE_FILE_NAME = "fingerprints.properties";
+
+    private static final String PROTOCOL_FILE = "file";
+    private static final String PROTOCOL_JAR = "jar";
+    private static final String JAR_ENTRY_SEPARATOR = "!/";
+
+    private static final ClassDigest MISSING_CLASS = new ClassDigest(StringUtils.EMPTY, Collections.emptySet());
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final Path cacheFile;
+    private final Map<String, Record> records;
+    private final Map<String, ClassDigest> classDigests;
+    private final Map<String, String> containerDigests;
+    private String baseFingerprint;
+
+    /**
+     * Initializes a new {@link FingerprintCache} instance
+     * @param cacheFile {@code Path} to the file the fingerprints are stored in. A null value means that the cache is
+     *                  disabled
+     */
+    private FingerprintCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        this.records = new ConcurrentHashMap<>();
+        this.classDigests = new ConcurrentHashMap<>();
+        this.containerDigests = new ConcurrentHashMap<>();
+    }
+
+    /* ----------------
+       Instance members
+       ---------------- */
+
+    /**
+     * Gets whether this cache is used to store and compare fingerprints
+     * @return True or false
+     */
+    boolean isEnabled() {
+        return cacheFile != null;
+    }
+
+    /**
+     * Computes the fingerprint of the provided AEM component. This method can be called from a worker thread
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return String value, or null if the cache is disabled
+     */
+    String getFingerprint(ComponentSource component) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Hasher hasher = Hashing.sha256().newHasher()
+            .putString(getBaseFingerprint(), StandardCharsets.UTF_8)
+            .putString(component.getPath(), StandardCharsets.UTF_8);
+        putClassDigests(hasher, getReferencedClasses(Collections.singleton(toInternalName(component.adaptTo(Class.class).getName()))));
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Retrieves the names of the handler and validator classes available in the current runtime together with the
+     * names of the classes they refer to transitively
+     * @return Sorted set of internal class names
+     */
+    Set<String> getExtensionClasses() {
+        ReflectionContextHelper reflection = PluginRuntime.context().getReflection();
+        Set<String> extensionClasses = Stream.concat(reflection.getHandlers().stream(), reflection.getValidators().stream())
+            .map(Object::getClass)
+            .map(Class::getName)
+            .map(FingerprintCache::toInternalName)
+            .collect(Collectors.toSet());
+        return getReferencedClasses(extensionClasses);
+    }
+
+    /**
+     * Gets whether the provided fingerprint matches the one stored for the AEM component during the previous run
+     * @param component   {@link ComponentSource} instance representing the component class
+     * @param fingerprint String value
+     * @return True or false
+     */
+    boolean isUnchanged(ComponentSource component, String fingerprint) {
+        Record record = records.get(getKey(component));
+        return fingerprint != null && record != null && fingerprint.equals(record.getFingerprint());
+    }
+
+    /**
+     * Gets whether the package contains the entries stored for the AEM component during the previous run, and the
+     * entries have not been modified since
+     * @param component     {@link ComponentSource} instance representing the component class
+     * @param componentPath {@code Path} to the component folder within the package
+     * @return True or false
+     */
+    boolean hasEntries(ComponentSource component, Path componentPath) {
+        Record record = isEnabled() ? records.get(getKey(component)) : null;
+        if (record == null || record.getEntries().isEmpty()) {
+            return false;
+        }
+        try {
+            for (Map.Entry<String, String> entry : record.getEntries().entrySet()) {
+                Path entryPath = componentPath.resolve(entry.getKey());
+                if (!Files.isRegularFile(entryPath) || !entry.getValue().equals(getFileDigest(entryPath))) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stores the fingerprint of the AEM component together with the digests of the package entries that have just been
+     * written for it
+     * @param component     {@link ComponentSource} instance representing the component class
+     * @param fingerprint   String value
+     * @param componentPath {@code Path} to the component folder within the package
+     * @param scopes        Names of the package entries within the component folder
+     */
+    void update(ComponentSource component, String fingerprint, Path componentPath, Collection<String> scopes) {
+        if (fingerprint == null) {
+            return;
+        }
+        Map<String, String> entries = new TreeMap<>();
+        try {
+            for (String scope : scopes) {
+                entries.put(scope, getFileDigest(componentPath.resolve(scope)));
+            }
+        } catch (IOException e) {
+            records.remove(getKey(component));
+            return;
+        }
+        records.put(getKey(component), new Record(fingerprint, entries));
+    }
+
+    /**
+     * Updates the digests of the package entries stored for the AEM component after the entries have been modified,
+     * e.g., when the shared fragments used only once are put back in place
+     * @param component     {@link ComponentSource} instance representing the component class
+     * @param componentPath {@code Path} to the component folder within the package
+     */
+    void refresh(ComponentSource component, Path componentPath) {
+        Record record = isEnabled() ? records.get(getKey(component)) : null;
+        if (record != null) {
+            update(component, record.getFingerprint(), componentPath, record.getEntries().keySet());
+        }
+    }
+
+    /**
+     * Stores the accumulated fingerprints into the cache file
+     */
+    void save() {
+        if (!isEnabled()) {
+            return;
+        }
+        Properties properties = new Properties();
+        records.forEach((key, record) -> properties.setProperty(key, record.toString()));
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+    }
+
+    /**
+     * Reads the fingerprints stored during the previous run. If the cache file is missing or cannot be read, the cache
+     * starts empty
+     */
+    private void load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            // The cache is re-created from scratch if it is not readable
+            return;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            Record record = Record.parse(properties.getProperty(key));
+            if (record != null) {
+                records.put(key, record);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the part of a fingerprint that is common for all components. It reflects the plugin binary, the
+     * plugin settings, and the bytecode of the handlers and validators, including the custom ones defined in the
+     * project, since any of them can affect the markup of any component
+     * @return String value
+     */
+    private synchronized String getBaseFingerprint() {
+        if (baseFingerprint == null) {
+            CodeSource pluginCodeSource = FingerprintCache.class.getProtectionDomain().getCodeSource();
+            String pluginDigest = pluginCodeSource != null
+                ? getContainerDigest(pluginCodeSource.getLocation())
+                : StringUtils.EMPTY;
+            Hasher hasher = Hashing.sha256().newHasher()
+                .putString(pluginDigest, StandardCharsets.UTF_8)
+                .putString(PluginRuntime.context().getSettings().getFingerprint(), StandardCharsets.UTF_8);
+            putClassDigests(hasher, getExtensionClasses());
+            baseFingerprint = hasher.hash().toString();
+        }
+        return baseFingerprint;
+    }
+
+    /**
+     * Retrieves the names of the given classes together with the names of the classes they refer to transitively
+     * @param classNames Internal names of the classes to start from
+     * @return Sorted set of internal class names
+     */
+    private Set<String> getReferencedClasses(Collection<String> classNames) {
+        Set<String> result = new TreeSet<>();
+        Deque<String> queue = new ArrayDeque<>(classNames);
+        while (!queue.isEmpty()) {
+            String className = queue.poll();
+            if (!result.add(className)) {
+                continue;
+            }
+            queue.addAll(getClassDigest(className).getReferences());
+        }
+        return result;
+    }
+
+    /**
+     * Adds the names and the digests of the given classes to the provided hasher. Classes that cannot be found are
+     * skipped
+     * @param hasher     {@code Hasher} object
+     * @param classNames Internal names of the classes
+     */
+    private void putClassDigests(Hasher hasher, Set<String> classNames) {
+        for (String className : classNames) {
+            ClassDigest classDigest = getClassDigest(className);
+            if (classDigest != MISSING_CLASS) {
+                hasher.putString(className, StandardCharsets.UTF_8).putString(classDigest.getValue(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the digest of the class file for the given class together with the names of the classes it refers to.
+     * Classes stored in JAR files are represented by the identity of the JAR file, and their references are not
+     * followed
+     * @param className Internal name of the class
+     * @return {@link ClassDigest} object
+     */
+    private ClassDigest getClassDigest(String className) {
+        return classDigests.computeIfAbsent(className, name -> {
+            URL url = PluginRuntime
+                .context()
+                .getReflection()
+                .getClassLoader()
+                .getResource(name + ClassFileUtil.CLASS_FILE_EXTENSION);
+            if (url == null) {
+                return MISSING_CLASS;
+            }
+            if (!PROTOCOL_FILE.equals(url.getProtocol())) {
+                return new ClassDigest(getContainerDigest(url), Collections.emptySet());
+            }
+            try (InputStream input = url.openStream()) {
+                byte[] bytes = ByteStreams.toByteArray(input);
+                return new ClassDigest(
+                    Hashing.sha256().hashBytes(bytes).toString(),
+                    ClassFileUtil.getReferencedClasses(bytes));
+            } catch (IOException e) {
+                // An unreadable class will be reported when rendering the component, so no further handling here
+                return MISSING_CLASS;
+            }
+        });
+    }
+
+    /**
+     * Retrieves the identity of a JAR file or other container of class files. For a local JAR file, it is composed of
+     * the path, the size, and the modification time of the file
+     * @param url {@code URL} pointing to the container or to an entry within it
+     * @return String value
+     */
+    private String getContainerDigest(URL url) {
+        String address = url.toString();
+        if (PROTOCOL_JAR.equals(url.getProtocol())) {
+            address = StringUtils.substringBefore(
+                StringUtils.removeStart(address, PROTOCOL_JAR + CoreConstants.SEPARATOR_COLON),
+                JAR_ENTRY_SEPARATOR);
+        }
+        return containerDigests.computeIfAbsent(address, key -> {
+            try {
+                Path path = Paths.get(new URL(key).toURI());
+                return key
+                    + CoreConstants.SEPARATOR_COLON + Files.size(path)
+                    + CoreConstants.SEPARATOR_COLON + Files.getLastModifiedTime(path).toMillis();
+            } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+                return key;
+            }
+        });
+    }
+
+    /**
+     * Computes the digest of the file with the given path
+     * @param path {@code Path} object
+     * @return String value
+     * @throws IOException if the file cannot be read
+     */
+    private static String getFileDigest(Path path) throws IOException {
+        return Hashing.sha256().hashBytes(Files.readAllBytes(path)).toString();
+    }
+
+    /**
+     * Retrieves the key under which the fingerprint of the given AEM component is stored
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return String value
+     */
+    private static String getKey(ComponentSource component) {
+        return component.adaptTo(Class.class).getName();
+    }
+
+    /**
+     * Converts the name of a class to the internal form used in class files
+     * @param className Binary name of a class
+     * @return String value
+     */
+    private static String toInternalName(String className) {
+        return className.replace(CoreConstants.SEPARATOR_DOT, CoreConstants.SEPARATOR_SLASH);
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Creates a {@link FingerprintCache} instance that stores fingerprints within the given build directory and fills
+     * it with the fingerprints stored during the previous run
+     * @param buildDirectory {@code Path} to the build directory of the current Maven project
+     * @return {@code FingerprintCache} object
+     */
+    static FingerprintCache forBuildDirectory(Path buildDirectory) {
+        FingerprintCache result = new FingerprintCache(buildDirectory.resolve(CACHE_DIRECTORY).resolve(CACHE_FILE_NAME));
+        result.load();
+        return result;
+    }
+
+    /* ---------------
+       Utility classes
+       --------------- */
+
+    /**
+     * Represents the digest of a class file together with the names of the classes it refers to
+     */
+    private static class ClassDigest {
+        private final String value;
+        private final Set<String> references;
+
+        /**
+         * Creates a new {@code ClassDigest} instance
+         * @param value      String representing the digest
+         * @param references Set of internal class names
+         */
+        ClassDigest(String value, Set<String> references) {
+            this.value = value;
+            this.references = references;
+        }
+
+        /**
+         * Retrieves the digest
+         * @return String value
+         */
+        String getValue() {
+            return value;
+        }
+
+        /**
+         * Retrieves the names of the classes referenced by the current class
+         * @return Set of strings
+         */
+        Set<String> getReferences() {
+            return references;
+        }
+    }
+
+    /**
+     * Represents the fingerprint of an AEM component together with the digests of the package entries stored for it
+     */
+    private static class Record {
+        private static final String SEPARATOR_ENTRY = DialogConstants.SEPARATOR_SEMICOLON;
+        private static final String SEPARATOR_VALUE = CoreConstants.SEPARATOR_COLON;
+
+        private final String fingerprint;
+        private final Map<String, String> entries;
+
+        /**
+         * Creates a new {@code Record} instance
+         * @param fingerprint String representing the fingerprint
+         * @param entries     Map of package entry names to digests of the entries
+         */
+        Record(String fingerprint, Map<String, String> entries) {
+            this.fingerprint = fingerprint;
+            this.entries = entries;
+        }
+
+        /**
+         * Retrieves the fingerprint of the component
+         * @return String value
+         */
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Retrieves the package entries stored for the component
+         * @return Map of entry names to digests of the entries
+         */
+        Map<String, String> getEntries() {
+            return entries;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder(fingerprint);
+            entries.forEach((name, digest) -> result
+                .append(SEPARATOR_ENTRY)
+                .append(name)
+                .append(SEPARATOR_VALUE)
+                .append(digest));
+            return result.toString();
+        }
+
+        /**
+         * Creates a {@code Record} instance from its string representation
+         * @param value String value
+         * @return {@code Record} object, or null if the value is not valid
+         */
+        static Record parse(String value) {
+            String[] chunks = StringUtils.split(value, SEPARATOR_ENTRY);
+            if (chunks == null || chunks.length < 2) {
+                return null;
+            }
+            Map<String, String> entries = new TreeMap<>();
+            for (int i = 1; i < chunks.length; i++) {
+                String name = StringUtils.substringBefore(chunks[i], SEPARATOR_VALUE);
+                String digest = StringUtils.substringAfter(chunks[i], SEPARATOR_VALUE);
+                if (StringUtils.isAnyEmpty(name, digest)) {
+                    return null;
+                }
+                entries.put(name, digest);
+            }
+            return new Record(chunks[0], entries);
+        }
+    }
+}
@@ -14,7 +14,9 @@
 package com.exadel.aem.toolkit.plugin.writers;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -26,15 +28,18 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Document;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 
 import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
 import com.exadel.aem.toolkit.api.handlers.Source;
 import com.exadel.aem.toolkit.api.handlers.Target;
 import com.exadel.aem.toolkit.plugin.adapters.DomAdapter;
+import com.exadel.aem.toolkit.plugin.adapters.XmlStreamAdapter;
 import com.exadel.aem.toolkit.plugin.handlers.Handlers;
 import com.exadel.aem.toolkit.plugin.handlers.common.DomHandler;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
-import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.targets.Targets;
 import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
 
@@ -49,6 +54,7 @@ abstract class PackageEntryWriter {
        ----------------------------- */
 
     private final Transformer transformer;
+    private SharedFragments fragments = SharedFragments.DISABLED;
 
     /**
      * Basic constructor
@@ -95,12 +101,20 @@ abstract class PackageEntryWriter {
         return transformer;
     }
 
+    /**
+     * Assigns the {@link SharedFragments} object that moves large subtrees of the markup into shared fragments
+     * @param value {@code SharedFragments} object; a non-null value is expected
+     */
+    void setFragments(SharedFragments value) {
+        fragments = value;
+    }
+
     /* ----------------------------
        File system writing routines
        ---------------------------- */
 
     /**
-     * Called by {@link PackageWriter#write(ComponentSource)} before storing new XML entities into the component's
+     * Called by {@link PackageEntryWriter#store(String, Path)} before storing new XML entities into the component's
      * folder to remove redundant and obsolete XML entries
      * @param componentPath {@link Path} representing a file within a file system the data is written to
      */
@@ -112,9 +126,7 @@ abstract class PackageEntryWriter {
                 // We take into account that the markup could be stored by hand in e.g. _cq_dialog/.content.xml structure
                 // instead of _cq_dialog.xml file. Therefore, both the "file" and "folder" must be deleted,
                 // or we might end up with two versions of component markup within same package
-                Path nestedFolderPath = componentPath.resolve(StringUtils.substringBeforeLast(
-                    getScope(),
-                    DialogConstants.SEPARATOR_DOT));
+                Path nestedFolderPath = getNestedFolderPath(componentPath);
                 Path nestedFilePath = nestedFolderPath.resolve(Scopes.COMPONENT);
                 Files.deleteIfExists(nestedFilePath);
                 Files.deleteIfExists(nestedFolderPath);
@@ -125,28 +137,123 @@ abstract class PackageEntryWriter {
     }
 
     /**
-     * Used to store XML markup filled with annotation data taken from the current {@code Source} instance
-     * @param source {@link Source} instance that delivers the rendering data
-     * @param path   {@link Path} representing a file system entry the data is written to
+     * Stores XML markup that has been rendered beforehand into the component's folder unless the folder already
+     * contains an entry with the same content. A matching entry is left untouched, so that neither the package nor the
+     * modification time of the entry changes. Otherwise, redundant and obsolete entries are removed, and the markup is
+     * written anew
+     * @param content String value representing the rendered markup
+     * @param path    {@link Path} representing a file system entry the data is written to
+     * @return True if the entry has been written; false if it has been left untouched
+     */
+    final boolean store(String content, Path path) {
+        if (hasContent(path, content)) {
+            return false;
+        }
+        cleanUp(path);
+        writeXml(content, path);
+        return true;
+    }
+
+    /**
+     * Called by {@link PackageEntryWriter#store(String, Path)} to check whether the component's folder already contains
+     * an entry with the given content. The content is compared by hashes
+     * @param componentPath {@link Path} representing the component's folder
+     * @param content       String value representing the rendered markup
+     * @return True or false
      */
-    final void writeXml(Source source, Path path) {
+    private boolean hasContent(Path componentPath, String content) {
+        Path existingFilePath = componentPath.resolve(getScope());
+        if (!Files.isRegularFile(existingFilePath)
+            || (!Scopes.COMPONENT.equals(getScope()) && Files.exists(getNestedFolderPath(componentPath)))) {
+            return false;
+        }
+        try {
+            HashFunction hashFunction = Hashing.sha256();
+            return hashFunction.hashBytes(Files.readAllBytes(existingFilePath))
+                .equals(hashFunction.hashString(content, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Used to store XML markup that has been rendered beforehand with {@link PackageEntryWriter#render(Source,
+     * Transformer)}
+     * @param content String value representing the rendered markup
+     * @param path    {@link Path} representing a file system entry the data is written to
+     */
+    final void writeXml(String content, Path path) {
         try (Writer writer = Files.newBufferedWriter(path.resolve(getScope()), StandardOpenOption.CREATE)) {
-            writeXml(source, writer);
+            writer.write(content);
         } catch (IOException e) {
             PluginRuntime.context().getExceptionHandler().handle(e);
         }
     }
 
     /**
-     * Used to store XML markup filled with annotation data taken from current {@code Source} instance
-     * @param source {@link Source} instance that delivers the rendering data
-     * @param writer {@link Writer} managing the data storage procedure
+     * Renders XML markup filled with annotation data taken from the current {@code Source} instance into a string.
+     * This method does not access the file system and is therefore safe to be called from a worker thread given that
+     * the thread uses its own {@code Transformer}
+     * @param source         {@link Source} instance that delivers the rendering data
+     * @param xmlTransformer {@code Transformer} instance used to serialize XML DOM document
+     * @return String value
      */
-    private void writeXml(Source source, Writer writer) {
-        Document document = createDocument(source);
+    final String render(Source source, Transformer xmlTransformer) {
+        StringWriter writer = new StringWriter();
+        transform(source, xmlTransformer, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Retrieves the path to the folder that may store the markup of the current scope by hand, e.g., the
+     * {@code _cq_dialog} folder for the {@code _cq_dialog.xml} file
+     * @param componentPath {@link Path} representing the component's folder
+     * @return {@code Path} object
+     */
+    private Path getNestedFolderPath(Path componentPath) {
+        return componentPath.resolve(StringUtils.substringBeforeLast(getScope(), DialogConstants.SEPARATOR_DOT));
+    }
+
+    /**
+     * Used to store XML markup filled with annotation data taken from current {@code Source} instance. Unless the
+     * processing requires a DOM document, the {@link Target} tree is serialized directly to the writer. Otherwise, a DOM
+     * document is created and serialized with the provided {@code Transformer}
+     * @param source         {@link Source} instance that delivers the rendering data
+     * @param xmlTransformer {@code Transformer} instance used to serialize XML DOM document
+     * @param writer         {@link Writer} managing the data storage procedure
+     */
+    private void transform(Source source, Transformer xmlTransformer, Writer writer) {
+        try (ProfilingContextHelper.Measurement ignored = PluginRuntime.context()
+            .getProfiling()
+            .start(ProfilingContextHelper.Category.WRITERS, getScope())) {
+            transformTarget(source, xmlTransformer, writer);
+        }
+    }
+
+    /**
+     * Called by {@link PackageEntryWriter#transform(Source, Transformer, Writer)} to populate the {@link Target} tree
+     * and serialize it to the provided writer. Subtrees are moved into shared fragments only when the DOM document is
+     * not needed, since common properties and legacy DOM handlers may address any node of the complete markup
+     * @param source         {@link Source} instance that delivers the rendering data
+     * @param xmlTransformer {@code Transformer} instance used to serialize XML DOM document
+     * @param writer         {@link Writer} managing the data storage procedure
+     */
+    private void transformTarget(Source source, Transformer xmlTransformer, Writer writer) {
+        Target target = Targets.newRoot(getScope());
+        getHandlers().accept(source, target);
+        if (DOM_HANDLER.isApplicable(source, getScope())) {
+            Document document = createDocument(source, target);
+            try {
+                xmlTransformer.transform(new DOMSource(document), new StreamResult(writer));
+            } catch (TransformerException e) {
+                PluginRuntime.context().getExceptionHandler().handle(e);
+            }
+            return;
+        }
+        fragments.extract(target);
         try {
-            transformer.transform(new DOMSource(document), new StreamResult(writer));
-        } catch (TransformerException e) {
+            target.adaptTo(XmlStreamAdapter.class).writeDocument(writer);
+        } catch (IOException e) {
             PluginRuntime.context().getExceptionHandler().handle(e);
         }
     }
@@ -155,12 +262,10 @@ abstract class PackageEntryWriter {
      * Creates a DOM document that reflects the data that is provided by the component class and is relevant to the
      * scope of the current writer
      * @param source {@link Source} instance that delivers the rendering data
+     * @param target {@link Target} instance that has been populated by the handlers of the current writer
      * @return {@link Document} created
      */
-    private Document createDocument(Source source) {
-        Target target = Targets.newRoot(getScope());
-        getHandlers().accept(source, target);
-
+    private Document createDocument(Source source, Target target) {
         Document result = target
             .adaptTo(DomAdapter.class)
             .composeDocument(PluginRuntime.context().newXmlUtility().getDocument());
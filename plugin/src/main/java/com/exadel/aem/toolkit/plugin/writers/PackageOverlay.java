@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.ImmutableMap;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+
+/**
+ * Collects the entries stored by the plugin in a separate archive (the "overlay") instead of modifying the package in
+ * place. When the overlay is committed, the package is composed anew: the entries that have not been touched are
+ * copied from the original package without recompression, and the stored entries are taken from the overlay
+ * <p>Before a folder of the package is modified, its files are fetched into the overlay so that the plugin can read
+ * them. All the folders of the original package are present in the overlay from the start</p>
+ */
+class PackageOverlay {
+
+    private static final String FILESYSTEM_PREFIX = "jar:";
+    private static final Map<String, String> FILESYSTEM_OPTIONS = ImmutableMap.of("create", "true");
+
+    private static final String OVERLAY_EXTENSION = ".overlay";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final Path packagePath;
+    private final Path overlayPath;
+    private final FileSystem fileSystem;
+    private final Set<String> originalDirectories = new HashSet<>();
+    private final NavigableSet<String> originalFiles = new TreeSet<>();
+    private final Set<String> impliedDirectories = new HashSet<>();
+    private final Set<String> fetchedFolders = new HashSet<>();
+    private final Set<String> fetchedEntries = new HashSet<>();
+    private RawZipArchive original;
+
+    /**
+     * Creates a new {@code PackageOverlay} instance
+     * @param packagePath {@code Path} of the package file
+     * @param overlayPath {@code Path} of the overlay file
+     * @param fileSystem  {@code FileSystem} representing the content of the overlay
+     */
+    private PackageOverlay(Path packagePath, Path overlayPath, FileSystem fileSystem) {
+        this.packagePath = packagePath;
+        this.overlayPath = overlayPath;
+        this.fileSystem = fileSystem;
+    }
+
+    /* ----------------
+       Instance members
+       ---------------- */
+
+    /**
+     * Retrieves the {@code FileSystem} representing the content of the overlay
+     * @return {@code FileSystem} object
+     */
+    FileSystem getFileSystem() {
+        return fileSystem;
+    }
+
+    /**
+     * Makes sure that the files stored in the given folder of the original package (including the nested folders) are
+     * present in the overlay. Repeated calls for the same folder have no effect. The files are looked up in the index
+     * built when the overlay is created, so the cost of the call does not depend on the size of the package
+     * @param path String value representing the path to the folder within the package
+     * @throws IOException if reading the package or writing to the overlay fails
+     */
+    void fetch(String path) throws IOException {
+        String prefix = StringUtils.appendIfMissing(
+            StringUtils.removeStart(path, CoreConstants.SEPARATOR_SLASH),
+            CoreConstants.SEPARATOR_SLASH);
+        if (original == null || !fetchedFolders.add(prefix)) {
+            return;
+        }
+        for (String name : originalFiles.subSet(prefix, prefix + Character.MAX_VALUE)) {
+            if (fetchedEntries.add(name)) {
+                Files.write(fileSystem.getPath(name), original.readData(original.getEntry(name)));
+            }
+        }
+    }
+
+    /**
+     * Reads the files of the original package that have any of the given names and have not been fetched into or
+     * stored anew in the overlay. Together with the files of the overlay, these make up the current content of the
+     * package
+     * @param fileNames Names of the files (without the path)
+     * @return List of string values representing the content of the files
+     * @throws IOException if reading the package fails
+     */
+    List<String> readOriginalFiles(Collection<String> fileNames) throws IOException {
+        List<String> result = new ArrayList<>();
+        if (original == null) {
+            return result;
+        }
+        for (String name : originalFiles) {
+            String fileName = StringUtils.substringAfterLast(CoreConstants.SEPARATOR_SLASH + name, CoreConstants.SEPARATOR_SLASH);
+            if (fileNames.contains(fileName) && !fetchedEntries.contains(name) && !Files.exists(fileSystem.getPath(name))) {
+                result.add(new String(original.readData(original.getEntry(name)), StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Closes the overlay and replaces the package with the one composed of the entries of the original package and the
+     * overlay. An entry of the original package is kept "as is" unless it has been fetched and then modified or
+     * deleted. The new entries are appended in the order they were stored
+     * @throws IOException if reading or writing fails
+     */
+    void commit() throws IOException {
+        fileSystem.close();
+        Path tempPath = packagePath.resolveSibling(packagePath.getFileName() + TEMP_EXTENSION);
+        try (
+            RawZipArchive source = original;
+            RawZipArchive overlay = RawZipArchive.open(overlayPath);
+            RawZipArchive.ArchiveWriter writer = new RawZipArchive.ArchiveWriter(tempPath)
+        ) {
+            Set<String> storedNames = new HashSet<>();
+            if (source != null) {
+                for (RawZipArchive.Entry entry : source.getEntries()) {
+                    RawZipArchive.Entry overlayEntry = overlay.getEntry(entry.getName());
+                    if (overlayEntry == null && (entry.isDirectory() || fetchedEntries.contains(entry.getName()))) {
+                        // The entry has been deleted by the plugin
+                        continue;
+                    }
+                    if (overlayEntry == null || entry.isDirectory() || source.hasSameContent(entry, overlay, overlayEntry)) {
+                        writer.copy(source, entry);
+                    } else {
+                        writer.copy(overlay, overlayEntry);
+                    }
+                    storedNames.add(entry.getName());
+                }
+            }
+            for (RawZipArchive.Entry entry : overlay.getEntries()) {
+                if (!storedNames.contains(entry.getName()) && !impliedDirectories.contains(entry.getName())) {
+                    writer.copy(overlay, entry);
+                }
+            }
+        }
+        Files.move(tempPath, packagePath, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(overlayPath);
+    }
+
+    /**
+     * Opens the original package and creates in the overlay all of its folders, including the ones that are only
+     * implied by the names of files. The names of the files are indexed so that the content of a folder can be fetched
+     * without scanning the whole package. The original package stays open until the overlay is committed
+     * @throws IOException if reading the package or writing to the overlay fails
+     */
+    private void createDirectories() throws IOException {
+        if (!Files.exists(packagePath)) {
+            return;
+        }
+        original = RawZipArchive.open(packagePath);
+        Set<String> directories = new HashSet<>();
+        for (RawZipArchive.Entry entry : original.getEntries()) {
+            String name = entry.getName();
+            if (entry.isDirectory()) {
+                originalDirectories.add(name);
+                directories.add(name);
+            } else {
+                originalFiles.add(name);
+                if (name.contains(CoreConstants.SEPARATOR_SLASH)) {
+                    directories.add(getParent(name));
+                }
+            }
+        }
+        for (String directory : directories) {
+            Files.createDirectories(fileSystem.getPath(directory));
+        }
+        for (String directory : directories) {
+            collectImpliedDirectories(directory);
+        }
+    }
+
+    /**
+     * Called by {@link PackageOverlay#createDirectories()} to register the given folder and its parents as "implied"
+     * unless they are present in the original package as separate entries
+     * @param directory String value representing the path to the folder, with a trailing slash
+     */
+    private void collectImpliedDirectories(String directory) {
+        String current = directory;
+        while (StringUtils.isNotEmpty(current) && !impliedDirectories.contains(current)) {
+            if (!originalDirectories.contains(current)) {
+                impliedDirectories.add(current);
+            }
+            current = getParent(StringUtils.removeEnd(current, CoreConstants.SEPARATOR_SLASH));
+        }
+    }
+
+    /**
+     * Retrieves the path to the parent folder of the given package entry
+     * @param name String value representing the name of the entry, with no trailing slash
+     * @return String value with a trailing slash, or an empty string if the entry is at the root of the package
+     */
+    private static String getParent(String name) {
+        return name.contains(CoreConstants.SEPARATOR_SLASH)
+            ? StringUtils.substringBeforeLast(name, CoreConstants.SEPARATOR_SLASH) + CoreConstants.SEPARATOR_SLASH
+            : StringUtils.EMPTY;
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Creates a new overlay for the package stored in the given file. The overlay file is placed next to the package
+     * @param packagePath {@code Path} of the package file. The file may not exist yet
+     * @return {@code PackageOverlay} instance
+     * @throws IOException if the package cannot be read or is in a format that is not supported, or the overlay cannot
+     *                     be created
+     */
+    static PackageOverlay forPackage(Path packagePath) throws IOException {
+        Path overlayPath = packagePath.resolveSibling(packagePath.getFileName() + OVERLAY_EXTENSION);
+        Files.deleteIfExists(overlayPath);
+        URI uri = URI.create(FILESYSTEM_PREFIX + overlayPath.toUri());
+        FileSystem fileSystem = FileSystems.newFileSystem(uri, FILESYSTEM_OPTIONS);
+        PackageOverlay result = new PackageOverlay(packagePath, overlayPath, fileSystem);
+        try {
+            result.createDirectories();
+        } catch (IOException e) {
+            if (result.original != null) {
+                result.original.close();
+            }
+            fileSystem.close();
+            Files.deleteIfExists(overlayPath);
+            throw e;
+        }
+        return result;
+    }
+}
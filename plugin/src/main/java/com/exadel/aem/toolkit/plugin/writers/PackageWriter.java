@@ -17,17 +17,31 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 
@@ -38,13 +52,16 @@ import com.google.common.collect.ImmutableMap;
 import com.exadel.aem.toolkit.api.annotations.main.WriteMode;
 import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
 import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.core.CoreConstants;
 import com.exadel.aem.toolkit.plugin.exceptions.InvalidSettingException;
 import com.exadel.aem.toolkit.plugin.exceptions.MissingResourceException;
 import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
 import com.exadel.aem.toolkit.plugin.exceptions.ValidationException;
 import com.exadel.aem.toolkit.plugin.maven.PluginInfo;
 import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelper;
 import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
 import com.exadel.aem.toolkit.plugin.utils.XmlFactory;
 
 /**
@@ -60,30 +77,55 @@ public class PackageWriter implements AutoCloseable {
     private static final String PACKAGE_INFO_DIRECTORY = "META-INF/etoolbox-authoring-kit";
     private static final String PACKAGE_INFO_FILE_NAME = "version.info";
 
+    private static final int PENDING_TASKS_PER_THREAD = 4;
+
     private static final String CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE = "Cannot write to package ";
     private static final String COMPONENT_DATA_MISSING_EXCEPTION_MESSAGE = "No data to build .content.xml file while processing component ";
     private static final String COMPONENT_PATH_MISSING_EXCEPTION_MESSAGE = "Component path missing in class ";
     private static final String INVALID_PROJECT_EXCEPTION_MESSAGE = "Invalid project";
+    private static final String RENDERING_EXCEPTION_MESSAGE = "Could not complete rendering of components";
     private static final String UNRECOGNIZED_MODULE_EXCEPTION_MESSAGE = "Unrecognized component module %s while processing component %s";
 
     /* -----------------------------
        Class fields and constructors
        ----------------------------- */
 
-    private final FileSystem fileSystem;
+    private final Path root;
     private final List<PackageEntryWriter> writers;
     private final EmptyCqEditConfigWriter emptyEditConfigWriter;
+    private final FingerprintCache fingerprints;
+    private final PackageOverlay overlay;
+    private final Map<Path, ComponentSource> fragmentedEntries;
+    private PrerenderedEntries prerendered = PrerenderedEntries.DISABLED;
+    private DeltaPackage delta;
+    private SharedFragments fragments = SharedFragments.DISABLED;
+    private Path packagePath;
+    private Instant outputTimestamp;
+    private boolean failed;
 
     /**
      * Initializes a new {@link PackageWriter} instance
-     * @param fileSystem The {@link FileSystem} to create {@code PackageWriter} for
-     * @param writers    Collection of {@link PackageEntryWriter} objects that are invoked one by one for storing
-     *                   rendered file data
+     * @param root         {@code Path} against which the paths of components are resolved. Unless it belongs to
+     *                     the default file system, the file system is closed together with the current instance
+     * @param writers      Collection of {@link PackageEntryWriter} objects that are invoked one by one for storing
+     *                     rendered file data
+     * @param fingerprints {@link FingerprintCache} used to skip the components that have not changed since the
+     *                     previous run
+     * @param overlay      Nullable {@link PackageOverlay} that provides the file system of {@code root} when the package is
+     *                     composed anew instead of being modified in place
      */
-    private PackageWriter(FileSystem fileSystem, List<PackageEntryWriter> writers) {
-        this.fileSystem = fileSystem;
+    private PackageWriter(
+        Path root,
+        List<PackageEntryWriter> writers,
+        FingerprintCache fingerprints,
+        PackageOverlay overlay) {
+
+        this.root = root;
         this.writers = writers;
         this.emptyEditConfigWriter = new EmptyCqEditConfigWriter(writers.get(0).getTransformer());
+        this.fingerprints = fingerprints;
+        this.overlay = overlay;
+        this.fragmentedEntries = new LinkedHashMap<>();
     }
 
     /* ------------------------
@@ -92,23 +134,184 @@ public class PackageWriter implements AutoCloseable {
 
     @Override
     public void close() {
+        if (fragments.isEnabled()) {
+            writeFragments();
+        }
         try {
-            fileSystem.close();
+            if (overlay != null) {
+                overlay.commit();
+            } else if (root.getFileSystem() != FileSystems.getDefault()) {
+                root.getFileSystem().close();
+            }
         } catch (IOException e) {
             throw new PluginException(CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE, e);
         }
+        if (packagePath != null && outputTimestamp != null) {
+            normalizePackage();
+        }
+        // Fingerprints, the markup recorded for prerendering, and the delta package are only stored when all the
+        // components have been written and the package has been successfully saved
+        if (failed) {
+            return;
+        }
+        fingerprints.save();
+        prerendered.save();
+        if (delta != null) {
+            writeDelta();
+        }
     }
 
     /* ----------------
        Instance members
        ---------------- */
 
+    /**
+     * Called by {@link PackageWriter#close()} to store the fragments of dialog markup shared between components. A
+     * fragment that is already present in the package with the same content is left untouched. The subtrees that have
+     * been used only once during the current run are put back in place unless they are already stored in the package
+     * as fragments, since they may be referred to by the components that have not been rendered again. The stored
+     * fragments that no entry of the package refers to any more are removed
+     */
+    private void writeFragments() {
+        PackageEntryWriter contentWriter = writers
+            .stream()
+            .filter(writer -> Scopes.COMPONENT.equals(writer.getScope()))
+            .findFirst()
+            .orElse(null);
+        if (contentWriter == null) {
+            return;
+        }
+        try {
+            if (overlay != null) {
+                overlay.fetch(fragments.getPath());
+            }
+            Path folderPath = root.resolve(fragments.getPath());
+            Files.createDirectories(folderPath);
+            Set<String> storedNames = getStoredFragments(folderPath);
+            inlineFragments(storedNames);
+            contentWriter.store(fragments.getFolderMarkup(), folderPath);
+            for (Map.Entry<String, String> fragment : fragments.getMarkup(storedNames).entrySet()) {
+                Path fragmentPath = Files.createDirectories(folderPath.resolve(fragment.getKey()));
+                contentWriter.store(fragment.getValue(), fragmentPath);
+                registerFragment(fragment.getKey());
+            }
+            pruneFragments(folderPath, storedNames);
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+    }
+
+    /**
+     * Called by {@link PackageWriter#writeFragments()} to remove the stored fragments that are no longer referred to
+     * by any entry of the package. The entries of the current package, including the ones of the components that have
+     * not been rendered again, are looked through
+     * @param folderPath  {@code Path} to the folder of fragments
+     * @param storedNames Names of the fragments already stored in the package
+     * @throws IOException if an entry cannot be read or a fragment cannot be deleted
+     */
+    private void pruneFragments(Path folderPath, Set<String> storedNames) throws IOException {
+        Set<String> referencedNames = new HashSet<>();
+        Collection<String> scopes = fragments.getScopes();
+        try (Stream<Path> paths = Files.walk(root.toAbsolutePath())) {
+            for (Path path : paths.filter(path -> scopes.contains(String.valueOf(path.getFileName()))).collect(Collectors.toList())) {
+                String markup = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+                referencedNames.addAll(fragments.getReferencedNames(markup));
+            }
+        }
+        if (overlay != null) {
+            overlay.readOriginalFiles(scopes).forEach(markup -> referencedNames.addAll(fragments.getReferencedNames(markup)));
+        }
+        for (String name : storedNames) {
+            if (referencedNames.contains(name)) {
+                continue;
+            }
+            try (Stream<Path> paths = Files.walk(folderPath.resolve(name))) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(path);
+                }
+            }
+            registerFragment(name);
+        }
+    }
+
+    /**
+     * Called by {@link PackageWriter#writeFragments()} to register the stored or removed fragment with the delta
+     * package, if one is created
+     * @param name Name of the fragment
+     */
+    private void registerFragment(String name) {
+        if (delta != null) {
+            delta.add(
+                fragments.getPath() + CoreConstants.SEPARATOR_SLASH + name,
+                fragments.getJcrPath() + CoreConstants.SEPARATOR_SLASH + name);
+        }
+    }
+
+    /**
+     * Called by {@link PackageWriter#writeFragments()} to retrieve the names of the fragments already stored in the
+     * package
+     * @param folderPath {@code Path} to the folder of fragments
+     * @return Set of string values; can be empty
+     * @throws IOException if the folder cannot be read
+     */
+    private static Set<String> getStoredFragments(Path folderPath) throws IOException {
+        try (Stream<Path> children = Files.list(folderPath)) {
+            return children
+                .filter(Files::isDirectory)
+                .map(child -> StringUtils.removeEnd(child.getFileName().toString(), CoreConstants.SEPARATOR_SLASH))
+                .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Called by {@link PackageWriter#writeFragments()} to put back in place the subtrees of the stored package entries
+     * that have been used only once during the current run. The digests of the modified entries are updated in the
+     * fingerprint cache
+     * @param storedNames Names of the fragments already stored in the package
+     * @throws IOException if an entry cannot be read or written
+     */
+    private void inlineFragments(Set<String> storedNames) throws IOException {
+        for (Map.Entry<Path, ComponentSource> entry : fragmentedEntries.entrySet()) {
+            String markup = new String(Files.readAllBytes(entry.getKey()), StandardCharsets.UTF_8);
+            String inlineMarkup = fragments.inline(markup, storedNames);
+            if (!inlineMarkup.equals(markup)) {
+                Files.write(entry.getKey(), inlineMarkup.getBytes(StandardCharsets.UTF_8));
+                fingerprints.refresh(entry.getValue(), entry.getKey().getParent());
+            }
+        }
+    }
+
+    /**
+     * Called by {@link PackageWriter#close()} to make the package reproducible, i.e., to make the identical content
+     * always produce the identical package file
+     */
+    private void normalizePackage() {
+        try {
+            RawZipArchive.normalize(packagePath, outputTimestamp);
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+    }
+
+    /**
+     * Called by {@link PackageWriter#close()} to store the package that contains only the components changed in
+     * comparison to the baseline package
+     */
+    private void writeDelta() {
+        try {
+            delta.write();
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+    }
+
     /**
      * Stores information about the current binary into the package for the version tracking
      * @param info {@link PluginInfo} object
      */
     public void writeInfo(PluginInfo info) {
-        Path rootPath = fileSystem.getRootDirectories().iterator().next();
+        // A relative root stands for the current folder of a package file system. Package info is stored at the top
+        Path rootPath = root.isAbsolute() ? root : root.getFileSystem().getRootDirectories().iterator().next();
         if (!Files.isWritable(rootPath)) {
             return;
         }
@@ -134,56 +337,304 @@ public class PackageWriter implements AutoCloseable {
         }
     }
 
+    /**
+     * Stores the authoring markup of the provided AEM components into the package. If the plugin settings specify more
+     * than one worker thread, the markup is rendered in parallel while the package entries are still stored one by one
+     * and in the order of the provided list, so that the resulting package is the same as in the sequential mode. If an
+     * exception interrupts the writing, the package is marked as failed, and neither the caches nor the delta package
+     * are stored upon closing
+     * @param components {@code List} of {@link ComponentSource} instances representing the component classes
+     * @return The number of components for which at least one file/node was stored
+     * @see com.exadel.aem.toolkit.plugin.maven.PluginSettings#getThreads()
+     */
+    public int write(List<ComponentSource> components) {
+        try {
+            int threads = PluginRuntime.context().getSettings().getThreads();
+            if (threads > 1 && components.size() > 1) {
+                return writeInParallel(components, threads);
+            }
+            int result = 0;
+            for (ComponentSource component : components) {
+                result += write(component) ? 1 : 0;
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            failed = true;
+            throw e;
+        }
+    }
+
     /**
      * Stores AEM component's authoring markup into the package. To do this, several package entry writers, e.g. for
      * populating {@code .content.xml}, {@code _cq_dialog.xml}, {@code _cq_editConfig.xml}, etc. are called in sequence.
-     * If the component is split into several "modules" (views), each is processed separately
+     * If the component is split into several "modules" (views), each is processed separately. If the component has
+     * not changed since the previous run, and the package still contains the entries stored for it, the component is
+     * not rendered again
      * @param component {@link ComponentSource} instance representing the component class
      * @return True if at least one file/node was stored in the component's folder; otherwise, false
      */
     public boolean write(ComponentSource component) {
-        if (StringUtils.isBlank(component.getPath())) {
-            String exceptionMessage = COMPONENT_PATH_MISSING_EXCEPTION_MESSAGE + component.adaptTo(Class.class).getSimpleName();
-            ValidationException validationException = new ValidationException(exceptionMessage);
-            PluginRuntime.context().getExceptionHandler().handle(validationException);
+        if (!hasPath(component)) {
             return false;
         }
 
-        Path fileSystemPath = fileSystem.getPath(component.getPath());
-        if (!ensureTargetPath(component, fileSystemPath)) {
+        Path fileSystemPath = getComponentPath(component);
+        if (fileSystemPath == null || !ensureTargetPath(component, fileSystemPath)) {
             return false;
         }
 
-        Map<PackageEntryWriter, Source> viewsByWriter = getViewsByWriter(component);
+        String fingerprint = fingerprints.getFingerprint(component);
+        if (!fingerprints.isUnchanged(component, fingerprint) || !fingerprints.hasEntries(component, fileSystemPath)) {
+            Map<PackageEntryWriter, String> markupByWriter = getPrerenderedMarkup(component);
+            if (markupByWriter == null) {
+                markupByWriter = render(component);
+            }
+            storeMarkup(component, fingerprint, fileSystemPath, markupByWriter);
+        }
 
-        // Raise an exception in case there's no data to write to {@code .content.xml} file/node
-        if (viewsByWriter.keySet().stream().noneMatch(writer -> Scopes.COMPONENT.equals(writer.getScope()))) {
-            InvalidSettingException e = new InvalidSettingException(
-                COMPONENT_DATA_MISSING_EXCEPTION_MESSAGE + component.adaptTo(Class.class).getName());
-            PluginRuntime.context().getExceptionHandler().handle(e);
+        prerendered.record(component, fileSystemPath, getScopes(writers));
+        if (delta != null) {
+            delta.add(component);
         }
+        return true;
+    }
 
-        // If there are not any dialog-specifying nodes present, the component will not be listed for adding
-        // via "Insert new component" popup or component rail; also the in-place editing popup won't be displayed.
-        // To mitigate this, we need to create a minimal cq:editConfig node
-        if (viewsByWriter.keySet().stream().noneMatch(writer ->
-            StringUtils.equalsAny(
-                writer.getScope(),
-                Scopes.CQ_DIALOG,
-                Scopes.CQ_EDIT_CONFIG,
-                Scopes.CQ_DESIGN_DIALOG,
-                Scopes.CQ_CHILD_EDIT_CONFIG))) {
-            viewsByWriter.put(emptyEditConfigWriter, component);
+    /**
+     * Called by {@link PackageWriter#write(List)} to render the markup of AEM components in worker threads. Rendered
+     * markup is stored into the package in the current thread in the order of the provided list. The number of
+     * components being rendered ahead of storing is limited to keep memory consumption moderate
+     * @param components {@code List} of {@link ComponentSource} instances representing the component classes
+     * @param threads    Number of worker threads
+     * @return The number of components for which at least one file/node was stored
+     */
+    private int writeInParallel(List<ComponentSource> components, int threads) {
+        // Lazily populated registries are filled in before the workers start, so that the workers only read them
+        PluginRuntime.context().getReflection().getHandlers();
+        PluginRuntime.context().getReflection().getValidators();
+
+        ThreadLocal<Transformer> transformers = ThreadLocal.withInitial(PackageWriter::newTransformer);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<RenderedComponent>> pendingTasks = new ArrayDeque<>();
+        Iterator<ComponentSource> componentsToRender = components.iterator();
+        int result = 0;
+        try {
+            for (ComponentSource component : components) {
+                while (pendingTasks.size() < threads * PENDING_TASKS_PER_THREAD && componentsToRender.hasNext()) {
+                    ComponentSource next = componentsToRender.next();
+                    // Package entries are checked here since the file system is only accessed from the current thread
+                    Path nextPath = StringUtils.isNotBlank(next.getPath()) ? getComponentPath(next) : null;
+                    boolean hasEntries = nextPath != null && fingerprints.hasEntries(next, nextPath);
+                    pendingTasks.add(executor.submit(PluginRuntime.withContext(
+                        () -> render(next, hasEntries, transformers.get()))));
+                }
+                result += store(component, getRenderingResult(pendingTasks.remove())) ? 1 : 0;
+            }
+        } finally {
+            executor.shutdownNow();
         }
+        return result;
+    }
 
-        viewsByWriter.forEach((writer, view) -> {
-            writer.cleanUp(fileSystemPath);
-            writer.writeXml(view, fileSystemPath);
-        });
+    /**
+     * Called by {@link PackageWriter#writeInParallel(List, int)} to render the markup of an AEM component without
+     * accessing the file system
+     * @param component   {@link ComponentSource} instance representing the component class
+     * @param hasEntries  True if the package contains valid entries stored for the component during the previous run
+     * @param transformer {@code Transformer} instance owned by the current thread
+     * @return {@link RenderedComponent} object
+     */
+    private RenderedComponent render(ComponentSource component, boolean hasEntries, Transformer transformer) {
+        if (StringUtils.isBlank(component.getPath())) {
+            return new RenderedComponent(null, null);
+        }
+        String fingerprint = fingerprints.getFingerprint(component);
+        if (hasEntries && fingerprints.isUnchanged(component, fingerprint)) {
+            return new RenderedComponent(fingerprint, null);
+        }
+        Map<PackageEntryWriter, String> prerenderedMarkup = getPrerenderedMarkup(component);
+        if (prerenderedMarkup != null) {
+            return new RenderedComponent(fingerprint, prerenderedMarkup);
+        }
+        Map<PackageEntryWriter, String> markupByWriter = new LinkedHashMap<>();
+        try (ProfilingContextHelper.Measurement ignored = PluginRuntime.context()
+            .getProfiling()
+            .start(ProfilingContextHelper.Category.COMPONENTS, component.getName())) {
+            getViewsByWriter(component).forEach((writer, view) -> markupByWriter.put(writer, writer.render(view, transformer)));
+        }
+        return new RenderedComponent(fingerprint, markupByWriter);
+    }
+
+    /**
+     * Called by {@link PackageWriter#write(ComponentSource)} to render the markup of an AEM component in the current
+     * thread. Only the rendering is measured by the profiler, the same way as in the parallel mode, so that the
+     * profiling data do not depend on the number of worker threads
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return Map of {@link PackageEntryWriter} objects to the markup they store
+     */
+    private Map<PackageEntryWriter, String> render(ComponentSource component) {
+        Map<PackageEntryWriter, String> markupByWriter = new LinkedHashMap<>();
+        try (ProfilingContextHelper.Measurement ignored = PluginRuntime.context()
+            .getProfiling()
+            .start(ProfilingContextHelper.Category.COMPONENTS, component.getName())) {
+            getViewsByWriter(component).forEach((writer, view) ->
+                markupByWriter.put(writer, writer.render(view, writer.getTransformer())));
+        }
+        return markupByWriter;
+    }
+
+    /**
+     * Called by {@link PackageWriter#writeInParallel(List, int)} to store the markup of an AEM component that has been
+     * rendered beforehand
+     * @param component {@link ComponentSource} instance representing the component class
+     * @param rendered  {@link RenderedComponent} object containing the rendered markup
+     * @return True if at least one file/node was stored in the component's folder; otherwise, false
+     */
+    private boolean store(ComponentSource component, RenderedComponent rendered) {
+        if (!hasPath(component)) {
+            return false;
+        }
+
+        Path fileSystemPath = getComponentPath(component);
+        if (fileSystemPath == null || !ensureTargetPath(component, fileSystemPath)) {
+            return false;
+        }
+
+        if (!rendered.isUpToDate()) {
+            storeMarkup(component, rendered.getFingerprint(), fileSystemPath, rendered.getMarkupByWriter());
+        }
 
+        prerendered.record(component, fileSystemPath, getScopes(writers));
+        if (delta != null) {
+            delta.add(component);
+        }
         return true;
     }
 
+    /**
+     * Stores the markup of an AEM component that has been rendered beforehand into the component's folder and updates
+     * the fingerprint of the component
+     * @param component      {@link ComponentSource} instance representing the component class
+     * @param fingerprint    Nullable string value representing the fingerprint of the component
+     * @param fileSystemPath {@code Path} to the component's folder
+     * @param markupByWriter Map of {@link PackageEntryWriter} objects to the markup they store
+     */
+    private void storeMarkup(
+        ComponentSource component,
+        String fingerprint,
+        Path fileSystemPath,
+        Map<PackageEntryWriter, String> markupByWriter) {
+
+        markupByWriter.forEach((writer, markup) -> storeEntry(component, writer, markup, fileSystemPath));
+        fingerprints.update(component, fingerprint, fileSystemPath, getScopes(markupByWriter.keySet()));
+    }
+
+    /**
+     * Stores a package entry of an AEM component. If the entry refers to shared fragments, it is registered so that
+     * the fragments used only once can be put back in place when the package is closed
+     * @param component      {@link ComponentSource} instance representing the component class
+     * @param writer         {@link PackageEntryWriter} that stores the entry
+     * @param markup         String value representing the rendered markup
+     * @param fileSystemPath {@code Path} to the component's folder
+     */
+    private void storeEntry(ComponentSource component, PackageEntryWriter writer, String markup, Path fileSystemPath) {
+        writer.store(markup, fileSystemPath);
+        if (fragments.isUsedIn(markup)) {
+            fragmentedEntries.put(fileSystemPath.resolve(writer.getScope()), component);
+        }
+    }
+
+    /**
+     * Retrieves the markup of an AEM component that has been rendered beforehand in the module containing the component
+     * class. This method can be called from a worker thread
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return Map of {@link PackageEntryWriter} objects to the markup they store; null if no valid markup is available
+     */
+    private Map<PackageEntryWriter, String> getPrerenderedMarkup(ComponentSource component) {
+        Map<String, String> markupByScope = prerendered.getMarkup(component);
+        if (markupByScope == null) {
+            return null;
+        }
+        Map<PackageEntryWriter, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : markupByScope.entrySet()) {
+            PackageEntryWriter writer = writers
+                .stream()
+                .filter(w -> w.getScope().equals(entry.getKey()))
+                .findFirst()
+                .orElse(null);
+            if (writer == null) {
+                return null;
+            }
+            result.put(writer, entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the outcome of a rendering task. Exceptions thrown in a worker thread (such as a {@link
+     * PluginException} raised by the exception handler) are re-thrown in the current thread
+     * @param task {@code Future} object representing the rendering task
+     * @return {@link RenderedComponent} object
+     */
+    private static RenderedComponent getRenderingResult(Future<RenderedComponent> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PluginException(RENDERING_EXCEPTION_MESSAGE, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new PluginException(RENDERING_EXCEPTION_MESSAGE, (Exception) e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves the names of package entries that the provided writers store within a component folder
+     * @param writers Collection of {@link PackageEntryWriter} objects
+     * @return List of strings
+     */
+    private static List<String> getScopes(Collection<PackageEntryWriter> writers) {
+        return writers.stream().map(PackageEntryWriter::getScope).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks whether the given AEM component has a valid path in the package and reports a validation exception
+     * otherwise
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return True or false
+     */
+    private static boolean hasPath(ComponentSource component) {
+        if (StringUtils.isNotBlank(component.getPath())) {
+            return true;
+        }
+        String exceptionMessage = COMPONENT_PATH_MISSING_EXCEPTION_MESSAGE + component.adaptTo(Class.class).getSimpleName();
+        ValidationException validationException = new ValidationException(exceptionMessage);
+        PluginRuntime.context().getExceptionHandler().handle(validationException);
+        return false;
+    }
+
+    /**
+     * Retrieves the path to the folder that stores the markup of the given AEM component. If the package is composed
+     * anew, the existing content of the folder is fetched so that it can be read and modified
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return {@code Path} object, or null if the content of the folder could not be fetched
+     */
+    private Path getComponentPath(ComponentSource component) {
+        if (overlay != null) {
+            try {
+                overlay.fetch(component.getPath());
+            } catch (IOException e) {
+                PluginRuntime.context().getExceptionHandler().handle(e);
+                return null;
+            }
+        }
+        return root.resolve(component.getPath());
+    }
+
     /**
      * Called by {@link PackageWriter#write(ComponentSource)} to make sure that the target folder for storing the
      * component's markup is accessible
@@ -192,7 +643,8 @@ public class PackageWriter implements AutoCloseable {
      * @return True or false
      */
     private boolean ensureTargetPath(ComponentSource component, Path path) {
-        if (!Files.exists(path) && component.getWriteMode() == WriteMode.CREATE) {
+        // Pre-rendered entries are stored apart from the package, therefore the folder is created in any write mode
+        if (!Files.exists(path) && (component.getWriteMode() == WriteMode.CREATE || prerendered.isRecording())) {
             try {
                 Files.createDirectories(path);
             } catch (IOException ex) {
@@ -209,12 +661,15 @@ public class PackageWriter implements AutoCloseable {
 
     /**
      * Collects a registry of views available for the given AEM component and matches each view to an appropriate {@link
-     * PackageEntryWriter}
-     * @param component {@code ComponentSource} instance representing the AEM component class
+     * PackageEntryWriter}. If the component lacks a view for the {@code cq:dialog} or {@code cq:editConfig} node, a
+     * minimal {@code cq:editConfig} writer is added. The views are merged into a new {@code ComponentSource} so that
+     * the views merged while rendering the component before do not change the matching of writers
+     * @param original {@code ComponentSource} instance representing the AEM component class
      * @return {@code Map} that exposes {@code PackageEntryWriter} instances as keys and component views as values
      */
-    private Map<PackageEntryWriter, Source> getViewsByWriter(ComponentSource component) {
-        Map<PackageEntryWriter, Source> result = new HashMap<>();
+    private Map<PackageEntryWriter, Source> getViewsByWriter(ComponentSource original) {
+        ComponentSource component = Sources.fromComponentClass(original.adaptTo(Class.class));
+        Map<PackageEntryWriter, Source> result = new LinkedHashMap<>();
         for (Source view : component.getViews()) {
             List<PackageEntryWriter> matchedWriters = writers
                 .stream()
@@ -238,6 +693,26 @@ public class PackageWriter implements AutoCloseable {
                 }
             }
         }
+
+        // Raise an exception in case there's no data to write to {@code .content.xml} file/node
+        if (result.keySet().stream().noneMatch(writer -> Scopes.COMPONENT.equals(writer.getScope()))) {
+            InvalidSettingException e = new InvalidSettingException(
+                COMPONENT_DATA_MISSING_EXCEPTION_MESSAGE + component.adaptTo(Class.class).getName());
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+
+        // If there are not any dialog-specifying nodes present, the component will not be listed for adding
+        // via "Insert new component" popup or component rail; also the in-place editing popup won't be displayed.
+        // To mitigate this, we need to create a minimal cq:editConfig node
+        if (result.keySet().stream().noneMatch(writer ->
+            StringUtils.equalsAny(
+                writer.getScope(),
+                Scopes.CQ_DIALOG,
+                Scopes.CQ_EDIT_CONFIG,
+                Scopes.CQ_DESIGN_DIALOG,
+                Scopes.CQ_CHILD_EDIT_CONFIG))) {
+            result.put(emptyEditConfigWriter, component);
+        }
         return result;
     }
 
@@ -259,13 +734,87 @@ public class PackageWriter implements AutoCloseable {
         String packageFileName = project.getBuild().getFinalName() + PACKAGE_EXTENSION;
         Path path = Paths.get(project.getBuild().getDirectory()).resolve(packageFileName);
         URI uri = URI.create(FILESYSTEM_PREFIX + path.toUri());
+        FingerprintCache fingerprints = getFingerprintCache(project);
+        PackageWriter result = null;
+        if (PluginRuntime.context().getSettings().isStreaming()) {
+            try {
+                PackageOverlay overlay = PackageOverlay.forPackage(path);
+                result = forFileSystem(overlay.getFileSystem(), project.getBuild().getFinalName(), fingerprints, overlay);
+            } catch (IOException e) {
+                // The existing package cannot be read in the raw mode (e.g., it is a ZIP64 archive). The package
+                // is then modified in place
+                PluginRuntime.context().getExceptionHandler().handle(e);
+            }
+        }
+        if (result == null) {
+            try {
+                FileSystem fs = FileSystems.newFileSystem(uri, FILESYSTEM_OPTIONS);
+                result = forFileSystem(fs, project.getBuild().getFinalName(), fingerprints, null);
+            } catch (IOException e) {
+                // Exceptions caught here are critical for the execution, so no further handling
+                throw new PluginException(CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE + project.getBuild().getFinalName(), e);
+            }
+        }
+        SharedFragments sharedFragments = SharedFragments.fromSettings();
+        result.fragments = sharedFragments;
+        result.writers.forEach(writer -> writer.setFragments(sharedFragments));
+        // Markup rendered beforehand does not make use of shared fragments, so it is not taken when the fragments are
+        // enabled
+        result.prerendered = sharedFragments.isEnabled()
+            ? PrerenderedEntries.DISABLED
+            : PrerenderedEntries.forReading(PluginRuntime.context().getReflection().getClassLoader());
+        result.packagePath = path;
+        result.outputTimestamp = getOutputTimestamp();
+        String baseline = PluginRuntime.context().getSettings().getBaseline();
+        if (baseline != null) {
+            result.delta = new DeltaPackage(
+                path,
+                project.getBasedir().toPath().resolve(baseline),
+                getScopes(result.writers),
+                result.outputTimestamp);
+        }
+        return result;
+    }
+
+    /**
+     * Initializes an instance of {@link PackageWriter} that stores AEM components' data among the compiled classes of
+     * the current {@link MavenProject}, so that the content package module can take the markup instead of rendering
+     * the components. The stored entries are listed in a manifest file together with the digests of the components
+     * @param project {@code MavenProject instance}
+     * @return {@code PackageWriter} instance
+     */
+    public static PackageWriter forPrerendering(MavenProject project) {
+        if (project == null) {
+            throw new PluginException(INVALID_PROJECT_EXCEPTION_MESSAGE);
+        }
+        Path classesDirectory = Paths.get(project.getBuild().getOutputDirectory());
+        PackageWriter result = forDirectory(project, classesDirectory.resolve(PrerenderedEntries.ENTRIES_DIRECTORY));
+        result.prerendered = PrerenderedEntries.forRecording(classesDirectory);
+        return result;
+    }
+
+    /**
+     * Initializes an instance of {@link PackageWriter} that stores AEM components' data into an "exploded" package, i.e.,
+     * a folder that contains the {@code jcr_root} structure, instead of a package file
+     * @param project   {@code MavenProject instance}
+     * @param directory {@code Path} of the folder; the folder is created if missing
+     * @return {@code PackageWriter} instance
+     */
+    public static PackageWriter forDirectory(MavenProject project, Path directory) {
+        if (project == null) {
+            throw new PluginException(INVALID_PROJECT_EXCEPTION_MESSAGE);
+        }
         try {
-            FileSystem fs = FileSystems.newFileSystem(uri, FILESYSTEM_OPTIONS);
-            return forFileSystem(fs, project.getBuild().getFinalName());
+            Files.createDirectories(directory);
         } catch (IOException e) {
             // Exceptions caught here are critical for the execution, so no further handling
-            throw new PluginException(CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE + project.getBuild().getFinalName(), e);
+            throw new PluginException(CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE + directory, e);
         }
+        return new PackageWriter(
+            directory.toAbsolutePath(),
+            createWriters(project.getBuild().getFinalName()),
+            getFingerprintCache(project),
+            null);
     }
 
     /**
@@ -276,10 +825,38 @@ public class PackageWriter implements AutoCloseable {
      * @return {@code PackageWriter} instance
      */
     public static PackageWriter forFileSystem(FileSystem fileSystem, String projectName) {
-        List<PackageEntryWriter> writers;
+        return forFileSystem(fileSystem, projectName, FingerprintCache.DISABLED, null);
+    }
+
+    /**
+     * Initializes an instance of {@link PackageWriter} profiled for the particular {@link FileSystem} representing the
+     * structure of the package
+     * @param fileSystem   Current {@link FileSystem} instance
+     * @param projectName  Name of the project this file system contains information for
+     * @param fingerprints {@link FingerprintCache} used to skip the components that have not changed since the
+     *                     previous run
+     * @param overlay      Nullable {@link PackageOverlay} object that provides the {@code fileSystem}
+     * @return {@code PackageWriter} instance
+     */
+    static PackageWriter forFileSystem(
+        FileSystem fileSystem,
+        String projectName,
+        FingerprintCache fingerprints,
+        PackageOverlay overlay) {
+
+        Path root = fileSystem.getPath(StringUtils.EMPTY);
+        return new PackageWriter(root, createWriters(projectName), fingerprints, overlay);
+    }
+
+    /**
+     * Creates the collection of {@link PackageEntryWriter} objects used to store the rendered file data
+     * @param projectName Name of the project the package is created for
+     * @return List of {@code PackageEntryWriter} instances
+     */
+    private static List<PackageEntryWriter> createWriters(String projectName) {
         try {
             Transformer transformer = XmlFactory.newDocumentTransformer();
-            writers = Arrays.asList(
+            return Arrays.asList(
                 new ContentXmlWriter(transformer),
                 new CqDialogWriter(transformer, Scopes.CQ_DIALOG),
                 new CqDialogWriter(transformer, Scopes.CQ_DESIGN_DIALOG),
@@ -291,6 +868,89 @@ public class PackageWriter implements AutoCloseable {
             // Exceptions caught here are due to possible XXE security vulnerabilities, so no further handling
             throw new PluginException(CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE + projectName, e);
         }
-        return new PackageWriter(fileSystem, writers);
+    }
+
+    /**
+     * Retrieves the moment used as the modification time of the package entries when the package must be reproducible
+     * @return Nullable {@code Instant} value
+     */
+    private static Instant getOutputTimestamp() {
+        try {
+            return PluginRuntime.context().getSettings().getOutputTimestamp();
+        } catch (InvalidSettingException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the {@link FingerprintCache} matching the plugin settings for the given project
+     * @param project {@code MavenProject instance}
+     * @return {@code FingerprintCache} object
+     */
+    private static FingerprintCache getFingerprintCache(MavenProject project) {
+        return PluginRuntime.context().getSettings().isIncremental()
+            ? FingerprintCache.forBuildDirectory(Paths.get(project.getBuild().getDirectory()))
+            : FingerprintCache.DISABLED;
+    }
+
+    /**
+     * Creates a new {@link Transformer} for a worker thread that renders components in parallel
+     * @return {@code Transformer} instance
+     */
+    private static Transformer newTransformer() {
+        try {
+            return XmlFactory.newDocumentTransformer();
+        } catch (TransformerConfigurationException e) {
+            // Exceptions caught here are due to possible XXE security vulnerabilities, so no further handling
+            throw new PluginException(CANNOT_WRITE_TO_PACKAGE_EXCEPTION_MESSAGE, e);
+        }
+    }
+
+    /* ---------------
+       Utility classes
+       --------------- */
+
+    /**
+     * Represents the outcome of rendering an AEM component in a worker thread
+     */
+    private static class RenderedComponent {
+        private final String fingerprint;
+        private final Map<PackageEntryWriter, String> markupByWriter;
+
+        /**
+         * Creates a new {@code RenderedComponent} instance
+         * @param fingerprint    Nullable string representing the fingerprint of the component
+         * @param markupByWriter {@code Map} that exposes {@code PackageEntryWriter} instances as keys and rendered markup
+         *                       as values. A null value means that the component has not changed since the previous run
+         */
+        RenderedComponent(String fingerprint, Map<PackageEntryWriter, String> markupByWriter) {
+            this.fingerprint = fingerprint;
+            this.markupByWriter = markupByWriter;
+        }
+
+        /**
+         * Retrieves the fingerprint of the component
+         * @return Nullable string value
+         */
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Retrieves the rendered markup
+         * @return {@code Map} that exposes {@code PackageEntryWriter} instances as keys and rendered markup as values
+         */
+        Map<PackageEntryWriter, String> getMarkupByWriter() {
+            return markupByWriter;
+        }
+
+        /**
+         * Gets whether the component has not changed since the previous run, so its stored markup is still valid
+         * @return True or false
+         */
+        boolean isUpToDate() {
+            return markupByWriter == null;
+        }
     }
 }
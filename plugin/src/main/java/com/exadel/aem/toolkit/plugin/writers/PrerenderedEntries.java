@@ -0,0 +1,516 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Validator;
+import com.exadel.aem.toolkit.api.handlers.Handler;
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.utils.ClassFileUtil;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+
+/**
+ * Manages the markup of AEM components that has been rendered beforehand, in the module that contains the component
+ * classes, and stored among the compiled classes of that module. When recording, the entries of every rendered
+ * component are listed in a manifest file together with a digest. When reading, the entries are retrieved from the
+ * classpath of the content package module and used instead of rendering the component, provided that the digest
+ * computed for the component in the current run is the same. The digest covers the plugin binary, the path of the
+ * component, the {@code terminateOn} setting, the bytecode of the available handlers and validators, and the bytecode of
+ * the classes the component refers to
+ */
+class PrerenderedEntries {
+
+    static final PrerenderedEntries DISABLED = new PrerenderedEntries(null, Collections.emptyMap());
+
+    private static final String ENTRIES_FOLDER_NAME = "rendered";
+    static final String ENTRIES_DIRECTORY = "META-INF/etoolbox-authoring-kit/" + ENTRIES_FOLDER_NAME;
+    private static final String MANIFEST_FILE_ADDRESS = ENTRIES_DIRECTORY + ".properties";
+
+    private static final String SEPARATOR_VALUE = DialogConstants.SEPARATOR_SEMICOLON;
+    private static final String SEPARATOR_SCOPE = CoreConstants.SEPARATOR_COMMA;
+    private static final String SEPARATOR_PATH = CoreConstants.SEPARATOR_SLASH;
+    private static final String PARENT_REFERENCE = "..";
+    private static final String COMMENT_PREFIX = "#";
+    private static final int RECORD_CHUNKS = 3;
+
+    private static final String API_PACKAGE = CoreConstants.ROOT_PACKAGE.replace(CoreConstants.SEPARATOR_DOT, SEPARATOR_PATH)
+        + "/api/";
+    private static final String[] SKIPPED_PACKAGES = {"java/", "javax/", "jdk/", "sun/"};
+
+    private static String pluginDigest;
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final Path manifestFile;
+    private final Map<String, Record> records;
+    private final Map<String, ClassDigest> classDigests;
+    private String baseDigest;
+
+    /**
+     * Initializes a new {@link PrerenderedEntries} instance
+     * @param manifestFile {@code Path} to the manifest file that is populated when recording. A null value means that
+     *                     the current instance is used for reading, or is disabled
+     * @param records      Map of records retrieved from the classpath
+     */
+    private PrerenderedEntries(Path manifestFile, Map<String, Record> records) {
+        this.manifestFile = manifestFile;
+        this.records = records;
+        this.classDigests = new ConcurrentHashMap<>();
+    }
+
+    /* ---------
+       Recording
+       --------- */
+
+    /**
+     * Gets whether the current instance collects the entries of rendered components
+     * @return True or false
+     */
+    boolean isRecording() {
+        return manifestFile != null;
+    }
+
+    /**
+     * Adds to the manifest the entries stored for the given AEM component
+     * @param component     {@link ComponentSource} instance representing the component class
+     * @param componentPath {@code Path} to the folder the entries of the component are stored in
+     * @param scopes        Collection of the names of package entries that can be stored for a component
+     */
+    void record(ComponentSource component, Path componentPath, Collection<String> scopes) {
+        if (!isRecording()) {
+            return;
+        }
+        List<String> storedScopes = scopes
+            .stream()
+            .distinct()
+            .filter(scope -> Files.isRegularFile(componentPath.resolve(scope)))
+            .collect(Collectors.toList());
+        if (!storedScopes.isEmpty()) {
+            records.put(getKey(component), new Record(getDigest(component), component.getPath(), storedScopes, null));
+        }
+    }
+
+    /**
+     * Stores the manifest file. The manifest lists only the components recorded during the current run. The records
+     * are sorted, and the date comment is omitted, so that the same components always produce the same file
+     */
+    void save() {
+        if (!isRecording()) {
+            return;
+        }
+        Properties properties = new Properties();
+        records.forEach((key, record) -> properties.setProperty(key, record.toString()));
+        try {
+            StringWriter content = new StringWriter();
+            properties.store(content, null);
+            String lines = Arrays
+                .stream(StringUtils.split(content.toString(), System.lineSeparator()))
+                .filter(line -> !line.startsWith(COMMENT_PREFIX))
+                .sorted()
+                .collect(Collectors.joining(StringUtils.LF, StringUtils.EMPTY, StringUtils.LF));
+            Files.createDirectories(manifestFile.getParent());
+            Files.write(manifestFile, lines.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+    }
+
+    /* -------
+       Reading
+       ------- */
+
+    /**
+     * Retrieves the markup of the given AEM component that has been rendered beforehand. This method can be called from
+     * a worker thread
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return Map of the names of package entries to the markup; null if no valid markup is available
+     */
+    Map<String, String> getMarkup(ComponentSource component) {
+        Record record = isRecording() ? null : records.get(getKey(component));
+        if (record == null
+            || !StringUtils.equals(record.getPath(), component.getPath())
+            || !record.getDigest().equals(getDigest(component))) {
+            return null;
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String scope : record.getScopes()) {
+            try (InputStream input = new URL(record.getBase(), record.getPath() + SEPARATOR_PATH + scope).openStream()) {
+                result.put(scope, new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // A missing or unreadable entry means that the component is rendered as usual
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /* ---------------
+       Digest routines
+       --------------- */
+
+    /**
+     * Computes the digest of the provided AEM component. The component class and the classes it refers to are
+     * visited. References are followed only from the classes that refer to the ToolKit API, since other classes do
+     * not contribute to the markup
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return String value
+     */
+    private String getDigest(ComponentSource component) {
+        Hasher hasher = Hashing.sha256().newHasher()
+            .putString(getBaseDigest(), StandardCharsets.UTF_8)
+            .putString(component.getPath(), StandardCharsets.UTF_8);
+        putClassDigests(hasher, getReferencedClasses(Collections.singleton(toInternalName(component.adaptTo(Class.class)))));
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Retrieves the part of the digest that is common for all the components. It covers the plugin binary, the {@code
+     * terminateOn} setting, and the bytecode of the available handlers and validators together with the classes they
+     * refer to, so that a change to a handler defined in the project invalidates the stored markup
+     * @return String value
+     */
+    private synchronized String getBaseDigest() {
+        if (baseDigest == null) {
+            Hasher hasher = Hashing.sha256().newHasher()
+                .putString(getPluginDigest(), StandardCharsets.UTF_8)
+                .putString(PluginRuntime.context().getSettings().getTerminateOnRule(), StandardCharsets.UTF_8);
+            putClassDigests(hasher, getExtensionClasses());
+            baseDigest = hasher.hash().toString();
+        }
+        return baseDigest;
+    }
+
+    /**
+     * Retrieves the names of the handler and validator classes available in the current runtime together with the
+     * names of the classes they refer to transitively
+     * @return Sorted set of internal class names
+     */
+    Set<String> getExtensionClasses() {
+        Set<String> extensionClasses = Stream.concat(
+                PluginRuntime.context().getReflection().getHandlers().stream().map(Handler::getClass),
+                PluginRuntime.context().getReflection().getValidators().stream().map(Validator::getClass))
+            .map(PrerenderedEntries::toInternalName)
+            .collect(Collectors.toSet());
+        return getReferencedClasses(extensionClasses);
+    }
+
+    /**
+     * Retrieves the names of the given classes together with the names of the classes they refer to transitively.
+     * Classes of the Java runtime are skipped
+     * @param classNames Internal names of the classes to start from
+     * @return Sorted set of internal class names
+     */
+    private Set<String> getReferencedClasses(Collection<String> classNames) {
+        Set<String> result = new TreeSet<>();
+        Deque<String> queue = new ArrayDeque<>(classNames);
+        while (!queue.isEmpty()) {
+            String className = queue.poll();
+            if (StringUtils.startsWithAny(className, SKIPPED_PACKAGES) || !result.add(className)) {
+                continue;
+            }
+            queue.addAll(getClassDigest(className).getReferences());
+        }
+        return result;
+    }
+
+    /**
+     * Adds the names and the digests of the given classes to the provided hasher
+     * @param hasher     {@code Hasher} object
+     * @param classNames Internal names of the classes
+     */
+    private void putClassDigests(Hasher hasher, Set<String> classNames) {
+        for (String className : classNames) {
+            hasher.putString(className, StandardCharsets.UTF_8).putString(getClassDigest(className).getValue(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Retrieves the digest of the class file for the given class together with the names of the classes it refers to
+     * @param className Internal name of the class
+     * @return {@link ClassDigest} object
+     */
+    private ClassDigest getClassDigest(String className) {
+        return classDigests.computeIfAbsent(className, name -> {
+            URL url = PluginRuntime
+                .context()
+                .getReflection()
+                .getClassLoader()
+                .getResource(name + ClassFileUtil.CLASS_FILE_EXTENSION);
+            if (url == null) {
+                return ClassDigest.MISSING;
+            }
+            try (InputStream input = url.openStream()) {
+                byte[] bytes = ByteStreams.toByteArray(input);
+                Set<String> references = ClassFileUtil.getReferencedClasses(bytes);
+                return new ClassDigest(
+                    Hashing.sha256().hashBytes(bytes).toString(),
+                    references.stream().anyMatch(reference -> reference.startsWith(API_PACKAGE)) ? references : Collections.emptySet());
+            } catch (IOException e) {
+                // An unreadable class will be reported when rendering the component, so no further handling here
+                return ClassDigest.MISSING;
+            }
+        });
+    }
+
+    /**
+     * Converts the name of the given class to the internal form used in class files
+     * @param type {@code Class} reference
+     * @return String value
+     */
+    private static String toInternalName(Class<?> type) {
+        return type.getName().replace(CoreConstants.SEPARATOR_DOT, SEPARATOR_PATH);
+    }
+
+    /**
+     * Retrieves the digest of the plugin binary. The digest is computed from the content of the file so that it does
+     * not depend on where the file is located
+     * @return String value
+     */
+    private static synchronized String getPluginDigest() {
+        if (pluginDigest == null) {
+            CodeSource codeSource = PrerenderedEntries.class.getProtectionDomain().getCodeSource();
+            pluginDigest = StringUtils.EMPTY;
+            try {
+                Path path = codeSource != null ? Paths.get(codeSource.getLocation().toURI()) : null;
+                if (path != null && Files.isRegularFile(path)) {
+                    pluginDigest = Hashing.sha256().hashBytes(Files.readAllBytes(path)).toString();
+                } else if (path != null) {
+                    pluginDigest = path.toString();
+                }
+            } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+                // The plugin binary is not identified; pre-rendered entries are then used based on the other data
+                pluginDigest = StringUtils.EMPTY;
+            }
+        }
+        return pluginDigest;
+    }
+
+    /**
+     * Retrieves the key under which the entries of the given AEM component are recorded
+     * @param component {@link ComponentSource} instance representing the component class
+     * @return String value
+     */
+    private static String getKey(ComponentSource component) {
+        return component.adaptTo(Class.class).getName();
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Creates a {@link PrerenderedEntries} instance that records the entries stored within the given folder of compiled
+     * classes
+     * @param classesDirectory {@code Path} to the folder of compiled classes of the current Maven project
+     * @return {@code PrerenderedEntries} object
+     */
+    static PrerenderedEntries forRecording(Path classesDirectory) {
+        return new PrerenderedEntries(classesDirectory.resolve(MANIFEST_FILE_ADDRESS), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Creates a {@link PrerenderedEntries} instance that provides the entries recorded in the manifest files available
+     * via the given class loader
+     * @param classLoader {@code ClassLoader} used to retrieve the manifest files
+     * @return {@code PrerenderedEntries} object
+     */
+    static PrerenderedEntries forReading(ClassLoader classLoader) {
+        Map<String, Record> records = new ConcurrentHashMap<>();
+        try {
+            Enumeration<URL> manifests = classLoader.getResources(MANIFEST_FILE_ADDRESS);
+            while (manifests.hasMoreElements()) {
+                readManifest(manifests.nextElement(), records);
+            }
+        } catch (IOException e) {
+            // The absence of pre-rendered entries is not an error: the components are rendered as usual
+            return DISABLED;
+        }
+        return records.isEmpty() ? DISABLED : new PrerenderedEntries(null, records);
+    }
+
+    /**
+     * Called by {@link PrerenderedEntries#forReading(ClassLoader)} to read records from a manifest file
+     * @param manifest {@code URL} of the manifest file
+     * @param records  Map of records to populate. Records that come first in the classpath order take precedence
+     * @throws IOException if the manifest cannot be read
+     */
+    private static void readManifest(URL manifest, Map<String, Record> records) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(manifest.openStream(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        URL base = new URL(manifest, ENTRIES_FOLDER_NAME + SEPARATOR_PATH);
+        for (String key : properties.stringPropertyNames()) {
+            Record record = Record.parse(properties.getProperty(key), base);
+            if (record != null) {
+                records.putIfAbsent(key, record);
+            }
+        }
+    }
+
+    /* ---------------
+       Utility classes
+       --------------- */
+
+    /**
+     * Represents the digest of a class file together with the names of the classes it refers to
+     */
+    private static class ClassDigest {
+        private static final ClassDigest MISSING = new ClassDigest(StringUtils.EMPTY, Collections.emptySet());
+
+        private final String value;
+        private final Set<String> references;
+
+        /**
+         * Creates a new {@code ClassDigest} instance
+         * @param value      String representing the digest
+         * @param references Set of internal class names
+         */
+        ClassDigest(String value, Set<String> references) {
+            this.value = value;
+            this.references = references;
+        }
+
+        /**
+         * Retrieves the digest
+         * @return String value
+         */
+        String getValue() {
+            return value;
+        }
+
+        /**
+         * Retrieves the names of the classes referenced by the current class
+         * @return Set of strings
+         */
+        Set<String> getReferences() {
+            return references;
+        }
+    }
+
+    /**
+     * Represents the digest, the path, and the stored entries of an AEM component
+     */
+    private static class Record {
+        private final String digest;
+        private final String path;
+        private final List<String> scopes;
+        private final URL base;
+
+        /**
+         * Creates a new {@code Record} instance
+         * @param digest String representing the digest of the component
+         * @param path   Path to the component folder relative to the package root
+         * @param scopes List of the names of the stored entries
+         * @param base   {@code URL} of the folder that contains the stored entries; null when recording
+         */
+        Record(String digest, String path, List<String> scopes, URL base) {
+            this.digest = digest;
+            this.path = path;
+            this.scopes = scopes;
+            this.base = base;
+        }
+
+        /**
+         * Retrieves the digest of the component
+         * @return String value
+         */
+        String getDigest() {
+            return digest;
+        }
+
+        /**
+         * Retrieves the path to the component folder
+         * @return String value
+         */
+        String getPath() {
+            return path;
+        }
+
+        /**
+         * Retrieves the names of the stored entries
+         * @return List of strings
+         */
+        List<String> getScopes() {
+            return scopes;
+        }
+
+        /**
+         * Retrieves the {@code URL} of the folder that contains the stored entries
+         * @return {@code URL} object
+         */
+        URL getBase() {
+            return base;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return digest + SEPARATOR_VALUE + path + SEPARATOR_VALUE + String.join(SEPARATOR_SCOPE, scopes);
+        }
+
+        /**
+         * Creates a {@code Record} instance from its string representation
+         * @param value String value
+         * @param base  {@code URL} of the folder that contains the stored entries
+         * @return {@code Record} object, or null if the value is not valid
+         */
+        static Record parse(String value, URL base) {
+            String[] chunks = StringUtils.split(value, SEPARATOR_VALUE);
+            if (chunks == null || chunks.length != RECORD_CHUNKS || StringUtils.contains(chunks[1], PARENT_REFERENCE)) {
+                return null;
+            }
+            List<String> scopes = Arrays.asList(StringUtils.split(chunks[2], SEPARATOR_SCOPE));
+            return new Record(chunks[0], chunks[1], scopes, base);
+        }
+    }
+}
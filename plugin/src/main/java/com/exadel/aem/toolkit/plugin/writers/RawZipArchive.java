@@ -0,0 +1,684 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.exadel.aem.toolkit.core.CoreConstants;
+
+/**
+ * Provides access to the records of a ZIP archive as they are stored in the file, without decompressing the data. Used
+ * to compose a new archive out of the records of existing archives so that the data is copied "as is"
+ * <p>Only the features of the ZIP format that are used by content packages are supported. ZIP64 archives and archives
+ * spanning several files are not supported</p>
+ */
+class RawZipArchive implements Closeable {
+
+    private static final int SIGNATURE_LOCAL_HEADER = 0x04034b50;
+    private static final int SIGNATURE_CENTRAL_HEADER = 0x02014b50;
+    private static final int SIGNATURE_END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int SIGNATURE_DATA_DESCRIPTOR = 0x08074b50;
+
+    private static final int LENGTH_LOCAL_HEADER = 30;
+    private static final int LENGTH_CENTRAL_HEADER = 46;
+    private static final int LENGTH_END_OF_CENTRAL_DIRECTORY = 22;
+    private static final int LENGTH_DATA_DESCRIPTOR = 12;
+    private static final int LENGTH_SIGNATURE = 4;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int OFFSET_LOCAL_FLAGS = 6;
+    private static final int OFFSET_LOCAL_NAME_LENGTH = 26;
+    private static final int OFFSET_LOCAL_EXTRA_LENGTH = 28;
+    private static final int OFFSET_CENTRAL_VERSION_NEEDED = 6;
+    private static final int OFFSET_CENTRAL_FLAGS = 8;
+    private static final int OFFSET_CENTRAL_METHOD = 10;
+    private static final int OFFSET_CENTRAL_TIME = 12;
+    private static final int OFFSET_CENTRAL_DATE = 14;
+    private static final int OFFSET_CENTRAL_CRC = 16;
+    private static final int OFFSET_CENTRAL_COMPRESSED_SIZE = 20;
+    private static final int OFFSET_CENTRAL_SIZE = 24;
+    private static final int OFFSET_CENTRAL_NAME_LENGTH = 28;
+    private static final int OFFSET_CENTRAL_EXTRA_LENGTH = 30;
+    private static final int OFFSET_CENTRAL_COMMENT_LENGTH = 32;
+    private static final int OFFSET_CENTRAL_LOCAL_HEADER = 42;
+    private static final int OFFSET_END_ENTRIES_ON_DISK = 8;
+    private static final int OFFSET_END_ENTRIES = 10;
+    private static final int OFFSET_END_DIRECTORY_SIZE = 12;
+    private static final int OFFSET_END_DIRECTORY_OFFSET = 16;
+
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int MIN_DOS_YEAR = 1980;
+    private static final int SHIFT_DOS_YEAR = 9;
+    private static final int SHIFT_DOS_MONTH = 5;
+    private static final int SHIFT_DOS_HOUR = 11;
+    private static final int SHIFT_DOS_MINUTE = 5;
+    private static final long MAX_UNSIGNED_INT = 0xFFFFFFFFL;
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private static final String INVALID_ARCHIVE_EXCEPTION_MESSAGE = "Not a valid or supported ZIP archive: ";
+    private static final String INVALID_ENTRY_EXCEPTION_MESSAGE = "Cannot read entry %s of ZIP archive %s";
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates a new {@code RawZipArchive} instance
+     * @param path    {@code Path} of the archive file
+     * @param channel {@code FileChannel} open for reading the archive
+     * @param entries Map of archive entries by name, in the order of the central directory
+     */
+    private RawZipArchive(Path path, FileChannel channel, Map<String, Entry> entries) {
+        this.path = path;
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    /* ----------------
+       Instance members
+       ---------------- */
+
+    /**
+     * Retrieves the entries of the archive in the order of the central directory
+     * @return Collection of {@link Entry} objects
+     */
+    List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Retrieves the entry of the archive by its name
+     * @param name String value; a name with no leading slash is expected
+     * @return {@link Entry} object, or null if not found
+     */
+    Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads and decompresses the data of the given entry. Only the entries that are stored or deflated are supported
+     * @param entry {@link Entry} object
+     * @return Byte array
+     * @throws IOException if reading fails, or the entry is malformed or uses a compression method that is not
+     *                     supported
+     */
+    byte[] readData(Entry entry) throws IOException {
+        long compressedSize = entry.getCompressedSize();
+        if (compressedSize >= Integer.MAX_VALUE || entry.getSize() > Integer.MAX_VALUE) {
+            throw new IOException(String.format(INVALID_ENTRY_EXCEPTION_MESSAGE, entry.getName(), path));
+        }
+        // One extra byte is read past the data, as required by the inflater in the "nowrap" mode
+        ByteBuffer data = read(getDataOffset(entry), (int) compressedSize + 1);
+        byte[] result = new byte[(int) entry.getSize()];
+        if (entry.getMethod() == METHOD_STORED && compressedSize == result.length) {
+            data.get(result);
+            return result;
+        }
+        if (entry.getMethod() != METHOD_DEFLATED) {
+            throw new IOException(String.format(INVALID_ENTRY_EXCEPTION_MESSAGE, entry.getName(), path));
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data.array(), 0, data.limit());
+            int length = 0;
+            while (length < result.length && !inflater.finished()) {
+                int inflated = inflater.inflate(result, length, result.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != result.length) {
+                throw new IOException(String.format(INVALID_ENTRY_EXCEPTION_MESSAGE, entry.getName(), path));
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(String.format(INVALID_ENTRY_EXCEPTION_MESSAGE, entry.getName(), path), e);
+        } finally {
+            inflater.end();
+        }
+        return result;
+    }
+
+    /**
+     * Gets whether the given entry of the current archive has the same content as the entry of the other archive. The
+     * checksums and sizes are compared first, and if they match, the decompressed data is compared byte by byte, so
+     * that a checksum collision does not make different content pass for the same
+     * @param entry      {@link Entry} of the current archive
+     * @param other      {@code RawZipArchive} containing the other entry
+     * @param otherEntry {@link Entry} of the other archive
+     * @return True or false
+     * @throws IOException if reading fails, or an entry is malformed or uses a compression method that is not
+     *                     supported
+     */
+    boolean hasSameContent(Entry entry, RawZipArchive other, Entry otherEntry) throws IOException {
+        return entry.getCrc() == otherEntry.getCrc()
+            && entry.getSize() == otherEntry.getSize()
+            && Arrays.equals(readData(entry), other.readData(otherEntry));
+    }
+
+    /**
+     * Calculates the length of the local record (the local header, the data, and the optional data descriptor) of the
+     * given entry
+     * @param entry {@link Entry} object
+     * @return Long value
+     * @throws IOException if reading fails or the record is malformed
+     */
+    private long getLocalRecordLength(Entry entry) throws IOException {
+        ByteBuffer header = read(entry.getLocalHeaderOffset(), LENGTH_LOCAL_HEADER);
+        if (header.getInt(0) != SIGNATURE_LOCAL_HEADER) {
+            throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + path);
+        }
+        long result = LENGTH_LOCAL_HEADER
+            + getUnsignedShort(header, OFFSET_LOCAL_NAME_LENGTH)
+            + getUnsignedShort(header, OFFSET_LOCAL_EXTRA_LENGTH)
+            + entry.getCompressedSize();
+        if ((getUnsignedShort(header, OFFSET_LOCAL_FLAGS) & FLAG_DATA_DESCRIPTOR) != 0) {
+            ByteBuffer descriptor = read(entry.getLocalHeaderOffset() + result, LENGTH_SIGNATURE);
+            result += descriptor.getInt(0) == SIGNATURE_DATA_DESCRIPTOR
+                ? LENGTH_SIGNATURE + LENGTH_DATA_DESCRIPTOR
+                : LENGTH_DATA_DESCRIPTOR;
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the position of the compressed data of the given entry in the archive file
+     * @param entry {@link Entry} object
+     * @return Long value
+     * @throws IOException if reading fails or the local header is malformed
+     */
+    private long getDataOffset(Entry entry) throws IOException {
+        ByteBuffer header = read(entry.getLocalHeaderOffset(), LENGTH_LOCAL_HEADER);
+        if (header.getInt(0) != SIGNATURE_LOCAL_HEADER) {
+            throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + path);
+        }
+        return entry.getLocalHeaderOffset()
+            + LENGTH_LOCAL_HEADER
+            + getUnsignedShort(header, OFFSET_LOCAL_NAME_LENGTH)
+            + getUnsignedShort(header, OFFSET_LOCAL_EXTRA_LENGTH);
+    }
+
+    /**
+     * Reads the specified number of bytes from the archive file
+     * @param position Position in the file
+     * @param length   Number of bytes to read
+     * @return {@code ByteBuffer} object in little-endian byte order
+     * @throws IOException if reading fails or the file is too short
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer result = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (result.hasRemaining()) {
+            if (channel.read(result, position + result.position()) < 0) {
+                throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + path);
+            }
+        }
+        result.flip();
+        return result;
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Opens the ZIP archive stored in the given file and reads its central directory
+     * @param path {@code Path} of the archive file
+     * @return {@code RawZipArchive} instance
+     * @throws IOException if reading fails or the archive is malformed or not supported
+     */
+    static RawZipArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            RawZipArchive reader = new RawZipArchive(path, channel, Collections.emptyMap());
+            ByteBuffer end = findEndOfCentralDirectory(reader);
+            int entryCount = getUnsignedShort(end, OFFSET_END_ENTRIES);
+            long directorySize = getUnsignedInt(end, OFFSET_END_DIRECTORY_SIZE);
+            long directoryOffset = getUnsignedInt(end, OFFSET_END_DIRECTORY_OFFSET);
+            if (entryCount != getUnsignedShort(end, OFFSET_END_ENTRIES_ON_DISK)
+                || entryCount == MAX_UNSIGNED_SHORT
+                || directoryOffset == MAX_UNSIGNED_INT
+                || directorySize > Integer.MAX_VALUE) {
+                throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + path);
+            }
+            ByteBuffer directory = reader.read(directoryOffset, (int) directorySize);
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = Entry.read(directory);
+                if (entry == null) {
+                    throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + path);
+                }
+                entries.put(entry.getName(), entry);
+            }
+            return new RawZipArchive(path, channel, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrites the ZIP archive stored in the given file so that the same content always produces the same bytes. The
+     * entries are sorted by name, their modification time is set to the given moment, and the extra fields and comments
+     * are dropped. The compressed data of the entries is copied without decompressing
+     * @param path      {@code Path} of the archive file
+     * @param timestamp {@code Instant} used as the modification time of all the entries
+     * @throws IOException if reading or writing fails or the archive is malformed or not supported
+     */
+    static void normalize(Path path, Instant timestamp) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + TEMP_EXTENSION);
+        try (
+            RawZipArchive archive = open(path);
+            ArchiveWriter writer = new ArchiveWriter(tempPath)
+        ) {
+            List<Entry> entries = archive.getEntries();
+            entries.sort(Comparator.comparing(Entry::getName));
+            for (Entry entry : entries) {
+                writer.copy(archive, entry, timestamp);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Called by {@link RawZipArchive#open(Path)} to locate the "end of central directory" record of the archive
+     * @param reader {@code RawZipArchive} used to read the file
+     * @return {@code ByteBuffer} containing the record
+     * @throws IOException if reading fails or the record is not found
+     */
+    private static ByteBuffer findEndOfCentralDirectory(RawZipArchive reader) throws IOException {
+        long fileSize = reader.channel.size();
+        if (fileSize < LENGTH_END_OF_CENTRAL_DIRECTORY) {
+            throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + reader.path);
+        }
+        int tailLength = (int) Math.min(fileSize, LENGTH_END_OF_CENTRAL_DIRECTORY + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = reader.read(fileSize - tailLength, tailLength);
+        for (int position = tailLength - LENGTH_END_OF_CENTRAL_DIRECTORY; position >= 0; position--) {
+            if (tail.getInt(position) == SIGNATURE_END_OF_CENTRAL_DIRECTORY) {
+                ByteBuffer result = ByteBuffer.allocate(LENGTH_END_OF_CENTRAL_DIRECTORY).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < LENGTH_END_OF_CENTRAL_DIRECTORY; i++) {
+                    result.put(tail.get(position + i));
+                }
+                result.flip();
+                return result;
+            }
+        }
+        throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + reader.path);
+    }
+
+    /* -----------------
+       Common utilities
+       ----------------- */
+
+    /**
+     * Converts the given moment to the MS-DOS date and time used in ZIP headers. The moment is interpreted in UTC so
+     * that the result does not depend on the time zone of the machine. Moments before 1980 are replaced with the
+     * earliest date MS-DOS supports
+     * @param timestamp {@code Instant} object
+     * @return Array of two integers: the date and the time
+     */
+    private static int[] getDosDateTime(Instant timestamp) {
+        LocalDateTime value = LocalDateTime.ofInstant(timestamp, ZoneOffset.UTC);
+        if (value.getYear() < MIN_DOS_YEAR) {
+            value = LocalDateTime.of(MIN_DOS_YEAR, 1, 1, 0, 0);
+        }
+        int date = ((value.getYear() - MIN_DOS_YEAR) << SHIFT_DOS_YEAR)
+            | (value.getMonthValue() << SHIFT_DOS_MONTH)
+            | value.getDayOfMonth();
+        int time = (value.getHour() << SHIFT_DOS_HOUR)
+            | (value.getMinute() << SHIFT_DOS_MINUTE)
+            | (value.getSecond() / 2);
+        return new int[] {date, time};
+    }
+
+    /**
+     * Reads an unsigned 2-byte value from the buffer
+     * @param buffer   {@code ByteBuffer} in little-endian byte order
+     * @param position Position of the value
+     * @return Integer value
+     */
+    private static int getUnsignedShort(ByteBuffer buffer, int position) {
+        return buffer.getShort(position) & MAX_UNSIGNED_SHORT;
+    }
+
+    /**
+     * Reads an unsigned 4-byte value from the buffer
+     * @param buffer   {@code ByteBuffer} in little-endian byte order
+     * @param position Position of the value
+     * @return Long value
+     */
+    private static long getUnsignedInt(ByteBuffer buffer, int position) {
+        return buffer.getInt(position) & MAX_UNSIGNED_INT;
+    }
+
+    /* ---------------
+       Utility classes
+       --------------- */
+
+    /**
+     * Represents an entry of a ZIP archive as described by its central directory header
+     */
+    static class Entry {
+        private final String name;
+        private final byte[] centralHeader;
+
+        /**
+         * Creates a new {@code Entry} instance
+         * @param name          Name of the entry
+         * @param centralHeader Bytes of the central directory header of the entry
+         */
+        private Entry(String name, byte[] centralHeader) {
+            this.name = name;
+            this.centralHeader = centralHeader;
+        }
+
+        /**
+         * Retrieves the name of the entry
+         * @return String value
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Gets whether the entry represents a directory
+         * @return True or false
+         */
+        boolean isDirectory() {
+            return name.endsWith(CoreConstants.SEPARATOR_SLASH);
+        }
+
+        /**
+         * Retrieves the CRC-32 checksum of the uncompressed data of the entry
+         * @return Long value
+         */
+        long getCrc() {
+            return getUnsignedInt(getHeader(), OFFSET_CENTRAL_CRC);
+        }
+
+        /**
+         * Retrieves the size of the uncompressed data of the entry
+         * @return Long value
+         */
+        long getSize() {
+            return getUnsignedInt(getHeader(), OFFSET_CENTRAL_SIZE);
+        }
+
+        /**
+         * Retrieves the compression method of the entry
+         * @return Integer value
+         */
+        private int getMethod() {
+            return getUnsignedShort(getHeader(), OFFSET_CENTRAL_METHOD);
+        }
+
+        /**
+         * Retrieves the size of the compressed data of the entry
+         * @return Long value
+         */
+        private long getCompressedSize() {
+            return getUnsignedInt(getHeader(), OFFSET_CENTRAL_COMPRESSED_SIZE);
+        }
+
+        /**
+         * Retrieves the position of the local header of the entry in the archive file
+         * @return Long value
+         */
+        private long getLocalHeaderOffset() {
+            return getUnsignedInt(getHeader(), OFFSET_CENTRAL_LOCAL_HEADER);
+        }
+
+        /**
+         * Retrieves the central directory header of the entry as a read-only buffer
+         * @return {@code ByteBuffer} in little-endian byte order
+         */
+        private ByteBuffer getHeader() {
+            return ByteBuffer.wrap(centralHeader).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Reads the entry from the current position of the buffer containing the central directory
+         * @param directory {@code ByteBuffer} in little-endian byte order
+         * @return {@code Entry} object, or null if the buffer does not contain a valid central directory header
+         */
+        private static Entry read(ByteBuffer directory) {
+            int start = directory.position();
+            if (directory.remaining() < LENGTH_CENTRAL_HEADER || directory.getInt(start) != SIGNATURE_CENTRAL_HEADER) {
+                return null;
+            }
+            int nameLength = getUnsignedShort(directory, start + OFFSET_CENTRAL_NAME_LENGTH);
+            int length = LENGTH_CENTRAL_HEADER
+                + nameLength
+                + getUnsignedShort(directory, start + OFFSET_CENTRAL_EXTRA_LENGTH)
+                + getUnsignedShort(directory, start + OFFSET_CENTRAL_COMMENT_LENGTH);
+            if (directory.remaining() < length
+                || getUnsignedInt(directory, start + OFFSET_CENTRAL_COMPRESSED_SIZE) == MAX_UNSIGNED_INT
+                || getUnsignedInt(directory, start + OFFSET_CENTRAL_LOCAL_HEADER) == MAX_UNSIGNED_INT) {
+                return null;
+            }
+            byte[] header = new byte[length];
+            directory.get(header);
+            String name = new String(header, LENGTH_CENTRAL_HEADER, nameLength, StandardCharsets.UTF_8);
+            return new Entry(name, header);
+        }
+    }
+
+    /**
+     * Composes a new ZIP archive out of the entries of existing archives. The local records of the entries are copied
+     * without decompressing and the central directory is created anew
+     */
+    static class ArchiveWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteArrayBuilder directory = new ByteArrayBuilder();
+        private int entryCount;
+
+        /**
+         * Creates a new {@code ArchiveWriter} instance
+         * @param path {@code Path} of the file to create. If the file exists, it is overwritten
+         * @throws IOException if the file cannot be created
+         */
+        ArchiveWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Appends the given entry of a source archive to the archive being composed
+         * @param source {@link RawZipArchive} containing the entry
+         * @param entry  {@link Entry} to copy
+         * @throws IOException if reading or writing fails
+         */
+        void copy(RawZipArchive source, Entry entry) throws IOException {
+            long offset = getEntryOffset(source);
+            transfer(source, entry.getLocalHeaderOffset(), source.getLocalRecordLength(entry));
+            byte[] header = entry.centralHeader.clone();
+            ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putInt(OFFSET_CENTRAL_LOCAL_HEADER, (int) offset);
+            directory.append(header);
+            entryCount++;
+        }
+
+        /**
+         * Appends the given entry of a source archive to the archive being composed and brings its headers to a
+         * canonical form: the modification time is set to the given moment, and the extra fields, the comment, and the
+         * data descriptor are dropped. The compressed data is copied "as is"
+         * @param source    {@link RawZipArchive} containing the entry
+         * @param entry     {@link Entry} to copy
+         * @param timestamp {@code Instant} used as the modification time of the entry
+         * @throws IOException if reading or writing fails
+         */
+        void copy(RawZipArchive source, Entry entry, Instant timestamp) throws IOException {
+            long offset = getEntryOffset(source);
+            ByteBuffer sourceHeader = entry.getHeader();
+            int nameLength = getUnsignedShort(sourceHeader, OFFSET_CENTRAL_NAME_LENGTH);
+            int flags = getUnsignedShort(sourceHeader, OFFSET_CENTRAL_FLAGS) & ~FLAG_DATA_DESCRIPTOR;
+            int[] dosDateTime = getDosDateTime(timestamp);
+
+            ByteBuffer localHeader = ByteBuffer.allocate(LENGTH_LOCAL_HEADER + nameLength).order(ByteOrder.LITTLE_ENDIAN);
+            localHeader
+                .putInt(SIGNATURE_LOCAL_HEADER)
+                .putShort(sourceHeader.getShort(OFFSET_CENTRAL_VERSION_NEEDED))
+                .putShort((short) flags)
+                .putShort(sourceHeader.getShort(OFFSET_CENTRAL_METHOD))
+                .putShort((short) dosDateTime[1])
+                .putShort((short) dosDateTime[0])
+                .putInt(sourceHeader.getInt(OFFSET_CENTRAL_CRC))
+                .putInt(sourceHeader.getInt(OFFSET_CENTRAL_COMPRESSED_SIZE))
+                .putInt(sourceHeader.getInt(OFFSET_CENTRAL_SIZE))
+                .putShort((short) nameLength)
+                .putShort((short) 0)
+                .put(entry.centralHeader, LENGTH_CENTRAL_HEADER, nameLength);
+            localHeader.flip();
+            writeFully(localHeader);
+            transfer(source, source.getDataOffset(entry), entry.getCompressedSize());
+
+            byte[] header = new byte[LENGTH_CENTRAL_HEADER + nameLength];
+            System.arraycopy(entry.centralHeader, 0, header, 0, header.length);
+            ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort(OFFSET_CENTRAL_FLAGS, (short) flags)
+                .putShort(OFFSET_CENTRAL_TIME, (short) dosDateTime[1])
+                .putShort(OFFSET_CENTRAL_DATE, (short) dosDateTime[0])
+                .putShort(OFFSET_CENTRAL_EXTRA_LENGTH, (short) 0)
+                .putShort(OFFSET_CENTRAL_COMMENT_LENGTH, (short) 0)
+                .putInt(OFFSET_CENTRAL_LOCAL_HEADER, (int) offset);
+            directory.append(header);
+            entryCount++;
+        }
+
+        /**
+         * Completes the archive by writing the central directory and closes the file
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                long directoryOffset = channel.position();
+                if (directoryOffset >= MAX_UNSIGNED_INT) {
+                    throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE);
+                }
+                ByteBuffer end = ByteBuffer.allocate(LENGTH_END_OF_CENTRAL_DIRECTORY).order(ByteOrder.LITTLE_ENDIAN);
+                end.putInt(SIGNATURE_END_OF_CENTRAL_DIRECTORY);
+                end.putShort(OFFSET_END_ENTRIES_ON_DISK, (short) entryCount);
+                end.putShort(OFFSET_END_ENTRIES, (short) entryCount);
+                end.putInt(OFFSET_END_DIRECTORY_SIZE, directory.size());
+                end.putInt(OFFSET_END_DIRECTORY_OFFSET, (int) directoryOffset);
+                end.position(0);
+                writeFully(ByteBuffer.wrap(directory.toByteArray()));
+                writeFully(end);
+            } finally {
+                channel.close();
+            }
+        }
+
+        /**
+         * Retrieves the position at which the next entry is written and makes sure that the archive can accept one more
+         * entry
+         * @param source {@link RawZipArchive} the entry is copied from
+         * @return Long value
+         * @throws IOException if the archive would exceed the limits of the format
+         */
+        private long getEntryOffset(RawZipArchive source) throws IOException {
+            long result = channel.position();
+            if (result >= MAX_UNSIGNED_INT || entryCount >= MAX_UNSIGNED_SHORT - 1) {
+                throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + source.path);
+            }
+            return result;
+        }
+
+        /**
+         * Copies the specified range of bytes of the source archive file to the file being composed
+         * @param source   {@link RawZipArchive} to copy from
+         * @param position Position of the range in the source file
+         * @param length   Length of the range
+         * @throws IOException if reading or writing fails
+         */
+        private void transfer(RawZipArchive source, long position, long length) throws IOException {
+            long copied = 0;
+            while (copied < length) {
+                long transferred = source.channel.transferTo(position + copied, length - copied, channel);
+                if (transferred <= 0) {
+                    throw new IOException(INVALID_ARCHIVE_EXCEPTION_MESSAGE + source.path);
+                }
+                copied += transferred;
+            }
+        }
+
+        /**
+         * Writes the whole content of the given buffer to the file
+         * @param buffer {@code ByteBuffer} object
+         * @throws IOException if writing fails
+         */
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Accumulates byte arrays in a growing buffer
+     */
+    private static class ByteArrayBuilder extends ByteArrayOutputStream {
+
+        /**
+         * Appends the given bytes to the buffer
+         * @param value Byte array
+         */
+        void append(byte[] value) {
+            write(value, 0, value.length);
+        }
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import com.google.common.hash.Hashing;
+
+import com.exadel.aem.toolkit.api.annotations.meta.ResourceTypes;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.handlers.Target;
+import com.exadel.aem.toolkit.core.CoreConstants;
+import com.exadel.aem.toolkit.plugin.adapters.XmlStreamAdapter;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.targets.Targets;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+
+/**
+ * Moves large subtrees of the dialog markup into separate nodes ("fragments") that are stored once under a common
+ * folder and are included in dialogs via the Granite {@code include} component. A fragment is named after the hash of
+ * its markup, therefore identical subtrees rendered for different components end up in the same node
+ * <p>Only the widgets and containers that are members of a Granite container (i.e., the children of an {@code items}
+ * node) and consist of at least {@code 5} nodes are moved. Tabs and accordions, as well as their panels, are kept in
+ * place because the containers read the titles and the {@code parentConfig} settings of the panels directly, but the
+ * content of a panel is eligible</p>
+ * <p>Every eligible subtree is moved while a component is rendered, since the markup of a component must not depend on
+ * other components. After all the components are rendered, the subtrees that have been used only once are put back in
+ * place (see {@link SharedFragments#inline(String, Collection)}), so that only the fragments used more than once, or
+ * already stored in the package by a previous run, are kept</p>
+ * <p>The attributes that address the node in its host dialog rather than its content, such as the Sling Resource Merger
+ * attributes {@code sling:hideResource} and {@code sling:orderBefore}, stay with the {@code include} node</p>
+ */
+class SharedFragments {
+
+    static final SharedFragments DISABLED = new SharedFragments(null);
+
+    private static final String ROOT_DIRECTORY = "jcr_root";
+    private static final String NT_SLING_FOLDER = "sling:Folder";
+    private static final int NAME_LENGTH = 32;
+    private static final int MIN_FRAGMENT_SIZE = 5;
+
+    private static final List<String> SHARED_SCOPES = Arrays.asList(Scopes.CQ_DIALOG, Scopes.CQ_DESIGN_DIALOG);
+    private static final List<String> KEPT_CONTAINERS = Arrays.asList(ResourceTypes.TABS, ResourceTypes.ACCORDION);
+    private static final List<String> HOST_ATTRIBUTES = Arrays.asList(
+        "sling:hideChildren",
+        "sling:hideProperties",
+        "sling:hideResource",
+        "sling:orderBefore");
+
+    /* -----------------------------
+       Class fields and constructors
+       ----------------------------- */
+
+    private final String jcrPath;
+    private final Map<String, Fragment> fragmentsByName;
+
+    /**
+     * Initializes a new {@link SharedFragments} instance
+     * @param jcrPath Path to the folder of fragments as visible in the JCR. A null value means that fragments are not
+     *                created
+     */
+    SharedFragments(String jcrPath) {
+        this.jcrPath = jcrPath;
+        this.fragmentsByName = new ConcurrentHashMap<>();
+    }
+
+    /* ----------------
+       Instance members
+       ---------------- */
+
+    /**
+     * Gets whether the current instance creates fragments
+     * @return True or false
+     */
+    boolean isEnabled() {
+        return jcrPath != null;
+    }
+
+    /**
+     * Retrieves the path to the folder of fragments relative to the package root
+     * @return String value
+     */
+    String getPath() {
+        return ROOT_DIRECTORY + jcrPath;
+    }
+
+    /**
+     * Retrieves the path to the folder of fragments as visible in the JCR
+     * @return String value
+     */
+    String getJcrPath() {
+        return jcrPath;
+    }
+
+    /**
+     * Retrieves the markup of the fragments that are shared, i.e., used more than once during the current run or
+     * already stored in the package. This method is expected to be called after all the components are rendered
+     * @param storedNames Names of the fragments already stored in the package
+     * @return Map of the names of fragments to their markup, sorted by name
+     */
+    Map<String, String> getMarkup(Collection<String> storedNames) {
+        Map<String, String> result = new TreeMap<>();
+        fragmentsByName.forEach((name, fragment) -> {
+            if (fragment.getUsages() > 1 || storedNames.contains(name)) {
+                result.put(name, fragment.getMarkup());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Puts back in place the subtrees of the given markup of a package entry that have been used only once during the
+     * current run and are not stored in the package as fragments. This method is expected to be called after all the
+     * components are rendered
+     * @param markup      String value representing the markup of a package entry
+     * @param storedNames Names of the fragments already stored in the package
+     * @return String value; the same as the provided markup if no subtree is put back
+     */
+    String inline(String markup, Collection<String> storedNames) {
+        String result = markup;
+        for (String name : getReferencedNames(markup)) {
+            Fragment fragment = fragmentsByName.get(name);
+            if (fragment != null && fragment.getUsages() == 1 && !storedNames.contains(name)) {
+                result = StringUtils.replace(result, fragment.getIncludeMarkup(), fragment.getInlineMarkup());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the names of the fragments that the {@code include} nodes of the given markup refer to
+     * @param markup String value representing the markup of a package entry
+     * @return Set of string values in the order of occurrence; can be empty
+     */
+    Set<String> getReferencedNames(String markup) {
+        Set<String> result = new LinkedHashSet<>();
+        if (!isEnabled()) {
+            return result;
+        }
+        String prefix = '"' + jcrPath + CoreConstants.SEPARATOR_SLASH;
+        int position = markup.indexOf(prefix);
+        while (position >= 0) {
+            int nameStart = position + prefix.length();
+            result.add(StringUtils.substring(markup, nameStart, nameStart + NAME_LENGTH));
+            position = markup.indexOf(prefix, nameStart);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the names of package entries that may contain {@code include} nodes referring to fragments
+     * @return Collection of string values
+     */
+    Collection<String> getScopes() {
+        return SHARED_SCOPES;
+    }
+
+    /**
+     * Gets whether the given markup of a package entry contains {@code include} nodes that refer to fragments
+     * @param markup String value
+     * @return True or false
+     */
+    boolean isUsedIn(String markup) {
+        return isEnabled() && StringUtils.contains(markup, '"' + jcrPath + CoreConstants.SEPARATOR_SLASH);
+    }
+
+    /**
+     * Retrieves the markup of the {@code .content.xml} file of the folder of fragments
+     * @return String value
+     */
+    String getFolderMarkup() {
+        Target folder = Targets.newRoot(Scopes.COMPONENT).attribute(DialogConstants.PN_PRIMARY_TYPE, NT_SLING_FOLDER);
+        return serialize(folder);
+    }
+
+    /**
+     * Moves the eligible subtrees of the given {@code Target} tree into fragments and replaces them with
+     * {@code include} nodes. This method can be called from a worker thread
+     * @param root {@code Target} representing the root of the markup of a package entry
+     */
+    void extract(Target root) {
+        if (!isEnabled() || !SHARED_SCOPES.contains(root.getScope())) {
+            return;
+        }
+        extractChildren(root);
+    }
+
+    /**
+     * Called by {@link SharedFragments#extract(Target)} to process the children of the given {@code Target}
+     * recursively. Once a child is moved into a fragment, its own children are not processed
+     * @param parent {@code Target} object
+     */
+    private void extractChildren(Target parent) {
+        List<Target> children = parent.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Target child = children.get(i);
+            if (isEligible(child)) {
+                children.set(i, createInclude(child));
+            } else {
+                extractChildren(child);
+            }
+        }
+    }
+
+    /**
+     * Moves the given {@code Target} into a fragment and creates the {@code include} node that replaces it. The
+     * attributes that address the node in its host dialog are kept with the {@code include} node
+     * @param target {@code Target} object
+     * @return {@code Target} representing the {@code include} node
+     */
+    private Target createInclude(Target target) {
+        String inlineMarkup = serializeElement(target);
+        Target fragment = Targets.newRoot(target.getScope());
+        target.getAttributes().forEach((key, value) -> {
+            if (!HOST_ATTRIBUTES.contains(key)) {
+                fragment.attribute(key, value);
+            }
+        });
+        new ArrayList<>(target.getChildren()).forEach(fragment::addTarget);
+        String markup = serialize(fragment);
+        String name = Hashing.sha256().hashString(markup, StandardCharsets.UTF_8).toString().substring(0, NAME_LENGTH);
+        Target result = Targets.newTarget(target.getName(), target.getParent())
+            .attribute(DialogConstants.PN_PRIMARY_TYPE, DialogConstants.NT_UNSTRUCTURED)
+            .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.INCLUDE)
+            .attribute(CoreConstants.PN_PATH, jcrPath + CoreConstants.SEPARATOR_SLASH + name);
+        HOST_ATTRIBUTES
+            .stream()
+            .filter(key -> target.getAttributes().containsKey(key))
+            .forEach(key -> result.attribute(key, target.getAttribute(key)));
+        String includeMarkup = serializeElement(result);
+        fragmentsByName.merge(
+            name,
+            new Fragment(markup, includeMarkup, inlineMarkup),
+            (existing, added) -> existing.addUsage());
+        return result;
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    /**
+     * Creates a new {@link SharedFragments} instance that stores fragments in the folder specified in the plugin
+     * settings
+     * @return {@code SharedFragments} object; the {@link SharedFragments#DISABLED} instance if the folder is not
+     * specified
+     */
+    static SharedFragments fromSettings() {
+        String value = PluginRuntime.context().getSettings().getSharedFragmentsPath();
+        if (value == null) {
+            return DISABLED;
+        }
+        String path = StringUtils.strip(StringUtils.removeStart(
+            StringUtils.removeStart(value, CoreConstants.SEPARATOR_SLASH),
+            ROOT_DIRECTORY), CoreConstants.SEPARATOR_SLASH);
+        return new SharedFragments(CoreConstants.SEPARATOR_SLASH + path);
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    /**
+     * Gets whether the given {@code Target} can be moved into a fragment
+     * @param target {@code Target} object
+     * @return True or false
+     */
+    private static boolean isEligible(Target target) {
+        Target parent = target.getParent();
+        if (parent == null
+            || !DialogConstants.NN_ITEMS.equals(parent.getName())
+            || parent.getParent() == null
+            || KEPT_CONTAINERS.contains(parent.getParent().getAttribute(DialogConstants.PN_SLING_RESOURCE_TYPE))) {
+            return false;
+        }
+        String resourceType = target.getAttribute(DialogConstants.PN_SLING_RESOURCE_TYPE);
+        return StringUtils.isNotEmpty(resourceType)
+            && !KEPT_CONTAINERS.contains(resourceType)
+            && target.getChildren().stream().noneMatch(child -> DialogConstants.NN_PARENT_CONFIG.equals(child.getName()))
+            && getSize(target) >= MIN_FRAGMENT_SIZE;
+    }
+
+    /**
+     * Counts the nodes of the subtree starting with the given {@code Target}
+     * @param target {@code Target} object
+     * @return Integer value
+     */
+    private static int getSize(Target target) {
+        int result = 1;
+        for (Target child : target.getChildren()) {
+            result += getSize(child);
+        }
+        return result;
+    }
+
+    /**
+     * Serializes the given {@code Target} tree as an XML document
+     * @param target {@code Target} object
+     * @return String value
+     */
+    private static String serialize(Target target) {
+        StringWriter writer = new StringWriter();
+        try {
+            target.adaptTo(XmlStreamAdapter.class).writeDocument(writer);
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Serializes the given {@code Target} tree as an XML element nested in a document
+     * @param target {@code Target} object
+     * @return String value
+     */
+    private static String serializeElement(Target target) {
+        StringWriter writer = new StringWriter();
+        try {
+            target.adaptTo(XmlStreamAdapter.class).writeElement(writer);
+        } catch (IOException e) {
+            PluginRuntime.context().getExceptionHandler().handle(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Represents a fragment together with the number of its usages. For the first usage, the markup of the
+     * {@code include} node and the markup of the subtree it replaces are retained
+     */
+    private static class Fragment {
+        private final String markup;
+        private final String includeMarkup;
+        private final String inlineMarkup;
+        private int usages;
+
+        /**
+         * Creates a new {@code Fragment} instance that is used once
+         * @param markup        String representing the markup of the fragment
+         * @param includeMarkup String representing the markup of the {@code include} node
+         * @param inlineMarkup  String representing the markup of the subtree replaced by the {@code include} node
+         */
+        Fragment(String markup, String includeMarkup, String inlineMarkup) {
+            this.markup = markup;
+            this.includeMarkup = includeMarkup;
+            this.inlineMarkup = inlineMarkup;
+            this.usages = 1;
+        }
+
+        /**
+         * Retrieves the markup of the fragment
+         * @return String value
+         */
+        String getMarkup() {
+            return markup;
+        }
+
+        /**
+         * Retrieves the markup of the {@code include} node created for the first usage
+         * @return String value
+         */
+        String getIncludeMarkup() {
+            return includeMarkup;
+        }
+
+        /**
+         * Retrieves the markup of the subtree replaced by the {@code include} node created for the first usage
+         * @return String value
+         */
+        String getInlineMarkup() {
+            return inlineMarkup;
+        }
+
+        /**
+         * Retrieves the number of usages of the fragment
+         * @return Integer value
+         */
+        int getUsages() {
+            return usages;
+        }
+
+        /**
+         * Counts one more usage of the fragment. Called within {@link Map#merge} of a concurrent map, therefore no
+         * other synchronization is needed
+         * @return The current instance
+         */
+        Fragment addUsage() {
+            usages++;
+            return this;
+        }
+    }
+}
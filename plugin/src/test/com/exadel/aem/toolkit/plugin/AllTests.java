@@ -31,29 +31,53 @@ import com.exadel.aem.toolkit.plugin.handlers.placement.CoincidenceTest;
 import com.exadel.aem.toolkit.plugin.handlers.placement.IgnoreTest;
 import com.exadel.aem.toolkit.plugin.handlers.placement.InheritanceTest;
 import com.exadel.aem.toolkit.plugin.handlers.placement.OrderingTest;
+import com.exadel.aem.toolkit.plugin.handlers.placement.PlacementCollisionSolverTest;
 import com.exadel.aem.toolkit.plugin.handlers.placement.ReplacementTest;
 import com.exadel.aem.toolkit.plugin.handlers.placement.layouts.LayoutTest;
+import com.exadel.aem.toolkit.plugin.handlers.placement.registries.MembersRegistryTest;
+import com.exadel.aem.toolkit.plugin.handlers.placement.registries.SectionsRegistryTest;
 import com.exadel.aem.toolkit.plugin.handlers.widgets.WidgetsTest;
 import com.exadel.aem.toolkit.plugin.handlers.widgets.common.WidgetsMetaTest;
+import com.exadel.aem.toolkit.plugin.maven.ClassChangeTrackerTest;
 import com.exadel.aem.toolkit.plugin.maven.PluginContextRule;
+import com.exadel.aem.toolkit.plugin.maven.SharedReflectionsTest;
 import com.exadel.aem.toolkit.plugin.metadata.MetadataTest;
 import com.exadel.aem.toolkit.plugin.metadata.RenderingFilterTest;
+import com.exadel.aem.toolkit.plugin.metadata.scripting.CompilationCacheTest;
 import com.exadel.aem.toolkit.plugin.metadata.scripting.ScriptingHelperTest;
+import com.exadel.aem.toolkit.plugin.runtime.ClasspathIndexTest;
+import com.exadel.aem.toolkit.plugin.runtime.HandlerDispatchIndexTest;
+import com.exadel.aem.toolkit.plugin.runtime.ProfilingContextHelperTest;
+import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelperTest;
 import com.exadel.aem.toolkit.plugin.sources.SourcesTest;
 import com.exadel.aem.toolkit.plugin.targets.TargetsTest;
 import com.exadel.aem.toolkit.plugin.utils.ordering.TopologicalSorterTest;
 import com.exadel.aem.toolkit.plugin.validators.ValidatorsTest;
+import com.exadel.aem.toolkit.plugin.writers.DeltaPackageTest;
+import com.exadel.aem.toolkit.plugin.writers.FingerprintCacheTest;
+import com.exadel.aem.toolkit.plugin.writers.PackageEntryWriterTest;
 import com.exadel.aem.toolkit.plugin.writers.PackageInfoTest;
+import com.exadel.aem.toolkit.plugin.writers.PackageOverlayTest;
+import com.exadel.aem.toolkit.plugin.writers.PackageWriterTest;
+import com.exadel.aem.toolkit.plugin.writers.PrerenderedEntriesTest;
+import com.exadel.aem.toolkit.plugin.writers.RawZipArchiveTest;
+import com.exadel.aem.toolkit.plugin.writers.SharedFragmentsTest;
+import com.exadel.aem.toolkit.plugin.writers.XmlStreamTest;
 
 /**
  * Shortcut class for running all available test cases in a batch
  */
 @RunWith(Suite.class)
 @SuiteClasses({
+    ClasspathIndexTest.class,
+    HandlerDispatchIndexTest.class,
+    ProfilingContextHelperTest.class,
+    ReflectionContextHelperTest.class,
     SourcesTest.class,
     TargetsTest.class,
     MetadataTest.class,
     RenderingFilterTest.class,
+    CompilationCacheTest.class,
     ScriptingHelperTest.class,
 
     ComponentsTest.class,
@@ -77,7 +101,21 @@ import com.exadel.aem.toolkit.plugin.writers.PackageInfoTest;
     ValidatorsTest.class,
     TerminateOnTest.class,
 
-    PackageInfoTest.class
+    PackageInfoTest.class,
+    FingerprintCacheTest.class,
+    XmlStreamTest.class,
+    PackageOverlayTest.class,
+    PrerenderedEntriesTest.class,
+    DeltaPackageTest.class,
+    RawZipArchiveTest.class,
+    PackageEntryWriterTest.class,
+    SharedFragmentsTest.class,
+    ClassChangeTrackerTest.class,
+    SharedReflectionsTest.class,
+    PackageWriterTest.class,
+    MembersRegistryTest.class,
+    SectionsRegistryTest.class,
+    PlacementCollisionSolverTest.class
 })
 public class AllTests {
     @BeforeClass
@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.handlers.placement;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.exadel.aem.toolkit.api.annotations.layouts.Place;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tab;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tabs;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.annotations.widgets.Checkbox;
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.api.annotations.widgets.NumberField;
+import com.exadel.aem.toolkit.api.annotations.widgets.TextField;
+import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.api.handlers.Target;
+import com.exadel.aem.toolkit.plugin.exceptions.InvalidLayoutException;
+import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
+import com.exadel.aem.toolkit.plugin.maven.PluginContextRule;
+import com.exadel.aem.toolkit.plugin.maven.ThrowsPluginException;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.targets.Targets;
+
+@ThrowsPluginException
+public class PlacementCollisionSolverTest {
+
+    private static final String NN_ITEMS = "items";
+    private static final String COLLISION_MESSAGE_SUFFIX = ". This may cause unexpected behavior";
+
+    @Rule
+    public PluginContextRule pluginContext = new PluginContextRule() {};
+
+    @Test
+    public void shouldAcceptDescendantMemberFollowingAncestorMember() throws NoSuchFieldException, NoSuchMethodException {
+        PlacementCollisionSolver.checkForCollisions(Arrays.asList(
+            field(Ancestor.class, "text"),
+            field(Ancestor.class, "title"),
+            method(Ancestor.class, "getDescription"),
+            field(Descendant.class, "text"),
+            field(Descendant.class, "description")));
+    }
+
+    @Test
+    public void shouldReportAncestorMemberFollowingDescendantMember() throws NoSuchFieldException {
+        assertCollision(
+            Arrays.asList(field(Descendant.class, "text"), field(Ancestor.class, "title"), field(Ancestor.class, "text")),
+            "Field named \"text\" in class \"Descendant\" collides with the field named \"text\" in class \"Ancestor\" "
+                + "(attributes of the parent class member will have precedence)" + COLLISION_MESSAGE_SUFFIX);
+    }
+
+    @Test
+    public void shouldReportDifferentResourceTypesOfAncestorAndDescendant() throws NoSuchFieldException {
+        assertCollision(
+            Arrays.asList(field(Ancestor.class, "title"), field(Ancestor.class, "text"), field(Descendant.class, "title")),
+            "Field named \"title\" in class \"Descendant\" collides with the field named \"title\" in class \"Ancestor\" "
+                + "(different resource types provided)" + COLLISION_MESSAGE_SUFFIX);
+    }
+
+    @Test
+    public void shouldCheckMembersOfUnrelatedBranches() throws NoSuchFieldException {
+        // Same-named members of unrelated classes have no precedence, so only their resource types are compared
+        PlacementCollisionSolver.checkForCollisions(Arrays.asList(
+            field(SecondBranch.class, "text"),
+            field(FirstBranch.class, "text")));
+        assertCollision(
+            Arrays.asList(field(FirstBranch.class, "title"), field(SecondBranch.class, "text"), field(SecondBranch.class, "title")),
+            "Field named \"title\" in class \"SecondBranch\" collides with the field named \"title\" in class \"FirstBranch\" "
+                + "(different resource types provided)" + COLLISION_MESSAGE_SUFFIX);
+    }
+
+    @Test
+    public void shouldRenameMethodsOfAncestorOnly() throws NoSuchFieldException, NoSuchMethodException {
+        Source ancestorMethod = method(Ancestor.class, "getDescription");
+        Source descendantField = field(Descendant.class, "description");
+        Source branchMethod = method(FirstBranch.class, "getDescription");
+        List<Source> sources = Arrays.asList(ancestorMethod, descendantField, branchMethod);
+
+        PlacementCollisionSolver.resolveFieldMethodNameCoincidences(sources);
+        Assert.assertEquals(
+            Arrays.asList("description_checkbox", "description", "getDescription"),
+            sources.stream().map(Source::getName).collect(Collectors.toList()));
+
+        // A renamed method is not matched again
+        PlacementCollisionSolver.resolveFieldMethodNameCoincidences(sources);
+        Assert.assertEquals("description_checkbox", ancestorMethod.getName());
+    }
+
+    @Test
+    public void shouldReportPlacementIntoDescendantContainer() throws NoSuchFieldException {
+        Target root = Targets.newRoot(Scopes.CQ_DIALOG);
+        Target outerContainer = root.getOrCreateTarget(NN_ITEMS).getOrCreateTarget("outer");
+        Target innerContainer = outerContainer.getOrCreateTarget(NN_ITEMS).getOrCreateTarget("inner");
+        Source outer = field(Containers.class, "outer");
+        Source inner = field(Containers.class, "inner");
+
+        try {
+            PlacementCollisionSolver.checkForCircularPlacement(inner, innerContainer, outer, outerContainer);
+            Assert.fail("Exception of type " + InvalidLayoutException.class.getSimpleName() + " was expected, none thrown");
+        } catch (PluginException e) {
+            Assert.assertTrue(e.getCause() instanceof InvalidLayoutException);
+            Assert.assertTrue(e.getMessage().startsWith("Field named \"outer\" in class \"Containers\" requests to be placed"));
+        }
+    }
+
+    @Test
+    public void shouldAcceptPlacementIntoUnrelatedContainer() throws NoSuchFieldException {
+        Target root = Targets.newRoot(Scopes.CQ_DIALOG);
+        Target items = root.getOrCreateTarget(NN_ITEMS);
+        Target firstContainer = items.getOrCreateTarget("outer");
+        Target secondContainer = items.getOrCreateTarget(NN_ITEMS).getOrCreateTarget("inner");
+        Source outer = field(Containers.class, "outer");
+        Source inner = field(Containers.class, "inner");
+
+        // The member requests to be placed in a container that resides in a different branch, so there is no circular
+        // placement
+        PlacementCollisionSolver.checkForCircularPlacement(inner, secondContainer, outer, firstContainer);
+        PlacementCollisionSolver.checkForCircularPlacement(outer, firstContainer, inner, secondContainer);
+    }
+
+    private static void assertCollision(List<Source> sources, String message) {
+        try {
+            PlacementCollisionSolver.checkForCollisions(sources);
+            Assert.fail("Exception of type " + InvalidLayoutException.class.getSimpleName() + " was expected, none thrown");
+        } catch (PluginException e) {
+            Assert.assertTrue(e.getCause() instanceof InvalidLayoutException);
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static Source field(Class<?> type, String name) throws NoSuchFieldException {
+        return Sources.fromMember(type.getDeclaredField(name), type);
+    }
+
+    private static Source method(Class<?> type, String name) throws NoSuchMethodException {
+        return Sources.fromMember(type.getDeclaredMethod(name), type);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Ancestor {
+        @DialogField
+        @TextField
+        String text;
+
+        @DialogField
+        @TextField
+        String title;
+
+        @DialogField
+        @Checkbox
+        String getDescription() {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Descendant extends Ancestor {
+        @DialogField
+        @TextField
+        String text;
+
+        @DialogField
+        @Checkbox
+        String title;
+
+        @DialogField
+        @TextField
+        String description;
+    }
+
+    @SuppressWarnings("unused")
+    private static class FirstBranch {
+        @DialogField
+        @TextField
+        String text;
+
+        @DialogField
+        @TextField
+        String title;
+
+        @DialogField
+        @Checkbox
+        String getDescription() {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class SecondBranch {
+        @DialogField
+        @TextField
+        String text;
+
+        @DialogField
+        @NumberField
+        String title;
+    }
+
+    @SuppressWarnings("unused")
+    private static class Containers {
+        @Tabs(@Tab(title = "Outer tab"))
+        @Place("Inner tab")
+        String outer;
+
+        @Tabs(@Tab(title = "Inner tab"))
+        String inner;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.handlers.placement.registries;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.plugin.sources.ModifiableMemberSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+
+public class MembersRegistryTest {
+
+    private Source first;
+    private Source second;
+    private Source third;
+    private Source fourth;
+
+    @Before
+    public void setUp() throws NoSuchFieldException {
+        first = Sources.fromMember(Members.class.getDeclaredField("first"));
+        second = Sources.fromMember(Members.class.getDeclaredField("second"));
+        third = Sources.fromMember(Members.class.getDeclaredField("third"));
+        fourth = Sources.fromMember(Members.class.getDeclaredField("fourth"));
+    }
+
+    @Test
+    public void shouldCheckOutMembers() {
+        MembersRegistry registry = new MembersRegistry(Arrays.asList(first, second, third));
+        Assert.assertSame(first, registry.getFirstAvailable());
+
+        registry.checkOut(first);
+        Assert.assertEquals(Arrays.asList(second, third), registry.getAvailable());
+        Assert.assertSame(second, registry.getFirstAvailable());
+
+        registry.softCheckOut(second);
+        Assert.assertEquals(Collections.singletonList(third), registry.getAvailable());
+        Assert.assertEquals(Arrays.asList(second, third), registry.getAllAvailable());
+        Assert.assertSame(third, registry.getFirstAvailable());
+
+        // A soft-checked-out member is finally placed, while an unknown member is disregarded
+        registry.checkOut(second);
+        registry.checkOut(fourth);
+        Assert.assertEquals(Collections.singletonList(third), registry.getAllAvailable());
+
+        registry.checkOut(third);
+        Assert.assertNull(registry.getFirstAvailable());
+        Assert.assertTrue(registry.getAvailable().isEmpty());
+        Assert.assertTrue(registry.getAllAvailable().isEmpty());
+    }
+
+    @Test
+    public void shouldCheckOutInUpstream() {
+        MembersRegistry upstream = new MembersRegistry(Arrays.asList(first, second));
+        MembersRegistry registry = new MembersRegistry(upstream, Arrays.asList(second, third));
+
+        // The entry of a member known to the upstream registry is shared, while a local member is not reported upstream
+        registry.checkOut(second);
+        registry.checkOut(third);
+        Assert.assertEquals(Collections.singletonList(first), upstream.getAvailable());
+        Assert.assertSame(first, upstream.getFirstAvailable());
+        Assert.assertNull(registry.getFirstAvailable());
+    }
+
+    @Test
+    public void shouldNotReplaceRegisteredMembers() {
+        MembersRegistry registry = new MembersRegistry(Arrays.asList(first, second));
+        registry.checkOut(first);
+        registry.checkOut(second);
+        Assert.assertNull(registry.getFirstAvailable());
+
+        // Copies of the registered members are not added again, so that a placed member does not become available
+        Source firstCopy = Sources.copyOf(first);
+        registry.add(Arrays.asList(firstCopy, Sources.copyOf(second), third));
+        Assert.assertEquals(Collections.singletonList(third), registry.getAvailable());
+
+        // A member added after all the preceding ones were placed is still found
+        Assert.assertSame(third, registry.getFirstAvailable());
+        registry.checkOut(firstCopy);
+        Assert.assertSame(third, registry.getFirstAvailable());
+        registry.checkOut(third);
+        registry.add(Collections.singletonList(fourth));
+        Assert.assertSame(fourth, registry.getFirstAvailable());
+    }
+
+    @Test
+    public void shouldRecognizeRenamedMembers() {
+        MembersRegistry registry = new MembersRegistry(Arrays.asList(first, second));
+        first.adaptTo(ModifiableMemberSource.class).setName("renamed");
+
+        Source renamedCopy = Sources.copyOf(first);
+        Source formerName = Sources.copyOf(second);
+        formerName.adaptTo(ModifiableMemberSource.class).setName("first");
+        registry.add(Arrays.asList(renamedCopy, formerName));
+
+        // The member that has been renamed after registration is recognized by its current name
+        Assert.assertEquals(Arrays.asList(first, second, formerName), registry.getAvailable());
+    }
+
+    @SuppressWarnings("unused")
+    private static class Members {
+        private String first;
+        private String second;
+        private String third;
+        private String fourth;
+    }
+}
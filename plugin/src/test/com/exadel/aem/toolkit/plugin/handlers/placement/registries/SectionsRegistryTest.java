@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.handlers.placement.registries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exadel.aem.toolkit.api.annotations.layouts.Tab;
+import com.exadel.aem.toolkit.api.annotations.layouts.Tabs;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.annotations.widgets.DialogField;
+import com.exadel.aem.toolkit.api.annotations.widgets.TextField;
+import com.exadel.aem.toolkit.api.annotations.widgets.accessory.Ignore;
+import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.plugin.handlers.placement.sections.Section;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.targets.Targets;
+
+public class SectionsRegistryTest {
+
+    private static final String TITLE_MAIN = "Main";
+    private static final String TITLE_EXTRA = "Extra";
+    private static final String TITLE_OTHER = "Other";
+    private static final String PREFIX = "Tabs";
+
+    @Test
+    public void shouldIgnoreSectionsWithDuplicateTitles() {
+        List<Section> sections = Arrays
+            .stream(ParentDialog.class.getAnnotation(Tabs.class).value())
+            .map(tab -> Section.from(tab, true))
+            .collect(Collectors.toList());
+        sections.get(1).setTitlePrefix(PREFIX);
+
+        List<List<String>> ignoredVariants = Arrays.asList(
+            Collections.singletonList(TITLE_MAIN),
+            Arrays.asList(TITLE_MAIN, TITLE_MAIN),
+            Arrays.asList(TITLE_MAIN, TITLE_MAIN, TITLE_MAIN),
+            Arrays.asList(PREFIX + "/" + TITLE_MAIN, TITLE_MAIN),
+            Arrays.asList(TITLE_EXTRA, "Missing", TITLE_EXTRA));
+
+        // The indexed lookup must remove the same sections as the lookup that scans the sections one by one
+        for (List<String> ignored : ignoredVariants) {
+            SectionsRegistry registry = new SectionsRegistry(sections, ignored) {};
+            Assert.assertEquals(
+                ignored.toString(),
+                describe(sections, getSequentiallyIgnored(sections, ignored)),
+                describe(sections, registry.getAvailable()));
+        }
+        Assert.assertEquals(
+            Arrays.asList("1", "2", "ignored:Main"),
+            describe(sections, new SectionsRegistry(sections, Collections.singletonList(TITLE_MAIN)) {}.getAvailable()));
+    }
+
+    @Test
+    public void shouldMergeInheritedSectionsWithDuplicateTitles() {
+        SectionsRegistry registry = SectionsRegistry.from(
+            Sources.fromClass(ChildDialog.class),
+            Targets.newRoot(Scopes.CQ_DIALOG),
+            Collections.singletonList(Tab.class));
+
+        // Both parent sections titled "Main" are merged into the single matching section of the child class
+        List<Section> sections = registry.getAvailable();
+        Assert.assertEquals(
+            Arrays.asList(TITLE_MAIN, TITLE_EXTRA),
+            sections.stream().map(Section::getTitle).collect(Collectors.toList()));
+        Assert.assertEquals(
+            Collections.singletonList("text"),
+            sections.get(0).getSources().stream().map(Source::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldIgnoreInheritedSectionWithDuplicateTitle() {
+        SectionsRegistry registry = SectionsRegistry.from(
+            Sources.fromClass(IgnoringChildDialog.class),
+            Targets.newRoot(Scopes.CQ_DIALOG),
+            Collections.singletonList(Tab.class));
+
+        // Only the first of the parent sections titled "Main" is replaced with an ignored section
+        List<Section> sections = registry.getAvailable();
+        Assert.assertEquals(
+            Arrays.asList(TITLE_MAIN, TITLE_EXTRA, TITLE_OTHER, TITLE_MAIN),
+            sections.stream().map(Section::getTitle).collect(Collectors.toList()));
+        Assert.assertEquals(
+            Arrays.asList(false, false, false, true),
+            sections.stream().map(Section::isIgnored).collect(Collectors.toList()));
+    }
+
+    private static List<Section> getSequentiallyIgnored(List<Section> available, List<String> ignored) {
+        List<Section> result = new ArrayList<>(available);
+        for (String ignoredTitle : ignored) {
+            result.stream().filter(section -> section.isMatch(ignoredTitle)).findFirst().ifPresent(result::remove);
+            result.add(Section.ignored(ignoredTitle));
+        }
+        return result;
+    }
+
+    private static List<String> describe(List<Section> original, List<Section> sections) {
+        return sections
+            .stream()
+            .map(section -> section.isIgnored() ? "ignored:" + section.getTitle() : String.valueOf(original.indexOf(section)))
+            .collect(Collectors.toList());
+    }
+
+    @Tabs({
+        @Tab(title = TITLE_MAIN),
+        @Tab(title = TITLE_MAIN),
+        @Tab(title = TITLE_EXTRA)
+    })
+    private static class ParentDialog {
+    }
+
+    @Tabs(@Tab(title = TITLE_EXTRA))
+    private static class ChildDialog extends ParentDialog {
+
+        @Tab(title = TITLE_MAIN)
+        private static class MainTab {
+            @DialogField
+            @TextField
+            private String text;
+        }
+    }
+
+    @Tabs(@Tab(title = TITLE_OTHER))
+    @Ignore(sections = TITLE_MAIN)
+    private static class IgnoringChildDialog extends ParentDialog {
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exadel.aem.toolkit.plugin.annotations.cases.CustomLegacyDialogAnnotation;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent2;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.custom.CustomDialogHandler;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+
+public class ClassChangeTrackerTest {
+
+    private static final Path TEST_CLASSES = Paths.get("target", "test-classes").toAbsolutePath();
+
+    @Test
+    public void shouldRecognizeClassFiles() {
+        ClassChangeTracker tracker = new ClassChangeTracker(Collections.singletonList(TEST_CLASSES));
+        String className = toInternalName(ComplexComponent1.class);
+
+        Assert.assertEquals(className, tracker.getClassName(TEST_CLASSES.resolve(className + ".class")));
+        Assert.assertNull(tracker.getClassName(TEST_CLASSES.resolve("META-INF").resolve("index.txt")));
+        Assert.assertNull(tracker.getClassName(Paths.get("target", "classes", "Outside.class").toAbsolutePath()));
+    }
+
+    @Test
+    public void shouldSelectAffectedComponents() {
+        ClassChangeTracker tracker = new ClassChangeTracker(Collections.singletonList(TEST_CLASSES));
+        List<ComponentSource> components = Arrays.asList(
+            Sources.fromComponentClass(ComplexComponent1.class),
+            Sources.fromComponentClass(ComplexComponent2.class));
+
+        List<ComponentSource> affected = tracker.getAffectedComponents(
+            components,
+            Collections.emptyList(),
+            Collections.singleton(toInternalName(ComplexComponent1.class) + "Parent"));
+        Assert.assertEquals(Collections.singletonList(components.get(0)), affected);
+
+        Assert.assertTrue(tracker.getAffectedComponents(
+            components,
+            Collections.emptyList(),
+            Collections.singleton("com/acme/Unrelated")).isEmpty());
+
+        Assert.assertEquals(components, tracker.getAffectedComponents(
+            components,
+            Collections.singletonList(CustomDialogHandler.class),
+            Collections.singleton(toInternalName(CustomLegacyDialogAnnotation.class))));
+    }
+
+    private static String toInternalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+}
@@ -59,9 +59,14 @@ public abstract class PluginContextRule implements TestRule {
     }
 
     public static void initializeContext() {
+        initializeContext(1);
+    }
+
+    public static void initializeContext(int threads) {
         PluginSettings settings = PluginSettings
             .builder()
             .defaultPathBase(TestConstants.PACKAGE_ROOT_PATH)
+            .threads(threads)
             .build();
         exceptionHandler = new MuteableExceptionHandler();
         PluginRuntime.contextBuilder()
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.exadel.aem.toolkit.plugin.runtime.ReflectionContextHelper;
+
+public class SharedReflectionsTest {
+
+    private static final String MARKER = "marker.txt";
+    private static final int MAX_ENTRIES = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReuseScanOfSameClasspath() throws IOException {
+        SharedReflections sharedReflections = new SharedReflections();
+        List<String> classpath = newClasspath();
+
+        ReflectionContextHelper first = sharedReflections.acquire(classpath);
+        ReflectionContextHelper second = sharedReflections.acquire(classpath);
+        Assert.assertSame(first.getClassLoader(), second.getClassLoader());
+        Assert.assertEquals(1, sharedReflections.size());
+
+        sharedReflections.release(first);
+        sharedReflections.release(second);
+        Assert.assertNotNull(first.getClassLoader().getResource(MARKER));
+    }
+
+    @Test
+    public void shouldCloseEvictedClassLoaders() throws IOException {
+        SharedReflections sharedReflections = new SharedReflections();
+        List<ReflectionContextHelper> released = new ArrayList<>();
+        for (int i = 0; i < MAX_ENTRIES; i++) {
+            ReflectionContextHelper reflection = sharedReflections.acquire(newClasspath());
+            sharedReflections.release(reflection);
+            released.add(reflection);
+        }
+        ReflectionContextHelper inUse = sharedReflections.acquire(newClasspath());
+        Assert.assertEquals(MAX_ENTRIES, sharedReflections.size());
+
+        // The least recently used scan is evicted, and its class loader is closed right away as no one uses it
+        Assert.assertNull(released.get(0).getClassLoader().getResource(MARKER));
+        Assert.assertNotNull(released.get(1).getClassLoader().getResource(MARKER));
+
+        // A scan that is still in use is evicted but closed only upon release
+        for (int i = 0; i < MAX_ENTRIES; i++) {
+            sharedReflections.release(sharedReflections.acquire(newClasspath()));
+        }
+        Assert.assertNotNull(inUse.getClassLoader().getResource(MARKER));
+        sharedReflections.release(inUse);
+        Assert.assertNull(inUse.getClassLoader().getResource(MARKER));
+    }
+
+    private List<String> newClasspath() throws IOException {
+        File directory = folder.newFolder();
+        Assert.assertTrue(new File(directory, MARKER).createNewFile());
+        return Collections.singletonList(directory.getAbsolutePath());
+    }
+}
@@ -178,6 +178,43 @@ public class MetadataTest {
         Assert.assertEquals("modified3_2", annotation.optionProvider().value()[2].attributes()[1]);
     }
 
+    @Test
+    public void testRepeatedValueReading() throws NoSuchFieldException {
+        RichTextEditor annotation = (RichTextEditor) Metadata.from(getTextField().getAnnotation(RichTextEditor.class));
+        Assert.assertEquals(3, annotation.icons().length);
+        annotation.icons()[0] = null;
+        Assert.assertNotNull(annotation.icons()[0]);
+        Assert.assertSame(annotation.htmlLinkRules(), annotation.htmlLinkRules());
+
+        Metadata metadata = (Metadata) annotation;
+        Metadata sameMetadata = Metadata.from(getTextField().getAnnotation(RichTextEditor.class));
+        Assert.assertEquals(sameMetadata, metadata);
+        Assert.assertEquals(sameMetadata.hashCode(), metadata.hashCode());
+
+        metadata.putValue("maxUndoSteps", 10L);
+        Assert.assertNotEquals(sameMetadata, metadata);
+        Assert.assertEquals(10L, annotation.maxUndoSteps());
+        metadata.unsetValue("maxUndoSteps");
+        Assert.assertEquals(50L, annotation.maxUndoSteps());
+    }
+
+    @Test
+    public void testPropertyPathReuse() throws NoSuchFieldException {
+        PropertyPath path = PropertyPath.parse("htmlLinkRules/protocols[1]");
+        Assert.assertSame(path, PropertyPath.parse("htmlLinkRules/protocols[1]"));
+        Assert.assertEquals(2, path.getLength());
+        Assert.assertEquals("protocols", path.getRemainingPath().getFirstElement().getName());
+        Assert.assertEquals(1, path.getRemainingPath().getFirstElement().getIndex());
+
+        Metadata metadata = Metadata.from(getTextField().getAnnotation(RichTextEditor.class));
+        Assert.assertEquals("https:", metadata.getValue(path));
+        Assert.assertEquals("https:", metadata.getValue(path));
+        metadata.putValue(path, "gopher:");
+        metadata.putValue(path, "ftp:");
+        Assert.assertEquals("ftp:", metadata.getValue(path));
+        Assert.assertEquals(2, path.getLength());
+    }
+
     @Test
     @ThrowsPluginException
     public void testAnnotationValueReading() throws NoSuchFieldException {
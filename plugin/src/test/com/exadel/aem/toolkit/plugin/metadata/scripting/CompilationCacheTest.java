@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.metadata.scripting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompilationCacheTest {
+
+    private static final int CAPACITY = 3;
+
+    @Test
+    public void shouldCompileOncePerKey() {
+        AtomicInteger compilations = new AtomicInteger();
+        CompilationCache<String> cache = new CompilationCache<>(CAPACITY);
+
+        Assert.assertEquals("A", cache.get("a", key -> compile(key, compilations)));
+        Assert.assertEquals("A", cache.get("a", key -> compile(key, compilations)));
+        Assert.assertEquals(1, compilations.get());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() {
+        AtomicInteger compilations = new AtomicInteger();
+        CompilationCache<String> cache = new CompilationCache<>(CAPACITY);
+        for (String key : new String[] {"a", "b", "c"}) {
+            cache.get(key, k -> compile(k, compilations));
+        }
+        cache.get("a", k -> compile(k, compilations));
+
+        // "b" is the least recently used entry, so it is the one evicted
+        cache.get("d", k -> compile(k, compilations));
+        Assert.assertEquals(CAPACITY, cache.size());
+        Assert.assertEquals(4, compilations.get());
+
+        cache.get("a", k -> compile(k, compilations));
+        Assert.assertEquals(4, compilations.get());
+        cache.get("b", k -> compile(k, compilations));
+        Assert.assertEquals(5, compilations.get());
+        Assert.assertEquals(CAPACITY, cache.size());
+    }
+
+    private static String compile(String key, AtomicInteger counter) {
+        counter.incrementAndGet();
+        return key.toUpperCase();
+    }
+}
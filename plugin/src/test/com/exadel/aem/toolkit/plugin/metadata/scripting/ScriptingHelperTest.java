@@ -15,7 +15,15 @@ package com.exadel.aem.toolkit.plugin.metadata.scripting;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -28,6 +36,7 @@ import com.exadel.aem.toolkit.api.handlers.Source;
 import com.exadel.aem.toolkit.core.CoreConstants;
 import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ScriptedFieldset1;
 import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ScriptedFieldset2;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
 import com.exadel.aem.toolkit.plugin.sources.Sources;
 import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
 
@@ -70,6 +79,41 @@ public class ScriptingHelperTest {
             substrings.toArray(new String[0]));
     }
 
+    @Test
+    public void testTemplateExpressions() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("prefix", "Lorem");
+        data.put("flag", true);
+        data.put("list", new ListAdapter<>(Arrays.asList("a", "b")));
+        List<String> variables = Arrays.asList("prefix", "flag", "missing", "list");
+
+        Assert.assertEquals("Lorem", evaluate("prefix", variables, data));
+        Assert.assertEquals("Lorem ipsum", evaluate("prefix + ' ipsum'", variables, data));
+        Assert.assertEquals("Default", evaluate("missing || \"Default\"", variables, data));
+        Assert.assertEquals("", evaluate("missing", variables, data));
+        Assert.assertEquals("Lorem", evaluate("settings.prefix", Collections.emptyList(), data));
+        Assert.assertEquals("yes", evaluate("flag && prefix === 'Lorem' ? 'yes' : 'no'", variables, data));
+        Assert.assertEquals("no", evaluate("!(flag) ? 'yes' : missing == null ? 'no' : 'maybe'", variables, data));
+        Assert.assertEquals("It's true", evaluate("'It\\'s ' + flag", variables, data));
+
+        Assert.assertNull(TemplateExpression.compile("source.name", variables));
+        Assert.assertNull(TemplateExpression.compile("prefix.length", variables));
+        Assert.assertNull(TemplateExpression.compile("unknown", variables));
+        Assert.assertNull(TemplateExpression.compile("1 + 2", variables));
+        Assert.assertNull(TemplateExpression.compile("prefix ?? 'Default'", variables));
+        Assert.assertNull(TemplateExpression.compile("prefix | flag", variables));
+
+        TemplateExpression expression = TemplateExpression.compile("list || prefix", variables);
+        Assert.assertNotNull(expression);
+        Assert.assertNull(expression.evaluate(data));
+    }
+
+    private static String evaluate(String script, List<String> variables, Map<String, Object> data) {
+        TemplateExpression expression = TemplateExpression.compile(script, variables);
+        Assert.assertNotNull(expression);
+        return expression.evaluate(data);
+    }
+
     @Test
     public void testInterpolateMetadata() throws NoSuchMethodException {
         Source source = Sources.fromClass(ScriptedFieldset1.class);
@@ -107,4 +151,25 @@ public class ScriptingHelperTest {
         Assert.assertEquals("Extension text", dialogField.label());
         Assert.assertEquals("Has parent interface", dialogField.description());
     }
+
+    @Test
+    public void testConcurrentInterpolation() throws InterruptedException, ExecutionException {
+        int taskCount = 16;
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < taskCount; i++) {
+                Callable<String> task = () -> {
+                    Source source = Sources.fromMember(ScriptedFieldset2.class.getDeclaredField("text"));
+                    return source.adaptTo(DialogField.class).label() + "|" + source.adaptTo(TextField.class).value();
+                };
+                futures.add(executorService.submit(PluginRuntime.withContext(task)));
+            }
+            for (Future<String> future : futures) {
+                Assert.assertEquals("Field text|Imported Field text", future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
 }
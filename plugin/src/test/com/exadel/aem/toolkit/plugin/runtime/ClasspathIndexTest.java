@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+
+import com.exadel.aem.toolkit.core.processing.ComponentIndexProcessor;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+
+public class ClasspathIndexTest {
+
+    @Rule
+    public TemporaryFolder classesFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadCompileTimeIndex() {
+        URL testClasses = getLocation(ComplexComponent1.class);
+        ClasspathIndex index = ClasspathIndex.forElements(new URL[] {testClasses});
+        Assert.assertTrue(index.getScannedElements().isEmpty());
+
+        Set<Class<?>> components = index.getClasses(
+            ComponentIndexProcessor.KEY_COMPONENTS,
+            Object.class,
+            PluginRuntime.context().getReflection().getClassLoader());
+        Assert.assertTrue(components.contains(ComplexComponent1.class));
+    }
+
+    @Test
+    public void shouldScanElementWithOutdatedIndex() throws IOException {
+        Path root = classesFolder.getRoot().toPath();
+        Path classFile = root.resolve(ComplexComponent1.class.getName().replace('.', '/') + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, getClassFile(ComplexComponent1.class));
+        Path indexFile = root.resolve(ComponentIndexProcessor.INDEX_PATH);
+        Files.createDirectories(indexFile.getParent());
+
+        String upToDateIndex = ComponentIndexProcessor.KEY_CLASSES + "=" + ComplexComponent1.class.getName() + "\n"
+            + ComponentIndexProcessor.KEY_COMPONENTS + "=" + ComplexComponent1.class.getName();
+        Files.write(indexFile, upToDateIndex.getBytes(StandardCharsets.UTF_8));
+        URL element = root.toUri().toURL();
+        Assert.assertTrue(ClasspathIndex.forElements(new URL[] {element}).getScannedElements().isEmpty());
+
+        // The index does not list a class that has been compiled later, so the element is scanned instead
+        Path laterClassFile = classFile.resolveSibling("LaterComponent$Nested.class");
+        Files.write(laterClassFile, getClassFile(ComplexComponent1.class));
+        Assert.assertEquals(Collections.singletonList(element), ClasspathIndex.forElements(new URL[] {element}).getScannedElements());
+
+        // The index lists a class that no longer exists
+        Files.delete(laterClassFile);
+        Files.write(indexFile, upToDateIndex.replace(ComplexComponent1.class.getName(), ComplexComponent1.class.getName() + ",Removed")
+            .getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(Collections.singletonList(element), ClasspathIndex.forElements(new URL[] {element}).getScannedElements());
+    }
+
+    @Test
+    public void shouldPruneUnrelatedElements() {
+        Assert.assertTrue(ClasspathIndex.isScanRequired(getLocation(ComponentIndexProcessor.class)));
+        Assert.assertFalse(ClasspathIndex.isScanRequired(getLocation(Bytes.class)));
+
+        ClasspathIndex index = ClasspathIndex.forElements(new URL[] {getLocation(Bytes.class)});
+        Assert.assertTrue(index.getScannedElements().isEmpty());
+    }
+
+    @Test
+    public void shouldInspectModifiedArchiveAgain() throws IOException {
+        Path archive = classesFolder.getRoot().toPath().resolve("module.jar");
+        writeArchive(archive, ClasspathIndexTest.class);
+        URL element = archive.toUri().toURL();
+        Assert.assertFalse(ClasspathIndex.isScanRequired(element));
+
+        // The outcome stored for the previous version of the archive is replaced
+        writeArchive(archive, ClasspathIndexTest.class, ComplexComponent1.class);
+        Assert.assertTrue(ClasspathIndex.isScanRequired(element));
+        Assert.assertTrue(ClasspathIndex.isScanRequired(element));
+    }
+
+    @Test
+    public void shouldDetectApiReferences() throws IOException {
+        Assert.assertTrue(ClasspathIndex.isReferringToApi(getClassFile(ComplexComponent1.class)));
+        Assert.assertFalse(ClasspathIndex.isReferringToApi(getClassFile(ClasspathIndexTest.class)));
+    }
+
+    private static URL getLocation(Class<?> value) {
+        return value.getProtectionDomain().getCodeSource().getLocation();
+    }
+
+    private static void writeArchive(Path path, Class<?>... classes) throws IOException {
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (Class<?> value : classes) {
+                output.putNextEntry(new ZipEntry(value.getName().replace('.', '/') + ".class"));
+                output.write(getClassFile(value));
+                output.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] getClassFile(Class<?> value) throws IOException {
+        try (InputStream input = value.getResourceAsStream(value.getSimpleName() + ".class")) {
+            return ByteStreams.toByteArray(input);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.exadel.aem.toolkit.api.annotations.editconfig.ChildEditConfig;
+import com.exadel.aem.toolkit.api.annotations.editconfig.EditConfig;
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.api.annotations.main.DesignDialog;
+import com.exadel.aem.toolkit.api.annotations.main.Dialog;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.handlers.Handler;
+import com.exadel.aem.toolkit.api.handlers.Handles;
+import com.exadel.aem.toolkit.api.handlers.HandlesWidgets;
+import com.exadel.aem.toolkit.plugin.annotations.cases.WidgetAnnotationForOrderingTest;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.handlerordering.ManualHandlerOrderingTestCases;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.utils.ScopeUtil;
+import com.exadel.aem.toolkit.plugin.utils.ordering.OrderingUtil;
+
+public class HandlerDispatchIndexTest {
+
+    private static final List<String> SCOPES = Arrays.asList(
+        null,
+        Scopes.COMPONENT,
+        Scopes.CQ_DIALOG,
+        Scopes.CQ_DESIGN_DIALOG,
+        Scopes.CQ_EDIT_CONFIG,
+        Scopes.CQ_CHILD_EDIT_CONFIG,
+        Scopes.CQ_HTML_TAG);
+
+    private static final List<Class<?>> CONTEXT_TYPES = Arrays.asList(
+        AemComponent.class,
+        Dialog.class,
+        DesignDialog.class,
+        EditConfig.class,
+        ChildEditConfig.class);
+
+    private List<Handler> handlers;
+    private HandlerDispatchIndex index;
+
+    @Before
+    public void setUp() {
+        handlers = PluginRuntime.context().getReflection().getHandlers();
+        index = new HandlerDispatchIndex(handlers);
+    }
+
+    @Test
+    public void shouldMatchSameHandlersAsSequentialLookup() {
+        Set<Class<?>> handledTypes = getHandledTypes();
+        Assert.assertFalse(handledTypes.isEmpty());
+
+        List<Class<?>[]> typeSets = new ArrayList<>();
+        for (Class<?> handledType : handledTypes) {
+            typeSets.add(new Class<?>[] {handledType});
+            // Handlers with no particular scope get it from the other annotations of the source
+            for (Class<?> contextType : CONTEXT_TYPES) {
+                typeSets.add(new Class<?>[] {handledType, contextType});
+                typeSets.add(new Class<?>[] {contextType, handledType});
+            }
+        }
+        typeSets.add(handledTypes.toArray(new Class<?>[0]));
+        typeSets.add(new Class<?>[] {Override.class});
+        typeSets.add(new Class<?>[0]);
+
+        for (Class<?>[] types : typeSets) {
+            for (String scope : SCOPES) {
+                Assert.assertEquals(
+                    scope + " " + Arrays.toString(types),
+                    getSequentially(scope, types),
+                    index.getHandlers(scope, types));
+            }
+        }
+    }
+
+    @Test
+    public void shouldTellHandledAnnotationTypes() {
+        for (Class<?> handledType : getHandledTypes()) {
+            Assert.assertEquals(
+                handledType.getName(),
+                !getSequentially(null, new Class<?>[] {handledType}).isEmpty(),
+                index.isHandled(handledType));
+        }
+        Assert.assertFalse(index.isHandled(Override.class));
+    }
+
+    @Test
+    public void shouldHonorBeforeAndAfterAnchors() {
+        List<Class<?>> order = index
+            .getHandlers(null, new Class<?>[] {WidgetAnnotationForOrderingTest.class})
+            .stream()
+            .map(Object::getClass)
+            .collect(Collectors.toList());
+        List<Class<?>> anchoredHandlers = Arrays.asList(
+            ManualHandlerOrderingTestCases.CustomHandler0.class,
+            ManualHandlerOrderingTestCases.CustomHandler1.class,
+            ManualHandlerOrderingTestCases.CustomHandler2.class,
+            ManualHandlerOrderingTestCases.CustomHandler3.class);
+        Assert.assertTrue(order.containsAll(anchoredHandlers));
+        for (int i = 1; i < anchoredHandlers.size(); i++) {
+            Assert.assertTrue(order.indexOf(anchoredHandlers.get(i - 1)) < order.indexOf(anchoredHandlers.get(i)));
+        }
+        Assert.assertTrue(order.indexOf(ManualHandlerOrderingTestCases.CustomHandler3.class)
+            < order.indexOf(ManualHandlerOrderingTestCases.CustomHandler4.class));
+    }
+
+    @Test
+    public void shouldReuseSortedSequences() {
+        Class<?>[] types = new Class<?>[] {WidgetAnnotationForOrderingTest.class, Dialog.class};
+        List<Handler> first = index.getHandlers(Scopes.CQ_DIALOG, types);
+        Assert.assertFalse(first.isEmpty());
+
+        // The memoized sequence is not affected by modifying a returned list
+        List<Handler> expected = new ArrayList<>(first);
+        first.clear();
+        Assert.assertEquals(expected, index.getHandlers(Scopes.CQ_DIALOG, types));
+
+        // The same set of matched handlers yields the same sequence regardless of the order of annotation types
+        Assert.assertEquals(expected, index.getHandlers(Scopes.CQ_DIALOG, new Class<?>[] {Dialog.class, WidgetAnnotationForOrderingTest.class}));
+        Assert.assertNotSame(index.getHandlers(Scopes.CQ_DIALOG, types), index.getHandlers(Scopes.CQ_DIALOG, types));
+    }
+
+    @SuppressWarnings("deprecation") // HandlesWidgets is used to match the handlers the same way as the plugin does
+    private Set<Class<?>> getHandledTypes() {
+        Set<Class<?>> result = new LinkedHashSet<>();
+        for (Handler handler : handlers) {
+            Handles handles = handler.getClass().getDeclaredAnnotation(Handles.class);
+            HandlesWidgets handlesWidgets = handler.getClass().getDeclaredAnnotation(HandlesWidgets.class);
+            if (handles != null) {
+                result.addAll(Arrays.asList(handles.value()));
+            } else if (handlesWidgets != null) {
+                result.addAll(Arrays.asList(handlesWidgets.value()));
+            }
+        }
+        return result;
+    }
+
+    private List<Handler> getSequentially(String scope, Class<?>[] types) {
+        List<Handler> result = handlers
+            .stream()
+            .filter(handler -> isHandlerMatches(handler, scope, types))
+            .collect(Collectors.toList());
+        return OrderingUtil.sortHandlers(result);
+    }
+
+    // Replicates the matching that scanned the annotations of every handler on each lookup before the index was
+    // introduced
+    @SuppressWarnings("deprecation")
+    private static boolean isHandlerMatches(Handler handler, String scope, Class<?>[] annotationTypes) {
+        Handles handles = handler.getClass().getDeclaredAnnotation(Handles.class);
+        HandlesWidgets handlesWidgets = handler.getClass().getDeclaredAnnotation(HandlesWidgets.class);
+        if (handles == null && handlesWidgets == null) {
+            return false;
+        }
+        Class<? extends Annotation>[] handledAnnotationTypes = handles != null
+            ? handles.value()
+            : handlesWidgets.value();
+        boolean isMatchByType = Arrays.stream(handledAnnotationTypes)
+            .anyMatch(annotationType -> Arrays.asList(annotationTypes).contains(annotationType));
+
+        String[] handlerScopes = handles != null ? handles.scope() : new String[] {Scopes.DEFAULT};
+        if (handles != null && handlerScopes.length == 1 && handlerScopes[0].equals(Scopes.DEFAULT)) {
+            handlerScopes = ScopeUtil.designate(handles.value());
+        }
+        if (handlerScopes.length == 1 && handlerScopes[0].equals(Scopes.DEFAULT)) {
+            handlerScopes = ScopeUtil.designate(annotationTypes);
+        }
+        boolean isMatchByScope = scope == null || ScopeUtil.fits(scope, handlerScopes);
+        return isMatchByType && isMatchByScope;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ProfilingContextHelperTest {
+
+    private static final String OUTER = "com.example.Outer";
+    private static final String INNER = "com.example.Inner";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldNotCollectWhenDisabled() {
+        ProfilingContextHelper profiling = ProfilingContextHelper.disabled();
+        Assert.assertFalse(profiling.isEnabled());
+        try (ProfilingContextHelper.Measurement ignored = profiling.start(ProfilingContextHelper.Category.COMPONENTS, OUTER)) {
+            sleep(5);
+        }
+        Assert.assertTrue(profiling.getExceeding(ProfilingContextHelper.Category.COMPONENTS, 0).isEmpty());
+    }
+
+    @Test
+    public void shouldDetectExceedingBudget() {
+        ProfilingContextHelper profiling = ProfilingContextHelper.enabled();
+        try (ProfilingContextHelper.Measurement ignored = profiling.start(ProfilingContextHelper.Category.COMPONENTS, OUTER)) {
+            sleep(20);
+        }
+        try (ProfilingContextHelper.Measurement ignored = profiling.start(ProfilingContextHelper.Category.COMPONENTS, INNER)) {
+            // No operation
+        }
+        List<String> exceeding = profiling.getExceeding(ProfilingContextHelper.Category.COMPONENTS, 10);
+        Assert.assertEquals(1, exceeding.size());
+        Assert.assertTrue(exceeding.get(0).startsWith(OUTER));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSeparateSelfTime() throws IOException {
+        ProfilingContextHelper profiling = ProfilingContextHelper.enabled();
+        try (ProfilingContextHelper.Measurement outer = profiling.start(ProfilingContextHelper.Category.COMPONENTS, OUTER)) {
+            try (ProfilingContextHelper.Measurement inner = profiling.start(ProfilingContextHelper.Category.HANDLERS, INNER)) {
+                sleep(20);
+            }
+        }
+        Path directory = temporaryFolder.getRoot().toPath();
+        Path htmlReport = profiling.writeReport(directory);
+        Assert.assertTrue(new String(Files.readAllBytes(htmlReport), StandardCharsets.UTF_8).contains(INNER));
+
+        Path jsonReport = directory.resolve(htmlReport.getFileName().toString().replace(".html", ".json"));
+        Map<String, List<Map<String, Object>>> data = new ObjectMapper().readValue(jsonReport.toFile(), Map.class);
+        Map<String, Object> outerEntry = data.get(ProfilingContextHelper.Category.COMPONENTS.getKey()).get(0);
+        Map<String, Object> innerEntry = data.get(ProfilingContextHelper.Category.HANDLERS.getKey()).get(0);
+        Assert.assertEquals(OUTER, outerEntry.get("name"));
+        Assert.assertEquals(1, ((Number) innerEntry.get("count")).intValue());
+        Assert.assertTrue(((Number) outerEntry.get("totalMs")).doubleValue() >= 20);
+        Assert.assertTrue(((Number) outerEntry.get("selfMs")).doubleValue() < ((Number) innerEntry.get("selfMs")).doubleValue());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.custom.CustomDialogHandler;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+
+public class ReflectionContextHelperTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldComputeClasspathHash() throws IOException {
+        File first = temporaryFolder.newFile("first.jar");
+        File second = temporaryFolder.newFile("second.jar");
+        List<String> elements = Arrays.asList(first.getPath(), second.getPath());
+        String hash = ReflectionContextHelper.getHash(elements);
+
+        Assert.assertEquals(hash, ReflectionContextHelper.getHash(Arrays.asList(first.getPath(), second.getPath())));
+        // The order of elements defines which of the same-named classes is loaded, so it is significant
+        Assert.assertNotEquals(hash, ReflectionContextHelper.getHash(Arrays.asList(second.getPath(), first.getPath())));
+        Assert.assertNotEquals(hash, ReflectionContextHelper.getHash(Collections.singletonList(first.getPath())));
+
+        Assert.assertTrue(second.setLastModified(second.lastModified() - 10_000L));
+        Assert.assertNotEquals(hash, ReflectionContextHelper.getHash(elements));
+
+        // A change of the size is detected even if the modification time is retained
+        hash = ReflectionContextHelper.getHash(elements);
+        long lastModified = second.lastModified();
+        Files.write(second.toPath(), new byte[] {1});
+        Assert.assertTrue(second.setLastModified(lastModified));
+        Assert.assertNotEquals(hash, ReflectionContextHelper.getHash(elements));
+    }
+
+    @Test
+    public void shouldComputeClasspathFolderHash() throws IOException {
+        File folder = temporaryFolder.newFolder("classes");
+        File nestedFolder = new File(folder, "com");
+        Assert.assertTrue(nestedFolder.mkdir());
+        File nestedFile = new File(nestedFolder, "Example.class");
+        Files.write(nestedFile.toPath(), new byte[] {1});
+        List<String> elements = Collections.singletonList(folder.getPath());
+        String hash = ReflectionContextHelper.getHash(elements);
+
+        // Changes of the nested files are detected while the modification time of the folder itself is retained
+        long folderLastModified = folder.lastModified();
+        Assert.assertTrue(nestedFile.setLastModified(nestedFile.lastModified() - 10_000L));
+        Assert.assertTrue(folder.setLastModified(folderLastModified));
+        String changedHash = ReflectionContextHelper.getHash(elements);
+        Assert.assertNotEquals(hash, changedHash);
+
+        Files.write(new File(nestedFolder, "Other.class").toPath(), new byte[] {1});
+        Assert.assertTrue(folder.setLastModified(folderLastModified));
+        Assert.assertNotEquals(changedHash, ReflectionContextHelper.getHash(elements));
+    }
+
+    @Test
+    public void shouldShareScanResults() {
+        ReflectionContextHelper original = PluginRuntime.context().getReflection();
+        ReflectionContextHelper copy = original.copy();
+
+        Assert.assertSame(original.getClassLoader(), copy.getClassLoader());
+        Assert.assertEquals(original.getHandlers().size(), copy.getHandlers().size());
+        Assert.assertNotSame(original.getHandlers(), copy.getHandlers());
+        Assert.assertNotNull(copy.getComponent(ComplexComponent1.class));
+        Assert.assertNotSame(original.getComponent(ComplexComponent1.class), copy.getComponent(ComplexComponent1.class));
+    }
+
+    @Test
+    public void shouldExtendScanResults() throws IOException {
+        ReflectionContextHelper stable = ReflectionContextHelper.fromCodeScope(
+            Collections.singletonList(Paths.get("target", "classes").toAbsolutePath().toString()));
+        ReflectionContextHelper extended = stable.extend(
+            Collections.singletonList(Paths.get("target", "test-classes").toAbsolutePath().toString()));
+        try {
+            Assert.assertSame(stable.getClassLoader(), extended.getClassLoader().getParent());
+            Assert.assertNull(stable.getComponent(ComplexComponent1.class));
+            Assert.assertNotNull(extended.getComponent(ComplexComponent1.class));
+
+            Assert.assertFalse(stable.getHandlers().isEmpty());
+            Assert.assertFalse(stable.getHandlers().stream().anyMatch(CustomDialogHandler.class::isInstance));
+            Assert.assertTrue(extended.getHandlers().stream().anyMatch(CustomDialogHandler.class::isInstance));
+            Assert.assertTrue(extended.getHandlers().size() > stable.getHandlers().size());
+        } finally {
+            ((URLClassLoader) extended.getClassLoader()).close();
+        }
+    }
+}
@@ -14,7 +14,10 @@
 package com.exadel.aem.toolkit.plugin.sources;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Member;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Rule;
@@ -22,11 +25,15 @@ import org.junit.Test;
 
 import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
 import com.exadel.aem.toolkit.api.annotations.policies.AllowedChildren;
+import com.exadel.aem.toolkit.api.handlers.MemberSource;
 import com.exadel.aem.toolkit.api.handlers.Source;
+import com.exadel.aem.toolkit.plugin.adapters.MemberRankingSetting;
 import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
 import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.viewpattern.component1.views.DesignDialogView;
 import com.exadel.aem.toolkit.plugin.handlers.common.cases.policies.AllowedChildrenTestCases;
 import com.exadel.aem.toolkit.plugin.maven.EvaluationRule;
+import com.exadel.aem.toolkit.plugin.maven.PluginContextRule;
+import com.exadel.aem.toolkit.plugin.utils.ClassUtil;
 
 public class SourcesTest {
 
@@ -87,6 +94,61 @@ public class SourcesTest {
         Assert.assertNull(standalone); // You cannot cast to a single instance of a repeatable annotation
     }
 
+    @Test
+    public void shouldCopyMemberSource() throws NoSuchMethodException {
+        Source original = Sources.fromMember(DesignDialogView.class.getDeclaredMethod("getDropdown2"), ComplexComponent1.class);
+        original.adaptTo(MemberRankingSetting.class).setRanking(10);
+
+        Source copy = Sources.copyOf(original);
+        Assert.assertNotSame(original, copy);
+        Assert.assertEquals(getDescription(original), getDescription(copy));
+        Assert.assertNotSame(original.adaptTo(MemberRankingSetting.class), copy.adaptTo(MemberRankingSetting.class));
+
+        ModifiableMemberSource modifiable = (ModifiableMemberSource) copy;
+        modifiable.setName("modified");
+        modifiable.setDeclaringClass(SourcesTest.class);
+        modifiable.setReportingClass(SourcesTest.class);
+        copy.adaptTo(MemberRankingSetting.class).setRanking(20);
+
+        MemberSource unchanged = (MemberSource) original;
+        Assert.assertEquals("getDropdown2", unchanged.getName());
+        Assert.assertEquals(DesignDialogView.class, unchanged.getDeclaringClass());
+        Assert.assertEquals(ComplexComponent1.class, unchanged.getReportingClass());
+        Assert.assertEquals(10, original.adaptTo(MemberRankingSetting.class).getRanking());
+    }
+
+    @Test
+    public void shouldReturnMemoizedSourcesEqualToFreshWalk() {
+        List<Source> memoized = ClassUtil.getSources(ComplexComponent1.class);
+        List<Source> repeated = ClassUtil.getSources(ComplexComponent1.class);
+        Assert.assertFalse(memoized.isEmpty());
+        for (int i = 0; i < memoized.size(); i++) {
+            Assert.assertNotSame(memoized.get(i), repeated.get(i));
+        }
+
+        // A new runtime starts with empty memos, and a non-null condition bypasses the memoized list of sources
+        PluginContextRule.initializeContext();
+        List<Source> fresh = ClassUtil.getSources(ComplexComponent1.class, null, source -> true, true);
+
+        Assert.assertEquals(getDescriptions(fresh), getDescriptions(memoized));
+        Assert.assertEquals(getDescriptions(fresh), getDescriptions(repeated));
+    }
+
+    private static List<String> getDescriptions(List<Source> sources) {
+        return sources.stream().map(SourcesTest::getDescription).collect(Collectors.toList());
+    }
+
+    private static String getDescription(Source source) {
+        MemberSource memberSource = (MemberSource) source;
+        return String.join(
+            ":",
+            memberSource.getName(),
+            memberSource.adaptTo(Member.class).toString(),
+            memberSource.getDeclaringClass().getName(),
+            memberSource.getReportingClass().getName(),
+            String.valueOf(source.adaptTo(MemberRankingSetting.class).getRanking()));
+    }
+
     private static String[] getAnnotationNames(Annotation[] values) {
         return Arrays.stream(values)
             .map(annotation -> annotation.annotationType().getSimpleName())
@@ -121,6 +121,29 @@ public class TargetsTest {
         Assert.assertEquals("item0", testable.getChildren().get(TIER_1_CHILD_COUNT - 4).getName());
     }
 
+    @Test
+    public void testNodeInjectionAcrossBranches() {
+        Target item0 = testable.getTarget("item0");
+        Target subSubItem0 = testable.getTarget("item0/subitem0/subsubitem0");
+
+        // An ancestor is not attached to its descendant
+        subSubItem0.addTarget(item0);
+        subSubItem0.addTarget(testable);
+        Assert.assertEquals(testable, item0.getParent());
+        Assert.assertTrue(subSubItem0.getChildren().isEmpty());
+
+        // A target is moved between unrelated branches in both directions
+        testable.getTarget("item2").addTarget(subSubItem0);
+        Assert.assertEquals("/root/item2/subsubitem0", subSubItem0.getPath());
+        Assert.assertTrue(testable.getTarget("item0/subitem0").getChildren().isEmpty());
+
+        testable.getTarget("item4/subitem4").addTarget(testable.getTarget("item2"));
+        Assert.assertEquals("/root/item4/subitem4/item2/subsubitem0", subSubItem0.getPath());
+        item0.addTarget(testable.getTarget("item4"));
+        Assert.assertEquals("/root/item0/item4/subitem4/item2/subsubitem0", subSubItem0.getPath());
+        Assert.assertEquals(TIER_1_CHILD_COUNT - 2, testable.getChildren().size());
+    }
+
     @Test
     public void testNodeTraversing() {
         Assert.assertEquals(TIER_1_CHILD_COUNT / 2, testable.findChildren(t -> t.getName().startsWith(NN_SUBITEM)).size());
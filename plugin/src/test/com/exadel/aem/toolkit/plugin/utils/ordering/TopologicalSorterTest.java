@@ -29,11 +29,11 @@ public class TopologicalSorterTest {
 
     private static final List<String> CYCLED_GRAPH_SEQUENCE_2 = Arrays.asList(
         "Handler0",
-        "Handler6",
-        "Handler5",
         "Handler2",
         "Handler3",
         "Handler4",
+        "Handler5",
+        "Handler6",
         "Handler1");
 
     private static final List<String> CYCLED_GRAPH_SEQUENCE_1 = Arrays.asList(
@@ -44,10 +44,10 @@ public class TopologicalSorterTest {
         "Handler4");
 
     private static final List<String> SIMPLE_CYCLED_GRAPH_SEQUENCE = Arrays.asList(
-        "Handler0",
         "Handler1",
         "Handler2",
-        "Handler3");
+        "Handler3",
+        "Handler0");
 
     private static final List<String> REGULAR_GRAPH_SEQUENCE_1 = Arrays.asList(
         "Handler0",
@@ -112,10 +112,13 @@ public class TopologicalSorterTest {
         list.get(4).getAfter().add(list.get(1));
         list.get(1).getBefore().add(0, list.get(4));
 
-        List<String> answer = getSortedByValues(list);
+        TopologicalSorter<String> sorter = new TopologicalSorter<>(list);
+        List<String> answer = getValues(sorter.topologicalSort());
 
         assertOnlyUniqueValues(answer);
         Assert.assertEquals(CYCLED_GRAPH_SEQUENCE_1, answer);
+        Assert.assertEquals(1, sorter.getCycles().size());
+        Assert.assertEquals(Arrays.asList("Handler1", "Handler2", "Handler3"), getValues(sorter.getCycles().get(0)));
     }
 
     @Test
@@ -143,9 +146,12 @@ public class TopologicalSorterTest {
         list.get(6).getBefore().add(list.get(1));
         list.get(1).getAfter().add(list.get(6));
 
-        List<String> answer = getSortedByValues(list);
+        TopologicalSorter<String> sorter = new TopologicalSorter<>(list);
+        List<String> answer = getValues(sorter.topologicalSort());
 
         Assert.assertEquals(CYCLED_GRAPH_SEQUENCE_2, answer);
+        Assert.assertEquals(1, sorter.getCycles().size());
+        Assert.assertEquals(Arrays.asList("Handler1", "Handler2", "Handler3"), getValues(sorter.getCycles().get(0)));
     }
 
     @Test
@@ -157,9 +163,14 @@ public class TopologicalSorterTest {
         list.get(2).setBefore(Collections.singletonList(list.get(3)));
         list.get(3).setBefore(Collections.singletonList(list.get(0)));
 
-        List<String> answer = getSortedByValues(list);
+        TopologicalSorter<String> sorter = new TopologicalSorter<>(list);
+        List<String> answer = getValues(sorter.topologicalSort());
 
         Assert.assertEquals(SIMPLE_CYCLED_GRAPH_SEQUENCE, answer);
+        Assert.assertEquals(1, sorter.getCycles().size());
+        Assert.assertEquals(
+            Arrays.asList("Handler0", "Handler1", "Handler2", "Handler3"),
+            getValues(sorter.getCycles().get(0)));
     }
 
     @Test
@@ -187,9 +198,26 @@ public class TopologicalSorterTest {
         list.get(9).getBefore().add(list.get(5));
         list.get(5).getAfter().add(list.get(9));
 
-        List<String> answerValues = getSortedByValues(list);
+        TopologicalSorter<String> sorter = new TopologicalSorter<>(list);
+        List<String> answerValues = getValues(sorter.topologicalSort());
 
         Assert.assertEquals(REGULAR_GRAPH_SEQUENCE_2, answerValues);
+        Assert.assertTrue(sorter.getCycles().isEmpty());
+    }
+
+    @Test
+    public void testLongChain() {
+        int size = 100000;
+        List<Orderable<String>> list = getList(size);
+        for (int i = 1; i < size; i++) {
+            list.get(i).getBefore().add(list.get(i - 1));
+            list.get(i - 1).getAfter().add(list.get(i));
+        }
+
+        List<String> answerValues = getSortedByValues(list);
+
+        Assert.assertEquals("Handler" + (size - 1), answerValues.get(0));
+        Assert.assertEquals("Handler0", answerValues.get(size - 1));
     }
 
     // Test graph without edges
@@ -274,7 +302,11 @@ public class TopologicalSorterTest {
     }
 
     private List<String> getSortedByValues(List<Orderable<String>> list) {
-        return getTopologicalSorted(list).stream().map(Orderable::getValue).collect(Collectors.toList());
+        return getValues(getTopologicalSorted(list));
+    }
+
+    private List<String> getValues(List<Orderable<String>> list) {
+        return list.stream().map(Orderable::getValue).collect(Collectors.toList());
     }
 
     private void assertOnlyUniqueValues(List<String> answer) {
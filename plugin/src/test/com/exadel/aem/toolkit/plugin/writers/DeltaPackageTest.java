@@ -0,0 +1,199 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.io.ByteStreams;
+
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+
+public class DeltaPackageTest {
+
+    private static final List<String> SCOPES = Arrays.asList(Scopes.COMPONENT, Scopes.CQ_DIALOG);
+
+    private static final String PROPERTIES_FILE = "META-INF/vault/properties.xml";
+    private static final String FILTER_FILE = "META-INF/vault/filter.xml";
+    private static final String ASSET_FILE = "/clientlibs/js.txt";
+    private static final String HANDWRITTEN_PATH = "handwritten-component";
+
+    private static final String CONTENT = "<jcr:root jcr:primaryType=\"cq:Component\"/>";
+    private static final String MODIFIED_CONTENT = "<jcr:root jcr:primaryType=\"cq:Component\" jcr:title=\"Modified\"/>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldStoreChangedComponents() throws IOException {
+        ComponentSource changed = Sources.fromComponentClass(ComplexComponent1.class);
+        ComponentSource unchanged = Sources.fromComponentClass(OtherComponent.class);
+
+        Map<String, String> baselineEntries = getEntries(changed, unchanged);
+        Map<String, String> currentEntries = getEntries(changed, unchanged);
+        currentEntries.put(changed.getPath() + "/" + Scopes.CQ_DIALOG, MODIFIED_CONTENT);
+        currentEntries.put(changed.getPath() + ASSET_FILE, CONTENT);
+        currentEntries.put(unchanged.getPath() + ASSET_FILE, CONTENT);
+
+        DeltaPackage delta = createDelta(baselineEntries, currentEntries, changed, unchanged);
+        Assert.assertEquals(Collections.singletonList(changed.getPath()), delta.write());
+
+        try (ZipFile zipFile = new ZipFile(delta.getPath().toFile())) {
+            Assert.assertEquals(
+                Arrays.asList(
+                    FILTER_FILE,
+                    PROPERTIES_FILE,
+                    changed.getPath() + "/" + Scopes.COMPONENT,
+                    changed.getPath() + "/" + Scopes.CQ_DIALOG,
+                    changed.getPath() + ASSET_FILE),
+                Collections.list(zipFile.entries()).stream().map(ZipEntry::getName).collect(Collectors.toList()));
+            String filter = new String(read(zipFile, FILTER_FILE), StandardCharsets.UTF_8);
+            Assert.assertTrue(filter.contains("<filter root=\"" + changed.getJcrPath() + "\"/>"));
+            Assert.assertFalse(filter.contains(unchanged.getJcrPath() + "\""));
+
+            Properties properties = new Properties();
+            try (InputStream input = zipFile.getInputStream(zipFile.getEntry(PROPERTIES_FILE))) {
+                properties.loadFromXML(input);
+            }
+            Assert.assertEquals("package-delta", properties.getProperty("name"));
+            Assert.assertEquals("1.0", properties.getProperty("version"));
+        }
+    }
+
+    @Test
+    public void shouldTreatMissingEntriesAsChanged() throws IOException {
+        ComponentSource component = Sources.fromComponentClass(ComplexComponent1.class);
+
+        Map<String, String> baselineEntries = getEntries(component);
+        baselineEntries.remove(component.getPath() + "/" + Scopes.CQ_DIALOG);
+
+        DeltaPackage delta = createDelta(baselineEntries, getEntries(component), component);
+        Assert.assertEquals(Collections.singletonList(component.getPath()), delta.write());
+        Assert.assertTrue(Files.exists(delta.getPath()));
+    }
+
+    @Test
+    public void shouldSkipUnchangedPackage() throws IOException {
+        ComponentSource component = Sources.fromComponentClass(ComplexComponent1.class);
+        DeltaPackage delta = createDelta(getEntries(component), getEntries(component), component);
+        // A delta package left from a previous build is removed
+        Files.write(delta.getPath(), new byte[0]);
+
+        Assert.assertTrue(delta.write().isEmpty());
+        Assert.assertFalse(Files.exists(delta.getPath()));
+    }
+
+    @Test
+    public void shouldStoreRemovedComponents() throws IOException {
+        ComponentSource remaining = Sources.fromComponentClass(ComplexComponent1.class);
+        ComponentSource removed = Sources.fromComponentClass(OtherComponent.class);
+
+        // A removed component is listed in the filter without content, so that its node is deleted upon installation
+        Map<String, String> baselineEntries = getEntries(remaining, removed);
+        baselineEntries.put(HANDWRITTEN_PATH + "/" + Scopes.COMPONENT, CONTENT);
+        Map<String, String> currentEntries = getEntries(remaining);
+        DeltaPackage delta = createDelta(baselineEntries, currentEntries, remaining);
+        Assert.assertEquals(Collections.singletonList(removed.getPath()), delta.write());
+
+        try (ZipFile zipFile = new ZipFile(delta.getPath().toFile())) {
+            Assert.assertEquals(
+                Arrays.asList(FILTER_FILE, PROPERTIES_FILE),
+                Collections.list(zipFile.entries()).stream().map(ZipEntry::getName).collect(Collectors.toList()));
+            String filter = new String(read(zipFile, FILTER_FILE), StandardCharsets.UTF_8);
+            Assert.assertTrue(filter.contains("<filter root=\"" + removed.getJcrPath() + "\"/>"));
+            Assert.assertFalse(filter.contains(remaining.getJcrPath() + "\""));
+            Assert.assertFalse(filter.contains(HANDWRITTEN_PATH));
+        }
+
+        // A component whose folder is still in the package, but without the markup files, is stored with the folder
+        currentEntries.put(removed.getPath() + "/" + Scopes.COMPONENT, CONTENT);
+        delta = createDelta(baselineEntries, currentEntries, remaining);
+        Assert.assertEquals(Collections.singletonList(removed.getPath()), delta.write());
+        try (ZipFile zipFile = new ZipFile(delta.getPath().toFile())) {
+            Assert.assertNotNull(zipFile.getEntry(removed.getPath() + "/" + Scopes.COMPONENT));
+        }
+    }
+
+    private DeltaPackage createDelta(
+        Map<String, String> baselineEntries,
+        Map<String, String> currentEntries,
+        ComponentSource... components) throws IOException {
+
+        Path baselinePath = createPackage("baseline.zip", baselineEntries);
+        Path packagePath = createPackage("package.zip", currentEntries);
+        DeltaPackage result = new DeltaPackage(packagePath, baselinePath, SCOPES, null);
+        Arrays.stream(components).forEach(result::add);
+        return result;
+    }
+
+    private static Map<String, String> getEntries(ComponentSource... components) {
+        Map<String, String> result = new TreeMap<>();
+        result.put(FILTER_FILE, "<workspaceFilter version=\"1.0\"><filter root=\"/apps\"/></workspaceFilter>");
+        result.put(PROPERTIES_FILE, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">"
+            + "<properties><entry key=\"name\">package</entry><entry key=\"version\">1.0</entry></properties>");
+        for (ComponentSource component : components) {
+            for (String scope : SCOPES) {
+                result.put(component.getPath() + "/" + scope, CONTENT);
+            }
+        }
+        return result;
+    }
+
+    private Path createPackage(String name, Map<String, String> entries) throws IOException {
+        Path result = folder.getRoot().toPath().resolve(name);
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(result))) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                output.putNextEntry(new ZipEntry(entry.getKey()));
+                output.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+        }
+        return result;
+    }
+
+    private static byte[] read(ZipFile zipFile, String name) throws IOException {
+        try (InputStream input = zipFile.getInputStream(zipFile.getEntry(name))) {
+            return ByteStreams.toByteArray(input);
+        }
+    }
+
+    @AemComponent(
+        path = "other-component",
+        title = "Other Component"
+    )
+    private static class OtherComponent {
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.plugin.annotations.cases.CustomLegacyDialogAnnotation;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent2;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.custom.CustomDialogHandler;
+import com.exadel.aem.toolkit.plugin.maven.FileSystemRule;
+import com.exadel.aem.toolkit.plugin.maven.TestConstants;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.validators.cases.CustomValidator;
+
+public class FingerprintCacheTest {
+
+    private static final List<String> SCOPES = Arrays.asList(Scopes.COMPONENT, Scopes.CQ_DIALOG);
+
+    @ClassRule
+    public static FileSystemRule fileSystemHost = new FileSystemRule();
+
+    @Rule
+    public TemporaryFolder buildDirectory = new TemporaryFolder();
+
+    @Test
+    public void shouldComputeStableFingerprints() {
+        FingerprintCache cache = FingerprintCache.forBuildDirectory(buildDirectory.getRoot().toPath());
+        ComponentSource component1 = Sources.fromComponentClass(ComplexComponent1.class);
+        ComponentSource component2 = Sources.fromComponentClass(ComplexComponent2.class);
+
+        String fingerprint = cache.getFingerprint(component1);
+        Assert.assertNotNull(fingerprint);
+        Assert.assertEquals(fingerprint, cache.getFingerprint(Sources.fromComponentClass(ComplexComponent1.class)));
+        Assert.assertNotEquals(fingerprint, cache.getFingerprint(component2));
+        Assert.assertNull(FingerprintCache.DISABLED.getFingerprint(component1));
+    }
+
+    @Test
+    public void shouldCoverExtensionClasses() {
+        FingerprintCache cache = FingerprintCache.forBuildDirectory(buildDirectory.getRoot().toPath());
+        Set<String> extensionClasses = cache.getExtensionClasses();
+        Assert.assertTrue(extensionClasses.contains(toInternalName(CustomDialogHandler.class)));
+        Assert.assertTrue(extensionClasses.contains(toInternalName(CustomValidator.class)));
+        Assert.assertTrue(extensionClasses.contains(toInternalName(CustomLegacyDialogAnnotation.class)));
+    }
+
+    @Test
+    public void shouldDetectModifiedEntries() throws IOException {
+        FingerprintCache cache = FingerprintCache.forBuildDirectory(buildDirectory.getRoot().toPath());
+        ComponentSource component = Sources.fromComponentClass(ComplexComponent1.class);
+        Path componentPath = prepareEntries();
+        String fingerprint = cache.getFingerprint(component);
+        Assert.assertFalse(cache.hasEntries(component, componentPath));
+
+        cache.update(component, fingerprint, componentPath, SCOPES);
+        Assert.assertTrue(cache.isUnchanged(component, fingerprint));
+        Assert.assertTrue(cache.hasEntries(component, componentPath));
+
+        Files.write(componentPath.resolve(Scopes.CQ_DIALOG), "<modified/>".getBytes(StandardCharsets.UTF_8));
+        Assert.assertFalse(cache.hasEntries(component, componentPath));
+        Files.delete(componentPath.resolve(Scopes.CQ_DIALOG));
+        Assert.assertFalse(cache.hasEntries(component, componentPath));
+        cleanUp(componentPath);
+    }
+
+    @Test
+    public void shouldPersistFingerprints() throws IOException {
+        FingerprintCache cache = FingerprintCache.forBuildDirectory(buildDirectory.getRoot().toPath());
+        ComponentSource component = Sources.fromComponentClass(ComplexComponent1.class);
+        Path componentPath = prepareEntries();
+        String fingerprint = cache.getFingerprint(component);
+        cache.update(component, fingerprint, componentPath, SCOPES);
+        cache.save();
+
+        FingerprintCache restoredCache = FingerprintCache.forBuildDirectory(buildDirectory.getRoot().toPath());
+        Assert.assertTrue(restoredCache.isUnchanged(component, fingerprint));
+        Assert.assertTrue(restoredCache.hasEntries(component, componentPath));
+        Assert.assertFalse(restoredCache.isUnchanged(Sources.fromComponentClass(ComplexComponent2.class), fingerprint));
+        cleanUp(componentPath);
+    }
+
+    private static String toInternalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static Path prepareEntries() throws IOException {
+        Path result = fileSystemHost.getFileSystem().getPath(TestConstants.PACKAGE_ROOT_PATH, TestConstants.DEFAULT_COMPONENT_NAME);
+        for (String scope : SCOPES) {
+            Files.write(result.resolve(scope), ("<" + scope + "/>").getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private static void cleanUp(Path componentPath) throws IOException {
+        for (String scope : SCOPES) {
+            Files.deleteIfExists(componentPath.resolve(scope));
+        }
+    }
+}
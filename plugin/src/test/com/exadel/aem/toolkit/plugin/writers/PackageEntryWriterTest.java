@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import javax.xml.transform.TransformerConfigurationException;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.exadel.aem.toolkit.api.annotations.meta.ResourceTypes;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.CustomAnnotationsComponent;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.MultiColumnDialog;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.utils.XmlFactory;
+
+public class PackageEntryWriterTest {
+
+    private static final String MARKUP = "<jcr:root jcr:primaryType=\"nt:unstructured\"/>";
+    private static final String MODIFIED_MARKUP = "<jcr:root jcr:primaryType=\"nt:unstructured\" jcr:title=\"Dialog\"/>";
+
+    private static final FileTime PAST_TIME = FileTime.fromMillis(0L);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldSkipUnchangedEntry() throws IOException, TransformerConfigurationException {
+        Path componentPath = folder.getRoot().toPath();
+        Path entryPath = componentPath.resolve(Scopes.CQ_DIALOG);
+        PackageEntryWriter writer = new CqDialogWriter(XmlFactory.newDocumentTransformer(), Scopes.CQ_DIALOG);
+
+        Assert.assertTrue(writer.store(MARKUP, componentPath));
+        Files.setLastModifiedTime(entryPath, PAST_TIME);
+
+        Assert.assertFalse(writer.store(MARKUP, componentPath));
+        Assert.assertEquals(PAST_TIME, Files.getLastModifiedTime(entryPath));
+
+        Assert.assertTrue(writer.store(MODIFIED_MARKUP, componentPath));
+        Assert.assertEquals(MODIFIED_MARKUP, new String(Files.readAllBytes(entryPath), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldReplaceNestedEntry() throws IOException, TransformerConfigurationException {
+        Path componentPath = folder.getRoot().toPath();
+        PackageEntryWriter writer = new CqDialogWriter(XmlFactory.newDocumentTransformer(), Scopes.CQ_DIALOG);
+        Assert.assertTrue(writer.store(MARKUP, componentPath));
+
+        // The markup stored by hand in the _cq_dialog folder makes the entry obsolete
+        Path nestedFolderPath = Files.createDirectory(componentPath.resolve("_cq_dialog"));
+        Files.write(nestedFolderPath.resolve(Scopes.COMPONENT), MARKUP.getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertTrue(writer.store(MARKUP, componentPath));
+        Assert.assertFalse(Files.exists(nestedFolderPath));
+    }
+
+    @Test
+    public void shouldNotShareMarkupOfDomHandlers() throws TransformerConfigurationException {
+        PackageEntryWriter writer = new CqDialogWriter(XmlFactory.newDocumentTransformer(), Scopes.CQ_DIALOG);
+        SharedFragments fragments = new SharedFragments("/apps/project/fragments");
+        writer.setFragments(fragments);
+
+        // The legacy DOM handler of the component looks for the "column" node, therefore the markup is kept in place
+        String markup = writer.render(Sources.fromComponentClass(CustomAnnotationsComponent.class), writer.getTransformer());
+        Assert.assertTrue(markup.contains("<customChild"));
+        Assert.assertFalse(markup.contains(ResourceTypes.INCLUDE));
+        Assert.assertTrue(fragments.getMarkup(Collections.emptySet()).isEmpty());
+
+        markup = writer.render(Sources.fromComponentClass(MultiColumnDialog.class), writer.getTransformer());
+        Assert.assertTrue(fragments.isUsedIn(markup));
+    }
+}
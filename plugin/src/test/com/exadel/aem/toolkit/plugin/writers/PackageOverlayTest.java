@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+
+public class PackageOverlayTest {
+
+    private static final String UNTOUCHED_FILE = "jcr_root/apps/other/.content.xml";
+    private static final String COMPONENT_FOLDER = "jcr_root/apps/component/";
+    private static final String COMPONENT_FILE = COMPONENT_FOLDER + ".content.xml";
+    private static final String DIALOG_FILE = COMPONENT_FOLDER + "_cq_dialog.xml";
+    private static final String NEW_FILE = "jcr_root/apps/created/.content.xml";
+
+    private static final byte[] CONTENT = "<jcr:root jcr:primaryType=\"cq:Component\"/>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MODIFIED_CONTENT = "<jcr:root jcr:primaryType=\"nt:unstructured\"/>".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCopyUntouchedEntries() throws IOException {
+        Path packagePath = folder.getRoot().toPath().resolve("package.zip");
+        byte[] untouchedRecord = createPackage(packagePath);
+
+        PackageOverlay overlay = PackageOverlay.forPackage(packagePath);
+        overlay.fetch("/" + COMPONENT_FOLDER);
+        Assert.assertArrayEquals(CONTENT, Files.readAllBytes(overlay.getFileSystem().getPath(COMPONENT_FILE)));
+        Assert.assertFalse(Files.exists(overlay.getFileSystem().getPath(UNTOUCHED_FILE)));
+        Assert.assertTrue(Files.isDirectory(overlay.getFileSystem().getPath(UNTOUCHED_FILE).getParent()));
+
+        Files.write(overlay.getFileSystem().getPath(COMPONENT_FILE), MODIFIED_CONTENT);
+        Files.delete(overlay.getFileSystem().getPath(DIALOG_FILE));
+        Files.createDirectories(overlay.getFileSystem().getPath(NEW_FILE).getParent());
+        Files.write(overlay.getFileSystem().getPath(NEW_FILE), CONTENT);
+        overlay.commit();
+
+        byte[] packageBytes = Files.readAllBytes(packagePath);
+        Assert.assertEquals(0, Bytes.indexOf(packageBytes, untouchedRecord));
+        Assert.assertFalse(Files.exists(folder.getRoot().toPath().resolve("package.zip.overlay")));
+        try (ZipFile zipFile = new ZipFile(packagePath.toFile())) {
+            Assert.assertEquals(
+                Arrays.asList(UNTOUCHED_FILE, "jcr_root/", COMPONENT_FOLDER, COMPONENT_FILE, "jcr_root/apps/created/", NEW_FILE),
+                getNames(zipFile));
+            Assert.assertArrayEquals(CONTENT, read(zipFile, UNTOUCHED_FILE));
+            Assert.assertArrayEquals(MODIFIED_CONTENT, read(zipFile, COMPONENT_FILE));
+            Assert.assertArrayEquals(CONTENT, read(zipFile, NEW_FILE));
+        }
+    }
+
+    @Test
+    public void shouldKeepEntriesStoredWithSameContent() throws IOException {
+        Path packagePath = folder.getRoot().toPath().resolve("package.zip");
+        createPackage(packagePath);
+        byte[] originalBytes = Files.readAllBytes(packagePath);
+
+        PackageOverlay overlay = PackageOverlay.forPackage(packagePath);
+        overlay.fetch(COMPONENT_FOLDER);
+        Files.delete(overlay.getFileSystem().getPath(COMPONENT_FILE));
+        Files.write(overlay.getFileSystem().getPath(COMPONENT_FILE), CONTENT);
+        overlay.commit();
+
+        Assert.assertArrayEquals(originalBytes, Files.readAllBytes(packagePath));
+    }
+
+    @Test
+    public void shouldReplaceEntriesWithCollidingChecksums() throws IOException {
+        // These values have the same length and the same CRC-32 checksum
+        byte[] originalContent = "plumless".getBytes(StandardCharsets.UTF_8);
+        byte[] collidingContent = "buckeroo".getBytes(StandardCharsets.UTF_8);
+        Path packagePath = folder.getRoot().toPath().resolve("package.zip");
+        try (ZipOutputStream zipOutput = new ZipOutputStream(Files.newOutputStream(packagePath))) {
+            zipOutput.putNextEntry(new ZipEntry(COMPONENT_FILE));
+            zipOutput.write(originalContent);
+            zipOutput.closeEntry();
+        }
+
+        PackageOverlay overlay = PackageOverlay.forPackage(packagePath);
+        overlay.fetch(COMPONENT_FOLDER);
+        Files.write(overlay.getFileSystem().getPath(COMPONENT_FILE), collidingContent);
+        overlay.commit();
+
+        try (ZipFile zipFile = new ZipFile(packagePath.toFile())) {
+            Assert.assertArrayEquals(collidingContent, read(zipFile, COMPONENT_FILE));
+        }
+    }
+
+    @Test
+    public void shouldReadOriginalFilesNotStoredInOverlay() throws IOException {
+        Path packagePath = folder.getRoot().toPath().resolve("package.zip");
+        createPackage(packagePath);
+        String content = new String(CONTENT, StandardCharsets.UTF_8);
+
+        PackageOverlay overlay = PackageOverlay.forPackage(packagePath);
+        Assert.assertEquals(Arrays.asList(content, content), overlay.readOriginalFiles(Collections.singleton(".content.xml")));
+        Assert.assertEquals(Collections.singletonList(content), overlay.readOriginalFiles(Collections.singleton("_cq_dialog.xml")));
+
+        // A file stored anew in the overlay replaces the original one
+        Files.write(overlay.getFileSystem().getPath(DIALOG_FILE), MODIFIED_CONTENT);
+        Assert.assertTrue(overlay.readOriginalFiles(Collections.singleton("_cq_dialog.xml")).isEmpty());
+        overlay.fetch(COMPONENT_FOLDER);
+        Assert.assertEquals(Collections.singletonList(content), overlay.readOriginalFiles(Collections.singleton(".content.xml")));
+        overlay.commit();
+    }
+
+    @Test
+    public void shouldCreateMissingPackage() throws IOException {
+        Path packagePath = folder.getRoot().toPath().resolve("package.zip");
+
+        PackageOverlay overlay = PackageOverlay.forPackage(packagePath);
+        overlay.fetch(COMPONENT_FOLDER);
+        Files.createDirectories(overlay.getFileSystem().getPath(NEW_FILE).getParent());
+        Files.write(overlay.getFileSystem().getPath(NEW_FILE), CONTENT);
+        overlay.commit();
+
+        try (ZipFile zipFile = new ZipFile(packagePath.toFile())) {
+            Assert.assertEquals(Arrays.asList("jcr_root/", "jcr_root/apps/", "jcr_root/apps/created/", NEW_FILE), getNames(zipFile));
+            Assert.assertArrayEquals(CONTENT, read(zipFile, NEW_FILE));
+        }
+    }
+
+    private static byte[] createPackage(Path path) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] firstRecord;
+        try (ZipOutputStream zipOutput = new ZipOutputStream(output)) {
+            // The first entry is written so that its local record occupies the beginning of the file
+            zipOutput.putNextEntry(new ZipEntry(UNTOUCHED_FILE));
+            zipOutput.write(CONTENT);
+            zipOutput.closeEntry();
+            zipOutput.flush();
+            firstRecord = output.toByteArray();
+            zipOutput.putNextEntry(new ZipEntry("jcr_root/"));
+            zipOutput.closeEntry();
+            zipOutput.putNextEntry(new ZipEntry(COMPONENT_FOLDER));
+            zipOutput.closeEntry();
+            for (String name : Arrays.asList(COMPONENT_FILE, DIALOG_FILE)) {
+                zipOutput.putNextEntry(new ZipEntry(name));
+                zipOutput.write(CONTENT);
+                zipOutput.closeEntry();
+            }
+        }
+        Files.write(path, output.toByteArray());
+        return firstRecord;
+    }
+
+    private static List<String> getNames(ZipFile zipFile) {
+        List<String> result = new ArrayList<>();
+        for (ZipEntry entry : Collections.list(zipFile.entries())) {
+            result.add(entry.getName());
+        }
+        return result;
+    }
+
+    private static byte[] read(ZipFile zipFile, String name) throws IOException {
+        try (InputStream input = zipFile.getInputStream(zipFile.getEntry(name))) {
+            return ByteStreams.toByteArray(input);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.jimfs.Jimfs;
+
+import com.exadel.aem.toolkit.api.annotations.main.AemComponent;
+import com.exadel.aem.toolkit.api.annotations.main.WriteMode;
+import com.exadel.aem.toolkit.plugin.exceptions.PluginException;
+import com.exadel.aem.toolkit.plugin.exceptions.ValidationException;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent2;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComponentWithRichTextAndExternalClasses;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComponentWithTabsAsNestedClasses;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.MultiColumnDialog;
+import com.exadel.aem.toolkit.plugin.maven.PluginContextRule;
+import com.exadel.aem.toolkit.plugin.maven.TestConstants;
+import com.exadel.aem.toolkit.plugin.maven.ThrowsPluginException;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.validators.cases.ValidatorTestCases;
+
+public class PackageWriterTest {
+
+    private static final int THREADS = 4;
+
+    @Rule
+    public PluginContextRule pluginContext = new PluginContextRule() {};
+
+    @Rule
+    public TemporaryFolder buildFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        PluginContextRule.initializeContext(THREADS);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        PluginContextRule.initializeContext();
+    }
+
+    @Test
+    public void shouldWriteSameEntriesInParallel() throws IOException {
+        List<ComponentSource> components = getComponents(
+            FirstComponent.class,
+            SecondComponent.class,
+            ThirdComponent.class,
+            FourthComponent.class,
+            FifthComponent.class);
+
+        Map<String, byte[]> sequentialEntries;
+        try (FileSystem fileSystem = Jimfs.newFileSystem()) {
+            PackageWriter writer = PackageWriter.forFileSystem(fileSystem, TestConstants.DEFAULT_PROJECT_NAME);
+            int result = 0;
+            for (ComponentSource component : components) {
+                result += writer.write(component) ? 1 : 0;
+            }
+            Assert.assertEquals(components.size(), result);
+            sequentialEntries = getEntries(fileSystem);
+        }
+
+        // The same sources are rendered again, so that the output must not depend on the previous rendering either
+        Map<String, byte[]> parallelEntries;
+        try (FileSystem fileSystem = Jimfs.newFileSystem()) {
+            PackageWriter writer = PackageWriter.forFileSystem(fileSystem, TestConstants.DEFAULT_PROJECT_NAME);
+            Assert.assertEquals(components.size(), writer.write(components));
+            parallelEntries = getEntries(fileSystem);
+        }
+
+        Assert.assertFalse(sequentialEntries.isEmpty());
+        Assert.assertEquals(sequentialEntries.keySet(), parallelEntries.keySet());
+        for (Map.Entry<String, byte[]> entry : sequentialEntries.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), parallelEntries.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    @ThrowsPluginException
+    public void shouldRethrowWorkerException() throws IOException {
+        List<ComponentSource> components = getComponents(
+            FirstComponent.class,
+            InvalidComponent.class,
+            SecondComponent.class,
+            ThirdComponent.class);
+
+        try (FileSystem fileSystem = Jimfs.newFileSystem()) {
+            PackageWriter writer = PackageWriter.forFileSystem(fileSystem, TestConstants.DEFAULT_PROJECT_NAME);
+            try {
+                writer.write(components);
+                Assert.fail("Exception of type " + PluginException.class.getSimpleName() + " was expected, none thrown");
+            } catch (PluginException e) {
+                Assert.assertTrue(e.getCause() instanceof ValidationException);
+            }
+            // Components preceding the failed one are stored, while the components following it are not
+            Map<String, byte[]> entries = getEntries(fileSystem);
+            Assert.assertTrue(entries.keySet().stream().anyMatch(path -> path.contains("/parallel-first/")));
+            Assert.assertTrue(entries.keySet().stream().noneMatch(path -> path.contains("/parallel-second/")));
+        }
+    }
+
+    @Test
+    @ThrowsPluginException
+    public void shouldNotStoreCachesOfFailedPackage() throws IOException {
+        List<ComponentSource> components = getComponents(FirstComponent.class, InvalidComponent.class);
+        Path buildDirectory = buildFolder.getRoot().toPath();
+
+        try (FileSystem fileSystem = Jimfs.newFileSystem()) {
+            FingerprintCache fingerprints = FingerprintCache.forBuildDirectory(buildDirectory);
+            try (PackageWriter writer = PackageWriter.forFileSystem(fileSystem, TestConstants.DEFAULT_PROJECT_NAME, fingerprints, null)) {
+                writer.write(components);
+                Assert.fail("Exception of type " + PluginException.class.getSimpleName() + " was expected, none thrown");
+            } catch (PluginException e) {
+                Assert.assertTrue(e.getCause() instanceof ValidationException);
+            }
+        }
+        Assert.assertFalse(hasFiles(buildDirectory));
+
+        // The caches of a package that has been written completely are stored
+        try (FileSystem fileSystem = Jimfs.newFileSystem()) {
+            FingerprintCache fingerprints = FingerprintCache.forBuildDirectory(buildDirectory);
+            try (PackageWriter writer = PackageWriter.forFileSystem(fileSystem, TestConstants.DEFAULT_PROJECT_NAME, fingerprints, null)) {
+                writer.write(getComponents(FirstComponent.class));
+            }
+        }
+        Assert.assertTrue(hasFiles(buildDirectory));
+    }
+
+    private static boolean hasFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.anyMatch(Files::isRegularFile);
+        }
+    }
+
+    private static List<ComponentSource> getComponents(Class<?>... components) {
+        return Arrays.stream(components).map(Sources::fromComponentClass).collect(Collectors.toList());
+    }
+
+    private static Map<String, byte[]> getEntries(FileSystem fileSystem) throws IOException {
+        Map<String, byte[]> result = new TreeMap<>();
+        Path root = fileSystem.getPath(TestConstants.PACKAGE_ROOT_PATH).toAbsolutePath();
+        if (!Files.isDirectory(root)) {
+            return result;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                result.put(path.toString(), Files.readAllBytes(path));
+            }
+        }
+        return result;
+    }
+
+    @AemComponent(
+        path = "parallel-first",
+        title = "First Component",
+        writeMode = WriteMode.CREATE,
+        views = ComplexComponent1.class
+    )
+    private static class FirstComponent {
+    }
+
+    @AemComponent(
+        path = "parallel-second",
+        title = "Second Component",
+        writeMode = WriteMode.CREATE,
+        views = ComplexComponent2.class
+    )
+    private static class SecondComponent {
+    }
+
+    @AemComponent(
+        path = "parallel-third",
+        title = "Third Component",
+        writeMode = WriteMode.CREATE,
+        views = MultiColumnDialog.class
+    )
+    private static class ThirdComponent {
+    }
+
+    @AemComponent(
+        path = "parallel-fourth",
+        title = "Fourth Component",
+        writeMode = WriteMode.CREATE,
+        views = ComponentWithTabsAsNestedClasses.class
+    )
+    private static class FourthComponent {
+    }
+
+    @AemComponent(
+        path = "parallel-fifth",
+        title = "Fifth Component",
+        writeMode = WriteMode.CREATE,
+        views = ComponentWithRichTextAndExternalClasses.class
+    )
+    private static class FifthComponent {
+    }
+
+    @AemComponent(
+        path = "parallel-invalid",
+        title = "Invalid Component",
+        writeMode = WriteMode.CREATE,
+        views = ValidatorTestCases.InvalidNumberFieldDialog.class
+    )
+    private static class InvalidComponent {
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent1;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.components.ComplexComponent2;
+import com.exadel.aem.toolkit.plugin.handlers.common.cases.custom.CustomDialogHandler;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.sources.Sources;
+import com.exadel.aem.toolkit.plugin.validators.cases.CustomValidator;
+
+public class PrerenderedEntriesTest {
+
+    private static final List<String> SCOPES = Arrays.asList(Scopes.COMPONENT, Scopes.CQ_DIALOG, Scopes.CQ_EDIT_CONFIG);
+
+    @Rule
+    public TemporaryFolder classesDirectory = new TemporaryFolder();
+
+    @Test
+    public void shouldProvideRecordedMarkup() throws IOException {
+        ComponentSource component = Sources.fromComponentClass(ComplexComponent1.class);
+        record(component);
+
+        Map<String, String> markup = PrerenderedEntries.forReading(getClassLoader()).getMarkup(component);
+        Assert.assertNotNull(markup);
+        // The entry that has not been stored is not listed
+        Assert.assertEquals(Arrays.asList(Scopes.COMPONENT, Scopes.CQ_DIALOG), Arrays.asList(markup.keySet().toArray()));
+        Assert.assertEquals("<" + Scopes.CQ_DIALOG + "/>", markup.get(Scopes.CQ_DIALOG));
+
+        Assert.assertNull(PrerenderedEntries.forReading(getClassLoader()).getMarkup(
+            Sources.fromComponentClass(ComplexComponent2.class)));
+    }
+
+    @Test
+    public void shouldRejectOutdatedMarkup() throws IOException {
+        ComponentSource component = Sources.fromComponentClass(ComplexComponent1.class);
+        record(component);
+
+        Path manifest = classesDirectory.getRoot().toPath().resolve(PrerenderedEntries.ENTRIES_DIRECTORY + ".properties");
+        String content = new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8);
+        Files.write(manifest, content.replaceAll("=\\w+;", "=outdated;").getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertNull(PrerenderedEntries.forReading(getClassLoader()).getMarkup(component));
+    }
+
+    @Test
+    public void shouldCoverExtensionClasses() {
+        Set<String> extensionClasses = PrerenderedEntries.forRecording(classesDirectory.getRoot().toPath()).getExtensionClasses();
+        Assert.assertTrue(extensionClasses.contains(CustomDialogHandler.class.getName().replace('.', '/')));
+        Assert.assertTrue(extensionClasses.contains(CustomValidator.class.getName().replace('.', '/')));
+    }
+
+    @Test
+    public void shouldBeDisabledWithoutManifest() {
+        Assert.assertSame(PrerenderedEntries.DISABLED, PrerenderedEntries.forReading(getClassLoader()));
+        Assert.assertFalse(PrerenderedEntries.DISABLED.isRecording());
+    }
+
+    private void record(ComponentSource component) throws IOException {
+        Path root = classesDirectory.getRoot().toPath();
+        Path componentPath = root.resolve(PrerenderedEntries.ENTRIES_DIRECTORY).resolve(component.getPath());
+        Files.createDirectories(componentPath);
+        for (String scope : SCOPES.subList(0, 2)) {
+            Files.write(componentPath.resolve(scope), ("<" + scope + "/>").getBytes(StandardCharsets.UTF_8));
+        }
+        PrerenderedEntries recorder = PrerenderedEntries.forRecording(root);
+        Assert.assertTrue(recorder.isRecording());
+        recorder.record(component, componentPath, SCOPES);
+        recorder.save();
+    }
+
+    private ClassLoader getClassLoader() {
+        try {
+            return new URLClassLoader(new URL[] {classesDirectory.getRoot().toURI().toURL()}, null);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.io.ByteStreams;
+
+public class RawZipArchiveTest {
+
+    private static final String COMPONENT_FILE = "jcr_root/apps/component/.content.xml";
+    private static final String DIALOG_FILE = "jcr_root/apps/component/_cq_dialog.xml";
+    private static final String PROPERTIES_FILE = "META-INF/vault/properties.xml";
+
+    private static final byte[] CONTENT = "<jcr:root jcr:primaryType=\"cq:Component\"/>".getBytes(StandardCharsets.UTF_8);
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-17T10:20:30Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldProduceIdenticalArchives() throws IOException {
+        Path first = createArchive("first.zip", Arrays.asList(COMPONENT_FILE, PROPERTIES_FILE, DIALOG_FILE), 0L);
+        Path second = createArchive("second.zip", Arrays.asList(DIALOG_FILE, COMPONENT_FILE, PROPERTIES_FILE), 86_400_000L);
+        Assert.assertFalse(Arrays.equals(Files.readAllBytes(first), Files.readAllBytes(second)));
+
+        RawZipArchive.normalize(first, TIMESTAMP);
+        RawZipArchive.normalize(second, TIMESTAMP);
+        Assert.assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        Assert.assertFalse(Files.exists(folder.getRoot().toPath().resolve("first.zip.tmp")));
+
+        // Normalizing is idempotent
+        byte[] normalized = Files.readAllBytes(first);
+        RawZipArchive.normalize(first, TIMESTAMP);
+        Assert.assertArrayEquals(normalized, Files.readAllBytes(first));
+
+        try (ZipFile zipFile = new ZipFile(first.toFile())) {
+            List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            Assert.assertEquals(
+                Arrays.asList(PROPERTIES_FILE, COMPONENT_FILE, DIALOG_FILE),
+                entries.stream().map(ZipEntry::getName).collect(Collectors.toList()));
+            for (ZipEntry entry : entries) {
+                Assert.assertNull(entry.getExtra());
+                // The MS-DOS time of an entry is read in the default time zone
+                Assert.assertEquals(
+                    LocalDateTime.ofInstant(TIMESTAMP, ZoneOffset.UTC),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getTime()), ZoneId.systemDefault()));
+                try (InputStream input = zipFile.getInputStream(entry)) {
+                    Assert.assertArrayEquals(CONTENT, ByteStreams.toByteArray(input));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadEntryData() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.zip");
+        byte[] largeContent = String.join("\n", Collections.nCopies(1000, new String(CONTENT, StandardCharsets.UTF_8)))
+            .getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(CONTENT);
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(path))) {
+            ZipEntry storedEntry = new ZipEntry(COMPONENT_FILE);
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(CONTENT.length);
+            storedEntry.setCrc(crc.getValue());
+            output.putNextEntry(storedEntry);
+            output.write(CONTENT);
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry(DIALOG_FILE));
+            output.write(largeContent);
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry(PROPERTIES_FILE));
+            output.closeEntry();
+        }
+        try (RawZipArchive archive = RawZipArchive.open(path)) {
+            Assert.assertArrayEquals(CONTENT, archive.readData(archive.getEntry(COMPONENT_FILE)));
+            Assert.assertArrayEquals(largeContent, archive.readData(archive.getEntry(DIALOG_FILE)));
+            Assert.assertEquals(0, archive.readData(archive.getEntry(PROPERTIES_FILE)).length);
+        }
+    }
+
+    private Path createArchive(String name, List<String> entryNames, long timeShift) throws IOException {
+        Path result = folder.getRoot().toPath().resolve(name);
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(result))) {
+            for (String entryName : entryNames) {
+                ZipEntry entry = new ZipEntry(entryName);
+                entry.setTime(System.currentTimeMillis() - timeShift);
+                entry.setComment(name);
+                output.putNextEntry(entry);
+                output.write(CONTENT);
+                output.closeEntry();
+            }
+        }
+        return result;
+    }
+}
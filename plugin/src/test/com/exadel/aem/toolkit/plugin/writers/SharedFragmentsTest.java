@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exadel.aem.toolkit.api.annotations.meta.ResourceTypes;
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.handlers.Target;
+import com.exadel.aem.toolkit.plugin.adapters.XmlStreamAdapter;
+import com.exadel.aem.toolkit.plugin.targets.Targets;
+import com.exadel.aem.toolkit.plugin.utils.DialogConstants;
+
+public class SharedFragmentsTest {
+
+    private static final String FRAGMENTS_PATH = "/apps/project/fragments";
+
+    @Test
+    public void shouldShareIdenticalSubtrees() {
+        SharedFragments fragments = new SharedFragments(FRAGMENTS_PATH);
+        Target first = createDialog("First tab");
+        Target second = createDialog("Second tab");
+        fragments.extract(first);
+        fragments.extract(second);
+
+        Map<String, String> markup = fragments.getMarkup(Collections.emptySet());
+        Assert.assertEquals(1, markup.size());
+        String fragmentName = markup.keySet().iterator().next();
+        Assert.assertTrue(markup.get(fragmentName).contains("name=\"./text\""));
+
+        for (Target dialog : new Target[] {first, second}) {
+            Target tab = dialog.getTarget("content/items/tabs/items/tab");
+            // Tabs are kept in place because the tabs container reads their titles
+            Assert.assertEquals(ResourceTypes.CONTAINER, tab.getAttribute(DialogConstants.PN_SLING_RESOURCE_TYPE));
+            Target include = tab.getTarget("items/fieldset");
+            Assert.assertEquals(ResourceTypes.INCLUDE, include.getAttribute(DialogConstants.PN_SLING_RESOURCE_TYPE));
+            Assert.assertEquals(FRAGMENTS_PATH + "/" + fragmentName, include.getAttribute("path"));
+            Assert.assertTrue(include.getChildren().isEmpty());
+            // Small subtrees are kept in place
+            Assert.assertEquals(
+                ResourceTypes.TEXTFIELD,
+                tab.getTarget("items/title").getAttribute(DialogConstants.PN_SLING_RESOURCE_TYPE));
+        }
+    }
+
+    @Test
+    public void shouldKeepHostAttributesOnInclude() {
+        SharedFragments fragments = new SharedFragments(FRAGMENTS_PATH);
+        Target first = createDialog("Tab");
+        first.getTarget("content/items/tabs/items/tab/items/fieldset")
+            .attribute("sling:orderBefore", "title")
+            .attribute("sling:hideResource", true);
+        Target second = createDialog("Tab");
+        fragments.extract(first);
+        fragments.extract(second);
+
+        // The attributes that address the node within the host dialog do not make the fragments differ
+        Map<String, String> markup = fragments.getMarkup(Collections.emptySet());
+        Assert.assertEquals(1, markup.size());
+        String fragmentMarkup = markup.values().iterator().next();
+        Assert.assertFalse(fragmentMarkup.contains("sling:orderBefore"));
+        Assert.assertFalse(fragmentMarkup.contains("sling:hideResource"));
+
+        Target include = first.getTarget("content/items/tabs/items/tab/items/fieldset");
+        Assert.assertEquals(ResourceTypes.INCLUDE, include.getAttribute(DialogConstants.PN_SLING_RESOURCE_TYPE));
+        Assert.assertEquals("title", include.getAttribute("sling:orderBefore"));
+        Assert.assertEquals("{Boolean}true", include.getAttribute("sling:hideResource"));
+        Assert.assertNull(second.getTarget("content/items/tabs/items/tab/items/fieldset").getAttribute("sling:orderBefore"));
+    }
+
+    @Test
+    public void shouldCollectReferencedNames() throws IOException {
+        SharedFragments fragments = new SharedFragments(FRAGMENTS_PATH);
+        Target first = createDialog("First tab");
+        Target second = createDialog("Second tab");
+        fragments.extract(first);
+        fragments.extract(second);
+
+        String name = fragments.getMarkup(Collections.emptySet()).keySet().iterator().next();
+        Assert.assertEquals(Collections.singleton(name), fragments.getReferencedNames(serialize(first)));
+        Assert.assertTrue(fragments.getReferencedNames(serialize(createDialog("Tab"))).isEmpty());
+        Assert.assertTrue(SharedFragments.DISABLED.getReferencedNames(serialize(first)).isEmpty());
+    }
+
+    @Test
+    public void shouldSkipOtherScopes() {
+        SharedFragments fragments = new SharedFragments(FRAGMENTS_PATH);
+        Target dialog = createDialog("Tab");
+        Target editConfig = Targets.newRoot(Scopes.CQ_EDIT_CONFIG);
+        editConfig.addTarget(dialog.getTarget("content"));
+        fragments.extract(editConfig);
+        Assert.assertTrue(fragments.getMarkup(Collections.emptySet()).isEmpty());
+
+        SharedFragments.DISABLED.extract(createDialog("Tab"));
+        Assert.assertTrue(SharedFragments.DISABLED.getMarkup(Collections.emptySet()).isEmpty());
+    }
+
+    @Test
+    public void shouldInlineSingleUseSubtrees() throws IOException {
+        SharedFragments fragments = new SharedFragments(FRAGMENTS_PATH);
+        Target shared = createDialog("Tab");
+        Target unique = createDialog("Tab");
+        unique.getTarget("content/items/tabs/items/tab/items/fieldset/items/text").attribute("name", "./unique");
+        String expectedMarkup = serialize(unique);
+
+        fragments.extract(shared);
+        fragments.extract(createDialog("Tab"));
+        fragments.extract(unique);
+        String markup = serialize(unique);
+        Assert.assertTrue(fragments.isUsedIn(markup));
+        Assert.assertFalse(fragments.isUsedIn(expectedMarkup));
+
+        // Only the subtree used twice is stored as a fragment
+        Map<String, String> fragmentMarkup = fragments.getMarkup(Collections.emptySet());
+        Assert.assertEquals(1, fragmentMarkup.size());
+        Assert.assertFalse(fragmentMarkup.values().iterator().next().contains("./unique"));
+
+        // The subtree used once is put back in place, so that the markup is the same as without fragments
+        Assert.assertEquals(expectedMarkup, fragments.inline(markup, Collections.emptySet()));
+        String sharedMarkup = serialize(shared);
+        Assert.assertEquals(sharedMarkup, fragments.inline(sharedMarkup, Collections.emptySet()));
+
+        // A fragment already stored in the package is kept, since other components may refer to it
+        String uniqueName = StringUtils.substringAfterLast(
+            unique.getTarget("content/items/tabs/items/tab/items/fieldset").getAttribute("path"),
+            "/");
+        Assert.assertEquals(markup, fragments.inline(markup, Collections.singleton(uniqueName)));
+        Assert.assertEquals(2, fragments.getMarkup(Collections.singleton(uniqueName)).size());
+    }
+
+    private static String serialize(Target target) throws IOException {
+        StringWriter writer = new StringWriter();
+        target.adaptTo(XmlStreamAdapter.class).writeDocument(writer);
+        return writer.toString();
+    }
+
+    private static Target createDialog(String tabTitle) {
+        Target result = Targets.newRoot(Scopes.CQ_DIALOG);
+        Target tab = result
+            .getOrCreateTarget("content")
+            .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.CONTAINER)
+            .getOrCreateTarget("items/tabs")
+            .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.TABS)
+            .getOrCreateTarget("items/tab")
+            .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.CONTAINER)
+            .attribute(DialogConstants.PN_JCR_TITLE, tabTitle);
+        tab.getOrCreateTarget("items/title")
+            .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.TEXTFIELD)
+            .attribute("name", "./title");
+        Target fieldset = tab.getOrCreateTarget("items/fieldset")
+            .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.FIELDSET);
+        for (String name : new String[] {"text", "description", "link", "image"}) {
+            fieldset.getOrCreateTarget("items/" + name)
+                .attribute(DialogConstants.PN_SLING_RESOURCE_TYPE, ResourceTypes.TEXTFIELD)
+                .attribute("name", "./" + name);
+        }
+        return result;
+    }
+}
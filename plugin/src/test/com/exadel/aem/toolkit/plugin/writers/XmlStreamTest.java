@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exadel.aem.toolkit.plugin.writers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.exadel.aem.toolkit.api.annotations.meta.Scopes;
+import com.exadel.aem.toolkit.api.handlers.Target;
+import com.exadel.aem.toolkit.plugin.adapters.DomAdapter;
+import com.exadel.aem.toolkit.plugin.adapters.XmlStreamAdapter;
+import com.exadel.aem.toolkit.plugin.maven.PluginRuntime;
+import com.exadel.aem.toolkit.plugin.sources.ComponentSource;
+import com.exadel.aem.toolkit.plugin.targets.Targets;
+import com.exadel.aem.toolkit.plugin.utils.XmlFactory;
+
+public class XmlStreamTest {
+
+    private static final String SPECIAL_CHARACTERS = "a&b<c>\"d'e\n\tf\r\u0001\u0085 é😀";
+
+    @Test
+    public void shouldRenderComponentsAsDom() throws Exception {
+        Transformer transformer = XmlFactory.newDocumentTransformer();
+        List<PackageEntryWriter> writers = Arrays.asList(
+            new ContentXmlWriter(transformer),
+            new CqDialogWriter(transformer, Scopes.CQ_DIALOG),
+            new CqDialogWriter(transformer, Scopes.CQ_DESIGN_DIALOG),
+            new CqEditConfigWriter(transformer),
+            new CqChildEditConfigWriter(transformer),
+            new CqHtmlTagWriter(transformer));
+        for (ComponentSource component : PluginRuntime.context().getReflection().getComponents(null)) {
+            for (PackageEntryWriter writer : writers) {
+                if (!writer.canProcess(component)) {
+                    continue;
+                }
+                Target target = Targets.newRoot(writer.getScope());
+                try {
+                    writer.getHandlers().accept(component, target);
+                } catch (RuntimeException e) {
+                    // Some of the test cases are intentionally invalid
+                    continue;
+                }
+                Assert.assertEquals(
+                    component.adaptTo(Class.class).getName() + " " + writer.getScope(),
+                    renderAsDom(target, transformer),
+                    renderAsStream(target));
+            }
+        }
+    }
+
+    @Test
+    public void shouldEscapeAttributes() throws Exception {
+        Target target = Targets.newRoot(Scopes.CQ_DIALOG);
+        target.attribute("value", SPECIAL_CHARACTERS);
+        target.attribute("xmlns:custom", "http://custom");
+        target
+            .getOrCreateTarget("nested")
+            .attribute(XmlFactory.XML_NAMESPACE_PREFIX + "jcr", XmlFactory.XML_NAMESPACES.get("jcr"))
+            .attribute("xmlns:custom", "http://another")
+            .getOrCreateTarget("nested")
+            .attribute("xmlns:custom", "http://another");
+        target.getOrCreateTarget("empty");
+        Assert.assertEquals(renderAsDom(target, XmlFactory.newDocumentTransformer()), renderAsStream(target));
+    }
+
+    private static String renderAsDom(Target target, Transformer transformer) throws ParserConfigurationException, TransformerException {
+        Document document = target.adaptTo(DomAdapter.class).composeDocument(XmlFactory.newDocument());
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        return writer.toString();
+    }
+
+    private static String renderAsStream(Target target) throws IOException {
+        StringWriter writer = new StringWriter();
+        target.adaptTo(XmlStreamAdapter.class).writeDocument(writer);
+        return writer.toString();
+    }
+}